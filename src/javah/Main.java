@@ -4,6 +4,8 @@ import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import javah.controller.MainControl;
+import javah.util.IOExecutors;
 
 import java.io.File;
 
@@ -26,7 +28,8 @@ public class Main extends Application {
         primaryStage.show();
 
         // Terminate the application when the x button is pressed.
-        primaryStage.setOnCloseRequest(event -> System.exit(0));
+        MainControl mainControl = mainFxmlLoader.getController();
+        primaryStage.setOnCloseRequest(event -> mainControl.exit());
     }
 
     /**
@@ -61,6 +64,10 @@ public class Main extends Application {
         if(!signatureDirectory.exists())
             signatureDirectory.mkdir();
 
+        // Run the blocking work on virtual threads when asked to at startup.
+        for (String arg : args)
+            if (arg.equals("--virtual-threads"))
+                System.setProperty(IOExecutors.PROPERTY_VIRTUAL_THREADS, "true");
 
         launch(args);
     }
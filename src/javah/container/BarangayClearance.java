@@ -90,6 +90,40 @@ public class BarangayClearance {
      */
     private String[] mKagawadNames = new String[7];
 
+    public BarangayClearance() {
+    }
+
+    /**
+     * Create a copy of the barangay clearance, which can be edited without
+     * changing the original.
+     * @param barangayClearance
+     *        The barangay clearance to be copied.
+     */
+    public BarangayClearance(BarangayClearance barangayClearance) {
+        mID = barangayClearance.mID;
+        mResidentID = barangayClearance.mResidentID;
+        mResidentName = barangayClearance.mResidentName;
+        mAddress = barangayClearance.mAddress;
+        mYearOfResidency = barangayClearance.mYearOfResidency;
+        mTotalYearsResidency = barangayClearance.mTotalYearsResidency;
+        mPurpose = barangayClearance.mPurpose;
+        mDateIssued = barangayClearance.mDateIssued == null ?
+                null : (Timestamp) barangayClearance.mDateIssued.clone();
+        mDateValid = barangayClearance.mDateValid == null ?
+                null : (Timestamp) barangayClearance.mDateValid.clone();
+        mChmName = barangayClearance.mChmName;
+        mChmPhoto = barangayClearance.mChmPhoto;
+        mChmSignature = barangayClearance.mChmSignature;
+        mSecName = barangayClearance.mSecName;
+        mSecSignature = barangayClearance.mSecSignature;
+        mTreasurerName = barangayClearance.mTreasurerName;
+        mChmSignatureDimension = barangayClearance.mChmSignatureDimension == null ?
+                null : barangayClearance.mChmSignatureDimension.clone();
+        mSecSignatureDimension = barangayClearance.mSecSignatureDimension == null ?
+                null : barangayClearance.mSecSignatureDimension.clone();
+        mKagawadNames = barangayClearance.mKagawadNames.clone();
+    }
+
     /**
      * Sets the ID of this barangay clearance.
      * @param id
@@ -21,6 +21,33 @@ public class BarangayID {
     private double[] mResidentSignatureDimension;
     private double[] mChmSignatureDimension;
 
+    public BarangayID() {
+    }
+
+    /**
+     * Create a copy of the barangay ID, which can be edited without changing the
+     * original.
+     *
+     * @param barangayID
+     *        The barangay ID to be copied.
+     */
+    public BarangayID(BarangayID barangayID) {
+        mID = barangayID.mID;
+        mResidentID = barangayID.mResidentID;
+        mResidentName = barangayID.mResidentName;
+        mAddress = barangayID.mAddress;
+        mPhoto = barangayID.mPhoto;
+        mResidentSignature = barangayID.mResidentSignature;
+        mChmName = barangayID.mChmName;
+        mChmSignature = barangayID.mChmSignature;
+        mDateIssued = barangayID.mDateIssued == null ? null : (Timestamp) barangayID.mDateIssued.clone();
+        mDateValid = barangayID.mDateValid == null ? null : (Timestamp) barangayID.mDateValid.clone();
+        mResidentSignatureDimension = barangayID.mResidentSignatureDimension == null ?
+                null : barangayID.mResidentSignatureDimension.clone();
+        mChmSignatureDimension = barangayID.mChmSignatureDimension == null ?
+                null : barangayID.mChmSignatureDimension.clone();
+    }
+
     public String getID() {
         return mID;
     }
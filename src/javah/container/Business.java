@@ -27,6 +27,31 @@ public class Business {
      */
     private String[][] mOwners = new String[5][4];
 
+    public Business() {
+    }
+
+    /**
+     * Create a copy of the business, which can be edited without changing the
+     * original.
+     *
+     * @param business
+     *        The business to be copied.
+     */
+    public Business(Business business) {
+        mID = business.mID;
+        mName = business.mName;
+        mType = business.mType;
+        mAddress = business.mAddress;
+
+        if (business.mOwners == null)
+            mOwners = null;
+        else {
+            mOwners = new String[business.mOwners.length][];
+            for (int i = 0; i < mOwners.length; i++)
+                mOwners[i] = business.mOwners[i] == null ? null : business.mOwners[i].clone();
+        }
+    }
+
     /**
      * Get the ID of this business.
      *
@@ -84,6 +84,38 @@ public class BusinessClearance {
      */
     private double[] mSecSignatureDim;
 
+    public BusinessClearance() {
+    }
+
+    /**
+     * Create a copy of the business clearance, which can be edited without
+     * changing the original.
+     *
+     * @param businessClearance
+     *        The business clearance to be copied.
+     */
+    public BusinessClearance(BusinessClearance businessClearance) {
+        mID = businessClearance.mID;
+        mClient = businessClearance.mClient;
+        mOwners = businessClearance.mOwners;
+        mBusinessID = businessClearance.mBusinessID;
+        mBusinessName = businessClearance.mBusinessName;
+        mBusinessType = businessClearance.mBusinessType;
+        mBusinessAddress = businessClearance.mBusinessAddress;
+        mDateIssued = businessClearance.mDateIssued == null ?
+                null : (Timestamp) businessClearance.mDateIssued.clone();
+        mDateValid = businessClearance.mDateValid == null ?
+                null : (Timestamp) businessClearance.mDateValid.clone();
+        mChmName = businessClearance.mChmName;
+        mChmSignature = businessClearance.mChmSignature;
+        mChmSignatureDim = businessClearance.mChmSignatureDim == null ?
+                null : businessClearance.mChmSignatureDim.clone();
+        mSecName = businessClearance.mSecName;
+        mSecSignature = businessClearance.mSecSignature;
+        mSecSignatureDim = businessClearance.mSecSignatureDim == null ?
+                null : businessClearance.mSecSignatureDim.clone();
+    }
+
     /**
      * Set the ID of this business clearance.
      *
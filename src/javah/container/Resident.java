@@ -12,6 +12,30 @@ public class Resident {
     private String mAddress1, mAddress2;
     private Date mBirthDate;
 
+    public Resident() {
+    }
+
+    /**
+     * Create a copy of the resident, which can be edited without changing the
+     * original.
+     *
+     * @param resident
+     *        The resident to be copied.
+     */
+    public Resident(Resident resident) {
+        mResidentId = resident.mResidentId;
+        mFirstName = resident.mFirstName;
+        mLastName = resident.mLastName;
+        mMiddleName = resident.mMiddleName;
+        mAuxiliary = resident.mAuxiliary;
+        mPhotoPath = resident.mPhotoPath;
+        mYearOfResidency = resident.mYearOfResidency;
+        mMonthOfResidency = resident.mMonthOfResidency;
+        mAddress1 = resident.mAddress1;
+        mAddress2 = resident.mAddress2;
+        mBirthDate = resident.mBirthDate == null ? null : (Date) resident.mBirthDate.clone();
+    }
+
     public void setId(String id) {
         mResidentId = id;
     }
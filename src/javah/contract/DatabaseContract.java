@@ -137,4 +137,21 @@ public class DatabaseContract {
         public static final String COLUMN_SECRETARY_SIGNATURE = "secretary_signature";
         public static final String COLUMN_SECRETARY_SIGNATURE_DIMENSION = "sec_sign_dim";
     }
+
+    public static class IdSequenceEntry {
+        public static final String TABLE_NAME = "BarangayDB.Id_sequence";
+
+        public static final String COLUMN_TABLE_NAME = "table_name";
+        public static final String COLUMN_YEAR = "year";
+        public static final String COLUMN_LAST_VALUE = "last_value";
+    }
+
+    public static class ChangeLogEntry {
+        public static final String TABLE_NAME = "BarangayDB.Change_log";
+
+        public static final String COLUMN_VERSION = "version";
+        public static final String COLUMN_TABLE_NAME = "table_name";
+        public static final String COLUMN_RECORD_ID = "record_id";
+        public static final String COLUMN_CHANGED_AT = "changed_at";
+    }
 }
@@ -15,6 +15,12 @@ public class PreferenceContract {
     public static final String LAST_LOGIN = "last_login";
     public static final String LAST_PASSWORD_UPDATE = "last_password_update";
 
+    /**
+     * The number of years of reports kept in the cache, where the older reports are
+     * loaded on demand. The value 0 keeps every report in the cache.
+     */
+    public static final String CACHE_HISTORY_YEARS = "cache_history_years";
+
     /**
      * A key to make sure that the barangay agents are initialized during the first
      * installation of the application. The value can either be 0 or 1, where 0
@@ -1,5 +1,6 @@
 package javah.controller;
 
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.embed.swing.SwingFXUtils;
@@ -17,6 +18,7 @@ import javah.contract.CSSContract;
 import javah.model.PreferenceModel;
 import javah.contract.PreferenceContract;
 import javah.util.BarangayUtils;
+import javah.util.IOExecutors;
 import javah.util.NodeNameHandler;
 
 import javax.imageio.ImageIO;
@@ -25,7 +27,10 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
@@ -211,6 +216,13 @@ public class BarangayAgentControl {
      */
     private WritableImage mSecSignature;
 
+    /**
+     * The writes of the images of the data being saved, or null if no save waits for
+     * its images. The scene is disabled meanwhile, and the save is dropped if the scene
+     * is cancelled or closed before the images are written.
+     */
+    private CompletableFuture<Void> mPendingSave;
+
     /**
      * A listener that listens to this controller for any action events that needs to
      * be handled outside of this controller.
@@ -256,7 +268,11 @@ public class BarangayAgentControl {
         // Add listener to the root pane visibility properties. If the root pane is set
         // to visible, then resetScene the data.
         mRootPane.visibleProperty().addListener((observable, oldValue, newValue) -> {
-
+            // Drop the save still waiting for its images, since the scene was closed.
+            if (mPendingSave != null) {
+                mPendingSave = null;
+                mRootPane.setDisable(false);
+            }
 
             if (newValue) {
                 // Reset chairman data.
@@ -541,8 +557,14 @@ public class BarangayAgentControl {
                         name == null ? null : name[3]);
             }
 
+            // The images being written on the I/O threads, by the preferences where their
+            // paths are stored. Each write results in the path of the image, or null if the
+            // image could not be written.
+            Map<String, CompletableFuture<String>> imageWrites = new LinkedHashMap<>();
+
             /**
-             * Create image and store its path to the corresponding preference.
+             * Create image on an I/O thread and store its path to the corresponding
+             * preference once created.
              *
              * @param prefKey
              *        The preference where the path is stored.
@@ -550,30 +572,33 @@ public class BarangayAgentControl {
              *        The image to be created. Either a display photo or a signature.
              */
             BiConsumer<String, WritableImage> writeImage = (prefKey, image) -> {
-                try {
-                    // Save the image in the appropriate directory with a unique uuid name.
-                    String targetImage = null;
-                    switch (prefKey) {
-                        case PreferenceContract.CHAIRMAN_PHOTO_PATH :
-                            targetImage = Main.PHOTO_DIR_PATH + "/" + UUID.randomUUID() + ".png";
-                            break;
-                        default:
-                            targetImage = Main.SIGNATURE_DIR_PATH + "/" + UUID.randomUUID() + ".png";
-                    }
-
-                    File file = new File(targetImage);
-                    RenderedImage renderedImage = SwingFXUtils.fromFXImage(image, null);
-
-                    ImageIO.write(
-                            renderedImage,
-                            "png",
-                            file);
-
-                    // Save the photo of the chairman.
-                    mPreferences.put(prefKey, targetImage);
-                } catch (IOException e) {
-                    e.printStackTrace();
+                // Save the image in the appropriate directory with a unique uuid name.
+                String targetImage = null;
+                switch (prefKey) {
+                    case PreferenceContract.CHAIRMAN_PHOTO_PATH :
+                        targetImage = Main.PHOTO_DIR_PATH + "/" + UUID.randomUUID() + ".png";
+                        break;
+                    default:
+                        targetImage = Main.SIGNATURE_DIR_PATH + "/" + UUID.randomUUID() + ".png";
                 }
+
+                String imagePath = targetImage;
+                File file = new File(targetImage);
+                RenderedImage renderedImage = SwingFXUtils.fromFXImage(image, null);
+
+                imageWrites.put(prefKey, IOExecutors.supplyFileTask(() -> {
+                    try {
+                        ImageIO.write(
+                                renderedImage,
+                                "png",
+                                file);
+
+                        return imagePath;
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        return null;
+                    }
+                }));
             };
 
             // Create the images.
@@ -602,8 +627,38 @@ public class BarangayAgentControl {
                 mSecSignature = null;
             }
 
-            mListener.onFinished();
-            mPreferences.save(true);
+            // Disable the scene until the images are written, so that the data is not
+            // saved twice.
+            mRootPane.setDisable(true);
+
+            CompletableFuture<Void> pendingSave = CompletableFuture.allOf(
+                    imageWrites.values().toArray(new CompletableFuture<?>[imageWrites.size()]));
+            mPendingSave = pendingSave;
+
+            // Finish once every image is created, since the reports display them.
+            pendingSave.whenCompleteAsync((result, exception) -> {
+                // The scene was cancelled or closed meanwhile.
+                if (mPendingSave != pendingSave)
+                    return;
+
+                mPendingSave = null;
+                mRootPane.setDisable(false);
+
+                // Save the paths of the images written. An image rejected by the file
+                // executor is left as it was, like an image that could not be written.
+                for (Map.Entry<String, CompletableFuture<String>> imageWrite : imageWrites.entrySet()) {
+                    String imagePath = imageWrite.getValue().exceptionally(writeException -> {
+                        writeException.printStackTrace();
+                        return null;
+                    }).join();
+
+                    if (imagePath != null)
+                        mPreferences.put(imageWrite.getKey(), imagePath);
+                }
+
+                mListener.onFinished();
+                mPreferences.save(true);
+            }, Platform::runLater);
         }
     }
 
@@ -615,6 +670,7 @@ public class BarangayAgentControl {
      */
     @FXML
     public void onCancelButtonClicked(ActionEvent actionEvent) {
+        mPendingSave = null;
         mListener.onFinished();
     }
 
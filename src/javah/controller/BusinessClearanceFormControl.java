@@ -16,10 +16,12 @@ import javah.container.Business;
 import javah.container.BusinessClearance;
 import javah.contract.CSSContract;
 import javah.contract.DatabaseContract;
+import javah.model.AsyncDatabaseModel;
 import javah.model.CacheModel;
 import javah.model.DatabaseModel;
 import javah.util.BarangayUtils;
 import javah.util.NodeNameHandler;
+import javah.util.SearchDebouncer;
 
 import java.util.List;
 import java.util.function.BooleanSupplier;
@@ -146,6 +148,15 @@ public class BusinessClearanceFormControl {
      */
     private DatabaseModel mDatabaseModel;
 
+    /**
+     * A reference to the universal asynchronous database model. Used to load the
+     * business selected without blocking the user interface thread.
+     */
+    private AsyncDatabaseModel mAsyncDatabaseModel;
+
+    /* The channel of the selected business loads, cancelling the stale ones. */
+    private static final String CHANNEL_BUSINESS_SELECTION = "business-selection";
+
     /**
      * The labels in the business grid pane.
      * Takes hold of the business with respect to the mCurrentPage.
@@ -186,8 +197,8 @@ public class BusinessClearanceFormControl {
      */
     private List<String> mBusinessIDs;
 
-    /* A reference to the business names cache. */
-    private List<String> mBusinessNames;
+    /* Searches as the user types within the search field. */
+    private SearchDebouncer mSearchDebouncer;
 
     /* determines what the current state of this form is. */
     private byte mState;
@@ -211,6 +222,7 @@ public class BusinessClearanceFormControl {
     @FXML
     private void initialize() {
         BarangayUtils.addTextLimitListener(mSearchField, 100);
+        mSearchDebouncer = new SearchDebouncer(mSearchField, this::search);
 
         mNodeNameHandler = new NodeNameHandler(mExtraOwnerBox, 4, NodeNameHandler.OPERATION_ZERO_TO_MANY);
 
@@ -282,6 +294,18 @@ public class BusinessClearanceFormControl {
      */
     @FXML
     public void onSearchButtonClicked(Event event) {
+        mSearchDebouncer.cancel();
+        search();
+        mCurrentPageLabel.requestFocus();
+    }
+
+    /**
+     * Filter the list paging with the text of the search field. Also called as the user
+     * types, after a short delay.
+     *
+     * @see SearchDebouncer
+     */
+    private void search() {
         String keywords = mSearchField.getText().trim();
 
         if (keywords == null || keywords.isEmpty())
@@ -289,12 +313,10 @@ public class BusinessClearanceFormControl {
         else {
             String[] keywordsArray = keywords.split(" ");
 
-            mBusinessIDs = BarangayUtils.getFilteredIDs(
-                    mCacheModel.getBusiIDsCache(), mBusinessNames, keywordsArray);
+            mBusinessIDs = mCacheModel.searchBusinesses(keywordsArray, false);
         }
 
         updateListPaging(false);
-        mCurrentPageLabel.requestFocus();
     }
 
     /**
@@ -943,10 +965,7 @@ public class BusinessClearanceFormControl {
 
         for (int i = 0; i < 10; i++) {
             if (currentIndex <= lastIndex) {
-                String id = mBusinessIDs.get(i + firstIndex);
-                int index = mCacheModel.getBusiIDsCache().indexOf(id);
-
-                mBusinessLabels[i].setText(mBusinessNames.get(index));
+                mBusinessLabels[i].setText(mCacheModel.getBusinessName(mBusinessIDs.get(i + firstIndex)));
                 currentIndex++;
             } else
                 mBusinessLabels[i].setText("");
@@ -969,10 +988,27 @@ public class BusinessClearanceFormControl {
          */
         Consumer<Boolean> setDisplayResidentInfo = (isDisplayed) -> {
             if (isDisplayed) {
-                mBusinessSelected = mDatabaseModel.getBusiness(mBusinessIDs.get(mBusinessSelectedIndex));
-                setState(STATE_SELECTION);
-            } else
+                // Drop the previous business while the new one loads, so that creating a
+                // clearance or deleting meanwhile never acts on the previous business.
+                mBusinessSelected = null;
+                setState(STATE_NO_SELECTION);
+
+                // Load the business in the background. Selecting another business before then
+                // discards this business.
+                mAsyncDatabaseModel.latest(CHANNEL_BUSINESS_SELECTION,
+                        mAsyncDatabaseModel.getBusiness(mBusinessIDs.get(mBusinessSelectedIndex)))
+                        .thenAccept(business -> {
+                            // The business could not be loaded, or was deleted by another terminal.
+                            if (business == null)
+                                return;
+
+                            mBusinessSelected = business;
+                            setState(STATE_SELECTION);
+                        });
+            } else {
+                mAsyncDatabaseModel.cancel(CHANNEL_BUSINESS_SELECTION);
                 setState(STATE_NO_SELECTION);
+            }
         };
 
         // This is where the code selection and unselection view update happens.
@@ -1016,7 +1052,6 @@ public class BusinessClearanceFormControl {
      */
     public void setCacheModel(CacheModel cacheModel) {
         mCacheModel = cacheModel;
-        mBusinessNames = mCacheModel.getBusiNamesCache();
     }
 
     /**
@@ -1030,6 +1065,17 @@ public class BusinessClearanceFormControl {
         mDatabaseModel = databaseModel;
     }
 
+    /**
+     * Set the universal asynchronous database model to this controller. Used to load
+     * the information of the currently selected business in the background.
+     *
+     * @param asyncDatabaseModel
+     *        The universal asynchronous database model.
+     */
+    public void setAsyncDatabaseModel(AsyncDatabaseModel asyncDatabaseModel) {
+        mAsyncDatabaseModel = asyncDatabaseModel;
+    }
+
     /**
      * Set the listener for this controller.
      *
@@ -0,0 +1,166 @@
+package javah.controller;
+
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.GridPane;
+import javah.model.CacheModel;
+import javah.model.CacheStats;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * A class that displays the statistics of the cache, such as the memory used by each
+ * table, and lets the user cap the years of reports kept in the cache.
+ *
+ * @see CacheStats
+ */
+public class CacheDiagnosticsControl {
+
+    /**
+     * A listener for the CacheDiagnosticsControl.
+     *
+     * @see CacheDiagnosticsControl
+     */
+    public interface OnCacheDiagnosticsControlListener {
+        /**
+         * Close the cache diagnostics scene from the main control.
+         */
+        void onDoneButtonClicked();
+
+        /**
+         * Tell the MainControl to apply the new cap of the cached reports.
+         *
+         * @param historyYears
+         *        The number of years of reports kept in the cache, or 0 for every report.
+         */
+        void onHistoryYearsChanged(int historyYears);
+    }
+
+    /* Displays the name and the value of each statistic, one per row. */
+    @FXML private GridPane mStatsGridPane;
+
+    /* A combo box for picking the years of reports kept in the cache. */
+    @FXML private ComboBox<String> mHistoryComboBox;
+
+    /* A reference to the universal cache model. */
+    private CacheModel mCacheModel;
+
+    /* A listener for this controller. */
+    private OnCacheDiagnosticsControlListener mListener;
+
+    /* Determines whether mHistoryComboBox is being set from the cache model, and not by the user. */
+    private boolean mIsHistoryComboBoxUpdating;
+
+    @FXML
+    private void initialize() {
+        mHistoryComboBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!mIsHistoryComboBoxUpdating && newValue != null && !newValue.equals(oldValue))
+                mListener.onHistoryYearsChanged(newValue.startsWith("All") ? 0 :
+                        Integer.valueOf(newValue.split(" ")[0]));
+        });
+    }
+
+    /**
+     * Update the displayed statistics.
+     *
+     * @param mouseEvent
+     *        The mouse event. No usage.
+     */
+    @FXML
+    public void onRefreshButtonClicked(MouseEvent mouseEvent) {
+        updateStats();
+    }
+
+    /**
+     * Close this scene.
+     *
+     * @param actionEvent
+     *        The action event. No usage.
+     */
+    @FXML
+    public void onDoneButtonClicked(ActionEvent actionEvent) {
+        mListener.onDoneButtonClicked();
+    }
+
+    /**
+     * Update the statistics of the cache model and display them. Called whenever this
+     * scene is shown.
+     */
+    public void updateStats() {
+        mCacheModel.updateStats();
+        CacheStats stats = mCacheModel.getStats();
+
+        mStatsGridPane.getChildren().clear();
+
+        String[] tableNames = {"Residents", "Barangay IDs", "Barangay Clearances", "Businesses",
+                "Business Clearances"};
+
+        // Ordered by the kinds of the tables. (e.g. CacheEvent.KIND_RESIDENT = 1)
+        for (byte table = 1; table <= CacheModel.TABLE_COUNT; table++)
+            addStatRow(tableNames[table - 1], String.format("%,d  (%s)",
+                    stats.getCount(table), formatBytes(stats.getBytes(table))));
+
+        addStatRow("Total memory", formatBytes(stats.getTotalBytes()));
+        addStatRow("Loaded from database in", formatDuration(stats.getDatabaseLoadDuration()));
+        addStatRow("Loaded from snapshot in", formatDuration(stats.getSnapshotLoadDuration()));
+
+        Date lastRefreshTime = stats.getLastRefreshTime();
+        addStatRow("Last refreshed", lastRefreshTime != null ?
+                new SimpleDateFormat("hh:mm:ss aaa").format(lastRefreshTime) : "Never");
+
+        addStatRow("Cache lookup hits", String.format("%,d / %,d  (%.1f%%)", stats.getLookupHitCount(),
+                stats.getLookupHitCount() + stats.getLookupMissCount(), stats.getLookupHitRatio() * 100));
+        addStatRow("Record cache", String.format("%,d  (%s)", stats.getRecordCount(),
+                formatBytes(stats.getRecordBytes())));
+        addStatRow("Record cache hits", String.format("%,d / %,d  (%.1f%%)", stats.getRecordHitCount(),
+                stats.getRecordHitCount() + stats.getRecordMissCount(), stats.getRecordHitRatio() * 100));
+
+        mIsHistoryComboBoxUpdating = true;
+        int historyYears = mCacheModel.getHistoryYears();
+        mHistoryComboBox.setValue(historyYears == 0 ? "All years" :
+                historyYears + (historyYears == 1 ? " year" : " years"));
+        mIsHistoryComboBoxUpdating = false;
+    }
+
+    private void addStatRow(String name, String value) {
+        mStatsGridPane.addRow(mStatsGridPane.getChildren().size() / 2, new Label(name), new Label(value));
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024)
+            return bytes + " B";
+
+        if (bytes < 1024 * 1024)
+            return String.format("%.1f KB", bytes / 1024.0);
+
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    private static String formatDuration(long duration) {
+        return duration != -1 ? String.format("%,d ms", duration) : "Not loaded";
+    }
+
+    /**
+     * Set the listener for this controller.
+     *
+     * @param listener
+     *        The listener for this controller.
+     */
+    public void setListener(OnCacheDiagnosticsControlListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Pass the universal cache model to this controller.
+     *
+     * @param cacheModel
+     *        The universal cache model.
+     */
+    public void setCacheModel(CacheModel cacheModel) {
+        mCacheModel = cacheModel;
+    }
+}
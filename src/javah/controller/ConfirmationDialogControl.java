@@ -47,7 +47,8 @@ public class ConfirmationDialogControl {
             CLIENT_BUSINESS_DELETION = 2,
             CLIENT_WEBCAM_FAILURE = 3,
             CLIENT_CHANGE_PASSWORD = 4,
-            CLIENT_LOGOUT = 5;
+            CLIENT_LOGOUT = 5,
+            CLIENT_IMPORT_RESULT = 6;
 
     /* The message of the dialog. */
     @FXML private Text mMessage;
@@ -172,6 +173,30 @@ public class ConfirmationDialogControl {
 
                 mCancelButton.setVisible(true);
                 mCancelButton.setManaged(true);
+
+                break;
+
+            case CLIENT_IMPORT_RESULT:
+                mActionLabel.setText("Import Residents");
+                mActionIcon.setImage(new Image("res/ic_thumbs_up.png"));
+
+                mWarningText.setVisible(false);
+                mWarningText.setManaged(false);
+
+                mCancelButton.setVisible(false);
+                mCancelButton.setManaged(false);
         }
     }
+
+    /**
+     * Set the message of the dialog. Used by the clients whose message is only known
+     * when the dialog is shown, such as CLIENT_IMPORT_RESULT. Must be called after
+     * setClient().
+     *
+     * @param message
+     *        The message.
+     */
+    public void setMessage(String message) {
+        mMessage.setText(message);
+    }
 }
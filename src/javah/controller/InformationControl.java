@@ -1,10 +1,12 @@
 package javah.controller;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
@@ -18,16 +20,24 @@ import javah.container.BarangayClearance;
 import javah.container.BarangayID;
 import javah.container.BusinessClearance;
 import javah.contract.CSSContract;
+import javah.model.AsyncDatabaseModel;
+import javah.model.CacheEvent;
 import javah.model.CacheModel;
 import javah.model.DatabaseModel;
+import javah.model.ReadOnlyCache;
+import javah.model.ReportRow;
 import javah.util.BarangayUtils;
+import javah.util.IDCodec;
+import javah.util.IntObjectMap;
+import javah.util.SearchDebouncer;
 
-import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * A class that manages the barangay ID, barangay clearance and business clearance.
@@ -107,6 +117,9 @@ public class InformationControl {
     /* A text field used for filtering the list paging. */
     @FXML private TextField mSearchField;
 
+    /* Determines whether the search allows misspelled names. (e.g. "Dela Crus" for "Dela Cruz") */
+    @FXML private CheckBox mFuzzySearchCheckBox;
+
     /* A button to create a report based on the mInformation. */
     @FXML private Button mCreateButton;
 
@@ -132,6 +145,15 @@ public class InformationControl {
      */
     private DatabaseModel mDatabaseModel;
 
+    /**
+     * A reference to the universal asynchronous database model. Used for loading the
+     * selected report without blocking the user interface thread.
+     */
+    private AsyncDatabaseModel mAsyncDatabaseModel;
+
+    /* The channel of the selected report loads, cancelling the stale ones. */
+    private static final String CHANNEL_REPORT_SELECTION = "report-selection";
+
     /**
      * A reference to the cache model. Used for getting the cached data to be
      * displayed in the list paging.
@@ -149,22 +171,25 @@ public class InformationControl {
     private List<String> mReportIDs;
 
     /**
-     * A volatile list which contains foreign IDs of all the reports with regards
-     * to mInformation.
+     * Counts the searches, so that the results of a search replaced meanwhile are discarded.
+     * Read from the background search to stop it once replaced.
      */
-    private List<String> mReportForeignIDs;
+    private volatile int mSearchCount;
 
-    /**
-     * A volatile list which contains the names of all the reports with regards to
-     * mInformation.
-     */
-    private List<String> mReportNames;
+    /* The last search of the reports, refined by the next search. Null if the list is not filtered. */
+    private ReportSearch mLastSearch;
+
+    /* Searches the reports as the user types within the search field. */
+    private SearchDebouncer mSearchDebouncer;
 
     /**
-     * A volatile list which contains date Issuance of all the reports with regards
-     * to mInformation.
+     * A non-volatile list which contains the rows of all the reports of mInformation,
+     * in the order of mActualReportIDs. Each row holds everything a label displays.
      */
-    private List<Timestamp> mReportDateIssuedList;
+    private List<ReportRow> mReportRows;
+
+    /* Fetches the row of a report of mInformation by its ID, in a constant time. */
+    private Function<String, ReportRow> mReportRowGetter;
 
     /**
      * The value representing which label is selected from the list paging.
@@ -176,10 +201,12 @@ public class InformationControl {
     private Label[] mGridLabels;
 
     /**
-     * Holds the report ID assigned to a label.
+     * Holds the code of the report ID assigned to a label, or IDCodec.NO_ID.
      * Index is between 0 - 39, representing the label positions.
+     *
+     * @see IDCodec
      */
-    private String[] mReportIDToLabelLocation;
+    private int[] mReportIDToLabelLocation;
 
     /**
      * An array that contains the first report IDs per page. The index will
@@ -235,10 +262,12 @@ public class InformationControl {
     @FXML
     private void initialize() {
         BarangayUtils.addTextLimitListener(mSearchField, 90);
+        mSearchDebouncer = new SearchDebouncer(mSearchField, this::search);
         // Initialize mGridLabels with storage for 40 labels.
         mGridLabels = new Label[40];
 
-        mReportIDToLabelLocation = new String[40];
+        mReportIDToLabelLocation = new int[40];
+        Arrays.fill(mReportIDToLabelLocation, IDCodec.NO_ID);
 
         // Populate mGridLabels with 40 labels and display it in a matrix of 20x2 mListGridPane.
         for (int i = 0; i < 40; i++) {
@@ -265,13 +294,104 @@ public class InformationControl {
      */
     @FXML
     public void onSearchButtonClicked(Event event) {
+        mSearchDebouncer.cancel();
+        search();
+    }
+
+    /**
+     * Search again when fuzzy search is toggled.
+     *
+     * @param actionEvent
+     *        The action event. No usage.
+     */
+    @FXML
+    public void onFuzzySearchCheckBoxClicked(ActionEvent actionEvent) {
+        mSearchDebouncer.cancel();
+        search();
+    }
+
+    /**
+     * Filter the list paging with the text of the search field. Also called as the user
+     * types, after a short delay.
+     *
+     * @see SearchDebouncer
+     */
+    private void search() {
         String keywords = mSearchField.getText().trim();
+        int search = ++mSearchCount;
+
+        if (keywords == null || keywords.isEmpty()) {
+            mLastSearch = null;
+            mReportIDs = mActualReportIDs;
+            setLabelSelectedIndex(mLabelSelectedIndex);
+            updateListPaging(false);
+            return;
+        }
 
-        mReportIDs = keywords == null || keywords.isEmpty() ?
-                mActualReportIDs : BarangayUtils.getFilteredIDs(mActualReportIDs, mReportNames, keywords.split(" "));
+        // Filter a read-only copy of the reports in the background, so that the cache can
+        // still change while searching a large number of reports.
+        String[] keywordsArray = keywords.split(" ");
+        ReadOnlyCache readOnlyCache = mCacheModel.publishReadOnlyCache();
+        byte information = mInformation;
+        List<String> reportIDs, reportNames;
 
-        setLabelSelectedIndex(mLabelSelectedIndex);
-        updateListPaging(false);
+        switch (information) {
+            case INFORMATION_BARANGAY_ID:
+                reportIDs = readOnlyCache.getBrgyIDIDs();
+                reportNames = readOnlyCache.getBrgyIDResidentNames();
+                break;
+
+            case INFORMATION_BARANGAY_CLEARANCE:
+                reportIDs = readOnlyCache.getBrgyClearanceIDs();
+                reportNames = readOnlyCache.getBrgyClearanceResidentNames();
+                break;
+
+            default:
+                reportIDs = readOnlyCache.getBusiClearanceIDs();
+                reportNames = readOnlyCache.getBusiClearanceBusiNames();
+        }
+
+        // A fuzzy search matches the owners of the reports through the index of their
+        // names, at the version of the read-only copy, then only compares the owners of
+        // the reports with the matched owners.
+        boolean isFuzzy = mFuzzySearchCheckBox.isSelected();
+        byte kind = getCacheKind();
+        IntObjectMap<int[]> ownerMatches = !isFuzzy ? null :
+                information == INFORMATION_BUSINESS_CLEARANCE ?
+                        mCacheModel.matchBusinessNames(keywordsArray, true) :
+                        mCacheModel.matchResidentNames(keywordsArray, true);
+
+        // A name matching a keyword also matches the keyword without its last characters.
+        // Thus, when the user only adds characters to the keywords, only the reports
+        // matched by the last search are matched again.
+        int[] candidateIndices = !isFuzzy && mLastSearch != null &&
+                mLastSearch.isRefinedBy(information, keywords, keywordsArray.length, readOnlyCache) ?
+                mLastSearch.mIndices : null;
+
+        CompletableFuture.supplyAsync(() -> {
+            // Stop matching once the user typed again.
+            int[] filteredIndices = isFuzzy ?
+                    readOnlyCache.filterReports(kind, ownerMatches, () -> search != mSearchCount) :
+                    BarangayUtils.getFilteredIndices(reportNames, keywordsArray, candidateIndices,
+                            () -> search != mSearchCount);
+
+            return filteredIndices != null ? new ReportSearch(information, keywords, keywordsArray.length,
+                    isFuzzy, readOnlyCache, reportIDs, filteredIndices) : null;
+        }).thenAcceptAsync(reportSearch -> {
+            if (reportSearch == null || search != mSearchCount)
+                return;
+
+            mLastSearch = reportSearch;
+            List<String> filteredReportIDs = new ArrayList<>(reportSearch.mReportIDs);
+
+            // Drop the reports deleted while searching.
+            if (readOnlyCache.getVersion() != mCacheModel.getVersion())
+                filteredReportIDs.removeIf(reportID -> !mActualReportIDs.contains(reportID));
+
+            mReportIDs = filteredReportIDs;
+            setLabelSelectedIndex(mLabelSelectedIndex);
+            updateListPaging(false);
+        }, Platform::runLater);
     }
 
     /**
@@ -308,13 +428,19 @@ public class InformationControl {
     }
 
     /**
-     * Move the resident list paging to the next page when possible.
+     * Move the resident list paging to the next page when possible. On the last page,
+     * the reports left out of the cache by its history cap are loaded instead.
      *
      * @param event
      *        The click event. Note used.
      */
     @FXML
     public void onNextPageButtonClicked(ActionEvent event) {
+        if (mCurrentPage >= mPageCount) {
+            loadHistory();
+            return;
+        }
+
         mCurrentPage += 1;
         updateCurrentPage();
         mCurrentPageLabel.setText(mCurrentPage + "");
@@ -323,7 +449,75 @@ public class InformationControl {
             mBackPageButton.setDisable(false);
 
         if (mCurrentPage == mPageCount)
-            mNextPageButton.setDisable(true);
+            mNextPageButton.setDisable(!hasUnloadedHistory());
+    }
+
+    /**
+     * Load the reports of mInformation issued before the history cutoff of the cache
+     * model into the cache, then move to the next page if the reports fill one.
+     *
+     * @see CacheModel#setHistoryYears(int)
+     */
+    private void loadHistory() {
+        if (!hasUnloadedHistory())
+            return;
+
+        byte kind = getCacheKind();
+        byte information = mInformation;
+        CompletableFuture<List[]> history;
+
+        switch (information) {
+            case INFORMATION_BARANGAY_ID:
+                history = mAsyncDatabaseModel.getBarangayIDHistory(mCacheModel.getHistoryCutoff());
+                break;
+
+            case INFORMATION_BARANGAY_CLEARANCE:
+                history = mAsyncDatabaseModel.getBarangayClearanceHistory(mCacheModel.getHistoryCutoff());
+                break;
+
+            default:
+                history = mAsyncDatabaseModel.getBusinessClearanceHistory(mCacheModel.getHistoryCutoff());
+        }
+
+        mNextPageButton.setDisable(true);
+
+        history.whenComplete((reports, exception) -> {
+            if (exception != null)
+                exception.printStackTrace();
+            else
+                mCacheModel.cacheHistory(kind, reports);
+
+            // Another information was displayed meanwhile.
+            if (information != mInformation)
+                return;
+
+            updatePages(true);
+
+            if (mCurrentPage < mPageCount)
+                onNextPageButtonClicked(null);
+        });
+    }
+
+    /**
+     * Determine whether the reports of mInformation left out of the cache by its history
+     * cap can be displayed at the end of the list paging. Not while searching, since
+     * only the cached reports are searched.
+     *
+     * @return true if the reports can be loaded.
+     */
+    private boolean hasUnloadedHistory() {
+        return mReportIDs == mActualReportIDs && mCacheModel.hasUnloadedHistory(getCacheKind());
+    }
+
+    /**
+     * @return the kind of the cached reports of mInformation. (e.g. CacheEvent.KIND_BARANGAY_ID)
+     */
+    private byte getCacheKind() {
+        switch (mInformation) {
+            case INFORMATION_BARANGAY_ID: return CacheEvent.KIND_BARANGAY_ID;
+            case INFORMATION_BARANGAY_CLEARANCE: return CacheEvent.KIND_BARANGAY_CLEARANCE;
+            default: return CacheEvent.KIND_BUSINESS_CLEARANCE;
+        }
     }
 
     /**
@@ -376,43 +570,76 @@ public class InformationControl {
          * Either show a report details pane or the mNoReportSelectedPane.
          */
         Consumer<Boolean> showSelectedReportDetails = (show) -> {
-            mViewButton.setVisible(show);
+            // The view button is only displayed once the selected report is loaded.
+            mViewButton.setVisible(false);
 
             if (show) {
                 mNoReportSelectedPane.setVisible(false);
+                mReportSnapshot.setImage(null);
                 SimpleDateFormat dateFormat = new SimpleDateFormat("MMMMM dd, yyyy");
-                Image image = null;
+                String reportID = IDCodec.decode(mReportIDToLabelLocation[newLabelSelectedIndex]);
 
+                // Load the report in the background. Selecting another report before then
+                // discards this report.
                 switch (mInformation) {
                     case INFORMATION_BARANGAY_ID:
-                        mBarangayIDSelected = mDatabaseModel.getBarangayID(mReportIDToLabelLocation[newLabelSelectedIndex]);
-                        image = mListener.onRequestReportSnapshot(mBarangayIDSelected);
-
-                        mDateIssued.setText(dateFormat.format(mBarangayIDSelected.getDateIssued()));
-                        mDateValid.setText(dateFormat.format(mBarangayIDSelected.getDateValid()));
-
+                        mAsyncDatabaseModel.latest(CHANNEL_REPORT_SELECTION, mAsyncDatabaseModel.getBarangayID(reportID))
+                                .thenAccept(barangayID -> {
+                            // The report could not be loaded, or was deleted by another terminal.
+                            if (barangayID == null) {
+                                mNoReportSelectedPane.setVisible(true);
+                                return;
+                            }
+
+                            mBarangayIDSelected = barangayID;
+                            mReportSnapshot.setImage(mListener.onRequestReportSnapshot(mBarangayIDSelected));
+
+                            mDateIssued.setText(dateFormat.format(mBarangayIDSelected.getDateIssued()));
+                            mDateValid.setText(dateFormat.format(mBarangayIDSelected.getDateValid()));
+                            mViewButton.setVisible(true);
+                        });
                         break;
 
                     case INFORMATION_BARANGAY_CLEARANCE:
-                        mBrgyClearanceSelected = mDatabaseModel.getBarangayClearance(mReportIDToLabelLocation[newLabelSelectedIndex]);
-                        image = mListener.onRequestReportSnapshot(mBrgyClearanceSelected);
-
-                        mDateIssued.setText(dateFormat.format(mBrgyClearanceSelected.getDateIssued()));
-                        mDateValid.setText(dateFormat.format(mBrgyClearanceSelected.getDateValid()));
+                        mAsyncDatabaseModel.latest(CHANNEL_REPORT_SELECTION, mAsyncDatabaseModel.getBarangayClearance(reportID))
+                                .thenAccept(barangayClearance -> {
+                            // The report could not be loaded, or was deleted by another terminal.
+                            if (barangayClearance == null) {
+                                mNoReportSelectedPane.setVisible(true);
+                                return;
+                            }
+
+                            mBrgyClearanceSelected = barangayClearance;
+                            mReportSnapshot.setImage(mListener.onRequestReportSnapshot(mBrgyClearanceSelected));
+
+                            mDateIssued.setText(dateFormat.format(mBrgyClearanceSelected.getDateIssued()));
+                            mDateValid.setText(dateFormat.format(mBrgyClearanceSelected.getDateValid()));
+                            mViewButton.setVisible(true);
+                        });
                         break;
 
                     case INFORMATION_BUSINESS_CLEARANCE:
-                        mBusiClearanceSelected = mDatabaseModel.getBusinessClearance(mReportIDToLabelLocation[newLabelSelectedIndex]);
-                        image = mListener.onRequestReportSnapshot(mBusiClearanceSelected);
-
-                        mDateIssued.setText(dateFormat.format(mBusiClearanceSelected.getDateIssued()));
-                        mDateValid.setText(dateFormat.format(mBusiClearanceSelected.getDateValid()));
+                        mAsyncDatabaseModel.latest(CHANNEL_REPORT_SELECTION, mAsyncDatabaseModel.getBusinessClearance(reportID))
+                                .thenAccept(businessClearance -> {
+                            // The report could not be loaded, or was deleted by another terminal.
+                            if (businessClearance == null) {
+                                mNoReportSelectedPane.setVisible(true);
+                                return;
+                            }
+
+                            mBusiClearanceSelected = businessClearance;
+                            mReportSnapshot.setImage(mListener.onRequestReportSnapshot(mBusiClearanceSelected));
+
+                            mDateIssued.setText(dateFormat.format(mBusiClearanceSelected.getDateIssued()));
+                            mDateValid.setText(dateFormat.format(mBusiClearanceSelected.getDateValid()));
+                            mViewButton.setVisible(true);
+                        });
                 }
 
-                mReportSnapshot.setImage(image);
-
-            } else
+            } else {
+                mAsyncDatabaseModel.cancel(CHANNEL_REPORT_SELECTION);
                 mNoReportSelectedPane.setVisible(true);
+            }
         };
 
         // If newLabelSelectedIndex is equal to -1, then clear the details.
@@ -424,7 +651,7 @@ public class InformationControl {
 
         // This is where the code selection and unselection view update happens.
         // If a label is clicked without containing any resident, then ignore the event.sc
-        if (mReportIDToLabelLocation[newLabelSelectedIndex] != null) {
+        if (mReportIDToLabelLocation[newLabelSelectedIndex] != IDCodec.NO_ID) {
             // if no previous resident is selected, then simply make the new selection.
             if (mLabelSelectedIndex == -1) {
                 if (newLabelSelectedIndex != -1) {
@@ -461,12 +688,24 @@ public class InformationControl {
      *        If the current page is no longer available, then move back, if possible.
      */
     private void updateListPaging(boolean stayOnPage) {
+        updatePages(stayOnPage);
+        updateCurrentPage();
+    }
+
+    /**
+     * Updates mLabelUseCount, mPageCount and the first report of each page, without
+     * repainting the current page.
+     *
+     * @param stayOnPage
+     *        Determines whether current page should be maintained or not after the update.
+     *        If the current page is no longer available, then move back to the last page.
+     */
+    private void updatePages(boolean stayOnPage) {
 
         mLabelUseCount = 0;
         int size = mReportIDs.size();
 
         int precedingMonth = -1;
-        Calendar calendar = Calendar.getInstance();
 
         // Re-initialize the mFirstReportIDIndexPerPage and its first elements is equal to 0,
         // to signify that the first page starts with index 0.
@@ -484,13 +723,7 @@ public class InformationControl {
                 precedingMonth = -1;
             }
 
-            if (mReportIDs != mActualReportIDs) {
-                int index = mActualReportIDs.indexOf(mReportIDs.get(i));
-                calendar.setTime(mReportDateIssuedList.get(index));
-            } else
-                calendar.setTime(mReportDateIssuedList.get(i));
-
-            int month = calendar.get(Calendar.MONTH);
+            int month = getReportRow(i).getMonthOfIssuance();
 
             // Check if a month label needs to be displayed.
             if (month != precedingMonth) {
@@ -518,7 +751,7 @@ public class InformationControl {
             mLabelUseCount++;
         }
 
-        mCurrentPage = stayOnPage ? (mPageCount < mCurrentPage) ? mCurrentPage-- : mCurrentPage : 1;
+        mCurrentPage = stayOnPage ? Math.max(1, Math.min(mCurrentPage, mPageCount)) : 1;
 
         mCurrentPageLabel.setText(mCurrentPage + "");
         mPageCountLabel.setText(mPageCount == 0 ? "1" : mPageCount + "");
@@ -526,10 +759,54 @@ public class InformationControl {
         // Disable the back page button if the current page is the first one.
         mBackPageButton.setDisable(mCurrentPage == 1 ? true : false);
 
-        // Disable the next page button if the current page is the last one.
-        mNextPageButton.setDisable(mCurrentPage >= mPageCount ? true : false);
+        // Disable the next page button if the current page is the last one, unless the
+        // older reports can still be loaded.
+        mNextPageButton.setDisable(mCurrentPage >= mPageCount && !hasUnloadedHistory());
+    }
 
-        updateCurrentPage();
+    /**
+     * Determine whether the reports displayed in the current page, or their names,
+     * differ from the reports that belong to the current page.
+     *
+     * @return true if the current page needs to be repainted.
+     */
+    private boolean isCurrentPageOutdated() {
+        int reportIndex = mFirstReportIDIndexPerPage.isEmpty() ? 0 : mFirstReportIDIndexPerPage.get(mCurrentPage - 1);
+        int lastReportIndex = mCurrentPage < mFirstReportIDIndexPerPage.size() ?
+                mFirstReportIDIndexPerPage.get(mCurrentPage) : mReportIDs.size();
+
+        for (int i = 0; i < 40; i++) {
+            int reportID = mReportIDToLabelLocation[i];
+
+            if (reportID == IDCodec.NO_ID)
+                continue;
+
+            if (reportIndex >= lastReportIndex || reportID != IDCodec.find(mReportIDs.get(reportIndex)))
+                return true;
+
+            String reportName = getReportRow(reportIndex).getOwnerName();
+
+            if (reportName == null ? mGridLabels[i].getText() != null : !reportName.equals(mGridLabels[i].getText()))
+                return true;
+
+            reportIndex++;
+        }
+
+        return reportIndex < lastReportIndex;
+    }
+
+    /**
+     * Fetch the row of a report displayable in the list paging, without searching the
+     * cached reports.
+     *
+     * @param reportIndex
+     *        The index of the report within mReportIDs.
+     *
+     * @return the row of the report.
+     */
+    private ReportRow getReportRow(int reportIndex) {
+        return mReportIDs == mActualReportIDs ?
+                mReportRows.get(reportIndex) : mReportRowGetter.apply(mReportIDs.get(reportIndex));
     }
 
     /**
@@ -547,7 +824,7 @@ public class InformationControl {
         // If no reports to be displayed, then populate the grid pane and be done with it.
         if (mFirstReportIDIndexPerPage.size() == 0) {
             for (int i = 0; i < 40; i++) {
-                mReportIDToLabelLocation[i] = null;
+                mReportIDToLabelLocation[i] = IDCodec.NO_ID;
                 Label label = mGridLabels[i];
                 label.setText(null);
                 mListGridPane.add(label, i % 2 == 0 ? 0 : 1, i / 2, 1, 1);
@@ -557,7 +834,6 @@ public class InformationControl {
 
         int reportIndex = mFirstReportIDIndexPerPage.get(mCurrentPage - 1);
 
-        Calendar calendar = Calendar.getInstance();
         int precedingMonth = -1;
 
         // Fill out all the labels of the current page.
@@ -565,17 +841,14 @@ public class InformationControl {
             Label currentLabel;
 
             if (reportIndex >= mReportIDs.size()) {
-                mReportIDToLabelLocation[i] = null;
+                mReportIDToLabelLocation[i] = IDCodec.NO_ID;
                 currentLabel = mGridLabels[i];
                 currentLabel.setText(null);
                 mListGridPane.add(currentLabel, i % 2 == 0 ? 0 : 1, i / 2, 1, 1);
             } else {
-                int index = mReportIDs != mActualReportIDs ?
-                        mActualReportIDs.indexOf(mReportIDs.get(reportIndex)) : reportIndex;
+                ReportRow reportRow = getReportRow(reportIndex);
 
-                calendar.setTime(mReportDateIssuedList.get(index));
-
-                int month = calendar.get(Calendar.MONTH);
+                int month = reportRow.getMonthOfIssuance();
 
                 // Check if a month label needs to be displayed.
                 if (month != precedingMonth) {
@@ -586,7 +859,7 @@ public class InformationControl {
                     // null and break the loop.
                     if (i >= 37) {
                         for (int j = i; j < 40; j++) {
-                            mReportIDToLabelLocation[j] = null;
+                            mReportIDToLabelLocation[j] = IDCodec.NO_ID;
                             currentLabel = mGridLabels[j];
                             currentLabel.setText(null);
                             mListGridPane.add(currentLabel, j % 2 == 0 ? 0 : 1, j / 2, 1, 1);
@@ -596,7 +869,7 @@ public class InformationControl {
 
                     // Make sure that the month label must occupy both columns.
                     if (i % 2 != 0) {
-                        mReportIDToLabelLocation[i] = null;
+                        mReportIDToLabelLocation[i] = IDCodec.NO_ID;
                         currentLabel = mGridLabels[i];
                         currentLabel.setText(null);
                         mListGridPane.add(currentLabel, i % 2 == 0 ? 0 : 1, i / 2, 1, 1);
@@ -604,7 +877,7 @@ public class InformationControl {
                     }
 
                     // The date month label must span 2 columns.
-                    mReportIDToLabelLocation[i] = null;
+                    mReportIDToLabelLocation[i] = IDCodec.NO_ID;
                     currentLabel = mGridLabels[i];
                     mListGridPane.add(currentLabel, i % 2 == 0 ? 0 : 1, i / 2, 2, 1);
                     i += 2;
@@ -613,15 +886,14 @@ public class InformationControl {
                     currentLabel.setStyle(CSSContract.STYLE_DATE_HEADER);
 
                     // Set the date text to the label.
-                    String date = BarangayUtils.convertMonthIntToString(calendar.get(Calendar.MONTH)) + " " +
-                            calendar.get(Calendar.YEAR);
+                    String date = BarangayUtils.convertMonthIntToString(month % 12) + " " + month / 12;
                     currentLabel.setText(date);
                 }
 
-                mReportIDToLabelLocation[i] = mActualReportIDs.get(index);
+                mReportIDToLabelLocation[i] = reportRow.getIDCode();
                 currentLabel = mGridLabels[i];
                 mListGridPane.add(currentLabel, i % 2 == 0 ? 0 : 1, i / 2, 1, 1);
-                currentLabel.setText(mReportNames.get(index));
+                currentLabel.setText(reportRow.getOwnerName());
                 currentLabel.setStyle(CSSContract.STYLE_LABEL_UNSELECTED);
             }
         }
@@ -645,6 +917,15 @@ public class InformationControl {
         mDatabaseModel = databaseModel;
     }
 
+    /**
+     * Called after initialize() and is called in the MainControl.
+     * Make a reference to the global asynchronous database model.
+     * @param asyncDatabaseModel
+     */
+    public void setAsyncDatabaseModel(AsyncDatabaseModel asyncDatabaseModel) {
+        mAsyncDatabaseModel = asyncDatabaseModel;
+    }
+
     /**
      * Called after initialize() and is called in the MainControl.
      * Make a reference to the global cache model and start initializing the variables that are initially
@@ -673,9 +954,8 @@ public class InformationControl {
                 // The volatile cache should hold the cached data pertaining to the barangay id.
                 mReportIDs = mCacheModel.getBrgyIDIDsCache();
                 mActualReportIDs = mCacheModel.getBrgyIDIDsCache();
-                mReportForeignIDs = mCacheModel.getBrgyIDResidentIDsCache();
-                mReportNames = mCacheModel.getBrgyIDResidentNamesCache();
-                mReportDateIssuedList = mCacheModel.getBrgyIDDateIssuedCache();
+                mReportRows = mCacheModel.getBrgyIDRowsCache();
+                mReportRowGetter = mCacheModel::getBrgyIDRow;
 
                 break;
             case INFORMATION_BARANGAY_CLEARANCE :
@@ -684,9 +964,8 @@ public class InformationControl {
                 // The volatile cache should hold the cached data pertaining to the barangay clearance.
                 mReportIDs = mCacheModel.getBrgyClearanceIDsCache();
                 mActualReportIDs = mCacheModel.getBrgyClearanceIDsCache();
-                mReportForeignIDs = mCacheModel.getBrgyClearanceResidentIDsCache();
-                mReportNames = mCacheModel.getBrgyClearanceResidentNamesCache();
-                mReportDateIssuedList = mCacheModel.getBrgyClearanceDateIssuedCache();
+                mReportRows = mCacheModel.getBrgyClearanceRowsCache();
+                mReportRowGetter = mCacheModel::getBrgyClearanceRow;
 
                 break;
             case INFORMATION_BUSINESS_CLEARANCE :
@@ -696,13 +975,13 @@ public class InformationControl {
                 // The volatile cache should hold the cached data pertaining to the barangay clearance.
                 mReportIDs = mCacheModel.getBusiClearanceIDsCache();
                 mActualReportIDs = mCacheModel.getBusiClearanceIDsCache();
-                mReportForeignIDs = mCacheModel.getBusiClearanceBusiIDsCache();
-                mReportNames = mCacheModel.getBusiClearanceBusiNamesCache();
-                mReportDateIssuedList = mCacheModel.getBusiClearanceDateIssuedCache();
+                mReportRows = mCacheModel.getBusiClearanceRowsCache();
+                mReportRowGetter = mCacheModel::getBusiClearanceRow;
                 break;
         }
 
         mInformation = information;
+        mSearchCount++;
 
         // Refresh the list paging.
         updateListPaging(false);
@@ -723,6 +1002,7 @@ public class InformationControl {
         mCacheModel.cacheBarangayID(barangayID);
 
         mReportIDs = mCacheModel.getBrgyIDIDsCache();
+        mSearchCount++;
 
         // Update the list paging and select the newly created barangay id.
         updateListPaging(false);
@@ -742,6 +1022,7 @@ public class InformationControl {
         mCacheModel.cacheBarangayClearance(barangayClearance);
 
         mReportIDs = mCacheModel.getBrgyClearanceIDsCache();
+        mSearchCount++;
 
         // Update the list paging and select the newly created barangay id.
         updateListPaging(false);
@@ -761,12 +1042,44 @@ public class InformationControl {
         mCacheModel.cacheBusinessClearance(businessClearance);
 
         mReportIDs = mCacheModel.getBusiClearanceIDsCache();
+        mSearchCount++;
 
         // Update the list paging and select the newly created barangay id.
         updateListPaging(false);
         setLabelSelectedIndex(2);
     }
 
+    /**
+     * Refresh the list paging after the cached reports were changed by another
+     * terminal. The current page is kept, and is only repainted if the reports it
+     * displays changed. Thus, the selected report stays selected otherwise.
+     */
+    public void refreshCachedData() {
+        if (mReportIDs == null)
+            return;
+
+        // A filtered list holds its own IDs, thus the deleted reports are dropped from it.
+        if (mReportIDs != mActualReportIDs)
+            mReportIDs.removeIf(reportID -> !mActualReportIDs.contains(reportID));
+
+        int reportSelectedID = mLabelSelectedIndex != -1 ?
+                mReportIDToLabelLocation[mLabelSelectedIndex] : IDCodec.NO_ID;
+
+        updatePages(true);
+
+        if (!isCurrentPageOutdated())
+            return;
+
+        updateCurrentPage();
+
+        // Select the previously selected report again if it is still within the page.
+        for (int i = 0; i < 40 && reportSelectedID != IDCodec.NO_ID; i++)
+            if (reportSelectedID == mReportIDToLabelLocation[i]) {
+                setLabelSelectedIndex(i);
+                break;
+            }
+    }
+
     /**
      * Update the list paging from the MainControl if a new business was deleted or updated.
      */
@@ -784,6 +1097,59 @@ public class InformationControl {
                 mReportIDs = mCacheModel.getBusiClearanceIDsCache();
         }
 
+        mSearchCount++;
         updateListPaging(false);
     }
+
+    /**
+     * The result of a search of the reports, kept so that the next search can refine it.
+     */
+    private static class ReportSearch {
+
+        private final byte mInformation;
+
+        private final String mKeywords;
+
+        private final int mKeywordCount;
+
+        private final boolean mIsFuzzy;
+
+        /* The read-only copy of the cache that was searched. */
+        private final ReadOnlyCache mCache;
+
+        /* The indices of the matching reports within the read-only copy, in ascending order. */
+        private final int[] mIndices;
+
+        /* The IDs of the matching reports, from the highest priority level to the lowest. */
+        private final List<String> mReportIDs;
+
+        ReportSearch(byte information, String keywords, int keywordCount, boolean isFuzzy, ReadOnlyCache cache,
+                     List<String> reportIDs, int[] filteredIndices) {
+            mInformation = information;
+            mKeywords = keywords;
+            mKeywordCount = keywordCount;
+            mIsFuzzy = isFuzzy;
+            mCache = cache;
+            mReportIDs = new ArrayList<>(filteredIndices.length);
+
+            for (int index : filteredIndices)
+                mReportIDs.add(reportIDs.get(index));
+
+            mIndices = filteredIndices.clone();
+            Arrays.sort(mIndices);
+        }
+
+        /**
+         * Determine whether a search only matches reports matched by this search, that
+         * is when the same reports are searched and the keywords only gained characters,
+         * without gaining a keyword. A fuzzy search is never refined, since a longer
+         * keyword allows more typos.
+         *
+         * @return true if the search can refine this search.
+         */
+        boolean isRefinedBy(byte information, String keywords, int keywordCount, ReadOnlyCache cache) {
+            return !mIsFuzzy && information == mInformation && cache == mCache && keywordCount == mKeywordCount &&
+                    keywords.startsWith(mKeywords);
+        }
+    }
 }
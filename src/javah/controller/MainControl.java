@@ -9,12 +9,15 @@ import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.effect.GaussianBlur;
 import javafx.scene.image.Image;
 import javafx.scene.image.WritableImage;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.FileChooser;
 import javah.Main;
@@ -24,18 +27,33 @@ import javah.container.BusinessClearance;
 import javah.container.Resident;
 import javah.contract.CSSContract;
 import javah.contract.PreferenceContract;
+import javah.model.AsyncDatabaseModel;
+import javah.model.CacheEvent;
 import javah.model.CacheModel;
+import javah.model.CacheStats;
 import javah.model.DatabaseModel;
+import javah.model.InvalidationBus;
+import javah.model.MulticastInvalidationBus;
 import javah.model.PreferenceModel;
+import javah.model.ResidentImporter;
+import javah.util.IOExecutors;
 import javah.util.LogoutTimer;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.sql.Date;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -75,6 +93,15 @@ public class MainControl {
     /* Labels to display the last password update datetime. */
     @FXML private Label mLastPwdUpdateDate, mLastPwdUpdateTime;
 
+    /* A label of the import button, also used to display the progress of the import. */
+    @FXML private Label mImportLabel;
+
+    /* The splash covering the window while the cache is started from the database. */
+    @FXML private StackPane mSplashPane;
+
+    /* Holds the progress of each table within the splash. */
+    @FXML private VBox mSplashTableBox;
+
     /*  scene to display the residents. */
     private Pane mResidentScene;
 
@@ -102,6 +129,7 @@ public class MainControl {
     private Pane mBarangayAgentScene;
     private Pane mChangePasswordScene;
     private Pane mSecurityScene;
+    private Pane mCacheDiagnosticsScene;
     private Pane mLoginScene;
 
     private Pane mResidentFormScene;
@@ -124,6 +152,7 @@ public class MainControl {
     private BusinessClearanceReportControl mBusiClearanceReportControl;
     private ChangePasswordControl mChangePasswordControl;
     private SecurityControl mSecurityControl;
+    private CacheDiagnosticsControl mCacheDiagnosticsControl;
     private LoginControl mLoginControl;
 
     /* Represent each menu used to navigate which information to display. */
@@ -144,6 +173,7 @@ public class MainControl {
      */
     private CacheModel mCacheModel;
     private DatabaseModel mDatabaseModel;
+    private AsyncDatabaseModel mAsyncDatabaseModel;
     private PreferenceModel mPreferenceModel;
 
     /**
@@ -154,6 +184,75 @@ public class MainControl {
      */
     private LogoutTimer mLogoutTimer;
 
+    /**
+     * Imports the residents from a CSV file. Not null only while an import is
+     * running, to prevent two imports from running at the same time.
+     *
+     * @see ResidentImporter
+     */
+    private ResidentImporter mResidentImporter;
+
+    /* The number of rejected records listed within the result dialog of an import. */
+    private static final int IMPORT_REJECTION_SUMMARY_SIZE = 3;
+
+    /* The interval in milliseconds of saving the cache snapshot while the cached data changes. */
+    private static final long CACHE_SNAPSHOT_INTERVAL = 60 * 1000;
+
+    /* The interval in milliseconds of refreshing the cache with the changes of the other terminals. */
+    private static final long CACHE_REFRESH_INTERVAL = 5 * 1000;
+
+    /**
+     * The file storing a snapshot of the cached data, loaded on startup instead of
+     * querying every table.
+     *
+     * @see CacheModel#loadSnapshot(File)
+     */
+    private File mCacheSnapshotFile;
+
+    /* The version of the cached data when the cache snapshot was last saved. */
+    private int mCacheSnapshotVersion;
+
+    /**
+     * The snapshot of the cached data encoded on exit, written to the file by the
+     * shutdown hook. Null if the cached data did not change since the last save.
+     *
+     * @see #exit()
+     */
+    private volatile byte[] mExitCacheSnapshot;
+
+    /* The delay in milliseconds of refreshing the cache after an event of another terminal. */
+    private static final long CACHE_EVENT_DELAY = 100;
+
+    /* Runs the periodic tasks of the cache. */
+    private Timer mCacheTimer;
+
+    /**
+     * The bus over which the terminals tell each other which records they changed,
+     * or null if the terminals could not be reached.
+     *
+     * @see #onCacheEvent(CacheEvent)
+     */
+    private InvalidationBus mInvalidationBus;
+
+    /* The number of background tasks, such as a reconciliation and an import, that can run at once. */
+    private static final int BACKGROUND_THREAD_COUNT = 2;
+
+    /* The number of background tasks that can wait for a thread. */
+    private static final int BACKGROUND_QUEUE_CAPACITY = 8;
+
+    /* Runs the background tasks of the controller, such as the reconciliation of the cache and the imports. */
+    private ExecutorService mBackgroundExecutor;
+
+    /* Determines whether the cache is being refreshed, or is scheduled to be refreshed. */
+    private boolean mIsCacheRefreshing, mIsCacheRefreshScheduled;
+
+    /* Determines whether the cache should be refreshed again once the current refresh is done. */
+    private boolean mIsCacheRefreshRequested;
+
+    /* The progress bars and the row counts of the tables within the splash, by the kinds of the tables - 1. */
+    private ProgressBar[] mSplashProgressBars;
+    private Label[] mSplashRowCountLabels;
+
     /**
      * Initialize all the scenes and controllers.
      *
@@ -167,9 +266,11 @@ public class MainControl {
 
         // Initialize the models.
         mDatabaseModel = new DatabaseModel();
-        mCacheModel = new CacheModel();
-        mCacheModel.startCache(mDatabaseModel);
+        mAsyncDatabaseModel = new AsyncDatabaseModel(mDatabaseModel, Platform::runLater);
         mPreferenceModel = new PreferenceModel();
+        mCacheModel = new CacheModel();
+        mBackgroundExecutor = IOExecutors.newExecutor("background-", BACKGROUND_THREAD_COUNT, BACKGROUND_QUEUE_CAPACITY);
+        startCache();
 
         // Update the last password update date time labels.
         String pwdDateTime = mPreferenceModel.get(PreferenceContract.LAST_PASSWORD_UPDATE, null);
@@ -209,6 +310,7 @@ public class MainControl {
         mResidentControl = fxmlLoader.getController();
 
         mResidentControl.setDatabaseModel(mDatabaseModel);
+        mResidentControl.setAsyncDatabaseModel(mAsyncDatabaseModel);
         mResidentControl.setCacheModel(mCacheModel);
 
         mResidentControl.setListener(new ResidentControl.OnResidentControlListener() {
@@ -237,6 +339,7 @@ public class MainControl {
 
         mInformationControl.setCacheModel(mCacheModel);
         mInformationControl.setDatabaseModel(mDatabaseModel);
+        mInformationControl.setAsyncDatabaseModel(mAsyncDatabaseModel);
 
         mInformationControl.setListener(new InformationControl.OnInformationControlListener() {
             @Override
@@ -504,6 +607,10 @@ public class MainControl {
                     case ConfirmationDialogControl.CLIENT_LOGOUT:
                         hidePopupScene(mConfirmationDialogScene, false);
                         setLogout(true);
+                        break;
+
+                    case ConfirmationDialogControl.CLIENT_IMPORT_RESULT:
+                        hidePopupScene(mConfirmationDialogScene, false);
                 }
             }
 
@@ -528,6 +635,7 @@ public class MainControl {
                         mChangePasswordControl.setDisable(false);
                         break;
                     case ConfirmationDialogControl.CLIENT_LOGOUT:
+                    case ConfirmationDialogControl.CLIENT_IMPORT_RESULT:
                         hidePopupScene(mConfirmationDialogScene, false);
                 }
             }
@@ -666,6 +774,7 @@ public class MainControl {
         mBusiClearanceFormControl = fxmlLoader.getController();
         mBusiClearanceFormControl.setCacheModel(mCacheModel);
         mBusiClearanceFormControl.setDatabaseModel(mDatabaseModel);
+        mBusiClearanceFormControl.setAsyncDatabaseModel(mAsyncDatabaseModel);
         mBusiClearanceFormControl.setListener(new BusinessClearanceFormControl.OnBusinessClearanceFormListener() {
             @Override
             public void onCreateButtonClicked(BusinessClearance businessClearance) {
@@ -777,12 +886,50 @@ public class MainControl {
                 mSecurityControl.setDisable(true);
             }
 
+            @Override
+            public void onCacheDiagnosticsButtonClicked() {
+                mCacheDiagnosticsControl.updateStats();
+                showPopupScene(mCacheDiagnosticsScene, true);
+                mSecurityControl.setDisable(true);
+            }
+
             @Override
             public void onIdleComboBoxValueChanged(int newValue) {
                 mLogoutTimer.start(newValue * 60);
             }
         });
 
+        // Initialize the cache diagnostics scene.
+        resetFXMLLoader.accept("fxml/scene_cache_diagnostics.fxml");
+        mCacheDiagnosticsScene = fxmlLoader.load();
+
+        mCacheDiagnosticsControl = fxmlLoader.getController();
+        mCacheDiagnosticsControl.setCacheModel(mCacheModel);
+        mCacheDiagnosticsControl.setListener(new CacheDiagnosticsControl.OnCacheDiagnosticsControlListener() {
+            @Override
+            public void onDoneButtonClicked() {
+                hidePopupScene(mCacheDiagnosticsScene, true);
+                mSecurityControl.setDisable(false);
+            }
+
+            @Override
+            public void onHistoryYearsChanged(int historyYears) {
+                mPreferenceModel.put(PreferenceContract.CACHE_HISTORY_YEARS, historyYears + "");
+                mPreferenceModel.save(false);
+
+                mCacheModel.setHistoryYears(historyYears);
+
+                if (mMenuSelected == MENU_RESIDENT)
+                    mResidentControl.resetCachedData();
+                else if (mMenuSelected != 0)
+                    mInformationControl.updateListPaging();
+
+                // Cache the reports within the new cap that were left out by the previous cap.
+                reconcileCache();
+                mCacheDiagnosticsControl.updateStats();
+            }
+        });
+
         // Add the dialog scenes to mPopupStackPane.
         addToPopupPane.accept(mPhotoshopScene);
         addToPopupPane.accept(mBarangayAgentScene);
@@ -795,6 +942,7 @@ public class MainControl {
         addToPopupPane.accept(mBusiClearanceReportScene);
         addToPopupPane.accept(mChangePasswordScene);
         addToPopupPane.accept(mSecurityScene);
+        addToPopupPane.accept(mCacheDiagnosticsScene);
 
         // Initialize the login scene.
         resetFXMLLoader.accept("fxml/scene_login.fxml");
@@ -805,7 +953,7 @@ public class MainControl {
         mLoginControl.setListener(new LoginControl.OnLoginControlListener() {
             @Override
             public void onExitButtonClicked() {
-                System.exit(0);
+                exit();
             }
 
             @Override
@@ -817,7 +965,7 @@ public class MainControl {
 
                     case LoginControl.ACTION_RESET:
                         mPreferenceModel.delete();
-                        System.exit(0);
+                        exit();
                 }
             }
         });
@@ -969,7 +1117,7 @@ public class MainControl {
                 p.waitFor();
 
                 // Close the application once the recovery is done.
-                System.exit(0);
+                exit();
 
             } catch (Exception e) {
                 e.printStackTrace();
@@ -977,6 +1125,400 @@ public class MainControl {
 
     }
 
+    /**
+     * Import the residents of a CSV file chosen by the user. The import runs in the
+     * background while its progress is displayed within the import button.
+     *
+     * @param actionEvent
+     *        The action event. No usage.
+     */
+    @FXML
+    public void onImportButtonClicked(ActionEvent actionEvent) {
+        if (mResidentImporter != null)
+            return;
+
+        // Setup the file chooser dialog.
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Residents");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+
+        File sourceFile = fileChooser.showOpenDialog(Main.getPrimaryStage());
+
+        if (sourceFile == null)
+            return;
+
+        // The first rejections, summarized within the result dialog.
+        List<String> rejections = new ArrayList<>();
+
+        mResidentImporter = new ResidentImporter(mDatabaseModel, mCacheModel, Platform::runLater);
+        mResidentImporter.setListener(new ResidentImporter.OnImportListener() {
+            @Override
+            public void onImportProgress(int importedCount, int rejectedCount, double progress) {
+                mImportLabel.setText(String.format("%d%%", (int) (progress * 100)));
+            }
+
+            @Override
+            public void onRecordRejected(int recordNo, String reason) {
+                if (rejections.size() < IMPORT_REJECTION_SUMMARY_SIZE)
+                    rejections.add(String.format("Record %d: %s", recordNo, reason));
+            }
+
+            @Override
+            public void onImportFinished(int importedCount, int rejectedCount, File rejectsFile) {
+                mResidentImporter = null;
+                mImportLabel.setText("Import");
+
+                // Display the imported residents.
+                mResidentControl.resetCachedData();
+
+                StringBuilder message = new StringBuilder(String.format("%,d residents imported.", importedCount));
+
+                if (rejectedCount > 0) {
+                    message.append(String.format("\n%,d records rejected:", rejectedCount));
+
+                    for (String rejection : rejections)
+                        message.append("\n").append(rejection);
+
+                    if (rejectedCount > rejections.size())
+                        message.append("\n...");
+
+                    if (rejectsFile != null)
+                        message.append("\n\nThe rejected records are listed in ").append(rejectsFile.getName()).append(".");
+                }
+
+                showPopupScene(mConfirmationDialogScene, false);
+                mConfirmationDialogControl.setClient(ConfirmationDialogControl.CLIENT_IMPORT_RESULT);
+                mConfirmationDialogControl.setMessage(message.toString());
+            }
+        });
+
+        mImportLabel.setText("0%");
+
+        mBackgroundExecutor.execute(new Task() {
+            @Override
+            protected Object call() throws Exception {
+                mResidentImporter.importFile(sourceFile);
+                return null;
+            }
+
+            @Override
+            protected void failed() {
+                getException().printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Start the cache model. If a snapshot of the cached data exists, the cache is loaded
+     * from it and then reconciled with the database in the background, so that the
+     * application is usable at once. Otherwise, the cache is started from the database
+     * while a splash shows the progress of each table.
+     * The snapshot is saved periodically whenever the cached data changed, and once
+     * more when the application exits. Meanwhile, the records changed by the other
+     * terminals are refreshed as soon as the terminals announce them through the
+     * invalidation bus, and periodically in case an announcement was lost.
+     *
+     * The statistics of the cache are exposed through JMX, and the reports older than
+     * the history years of the preferences are left out of the cache.
+     */
+    private void startCache() {
+        mCacheSnapshotFile = new File(Main.APP_DATA_PATH, "cache.snapshot");
+
+        mCacheModel.setHistoryYears(Integer.valueOf(mPreferenceModel.get(PreferenceContract.CACHE_HISTORY_YEARS, "0")));
+        mCacheModel.getStats().setEntityCache(mDatabaseModel.getEntityCache());
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mCacheModel.getStats(),
+                    new ObjectName(CacheStats.OBJECT_NAME));
+        } catch (JMException e) {
+            // The cache works the same without its statistics exposed.
+            e.printStackTrace();
+        }
+
+        if (mCacheModel.loadSnapshot(mCacheSnapshotFile)) {
+            mCacheSnapshotVersion = mCacheModel.getVersion();
+            reconcileCache();
+        } else
+            warmUpCache();
+
+        mCacheTimer = new Timer(true);
+        mCacheTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                Platform.runLater(() -> {
+                    saveCacheSnapshot();
+                    mCacheModel.updateStats();
+                });
+            }
+        }, CACHE_SNAPSHOT_INTERVAL, CACHE_SNAPSHOT_INTERVAL);
+
+        mCacheTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                Platform.runLater(() -> refreshCache());
+            }
+        }, CACHE_REFRESH_INTERVAL, CACHE_REFRESH_INTERVAL);
+
+        try {
+            mInvalidationBus = new MulticastInvalidationBus();
+            mInvalidationBus.setListener(event -> Platform.runLater(() -> onCacheEvent(event)));
+            mCacheModel.setInvalidationBus(mInvalidationBus);
+        } catch (IOException e) {
+            // The cache is still refreshed periodically.
+            e.printStackTrace();
+        }
+
+        // The snapshot is encoded on the application thread by exit(), so that the hook
+        // only writes it, without reading the cached data from another thread.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            byte[] snapshot = mExitCacheSnapshot;
+
+            if (snapshot != null)
+                CacheModel.writeSnapshot(mCacheSnapshotFile, snapshot);
+
+            if (mInvalidationBus != null)
+                mInvalidationBus.close();
+        }));
+    }
+
+    /**
+     * Start the cache from the database while the splash covers the window. The tables
+     * are cached at the same time into a separate cache model, which is copied at once
+     * into the cache model of the controllers when every table is cached. Thus, the
+     * controllers never read a table while it is being cached.
+     *
+     * Until then, the cache model of the controllers is empty with an unknown change
+     * version, thus it is neither refreshed nor saved as a snapshot.
+     */
+    private void warmUpCache() {
+        showSplash();
+
+        CacheModel cacheModel = new CacheModel();
+        cacheModel.setHistoryYears(mCacheModel.getHistoryYears());
+
+        cacheModel.startCache(mDatabaseModel,
+                (table, rowCount, isDone) -> Platform.runLater(() -> updateSplash(table, rowCount, isDone)))
+                .whenComplete((result, exception) -> Platform.runLater(() -> {
+                    mCacheModel.reconcile(cacheModel);
+                    mSplashPane.setVisible(false);
+
+                    if (mMenuSelected == MENU_RESIDENT)
+                        mResidentControl.resetCachedData();
+                    else if (mMenuSelected != 0)
+                        mInformationControl.updateListPaging();
+
+                    if (exception != null) {
+                        // Keep the tables cached so far, and cache every table again in the background.
+                        exception.printStackTrace();
+                        reconcileCache();
+                    } else
+                        saveCacheSnapshot();
+                }));
+    }
+
+    /**
+     * Show the splash with a row for each table. The progress bars stay indeterminate
+     * until their tables are cached, since the rows of a table are not counted before
+     * they are streamed.
+     */
+    private void showSplash() {
+        // Ordered by the kinds of the tables. (e.g. CacheEvent.KIND_RESIDENT = 1)
+        String[] tableNames = {"Residents", "Barangay IDs", "Barangay Clearances", "Businesses",
+                "Business Clearances"};
+
+        mSplashProgressBars = new ProgressBar[CacheModel.TABLE_COUNT];
+        mSplashRowCountLabels = new Label[CacheModel.TABLE_COUNT];
+
+        for (int i = 0; i < CacheModel.TABLE_COUNT; i++) {
+            Label tableNameLabel = new Label(tableNames[i]);
+            tableNameLabel.setPrefWidth(200);
+
+            mSplashProgressBars[i] = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+            mSplashProgressBars[i].setPrefWidth(300);
+
+            mSplashRowCountLabels[i] = new Label("0 rows");
+            mSplashRowCountLabels[i].setPrefWidth(120);
+
+            HBox tableRow = new HBox(10, tableNameLabel, mSplashProgressBars[i], mSplashRowCountLabels[i]);
+            tableRow.setAlignment(Pos.CENTER_LEFT);
+            mSplashTableBox.getChildren().add(tableRow);
+        }
+
+        mSplashPane.setVisible(true);
+    }
+
+    /**
+     * Update the progress of a table within the splash.
+     *
+     * @param table
+     *        The kind of the records of the table. (e.g. CacheEvent.KIND_RESIDENT)
+     * @param rowCount
+     *        The number of rows cached so far.
+     * @param isDone
+     *        Determines whether every row of the table is cached.
+     */
+    private void updateSplash(byte table, int rowCount, boolean isDone) {
+        mSplashRowCountLabels[table - 1].setText(String.format("%,d rows", rowCount));
+
+        if (isDone)
+            mSplashProgressBars[table - 1].setProgress(1);
+    }
+
+    /**
+     * Reconcile the cached data, such as the data loaded from the snapshot, with the
+     * database. The database is cached in the background, and only the differences are
+     * then applied to the cached data. If the cached data changed meanwhile, then the reconciliation is
+     * started over, since the changes might be missing from the background cache.
+     */
+    private void reconcileCache() {
+        int version = mCacheModel.getVersion();
+        int historyYears = mCacheModel.getHistoryYears();
+
+        mBackgroundExecutor.execute(new Task() {
+            @Override
+            protected Object call() throws Exception {
+                CacheModel cacheModel = new CacheModel();
+                cacheModel.setHistoryYears(historyYears);
+                cacheModel.startCache(mDatabaseModel);
+
+                Platform.runLater(() -> {
+                    if (mCacheModel.getVersion() != version || mCacheModel.getHistoryYears() != historyYears) {
+                        reconcileCache();
+                        return;
+                    }
+
+                    if (mCacheModel.reconcile(cacheModel) > 0) {
+                        if (mMenuSelected == MENU_RESIDENT)
+                            mResidentControl.resetCachedData();
+                        else if (mMenuSelected != 0)
+                            mInformationControl.updateListPaging();
+
+                        saveCacheSnapshot();
+                    }
+                });
+
+                return null;
+            }
+
+            @Override
+            protected void failed() {
+                getException().printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Handle a record changed by another terminal. The record is dropped from the entity
+     * cache at once, while the cached data is refreshed shortly after, so that a burst of
+     * changes is refreshed at once.
+     *
+     * @param event
+     *        The change announced by the other terminal.
+     */
+    private void onCacheEvent(CacheEvent event) {
+        if (event.getID() != null)
+            mDatabaseModel.getEntityCache().invalidate(event.getRecordClass(), event.getID());
+
+        if (mIsCacheRefreshScheduled)
+            return;
+
+        mIsCacheRefreshScheduled = true;
+        mCacheTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                Platform.runLater(() -> {
+                    mIsCacheRefreshScheduled = false;
+                    refreshCache();
+                });
+            }
+        }, CACHE_EVENT_DELAY);
+    }
+
+    /**
+     * Refresh the cached data with the records changed by every terminal since the last
+     * refresh. The changed records are read in the background, and the displayed list
+     * paging is refreshed only if the cached data actually changed. A refresh requested
+     * while another is running is started once the other is done, since the running
+     * refresh might have read the change log before the requested change.
+     */
+    private void refreshCache() {
+        long changeVersion = mCacheModel.getChangeVersion();
+
+        // The version is unknown until the cache loaded from the snapshot is reconciled.
+        if (changeVersion == -1)
+            return;
+
+        if (mIsCacheRefreshing) {
+            mIsCacheRefreshRequested = true;
+            return;
+        }
+
+        int version = mCacheModel.getVersion();
+        mIsCacheRefreshing = true;
+
+        mAsyncDatabaseModel.getCacheDelta(changeVersion).whenComplete((delta, exception) -> {
+            mIsCacheRefreshing = false;
+
+            if (mIsCacheRefreshRequested) {
+                mIsCacheRefreshRequested = false;
+                Platform.runLater(() -> refreshCache());
+            }
+
+            if (exception != null) {
+                exception.printStackTrace();
+                return;
+            }
+
+            // The cached data changed meanwhile, so the delta might be older than the change.
+            // The changes are read again by the next refresh.
+            if (mCacheModel.getVersion() != version || mCacheModel.applyDelta(delta) == 0)
+                return;
+
+            if (mMenuSelected == MENU_RESIDENT)
+                mResidentControl.refreshCachedData();
+            else if (mMenuSelected != 0)
+                mInformationControl.refreshCachedData();
+        });
+    }
+
+    /**
+     * Save the snapshot of the cached data if the cached data changed since the last
+     * save. The snapshot is encoded right away, and written to the file in the background.
+     */
+    private void saveCacheSnapshot() {
+        if (mCacheModel.getVersion() == mCacheSnapshotVersion)
+            return;
+
+        int version = mCacheModel.getVersion();
+        byte[] snapshot = mCacheModel.createSnapshot();
+
+        mCacheSnapshotVersion = version;
+
+        IOExecutors.runFileTask(() -> CacheModel.writeSnapshot(mCacheSnapshotFile, snapshot))
+                .exceptionally(exception -> {
+                    // Too many file operations are waiting. Save the snapshot again next time.
+                    exception.printStackTrace();
+
+                    Platform.runLater(() -> {
+                        if (mCacheSnapshotVersion == version)
+                            mCacheSnapshotVersion = -1;
+                    });
+                    return null;
+                });
+    }
+
+    /**
+     * Exit the application. The snapshot of the cached data is encoded first if the
+     * cached data changed since the last save, since the cached data can only be read
+     * from the application thread. The snapshot is then written by the shutdown hook.
+     */
+    public void exit() {
+        if (mCacheModel.getVersion() != mCacheSnapshotVersion)
+            mExitCacheSnapshot = mCacheModel.createSnapshot();
+
+        System.exit(0);
+    }
+
     /**
      * Logout the application.
      *
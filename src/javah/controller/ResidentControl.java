@@ -1,10 +1,12 @@
 package javah.controller;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
@@ -17,13 +19,17 @@ import javafx.scene.layout.Pane;
 import javafx.scene.text.Text;
 import javah.container.Resident;
 import javah.contract.CSSContract;
+import javah.model.AsyncDatabaseModel;
 import javah.model.CacheModel;
 import javah.model.DatabaseModel;
 import javah.util.BarangayUtils;
+import javah.util.IOExecutors;
+import javah.util.SearchDebouncer;
 
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.function.Consumer;
 
 /**
@@ -104,6 +110,9 @@ public class ResidentControl {
      */
     @FXML private TextField mSearchField;
 
+    /* Determines whether the search allows misspelled names. (e.g. "Dela Crus" for "Dela Cruz") */
+    @FXML private CheckBox mFuzzySearchCheckBox;
+
     /* An Image view that displays the photo of the resident selected. */
     @FXML private ImageView mResidentPhoto;
 
@@ -169,6 +178,20 @@ public class ResidentControl {
      */
     private DatabaseModel mDatabaseModel;
 
+    /**
+     * A reference to the asynchronous facade of the database model. Used to load the
+     * selected resident without blocking the user interface thread.
+     *
+     * @see AsyncDatabaseModel
+     */
+    private AsyncDatabaseModel mAsyncDatabaseModel;
+
+    /* The channel of the selected resident loads, cancelling the stale ones. */
+    private static final String CHANNEL_RESIDENT_SELECTION = "resident-selection";
+
+    /* The channel of the photo loads of the selected resident, cancelling the stale ones. */
+    private static final String CHANNEL_RESIDENT_PHOTO = "resident-photo";
+
     /**
      * A reference to the cache model instantiated from the main control.
      * Allows this resident controller to manage the cached data pertaining to the
@@ -187,14 +210,8 @@ public class ResidentControl {
      */
     private List<String> mResidentIDs;
 
-    /**
-     * Holds the resident names that can be displayed at the list paging. The list can
-     * either serve as a reference to the resident names cached data from the Cache
-     * Model or have a filtered list of resident names.
-     *
-     * @see CacheModel
-     */
-    private List<String> mResidentNames;
+    /* Searches the residents as the user types within the search field. */
+    private SearchDebouncer mSearchDebouncer;
 
     /**
      * The value representing the index of the selected resident. Value range is
@@ -259,6 +276,7 @@ public class ResidentControl {
     @FXML
     private void initialize() {
         BarangayUtils.addTextLimitListener(mSearchField, 90);
+        mSearchDebouncer = new SearchDebouncer(mSearchField, this::search);
 
         mResidentLabels = new Label[40];
 
@@ -286,15 +304,36 @@ public class ResidentControl {
      */
     @FXML
     public void onSearchButtonClicked(Event event) {
+        mSearchDebouncer.cancel();
+        search();
+    }
+
+    /**
+     * Search again when fuzzy search is toggled.
+     *
+     * @param actionEvent
+     *        The action event. No usage.
+     */
+    @FXML
+    public void onFuzzySearchCheckBoxClicked(ActionEvent actionEvent) {
+        mSearchDebouncer.cancel();
+        search();
+    }
+
+    /**
+     * Filter the list paging with the text of the search field. Also called as the user
+     * types, after a short delay.
+     *
+     * @see SearchDebouncer
+     */
+    private void search() {
         String keywords = mSearchField.getText().trim();
 
-        if (keywords == null || keywords.isEmpty())
-            mResidentIDs = mCacheModel.getResidentIDsCache();
-        else {
-            String[] keywordsArray = keywords.split(" ");
-            mResidentIDs = BarangayUtils.getFilteredIDs(
-                    mCacheModel.getResidentIDsCache(), mCacheModel.getResidentNamesCache(), keywordsArray);
-        }
+        // The search only visits the residents holding the keywords through the index of
+        // the cached names, thus it is fast enough for the user interface thread. Each
+        // character typed narrows the range of the words visited.
+        mResidentIDs = keywords.isEmpty() ? mCacheModel.getResidentIDsCache() :
+                mCacheModel.searchResidents(keywords.split(" "), mFuzzySearchCheckBox.isSelected());
 
         updateListPaging(false);
     }
@@ -378,6 +417,10 @@ public class ResidentControl {
      */
     @FXML
     public void onEditResidentButtonClicked(Event event) {
+        // Ignore the event while the selected resident is still loading.
+        if (mResidentSelected == null)
+            return;
+
         mListener.onEditResidentButtonClicked(mResidentSelected);
     }
 
@@ -389,6 +432,10 @@ public class ResidentControl {
      */
     @FXML
     public void onDeleteResidentButtonClicked(Event event) {
+        // Ignore the event while the selected resident is still loading.
+        if (mResidentSelected == null)
+            return;
+
         mListener.onDeleteResidentButtonClicked();
     }
 
@@ -414,60 +461,90 @@ public class ResidentControl {
 
                 String residentSelectedID = mResidentIDs.get(mResidentSelectedIndex);
 
-                mResidentSelected = mDatabaseModel.getResident(residentSelectedID);
-
-                mResidentPhoto.setImage(null);
-
-                if (mResidentSelected.getPhotoPath() != null)
-                    mResidentPhoto.setImage(new Image("file:" + mResidentSelected.getPhotoPath()));
-
                 // Note: mResidentIDs field can either reference the Resident IDs at the cache
-                // model or take hold of a seperate filtered Resident IDs list. Thus, in
-                // tracking the Resident Name, the cached resident IDs should always be used
-                // to track the Resident Name.
-                int i = mCacheModel.getResidentIDsCache().indexOf(residentSelectedID);
-
-                mResidentName.setText(mResidentNames.get(i));
-
-                Calendar birthdate = Calendar.getInstance();
-                birthdate.setTime(mResidentSelected.getBirthDate());
-
-                int birthYear = birthdate.get(Calendar.YEAR);
-                int birthDay = birthdate.get(Calendar.DAY_OF_MONTH);
-                String birthMonth = BarangayUtils.convertMonthIntToString(birthdate.get(Calendar.MONTH));
-
-                mBirthDate.setText(String.format("%s %s, %s", birthMonth, birthDay, birthYear));
-
-                // Set the displayed age.
-                Calendar currentDate = Calendar.getInstance();
-                int age = currentDate.get(Calendar.YEAR) - birthYear;
-
-                if(birthYear != currentDate.get(Calendar.YEAR))
-                    age -= birthdate.get(Calendar.MONTH) > currentDate.get(Calendar.MONTH) ||
-                            (birthdate.get(Calendar.MONTH) == currentDate.get(Calendar.MONTH) &&
-                                    birthdate.get(Calendar.DAY_OF_MONTH) > currentDate.get(Calendar.DAY_OF_MONTH)) ? 1 : 0;
-
-                mAge.setText(age + "");
-
-                // Set the displayed year and month of residency.
-                mResidentSince.setText(
-                        mResidentSelected.getYearOfResidency() == -1 ?
-                                "Birth" : BarangayUtils.convertMonthIntToString(mResidentSelected.getMonthOfResidency()) + " " +
-                                mResidentSelected.getYearOfResidency());
-
-                mAddress1.setText(mResidentSelected.getAddress1());
+                // model or take hold of a seperate filtered Resident IDs list. Thus, the
+                // Resident Name is always tracked by the ID through the cache model.
+                mResidentName.setText(mCacheModel.getResidentName(residentSelectedID));
 
-                // Set the displayed address 2, if any.
-                if(mResidentSelected.getAddress2() != null && !mResidentSelected.getAddress2().isEmpty()) {
-                    mAddress2.setVisible(true);
-                    mAddress2Label.setVisible(true);
-                    mAddress2.setText(mResidentSelected.getAddress2());
-                } else {
-                    mAddress2.setVisible(false);
-                    mAddress2Label.setVisible(false);
-                }
+                // The rest of the resident data is displayed once loaded. Selecting another
+                // resident before then discards the data of this resident.
+                mResidentSelected = null;
+                mResidentPhoto.setImage(null);
+                mAsyncDatabaseModel.cancel(CHANNEL_RESIDENT_PHOTO);
+
+                mAsyncDatabaseModel.latest(CHANNEL_RESIDENT_SELECTION, mAsyncDatabaseModel.getResident(residentSelectedID))
+                        .thenAccept(resident -> {
+                    if (resident == null)
+                        return;
+
+                    mResidentSelected = resident;
+
+                    // Decode the photo on an I/O thread. Selecting another resident before
+                    // then discards this photo.
+                    if (mResidentSelected.getPhotoPath() != null) {
+                        String photoPath = mResidentSelected.getPhotoPath();
+
+                        mAsyncDatabaseModel.latest(CHANNEL_RESIDENT_PHOTO,
+                                IOExecutors.supplyFileTask(() -> new Image("file:" + photoPath)))
+                                .whenCompleteAsync((photo, exception) -> {
+                                    // The photo might be decoded after another resident is
+                                    // selected, since a decoded photo can no longer be cancelled.
+                                    if (mResidentSelected != resident)
+                                        return;
+
+                                    if (exception != null) {
+                                        // The photo is left blank if too many images are being read.
+                                        if (!(exception instanceof CancellationException))
+                                            exception.printStackTrace();
+                                        return;
+                                    }
+
+                                    mResidentPhoto.setImage(photo);
+                                }, Platform::runLater);
+                    }
+
+                    Calendar birthdate = Calendar.getInstance();
+                    birthdate.setTime(mResidentSelected.getBirthDate());
+
+                    int birthYear = birthdate.get(Calendar.YEAR);
+                    int birthDay = birthdate.get(Calendar.DAY_OF_MONTH);
+                    String birthMonth = BarangayUtils.convertMonthIntToString(birthdate.get(Calendar.MONTH));
+
+                    mBirthDate.setText(String.format("%s %s, %s", birthMonth, birthDay, birthYear));
+
+                    // Set the displayed age.
+                    Calendar currentDate = Calendar.getInstance();
+                    int age = currentDate.get(Calendar.YEAR) - birthYear;
+
+                    if(birthYear != currentDate.get(Calendar.YEAR))
+                        age -= birthdate.get(Calendar.MONTH) > currentDate.get(Calendar.MONTH) ||
+                                (birthdate.get(Calendar.MONTH) == currentDate.get(Calendar.MONTH) &&
+                                        birthdate.get(Calendar.DAY_OF_MONTH) > currentDate.get(Calendar.DAY_OF_MONTH)) ? 1 : 0;
+
+                    mAge.setText(age + "");
+
+                    // Set the displayed year and month of residency.
+                    mResidentSince.setText(
+                            mResidentSelected.getYearOfResidency() == -1 ?
+                                    "Birth" : BarangayUtils.convertMonthIntToString(mResidentSelected.getMonthOfResidency()) + " " +
+                                    mResidentSelected.getYearOfResidency());
+
+                    mAddress1.setText(mResidentSelected.getAddress1());
+
+                    // Set the displayed address 2, if any.
+                    if(mResidentSelected.getAddress2() != null && !mResidentSelected.getAddress2().isEmpty()) {
+                        mAddress2.setVisible(true);
+                        mAddress2Label.setVisible(true);
+                        mAddress2.setText(mResidentSelected.getAddress2());
+                    } else {
+                        mAddress2.setVisible(false);
+                        mAddress2Label.setVisible(false);
+                    }
+                });
 
             } else {
+                mAsyncDatabaseModel.cancel(CHANNEL_RESIDENT_SELECTION);
+                mAsyncDatabaseModel.cancel(CHANNEL_RESIDENT_PHOTO);
                 mNoResidentSelectedPane.setVisible(true);
             }
         };
@@ -519,10 +596,7 @@ public class ResidentControl {
 
         for (int i = 0; i < 40; i++) {
             if (currentIndex <= lastIndex) {
-                String id = mResidentIDs.get(i + firstIndex);
-                int index = mCacheModel.getResidentIDsCache().indexOf(id);
-
-                mResidentLabels[i].setText(mResidentNames.get(index));
+                mResidentLabels[i].setText(mCacheModel.getResidentName(mResidentIDs.get(i + firstIndex)));
                 currentIndex++;
             } else
                 mResidentLabels[i].setText("");
@@ -582,6 +656,20 @@ public class ResidentControl {
         mDatabaseModel = databaseModel;
     }
 
+    /**
+     * Note: Called after the initialize method.
+     *
+     * Make a reference to the global asynchronous database model.
+     *
+     * @param asyncDatabaseModel
+     *        The global asynchronous database model shared throughout the system.
+     *
+     * @see AsyncDatabaseModel
+     */
+    public void setAsyncDatabaseModel(AsyncDatabaseModel asyncDatabaseModel) {
+        mAsyncDatabaseModel = asyncDatabaseModel;
+    }
+
     /**
      * Note: Called after the initialize method.
      *
@@ -594,7 +682,6 @@ public class ResidentControl {
      */
     public void setCacheModel(CacheModel cacheModel) {
         mCacheModel = cacheModel;
-        mResidentNames = mCacheModel.getResidentNamesCache();
     }
 
     /**
@@ -706,4 +793,50 @@ public class ResidentControl {
         mResidentIDs = mCacheModel.getResidentIDsCache();
         updateListPaging(false);
     }
+
+    /**
+     * Refresh the list paging after the cached residents were changed by another
+     * terminal. The current page is kept, and is only repainted if the residents it
+     * displays changed. Thus, the selected resident stays selected otherwise.
+     */
+    public void refreshCachedData() {
+        // A filtered list holds its own IDs, thus the deleted residents are dropped from it.
+        if (mResidentIDs != mCacheModel.getResidentIDsCache())
+            mResidentIDs.removeIf(residentID -> mCacheModel.getResidentName(residentID) == null);
+
+        mResidentCount = mResidentIDs.size();
+        mPageCount = (int) Math.ceil(mResidentCount / 40.0);
+        mCurrentPage = Math.max(1, Math.min(mCurrentPage, mPageCount));
+
+        mCurrentPageLabel.setText(mCurrentPage + "");
+        mPageCountLabel.setText(mPageCount == 0 ? "1" : mPageCount + "");
+
+        // Disable the back page button if the current page is the first one.
+        mBackPageButton.setDisable(mCurrentPage == 1 ? true : false);
+
+        // Disable the next page button if the current page is the last one.
+        mNextPageButton.setDisable(mCurrentPage >= mPageCount ? true : false);
+
+        int firstIndex = (mCurrentPage - 1) * 40;
+
+        for (int i = 0; i < 40; i++) {
+            String residentName = firstIndex + i < mResidentCount ?
+                    mCacheModel.getResidentName(mResidentIDs.get(firstIndex + i)) : "";
+
+            if (!residentName.equals(mResidentLabels[i].getText())) {
+                String residentSelectedID = mLabelSelectedIndex != -1 && mResidentSelected != null ?
+                        mResidentSelected.getId() : null;
+
+                updateCurrentPage();
+
+                // Select the previously selected resident again if it is still within the page.
+                int index = residentSelectedID != null ? mResidentIDs.indexOf(residentSelectedID) : -1;
+
+                if (index >= firstIndex && index < firstIndex + 40)
+                    setResidentToLabelSelected(index - firstIndex);
+
+                return;
+            }
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package javah.controller;
 
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
@@ -17,6 +18,7 @@ import javah.Main;
 import javah.container.Resident;
 import javah.contract.CSSContract;
 import javah.util.BarangayUtils;
+import javah.util.IOExecutors;
 
 import javax.imageio.ImageIO;
 import java.awt.image.RenderedImage;
@@ -27,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A controller class for managing the resident form, either for update or
@@ -144,6 +147,13 @@ public class ResidentFormControl {
      */
     private WritableImage mResidentPhoto;
 
+    /**
+     * The write of the photo of the resident being saved, or null if no save waits for
+     * its photo. The form is disabled meanwhile, and the save is dropped if the form is
+     * cancelled or closed before the photo is written.
+     */
+    private CompletableFuture<Boolean> mPendingSave;
+
     /* A reference to the listener of this controller. */
     private OnResidentFormListener mListener;
 
@@ -233,6 +243,12 @@ public class ResidentFormControl {
 
         // Reset the resident form every time it is set to visible.
         mRootPane.visibleProperty().addListener((observable, oldValue, newValue) -> {
+            // Drop the save still waiting for its photo, since the form was closed.
+            if (mPendingSave != null) {
+                mPendingSave = null;
+                mRootPane.setDisable(false);
+            }
+
             if (newValue) {
                 mResident = null;
 
@@ -278,6 +294,7 @@ public class ResidentFormControl {
      */
     @FXML
     public void onCancelButtonClicked(ActionEvent event) {
+        mPendingSave = null;
         mListener.onCancelButtonClicked();
     }
 
@@ -361,28 +378,63 @@ public class ResidentFormControl {
 
             // Store the image permanently in Barangay131/Photos and return the path.
             if (mResidentPhoto != null) {
-                try {
-                    // Save the photo in the approriate directory with a unique uuid name.
-                    String targetImage = Main.PHOTO_DIR_PATH + "/" + UUID.randomUUID() + ".png";
-
-                    File file = new File(targetImage);
-                    RenderedImage renderedImage = SwingFXUtils.fromFXImage(mResidentPhoto, null);
-                    ImageIO.write(
-                            renderedImage,
-                            "png",
-                            file);
+                // Save the photo in the approriate directory with a unique uuid name.
+                String targetImage = Main.PHOTO_DIR_PATH + "/" + UUID.randomUUID() + ".png";
+
+                File file = new File(targetImage);
+                WritableImage photo = mResidentPhoto;
+                RenderedImage renderedImage = SwingFXUtils.fromFXImage(photo, null);
+                Resident resident = mResident;
+
+                mResidentPhoto = null;
+
+                // Disable the form until the photo is written, so that the resident is not
+                // saved twice.
+                mRootPane.setDisable(true);
+
+                // Write the photo on an I/O thread, then save the resident once the photo
+                // exists, since the saved resident is displayed with its photo.
+                CompletableFuture<Boolean> pendingSave = IOExecutors.supplyFileTask(() -> {
+                    try {
+                        ImageIO.write(
+                                renderedImage,
+                                "png",
+                                file);
+
+                        return true;
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        return false;
+                    }
+                });
+
+                mPendingSave = pendingSave;
+
+                pendingSave.whenCompleteAsync((isWritten, exception) -> {
+                    // The form was cancelled or closed meanwhile.
+                    if (mPendingSave != pendingSave)
+                        return;
+
+                    mPendingSave = null;
+                    mRootPane.setDisable(false);
+
+                    if (exception != null) {
+                        // Too many images are being written. Keep the photo, so that saving
+                        // again retries.
+                        exception.printStackTrace();
+                        mResidentPhoto = photo;
+                        return;
+                    }
 
                     // Store the path of the photo to the resident to be saved in the database.
-                    mResident.setPhotoPath(targetImage);
+                    if (isWritten)
+                        resident.setPhotoPath(targetImage);
 
-                    mResidentPhoto = null;
-
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+                    mListener.onSaveButtonClicked(resident);
+                }, Platform::runLater);
 
-            mListener.onSaveButtonClicked(mResident);
+            } else
+                mListener.onSaveButtonClicked(mResident);
         }
     }
 
@@ -452,8 +504,9 @@ public class ResidentFormControl {
         mActionLabel.setText("Update Resident");
         mActionIcon.setImage(new Image("res/ic_edit_resident.png"));
 
-        // Populate the form with the resident's data.
-        mResident = resident;
+        // Populate the form with the resident's data. Edit a copy, since the resident
+        // might be shared with the entity cache and the other readers.
+        mResident = new Resident(resident);
 
         if (resident.getPhotoPath() != null)
             mResidentPhotoView.setImage(new Image("file:" + resident.getPhotoPath()));
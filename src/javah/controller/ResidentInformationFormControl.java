@@ -1,5 +1,6 @@
 package javah.controller;
 
+import javafx.application.Platform;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
@@ -23,6 +24,8 @@ import javah.contract.DatabaseContract;
 import javah.model.CacheModel;
 import javah.model.DatabaseModel;
 import javah.util.BarangayUtils;
+import javah.util.IOExecutors;
+import javah.util.SearchDebouncer;
 
 import javax.imageio.ImageIO;
 
@@ -30,6 +33,7 @@ import java.awt.image.RenderedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
@@ -240,8 +244,8 @@ public class ResidentInformationFormControl {
      */
     private List<String> mResidentIDs;
 
-    /* A reference to the resident names cache. */
-    private List<String> mResidentNames;
+    /* Searches as the user types within the search field. */
+    private SearchDebouncer mSearchDebouncer;
 
     /**
      * Note: used for FORM_BARANGAY_ID
@@ -250,6 +254,14 @@ public class ResidentInformationFormControl {
      */
     private WritableImage mSignatureImage;
 
+    /**
+     * The write of the signature of the barangay ID being created, or null if no
+     * barangay ID waits for its signature. The form is disabled meanwhile, and the
+     * barangay ID is dropped if the form is cancelled or closed before the signature
+     * is written.
+     */
+    private CompletableFuture<Boolean> mPendingCreation;
+
     /* A listener for this controller. */
     private OnResidentInfoFormListener mListener;
 
@@ -276,6 +288,7 @@ public class ResidentInformationFormControl {
     @FXML
     private void initialize() {
         BarangayUtils.addTextLimitListener(mSearchField, 90);
+        mSearchDebouncer = new SearchDebouncer(mSearchField, this::search);
 
         mResidentLabels = new Label[10];
 
@@ -307,6 +320,12 @@ public class ResidentInformationFormControl {
 
         // Reset the scene if the root pane is turned visible again.
         mRootPane.visibleProperty().addListener((observable, oldValue, newValue) -> {
+            // Drop the barangay ID still waiting for its signature, since the form was closed.
+            if (mPendingCreation != null) {
+                mPendingCreation = null;
+                mRootPane.setDisable(false);
+            }
+
             if (newValue) {
                 mSignatureImage = null;
 
@@ -357,6 +376,18 @@ public class ResidentInformationFormControl {
      */
     @FXML
     public void onSearchButtonClicked(Event event) {
+        mSearchDebouncer.cancel();
+        search();
+        mCurrentPageLabel.requestFocus();
+    }
+
+    /**
+     * Filter the list paging with the text of the search field. Also called as the user
+     * types, after a short delay.
+     *
+     * @see SearchDebouncer
+     */
+    private void search() {
         String keywords = mSearchField.getText().trim();
 
         if (keywords == null || keywords.isEmpty())
@@ -364,12 +395,10 @@ public class ResidentInformationFormControl {
         else {
             String[] keywordsArray = keywords.split(" ");
 
-            mResidentIDs = BarangayUtils.getFilteredIDs(
-                    mCacheModel.getResidentIDsCache(), mResidentNames, keywordsArray);
+            mResidentIDs = mCacheModel.searchResidents(keywordsArray, false);
         }
 
         updateListPaging(false);
-        mCurrentPageLabel.requestFocus();
     }
 
     /**
@@ -461,6 +490,7 @@ public class ResidentInformationFormControl {
      */
     @FXML
     public void onCancelButtonClicked(ActionEvent actionEvent) {
+        mPendingCreation = null;
         mListener.onCancelButtonClicked();
     }
 
@@ -496,30 +526,66 @@ public class ResidentInformationFormControl {
                 // Store the uploaded or captured signature (if any) permanently in
                 // Barangay131/Signatures/ and return the path.
                 if (mSignatureImage != null) {
-                    try {
-                        // Save the photo in the approriate directory with a unique uuid name.
-                        String targetImage = Main.SIGNATURE_DIR_PATH + "/" + UUID.randomUUID() + ".png";
+                    // Save the photo in the approriate directory with a unique uuid name.
+                    String targetImage = Main.SIGNATURE_DIR_PATH + "/" + UUID.randomUUID() + ".png";
+
+                    File file = new File(targetImage);
+                    WritableImage signature = mSignatureImage;
+                    RenderedImage renderedImage = SwingFXUtils.fromFXImage(signature, null);
+                    BarangayID barangayID = mBarangayID;
+
+                    mSignatureImage = null;
+
+                    // Disable the form until the signature is written, so that the barangay ID
+                    // is not created twice.
+                    mRootPane.setDisable(true);
+
+                    // Write the signature on an I/O thread, then pass the barangay ID to the
+                    // Main Control once the signature exists, since the report displays it.
+                    CompletableFuture<Boolean> pendingCreation = IOExecutors.supplyFileTask(() -> {
+                        try {
+                            ImageIO.write(
+                                    renderedImage,
+                                    "png",
+                                    file);
+
+                            return true;
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                            return false;
+                        }
+                    });
 
-                        File file = new File(targetImage);
-                        RenderedImage renderedImage = SwingFXUtils.fromFXImage(mSignatureImage, null);
-                        ImageIO.write(
-                                renderedImage,
-                                "png",
-                                file);
+                    mPendingCreation = pendingCreation;
 
-                        // Store the path of the signature to the barangay ID.
-                        mBarangayID.setResidentSignature(targetImage);
-                        mBarangayID.setResidentSignatureDimension(null);
+                    pendingCreation.whenCompleteAsync((isWritten, exception) -> {
+                        // The form was cancelled or closed meanwhile.
+                        if (mPendingCreation != pendingCreation)
+                            return;
 
-                        mSignatureImage = null;
+                        mPendingCreation = null;
+                        mRootPane.setDisable(false);
 
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
+                        if (exception != null) {
+                            // Too many images are being written. Keep the signature, so that
+                            // creating again retries.
+                            exception.printStackTrace();
+                            mSignatureImage = signature;
+                            return;
+                        }
 
-                // Pass the generated barangay ID to the Main Control in order to be processed into a report.
-                mListener.onCreateButtonClicked(mBarangayID, FORM_BARANGAY_ID);
+                        // Store the path of the signature to the barangay ID.
+                        if (isWritten) {
+                            barangayID.setResidentSignature(targetImage);
+                            barangayID.setResidentSignatureDimension(null);
+                        }
+
+                        mListener.onCreateButtonClicked(barangayID, FORM_BARANGAY_ID);
+                    }, Platform::runLater);
+
+                } else
+                    // Pass the generated barangay ID to the Main Control in order to be processed into a report.
+                    mListener.onCreateButtonClicked(mBarangayID, FORM_BARANGAY_ID);
                 break;
 
             case FORM_BARANGAY_CLEARANCE:
@@ -624,10 +690,7 @@ public class ResidentInformationFormControl {
 
         for (int i = 0; i < 10; i++) {
             if (currentIndex <= lastIndex) {
-                String id = mResidentIDs.get(i + firstIndex);
-                int index = mCacheModel.getResidentIDsCache().indexOf(id);
-
-                mResidentLabels[i].setText(mResidentNames.get(index));
+                mResidentLabels[i].setText(mCacheModel.getResidentName(mResidentIDs.get(i + firstIndex)));
                 currentIndex++;
             } else
                 mResidentLabels[i].setText("");
@@ -867,7 +930,6 @@ public class ResidentInformationFormControl {
      */
     public void setCacheModel(CacheModel cacheModel) {
         mCacheModel = cacheModel;
-        mResidentNames = mCacheModel.getResidentNamesCache();
     }
 
     /**
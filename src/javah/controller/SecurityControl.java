@@ -39,6 +39,11 @@ public class SecurityControl {
          */
         void onChangePasswordButtonClicked();
 
+        /**
+         * Tell the MainControl to launch the cache diagnostics scene.
+         */
+        void onCacheDiagnosticsButtonClicked();
+
         /**
          * Update the LogoutTimer in the MainControl when the idle combo box value has
          * changed.
@@ -93,6 +98,11 @@ public class SecurityControl {
         mListener.onChangePasswordButtonClicked();
     }
 
+    @FXML
+    public void onCacheDiagnosticsButtonClicked(MouseEvent mouseEvent) {
+        mListener.onCacheDiagnosticsButtonClicked();
+    }
+
     /**
      * Save the new idle time as a preference if it was changed. Also, close this scene.
      *
@@ -0,0 +1,523 @@
+package javah.model;
+
+import javah.container.*;
+import javah.util.IOExecutors;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * An asynchronous facade of the Database Model. Every operation runs on a bounded
+ * pool of I/O threads, or on virtual threads in the virtual thread mode, and
+ * returns a CompletableFuture that is completed through the callback executor,
+ * which is the user interface thread for the controllers. Thus, a slow database
+ * never freezes the window and the controllers can update their views within the
+ * callbacks directly.
+ *
+ * Identical reads requested while a previous one is still running share the same
+ * query instead of hitting the database twice, unless a write was made in between,
+ * so that a read never returns the data from before a write it follows. The shared
+ * reads deliver the same record to every caller, which should edit a copy of it.
+ * Reads made through a channel (e.g. the selection of a list paging) cancel the
+ * previous read of the same channel, so that clicking past a row before its data
+ * arrives discards the stale result.
+ *
+ * @see DatabaseModel
+ */
+public class AsyncDatabaseModel {
+
+    /* The default number of I/O threads. */
+    public static final int DEFAULT_THREAD_COUNT = 4;
+
+    /* The default number of operations that can wait for an I/O thread. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    /* The model running the operations. */
+    private final DatabaseModel mDatabaseModel;
+
+    /* The executor where the returned futures are completed. */
+    private final Executor mCallbackExecutor;
+
+    /* The bounded pool of I/O threads. */
+    private final ExecutorService mExecutor;
+
+    /* The reads currently running or waiting, keyed by their write generation, operation and argument. */
+    private final Map<String, Request<?>> mPendingReads = new ConcurrentHashMap<>();
+
+    /*
+     * Counts the writes submitted and completed. A read only shares the query of a read
+     * of the same generation, so that a read never shares a query which started before
+     * a write that was submitted or completed before the read.
+     */
+    private final AtomicLong mWriteGeneration = new AtomicLong();
+
+    /* The latest future of each channel. */
+    private final Map<String, CompletableFuture<?>> mLatestFutures = new ConcurrentHashMap<>();
+
+    /**
+     * Create an asynchronous facade with the default number of I/O threads.
+     *
+     * @param databaseModel
+     *        The model running the operations.
+     * @param callbackExecutor
+     *        The executor where the returned futures are completed. (e.g. Platform::runLater)
+     */
+    public AsyncDatabaseModel(DatabaseModel databaseModel, Executor callbackExecutor) {
+        this(databaseModel, callbackExecutor, DEFAULT_THREAD_COUNT, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Create an asynchronous facade.
+     *
+     * @param databaseModel
+     *        The model running the operations.
+     * @param callbackExecutor
+     *        The executor where the returned futures are completed. (e.g. Platform::runLater)
+     * @param threadCount
+     *        The number of I/O threads. Should not exceed the size of the connection pool
+     *        of the model, since every running operation holds a connection. Not used in
+     *        the virtual thread mode, where the connection pool bounds the operations.
+     * @param queueCapacity
+     *        The number of operations that can wait for an I/O thread. Operations beyond
+     *        the capacity complete exceptionally with a RejectedExecutionException. Not
+     *        used in the virtual thread mode.
+     *
+     * @see IOExecutors
+     */
+    public AsyncDatabaseModel(DatabaseModel databaseModel, Executor callbackExecutor,
+                              int threadCount, int queueCapacity) {
+        mDatabaseModel = databaseModel;
+        mCallbackExecutor = callbackExecutor;
+        mExecutor = IOExecutors.newExecutor("database-io-", threadCount, queueCapacity);
+    }
+
+    /**
+     * Make a future the latest future of a channel, cancelling the previous future of
+     * the channel if it is not done yet. Used for the reads of a selection, where only
+     * the latest selection should be displayed.
+     *
+     * @param channel
+     *        The channel of the future. (e.g. "resident-selection")
+     * @param future
+     *        The latest future of the channel.
+     *
+     * @return the future, to allow chaining.
+     */
+    public <T> CompletableFuture<T> latest(String channel, CompletableFuture<T> future) {
+        CompletableFuture<?> previousFuture = mLatestFutures.put(channel, future);
+
+        if (previousFuture != null && previousFuture != future)
+            previousFuture.cancel(false);
+
+        // Forget the future once it is done, unless a newer future replaced it.
+        future.whenComplete((result, throwable) -> mLatestFutures.remove(channel, future));
+
+        return future;
+    }
+
+    /**
+     * Cancel the future of a channel, if any. Used when the selection is cleared.
+     *
+     * @param channel
+     *        The channel to be cancelled.
+     */
+    public void cancel(String channel) {
+        CompletableFuture<?> future = mLatestFutures.remove(channel);
+
+        if (future != null)
+            future.cancel(false);
+    }
+
+    /**
+     * Stop the I/O threads. The operations that are still waiting are not run.
+     */
+    public void shutdown() {
+        mExecutor.shutdownNow();
+    }
+
+    /**
+     * @see DatabaseModel#getResident(String)
+     */
+    public CompletableFuture<Resident> getResident(String residentID) {
+        return read("getResident:" + residentID, () -> mDatabaseModel.getResident(residentID));
+    }
+
+    /**
+     * @see DatabaseModel#getBarangayID(String)
+     */
+    public CompletableFuture<BarangayID> getBarangayID(String barangayIDID) {
+        return read("getBarangayID:" + barangayIDID, () -> mDatabaseModel.getBarangayID(barangayIDID));
+    }
+
+    /**
+     * @see DatabaseModel#getBarangayClearance(String)
+     */
+    public CompletableFuture<BarangayClearance> getBarangayClearance(String barangayClearanceID) {
+        return read("getBarangayClearance:" + barangayClearanceID,
+                () -> mDatabaseModel.getBarangayClearance(barangayClearanceID));
+    }
+
+    /**
+     * @see DatabaseModel#getBusiness(String)
+     */
+    public CompletableFuture<Business> getBusiness(String businessID) {
+        return read("getBusiness:" + businessID, () -> mDatabaseModel.getBusiness(businessID));
+    }
+
+    /**
+     * @see DatabaseModel#getBusinessClearance(String)
+     */
+    public CompletableFuture<BusinessClearance> getBusinessClearance(String businessClearanceID) {
+        return read("getBusinessClearance:" + businessClearanceID,
+                () -> mDatabaseModel.getBusinessClearance(businessClearanceID));
+    }
+
+    /**
+     * @see DatabaseModel#getBarangayIDProperties(String)
+     */
+    public CompletableFuture<Object[]> getBarangayIDProperties(String residentID) {
+        return read("getBarangayIDProperties:" + residentID, () -> mDatabaseModel.getBarangayIDProperties(residentID));
+    }
+
+    /**
+     * @see DatabaseModel#getBarangayClearanceProperties(String)
+     */
+    public CompletableFuture<String> getBarangayClearanceProperties(String residentID) {
+        return read("getBarangayClearanceProperties:" + residentID,
+                () -> mDatabaseModel.getBarangayClearanceProperties(residentID));
+    }
+
+    /**
+     * @see DatabaseModel#getResidentEssentials()
+     */
+    public CompletableFuture<List[]> getResidentEssentials() {
+        return read("getResidentEssentials", mDatabaseModel::getResidentEssentials);
+    }
+
+    /**
+     * @see DatabaseModel#getBarangayIDEssentials()
+     */
+    public CompletableFuture<List[]> getBarangayIDEssentials() {
+        return read("getBarangayIDEssentials", mDatabaseModel::getBarangayIDEssentials);
+    }
+
+    /**
+     * @see DatabaseModel#getBarangayClearanceEssentials()
+     */
+    public CompletableFuture<List[]> getBarangayClearanceEssentials() {
+        return read("getBarangayClearanceEssentials", mDatabaseModel::getBarangayClearanceEssentials);
+    }
+
+    /**
+     * @see DatabaseModel#getBusinessEssentials()
+     */
+    public CompletableFuture<List[]> getBusinessEssentials() {
+        return read("getBusinessEssentials", mDatabaseModel::getBusinessEssentials);
+    }
+
+    /**
+     * @see DatabaseModel#getBusinessClearanceEssentials()
+     */
+    public CompletableFuture<List[]> getBusinessClearanceEssentials() {
+        return read("getBusinessClearanceEssentials", mDatabaseModel::getBusinessClearanceEssentials);
+    }
+
+    /**
+     * @see DatabaseModel#getBarangayIDHistory(Timestamp)
+     */
+    public CompletableFuture<List[]> getBarangayIDHistory(Timestamp before) {
+        return read("getBarangayIDHistory:" + before, () -> mDatabaseModel.getBarangayIDHistory(before));
+    }
+
+    /**
+     * @see DatabaseModel#getBarangayClearanceHistory(Timestamp)
+     */
+    public CompletableFuture<List[]> getBarangayClearanceHistory(Timestamp before) {
+        return read("getBarangayClearanceHistory:" + before,
+                () -> mDatabaseModel.getBarangayClearanceHistory(before));
+    }
+
+    /**
+     * @see DatabaseModel#getBusinessClearanceHistory(Timestamp)
+     */
+    public CompletableFuture<List[]> getBusinessClearanceHistory(Timestamp before) {
+        return read("getBusinessClearanceHistory:" + before,
+                () -> mDatabaseModel.getBusinessClearanceHistory(before));
+    }
+
+    /**
+     * @see DatabaseModel#getCacheDelta(long)
+     */
+    public CompletableFuture<CacheDelta> getCacheDelta(long sinceVersion) {
+        return read("getCacheDelta:" + sinceVersion, () -> mDatabaseModel.getCacheDelta(sinceVersion));
+    }
+
+    /**
+     * @see DatabaseModel#createResident(Resident)
+     */
+    public CompletableFuture<String> createResident(Resident resident) {
+        return write(() -> mDatabaseModel.createResident(resident));
+    }
+
+    /**
+     * @see DatabaseModel#createResidents(List,int)
+     */
+    public CompletableFuture<List<String>> createResidents(List<Resident> residents, int batchSize) {
+        return write(() -> mDatabaseModel.createResidents(residents, batchSize));
+    }
+
+    /**
+     * @see DatabaseModel#createBarangayID(BarangayID)
+     */
+    public CompletableFuture<String> createBarangayID(BarangayID barangayID) {
+        return write(() -> mDatabaseModel.createBarangayID(barangayID));
+    }
+
+    /**
+     * @see DatabaseModel#createBarangayClearance(BarangayClearance)
+     */
+    public CompletableFuture<String> createBarangayClearance(BarangayClearance barangayClearance) {
+        return write(() -> mDatabaseModel.createBarangayClearance(barangayClearance));
+    }
+
+    /**
+     * @see DatabaseModel#createBarangayClearances(List,int)
+     */
+    public CompletableFuture<List<String>> createBarangayClearances(List<BarangayClearance> barangayClearances,
+                                                                   int batchSize) {
+        return write(() -> mDatabaseModel.createBarangayClearances(barangayClearances, batchSize));
+    }
+
+    /**
+     * @see DatabaseModel#createBusiness(Business)
+     */
+    public CompletableFuture<String> createBusiness(Business business) {
+        return write(() -> mDatabaseModel.createBusiness(business));
+    }
+
+    /**
+     * @see DatabaseModel#createBusinessClearance(BusinessClearance)
+     */
+    public CompletableFuture<String> createBusinessClearance(BusinessClearance businessClearance) {
+        return write(() -> mDatabaseModel.createBusinessClearance(businessClearance));
+    }
+
+    /**
+     * @see DatabaseModel#updateResident(Resident)
+     */
+    public CompletableFuture<Void> updateResident(Resident resident) {
+        return write(() -> {
+            mDatabaseModel.updateResident(resident);
+            return null;
+        });
+    }
+
+    /**
+     * @see DatabaseModel#updateBusiness(Business)
+     */
+    public CompletableFuture<Void> updateBusiness(Business business) {
+        return write(() -> {
+            mDatabaseModel.updateBusiness(business);
+            return null;
+        });
+    }
+
+    /**
+     * @see DatabaseModel#deleteResident(String)
+     */
+    public CompletableFuture<Void> deleteResident(String residentID) {
+        return write(() -> {
+            mDatabaseModel.deleteResident(residentID);
+            return null;
+        });
+    }
+
+    /**
+     * @see DatabaseModel#deleteBusiness(String)
+     */
+    public CompletableFuture<Void> deleteBusiness(String businessID) {
+        return write(() -> {
+            mDatabaseModel.deleteBusiness(businessID);
+            return null;
+        });
+    }
+
+    /**
+     * @see DatabaseModel#generateID(String)
+     */
+    public CompletableFuture<String> generateID(String tableName) {
+        return write(() -> mDatabaseModel.generateID(tableName));
+    }
+
+    /**
+     * Run a read, sharing the query with an identical read that is still pending and
+     * that was requested since the same write.
+     *
+     * @param key
+     *        The operation and argument of the read.
+     * @param operation
+     *        The read.
+     *
+     * @return a future of the result, completed through the callback executor.
+     */
+    private <T> CompletableFuture<T> read(String key, Supplier<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        String pendingKey = mWriteGeneration.get() + ":" + key;
+
+        while (true) {
+            Request<T> newRequest = new Request<>(pendingKey, operation);
+
+            @SuppressWarnings("unchecked")
+            Request<T> request = (Request<T>) mPendingReads.putIfAbsent(pendingKey, newRequest);
+
+            if (request == null) {
+                newRequest.subscribe(future);
+                submit(newRequest);
+                return future;
+            }
+
+            // The pending request might have started delivering its result, in which case
+            // a new request is made for this read.
+            if (request.subscribe(future))
+                return future;
+
+            mPendingReads.remove(pendingKey, request);
+        }
+    }
+
+    /**
+     * Run a write. Writes are never shared nor cancelled once started.
+     *
+     * @param operation
+     *        The write.
+     *
+     * @return a future of the result, completed through the callback executor.
+     */
+    private <T> CompletableFuture<T> write(Supplier<T> operation) {
+        // Separate the reads requested before, while and after the write.
+        mWriteGeneration.incrementAndGet();
+
+        Request<T> request = new Request<>(null, () -> {
+            try {
+                return operation.get();
+            } finally {
+                mWriteGeneration.incrementAndGet();
+            }
+        });
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        request.subscribe(future);
+        submit(request);
+
+        return future;
+    }
+
+    /**
+     * Submit a request to the I/O threads.
+     *
+     * @param request
+     *        The request to be run.
+     */
+    private void submit(Request<?> request) {
+        try {
+            mExecutor.execute(request);
+        } catch (RejectedExecutionException e) {
+            request.deliver(null, e);
+        }
+    }
+
+    /**
+     * An operation that is run once for all of its subscribers.
+     */
+    private class Request<T> implements Runnable {
+
+        /* The key of the read, or null for a write. */
+        private final String mKey;
+
+        /* The operation. */
+        private final Supplier<T> mOperation;
+
+        /* The futures waiting for the result of the operation. */
+        private final List<CompletableFuture<T>> mSubscribers = new ArrayList<>();
+
+        /* Determines whether the result is being delivered, closing the subscription. */
+        private boolean mIsDelivering;
+
+        Request(String key, Supplier<T> operation) {
+            mKey = key;
+            mOperation = operation;
+        }
+
+        /**
+         * Subscribe a future to the result of the request.
+         *
+         * @return false if the request already started delivering its result.
+         */
+        synchronized boolean subscribe(CompletableFuture<T> future) {
+            if (mIsDelivering)
+                return false;
+
+            mSubscribers.add(future);
+            return true;
+        }
+
+        /**
+         * Determine whether every subscriber cancelled the request.
+         */
+        synchronized boolean isCancelled() {
+            for (CompletableFuture<T> subscriber : mSubscribers)
+                if (!subscriber.isCancelled())
+                    return false;
+
+            return mKey != null;
+        }
+
+        @Override
+        public void run() {
+            // Skip the query if every subscriber clicked past it while it was waiting.
+            if (isCancelled()) {
+                deliver(null, null);
+                return;
+            }
+
+            try {
+                deliver(mOperation.get(), null);
+            } catch (Throwable throwable) {
+                deliver(null, throwable);
+            }
+        }
+
+        /**
+         * Close the subscription and complete the subscribers through the callback
+         * executor.
+         */
+        void deliver(T result, Throwable throwable) {
+            List<CompletableFuture<T>> subscribers;
+
+            synchronized (this) {
+                mIsDelivering = true;
+                subscribers = new ArrayList<>(mSubscribers);
+            }
+
+            if (mKey != null)
+                mPendingReads.remove(mKey, this);
+
+            mCallbackExecutor.execute(() -> {
+                for (CompletableFuture<T> subscriber : subscribers)
+                    if (throwable == null)
+                        subscriber.complete(result);
+                    else
+                        subscriber.completeExceptionally(throwable);
+            });
+        }
+    }
+}
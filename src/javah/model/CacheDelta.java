@@ -0,0 +1,81 @@
+package javah.model;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The records changed by the terminals between two versions of the change log,
+ * as read from the database after the changes. Applied to the cache model to bring
+ * it up to date without caching every table again.
+ *
+ * The changed residents and businesses are stored with their formatted names, and
+ * the changed reports with their owner IDs and dates of issuance. A changed record
+ * without any data was deleted.
+ *
+ * @see ChangeLog
+ * @see CacheModel#applyDelta(CacheDelta)
+ */
+public class CacheDelta {
+
+    /* The version of the change log the delta starts from. */
+    private final long mSinceVersion;
+
+    /* The version of the change log the delta brings the cache to. */
+    private final long mVersion;
+
+    /* The changed residents and businesses by their IDs. A null name means deleted. */
+    final Map<String, String> mResidents = new LinkedHashMap<>();
+    final Map<String, String> mBusinesses = new LinkedHashMap<>();
+
+    /* The changed reports by their IDs. A null report means deleted. */
+    final Map<String, Report> mBarangayIDs = new LinkedHashMap<>();
+    final Map<String, Report> mBrgyClearances = new LinkedHashMap<>();
+    final Map<String, Report> mBusiClearances = new LinkedHashMap<>();
+
+    /**
+     * Create an empty delta.
+     *
+     * @param sinceVersion
+     *        The version of the change log the delta starts from.
+     * @param version
+     *        The version of the change log the delta brings the cache to.
+     */
+    CacheDelta(long sinceVersion, long version) {
+        mSinceVersion = sinceVersion;
+        mVersion = version;
+    }
+
+    public long getSinceVersion() {
+        return mSinceVersion;
+    }
+
+    public long getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Determine whether no record changed.
+     *
+     * @return true if the delta holds no changed record.
+     */
+    public boolean isEmpty() {
+        return mResidents.isEmpty() && mBusinesses.isEmpty() && mBarangayIDs.isEmpty() &&
+                mBrgyClearances.isEmpty() && mBusiClearances.isEmpty();
+    }
+
+    /**
+     * The essentials of a changed report.
+     */
+    static class Report {
+
+        final String mOwnerID;
+
+        final Timestamp mDateIssued;
+
+        Report(String ownerID, Timestamp dateIssued) {
+            mOwnerID = ownerID;
+            mDateIssued = dateIssued;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package javah.model;
+
+import javah.container.*;
+
+/**
+ * A change of a cached record made by a terminal, published to the other terminals
+ * through the invalidation bus. The event only tells which record changed, so the
+ * other terminals drop their cached copy of the record and refresh their cache from
+ * the change log, which always holds the latest data of the record.
+ *
+ * @see InvalidationBus
+ * @see ChangeLog
+ */
+public class CacheEvent {
+
+    /* The kinds of the changed records. */
+    public static final byte KIND_RESIDENT = 1,
+            KIND_BARANGAY_ID = 2,
+            KIND_BARANGAY_CLEARANCE = 3,
+            KIND_BUSINESS = 4,
+            KIND_BUSINESS_CLEARANCE = 5;
+
+    /* The kind of the changed record. */
+    private final byte mKind;
+
+    /* The ID of the changed record, or null if many records of the kind changed. */
+    private final String mID;
+
+    /**
+     * Create an event.
+     *
+     * @param kind
+     *        The kind of the changed record. (e.g. KIND_RESIDENT)
+     * @param id
+     *        The ID of the changed record, or null if many records of the kind changed,
+     *        such as after a bulk import.
+     */
+    public CacheEvent(byte kind, String id) {
+        if (kind < KIND_RESIDENT || kind > KIND_BUSINESS_CLEARANCE)
+            throw new IllegalArgumentException("Invalid record kind: " + kind);
+
+        mKind = kind;
+        mID = id;
+    }
+
+    public byte getKind() {
+        return mKind;
+    }
+
+    public String getID() {
+        return mID;
+    }
+
+    /**
+     * Fetch the class of the changed record, as it is keyed within the entity cache.
+     *
+     * @return the class of the changed record. (e.g. Resident.class)
+     *
+     * @see EntityCache#invalidate(Class, String)
+     */
+    public Class<?> getRecordClass() {
+        switch (mKind) {
+            case KIND_RESIDENT:
+                return Resident.class;
+
+            case KIND_BARANGAY_ID:
+                return BarangayID.class;
+
+            case KIND_BARANGAY_CLEARANCE:
+                return BarangayClearance.class;
+
+            case KIND_BUSINESS:
+                return Business.class;
+
+            default:
+                return BusinessClearance.class;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CacheEvent[kind=" + mKind + ", id=" + mID + "]";
+    }
+}
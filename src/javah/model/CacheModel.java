@@ -1,11 +1,22 @@
 package javah.model;
 
 import javah.container.*;
+import javah.util.IOExecutors;
+import javah.util.IntObjectMap;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 /**
  * A class that caches the information data from the database to constant
@@ -14,222 +25,572 @@ import java.util.List;
 public class CacheModel {
 
     /**
-     * A list containing all the IDs from the Resident table, used to specify a
-     * resident from the database.
-     *
-     * Cardinality |mResidentIDsCache| == |mResidentNamesCache|.
+     * An interface that tells the client about the progress of the caching of each
+     * table while the cache is started. The methods are called from the threads
+     * caching the tables.
      */
-    private List<String> mResidentIDsCache;
+    public interface OnCacheProgressListener {
+        /**
+         * Called every PROGRESS_INTERVAL rows of a table, and once the table is cached.
+         *
+         * @param table
+         *        The kind of the records of the table. (e.g. CacheEvent.KIND_RESIDENT)
+         * @param rowCount
+         *        The number of rows cached so far.
+         * @param isDone
+         *        Determines whether every row of the table is cached.
+         */
+        void onCacheProgress(byte table, int rowCount, boolean isDone);
+    }
+
+    /* The number of tables cached, each on its own thread and database connection. */
+    public static final int TABLE_COUNT = 5;
+
+    /* The number of rows cached between two progress reports of a table. */
+    public static final int PROGRESS_INTERVAL = 1000;
 
     /**
-     * A list containing all the names from the Resident table. The names have a
+     * The residents, indexed by their IDs and sorted by their names. The names have a
      * format of Last Name, First Name, Middle Initial. Used for displaying the
      * residents in the Resident List Paging of the Resident Control.
      *
-     * Cardinality |mResidentIDsCache| == |mResidentNamesCache|.
-     *
      * @see javah.controller.ResidentControl
      */
-    private List<String> mResidentNamesCache;
+    private final EntityStore mResidents = new EntityStore();
 
     /**
-     * A list containing the IDs of all the Barangay IDs, used to specify a barangay ID
-     * from the database.
+     * The barangay IDs, indexed by their IDs and by the IDs of their residents, and
+     * sorted by their date of issuance. Used to sort the barangay IDs within the
+     * Information Control list paging.
      *
-     * Cardinality |mBarangayIDIDsCache| == |mBarangayIDResidentIDsCache| ==
-     *             |mBarangayIDNamesCache| == |mBarangayIDDateIssuedCache|
+     * @see javah.controller.InformationControl
      */
-    private List<String> mBarangayIDIDsCache;
+    private final ReportStore mBarangayIDs = new ReportStore(mResidents);
 
     /**
-     * A list containing the Resident IDs of all the Barangay IDs, used to determine the
-     * actual names of the applicant of the Barangay ID by getting a specified index from
-     * mResidentIDsCache and using the resulting index to acquire the specified name.
-     *
-     * Cardinality |mBarangayIDIDsCache| == |mBarangayIDResidentIDsCache| ==
-     *             |mBarangayIDNamesCache| == |mBarangayIDDateIssuedCache|
+     * The actual names of the applicants of the barangay IDs, in the order of the
+     * barangay IDs. Resolved from mResidents whenever read.
      */
-    private List<String> mBarangayIDResidentIDsCache;
+    private final List<String> mBarangayIDNamesCache = mBarangayIDs.getOwnerNames();
 
     /**
-     * A list containing the actual names of the applicant. That is, its elements is
-     * gathered from the mResidentNamesCache with the help of mBarangayIDResidentIDsCache.
+     * The barangay clearances, indexed by their IDs and by the IDs of their residents,
+     * and sorted by their date of issuance. Used to sort the barangay clearances within
+     * the Information Control list paging.
      *
-     * Cardinality |mBarangayIDIDsCache| == |mBarangayIDResidentIDsCache| ==
-     *             |mBarangayIDNamesCache| == |mBarangayIDDateIssuedCache|
+     * @see javah.controller.InformationControl
+     */
+    private final ReportStore mBrgyClearances = new ReportStore(mResidents);
+
+    /**
+     * The actual names of the applicants of the barangay clearances, in the order of the
+     * barangay clearances. Resolved from mResidents whenever read.
      */
-    private List<String> mBarangayIDNamesCache = new ArrayList<>();
+    private final List<String> mBrgyClearanceResidentNamesCache = mBrgyClearances.getOwnerNames();
 
     /**
-     * A list containing the Resident IDs of all the Barangay IDs, used to sort
-     * the barangay ID within the Information Control list paging.
+     * The businesses, indexed by their IDs and sorted by their names. Used for
+     * displaying the businesses in the list paging of the Business Clearance Form.
      *
-     * Cardinality |mBarangayIDIDsCache| == |mBarangayIDResidentIDsCache| ==
-     *             |mBarangayIDNamesCache| == |mBarangayIDDateIssuedCache|
+     * @see javah.controller.BusinessClearanceFormControl
+     */
+    private final EntityStore mBusinesses = new EntityStore();
+
+    /**
+     * The business clearances, indexed by their IDs and by the IDs of their businesses,
+     * and sorted by their date of issuance. Used to sort the business clearances within
+     * the Information Control list paging.
      *
      * @see javah.controller.InformationControl
      */
-    private List<Timestamp> mBarangayIDDateIssuedCache;
+    private final ReportStore mBusiClearances = new ReportStore(mBusinesses);
 
     /**
-     * A list containing the IDs of all the barangay clearance, used to specify a
-     * barangay clearance from the database.
-     *
-     * Cardinality |mBrgyClearanceIDsCache| == |mBrgyClearanceResidentIDsCache| ==
-     *             |mBrgyClearanceNamesCache| == |mBrgyClearanceDateIssuedCache|
+     * The actual names of the businesses of the business clearances, in the order of the
+     * business clearances. Resolved from mBusinesses whenever read.
      */
-    private List<String> mBrgyClearanceIDsCache;
+    private final List<String> mBusiClearanceBusiNamesCache = mBusiClearances.getOwnerNames();
+
+    /* Incremented whenever the cached data changes, to know when the snapshot is outdated. */
+    private int mVersion;
 
     /**
-     * A list containing the Resident IDs of all the Barangay clearances, used to
-     * determine the actual names of the applicant of the Barangay clearance by getting
-     * a specified index from mBrgyClearanceResidentIDsCache and using the resulting
-     * index to acquire the specified name.
+     * The version of the change log the cached data is up to date with, or -1 if it
+     * is unknown, such as when the cache was loaded from a snapshot and not yet
+     * reconciled with the database.
      *
-     * Cardinality |mBrgyClearanceIDsCache| == |mBrgyClearanceResidentIDsCache| ==
-     *             |mBrgyClearanceNamesCache| == |mBrgyClearanceDateIssuedCache|
+     * @see ChangeLog
      */
-    private List<String> mBrgyClearanceResidentIDsCache;
+    private long mChangeVersion = -1;
 
     /**
-     * A list containing the actual names of the applicant. That is, its elements is
-     * gathered from the mResidentNamesCache with the help of mBrgyClearanceResidentIDsCache.
+     * The latest immutable copy of the cached data, replaced as a whole by the thread
+     * modifying the cache, so that the other threads read it without locking.
      *
-     * Cardinality |mBrgyClearanceIDsCache| == |mBrgyClearanceResidentIDsCache| ==
-     *             |mBrgyClearanceNamesCache| == |mBrgyClearanceDateIssuedCache|
+     * @see #publishReadOnlyCache()
      */
-    private List<String> mBrgyClearanceResidentNamesCache = new ArrayList<>();
+    private final AtomicReference<ReadOnlyCache> mReadOnlyCache = new AtomicReference<>();
+
+    /* Publishes the records changed by this terminal to the other terminals, if any. */
+    private InvalidationBus mInvalidationBus;
+
+    /* The statistics of the cached data, updated through updateStats. */
+    private final CacheStats mStats = new CacheStats();
+
+    /* The number of years of reports kept in the cache, or 0 to keep every report. */
+    private int mHistoryYears;
+
+    /* The date the cached reports were issued since, or null if every report is cached. */
+    private Timestamp mHistoryCutoff;
+
+    /* Determines whether the reports issued before the cutoff were cached, by the kinds of the reports. */
+    private final boolean[] mIsHistoryLoaded = new boolean[TABLE_COUNT + 1];
 
     /**
-     * A list containing the date issuance of all the Barangay clearances, used to sort
-     * the barangay clearance within the Information Control list paging.
+     * Get a reference to the universal database model to start caching data, and wait
+     * until every table is cached.
      *
-     * Cardinality |mBrgyClearanceIDsCache| == |mBrgyClearanceResidentIDsCache| ==
-     *             |mBrgyClearanceNamesCache| == |mBrgyClearanceDateIssuedCache|
+     * @param databaseModel
+     *        The universal database model from the main control.
      *
-     * @see javah.controller.InformationControl
+     * @throws java.util.concurrent.CompletionException
+     *         If a table could not be cached entirely.
+     *
+     * @see #startCache(DatabaseModel, OnCacheProgressListener)
      */
-    private List<Timestamp> mBrgyClearanceDateIssuedCache;
+    public void startCache(DatabaseModel databaseModel) {
+        startCache(databaseModel, null).join();
+    }
 
     /**
-     * A list containing all the IDs from the Business table, used to specify a
-     * business from the database.
+     * Start caching data from the database. The tables are cached at the same time,
+     * each on its own thread and database connection, so starting the cache takes
+     * about as long as caching the largest table. The rows are streamed from the
+     * database straight into the cache, so that the tables are never held in memory
+     * twice while caching.
+     *
+     * Each table is written by a single thread, thus the cached data must not be read
+     * nor modified until the returned future is completed.
      *
-     * Cardinality |mBusinessIDsCache| == |mBusinessNamesCache|.
+     * @param databaseModel
+     *        The universal database model from the main control.
+     * @param listener
+     *        The listener of the progress of each table, or null.
+     *
+     * @return a future completed from the last thread done caching its table, or
+     *         completed exceptionally once every thread is done if a table could not be
+     *         cached entirely.
      */
-    private List<String> mBusinessIDsCache;
+    public CompletableFuture<Void> startCache(DatabaseModel databaseModel, OnCacheProgressListener listener) {
+        long startTime = System.nanoTime();
+        Timestamp historyCutoff = mHistoryCutoff;
+
+        mVersion++;
+
+        // Fetched first, so that the changes made while caching are refreshed afterwards.
+        mChangeVersion = databaseModel.getLatestChangeVersion();
+
+        mResidents.clear();
+        mBusinesses.clear();
+        mBarangayIDs.clear();
+        mBrgyClearances.clear();
+        mBusiClearances.clear();
+        resetHistory();
+
+        ExecutorService executor = IOExecutors.newExecutor("cache-warm-up-", TABLE_COUNT, TABLE_COUNT);
+
+        // Each row is inserted into its store in a logarithmic time. The names of the
+        // report applicants are resolved by the stores when read, thus the reports can
+        // be cached before their owners. The reports issued before the history cutoff
+        // are left to be loaded on demand.
+        CompletableFuture<Void> future = CompletableFuture.allOf(
+                cacheTable(executor, new TableLoader(CacheEvent.KIND_RESIDENT, listener, mResidents::put),
+                        databaseModel::streamResidentEssentials),
+                cacheTable(executor, new TableLoader(CacheEvent.KIND_BUSINESS, listener, mBusinesses::put),
+                        databaseModel::streamBusinessEssentials),
+                cacheTable(executor, new TableLoader(CacheEvent.KIND_BARANGAY_ID, listener, mBarangayIDs::put),
+                        loader -> databaseModel.streamBarangayIDEssentials(historyCutoff, loader)),
+                cacheTable(executor, new TableLoader(CacheEvent.KIND_BARANGAY_CLEARANCE, listener,
+                        mBrgyClearances::put),
+                        loader -> databaseModel.streamBarangayClearanceEssentials(historyCutoff, loader)),
+                cacheTable(executor, new TableLoader(CacheEvent.KIND_BUSINESS_CLEARANCE, listener,
+                        mBusiClearances::put),
+                        loader -> databaseModel.streamBusinessClearanceEssentials(historyCutoff, loader)));
+
+        future.whenComplete((result, throwable) -> {
+            executor.shutdown();
+
+            if (throwable == null)
+                mStats.setDatabaseLoadDuration((System.nanoTime() - startTime) / 1_000_000);
+        });
+
+        return future;
+    }
 
     /**
-     * A list containing all the names from the Business table. The names have a
-     * format of Last Name, First Name, Middle Initial. Used for displaying the
-     * businesses in the Information List Paging of the Information Control.
+     * Cache a table on a thread of the executor.
      *
-     * Cardinality |mBusinessIDsCache| == |mBusinessNamesCache|.
-     *
-     * @see javah.controller.InformationControl
+     * @param streamer
+     *        Streams the rows of the table to the loader, returning false if not every
+     *        row could be streamed.
      */
-    private List<String> mBusinessNamesCache;
+    private static CompletableFuture<Void> cacheTable(ExecutorService executor, TableLoader loader,
+                                                      Predicate<TableLoader> streamer) {
+        return CompletableFuture.runAsync(() -> {
+            if (!streamer.test(loader))
+                throw new IllegalStateException("The table of the kind " + loader.mTable + " could not be cached.");
+
+            loader.finish();
+        }, executor);
+    }
 
     /**
-     * A list containing the IDs of all the business clearance, used to specify a
-     * business clearance from the database.
+     * Load the cached data from a snapshot file written by createSnapshot, instead of
+     * querying every table. The snapshot might be outdated, thus the cached data should
+     * be reconciled with the database afterwards.
+     *
+     * @param snapshotFile
+     *        The snapshot file.
+     *
+     * @return true if the snapshot was loaded, or false if the file does not exist,
+     *         is damaged or was written by another version of the application.
      *
-     * Cardinality |mBusiClearanceIDsCache| == |mBusiClearanceResidentIDsCache| ==
-     *             |mBusiClearanceBusiNamesCache| == |mBusiClearanceDateIssuedCache|
+     * @see #reconcile(CacheModel)
      */
-    private List<String> mBusiClearanceIDsCache;
+    public boolean loadSnapshot(File snapshotFile) {
+        long startTime = System.nanoTime();
+
+        try {
+            if (CacheSnapshotFile.read(snapshotFile, mResidents, mBusinesses, mBarangayIDs,
+                    mBrgyClearances, mBusiClearances) == -1)
+                return false;
+
+            // The snapshot may have been written while the history was not capped.
+            if (mHistoryCutoff != null)
+                removeHistory(mHistoryCutoff);
+
+            mVersion++;
+            mStats.setSnapshotLoadDuration((System.nanoTime() - startTime) / 1_000_000);
+            return true;
+
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
     /**
-     * A list containing the business IDs of all the business clearances, used to
-     * determine the actual names of the business of the business clearance by getting
-     * a specified index from mBusiClearanceBusiIDsCache and using the resulting
-     * index to acquire the specified name.
+     * Encode the cached data into a snapshot. Must be called from the thread modifying
+     * the cached data, while the slower writeSnapshot may be called from any thread.
      *
-     * Cardinality |mBusiClearanceIDsCache| == |mBusiClearanceResidentIDsCache| ==
-     *             |mBusiClearanceBusiNamesCache| == |mBusiClearanceDateIssuedCache|
+     * @return the encoded snapshot.
      */
-    private List<String> mBusiClearanceBusiIDsCache;
+    public byte[] createSnapshot() {
+        return CacheSnapshotFile.encode(mResidents, mBusinesses, mBarangayIDs, mBrgyClearances, mBusiClearances);
+    }
 
     /**
-     * A list containing the actual names of the business. That is, its elements is
-     * gathered from the mBusinessNamesCache with the help of mBusiClearanceBusiIDsCache.
+     * Write an encoded snapshot to a file, replacing the previous snapshot.
      *
-     * Cardinality |mBusiClearanceIDsCache| == |mBusiClearanceResidentIDsCache| ==
-     *             |mBusiClearanceBusiNamesCache| == |mBusiClearanceDateIssuedCache|
+     * @param snapshotFile
+     *        The snapshot file.
+     * @param snapshot
+     *        The snapshot from createSnapshot.
      */
-    private List<String> mBusiClearanceBusiNamesCache = new ArrayList<>();
+    public static void writeSnapshot(File snapshotFile, byte[] snapshot) {
+        try {
+            CacheSnapshotFile.write(snapshotFile, snapshot);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
     /**
-     * A list containing the date issuance of all the Barangay clearances, used to sort
-     * the business clearance within the Information Control list paging.
+     * Update the cached data to match a freshly started cache, such as after loading an
+     * outdated snapshot. Only the residents, businesses and reports that differ are
+     * updated, thus the unchanged records keep their place within the list pagings.
      *
-     * Cardinality |mBusiClearanceIDsCache| == |mBusiClearanceResidentIDsCache| ==
-     *             |mBusiClearanceBusiNamesCache| == |mBusiClearanceDateIssuedCache|
+     * @param cacheModel
+     *        A cache model started from the database, with the same history years as
+     *        this cache model.
      *
-     * @see javah.controller.InformationControl
+     * @return the number of records added, updated or removed.
      */
-    private List<Timestamp> mBusiClearanceDateIssuedCache;
+    public int reconcile(CacheModel cacheModel) {
+        Timestamp historyCutoff = cacheModel.mHistoryCutoff;
+
+        int changeCount = mResidents.reconcile(cacheModel.mResidents) +
+                mBusinesses.reconcile(cacheModel.mBusinesses) +
+                mBarangayIDs.reconcile(cacheModel.mBarangayIDs, historyCutoff) +
+                mBrgyClearances.reconcile(cacheModel.mBrgyClearances, historyCutoff) +
+                mBusiClearances.reconcile(cacheModel.mBusiClearances, historyCutoff);
+
+        if (changeCount > 0)
+            mVersion++;
+
+        mChangeVersion = cacheModel.mChangeVersion;
+
+        if (cacheModel.mStats.getDatabaseLoadDuration() != -1)
+            mStats.setDatabaseLoadDuration(cacheModel.mStats.getDatabaseLoadDuration());
+
+        mStats.setLastRefreshTime(System.currentTimeMillis());
+
+        return changeCount;
+    }
 
     /**
-     * Get a reference to the universal database model to start caching data.
+     * Apply the records changed by every terminal since the last refresh, read by the
+     * Database Model in the background. The delta is ignored if it does not start from
+     * the version of the change log of the cached data, such as when another delta
+     * was applied meanwhile.
      *
-     * @param databaseModel
-     *        The universal database model from the main control.
+     * @param delta
+     *        The changed records from the Database Model.
+     *
+     * @return the number of records added, updated or removed from the cached data.
+     *
+     * @see DatabaseModel#getCacheDelta(long)
      */
-    public void startCache(DatabaseModel databaseModel) {
-        List[] lists = databaseModel.getResidentEssentials();
-        mResidentIDsCache = lists[0];
-        mResidentNamesCache = lists[1];
-
-        lists = databaseModel.getBarangayIDEssentials();
-        mBarangayIDIDsCache = lists[0];
-        mBarangayIDResidentIDsCache = lists[1];
-        mBarangayIDDateIssuedCache = lists[2];
-
-        lists = databaseModel.getBarangayClearanceEssentials();
-        mBrgyClearanceIDsCache = lists[0];
-        mBrgyClearanceResidentIDsCache = lists[1];
-        mBrgyClearanceDateIssuedCache = lists[2];
-
-        lists = databaseModel.getBusinessEssentials();
-        mBusinessIDsCache = lists[0];
-        mBusinessNamesCache = lists[1];
-
-        lists = databaseModel.getBusinessClearanceEssentials();
-        mBusiClearanceIDsCache = lists[0];
-        mBusiClearanceBusiIDsCache = lists[1];
-        mBusiClearanceDateIssuedCache = lists[2];
-
-        int barangayIDCount = mBarangayIDIDsCache.size();
-        int barangayClearanceCount = mBrgyClearanceIDsCache.size();
-        int businessClearanceCount = mBusiClearanceIDsCache.size();
-
-        // A variable taking the value of the highest count between the barangay ID,
-        // barangay clearance and business clearance..
-        int count = barangayIDCount >= barangayClearanceCount ?
-                (barangayIDCount >= businessClearanceCount ? barangayIDCount : businessClearanceCount ) :
-                (barangayClearanceCount >= businessClearanceCount ? barangayClearanceCount : businessClearanceCount);
-
-        // Populate the barangay ID and clearance names cache.
-        for (int i = 0; i < count; i++) {
-            if (i < barangayIDCount) {
-                String residentId = mBarangayIDResidentIDsCache.get(i);
-                int index = mResidentIDsCache.indexOf(residentId);
-                mBarangayIDNamesCache.add(mResidentNamesCache.get(index));
-            }
+    public int applyDelta(CacheDelta delta) {
+        if (delta == null || delta.getSinceVersion() != mChangeVersion)
+            return 0;
+
+        mChangeVersion = delta.getVersion();
+        int changeCount = 0;
+
+        for (Map.Entry<String, String> resident : delta.mResidents.entrySet()) {
+            String id = resident.getKey();
 
-            if (i < barangayClearanceCount) {
-                String residentId = mBrgyClearanceResidentIDsCache.get(i);
-                int index = mResidentIDsCache.indexOf(residentId);
-                mBrgyClearanceResidentNamesCache.add(mResidentNamesCache.get(index));
+            if (resident.getValue() == null) {
+                if (mResidents.remove(id)) {
+                    mBarangayIDs.removeByOwner(id);
+                    mBrgyClearances.removeByOwner(id);
+                    changeCount++;
+                }
+            } else if (!resident.getValue().equals(mResidents.getName(id))) {
+                mResidents.put(id, resident.getValue());
+                changeCount++;
             }
+        }
 
-            if (i < businessClearanceCount) {
-                String businessId = mBusiClearanceBusiIDsCache.get(i);
-                int index = mBusinessIDsCache.indexOf(businessId);
-                mBusiClearanceBusiNamesCache.add(mBusinessNamesCache.get(index));
+        for (Map.Entry<String, String> business : delta.mBusinesses.entrySet()) {
+            String id = business.getKey();
+
+            if (business.getValue() == null) {
+                if (mBusinesses.remove(id)) {
+                    mBusiClearances.removeByOwner(id);
+                    changeCount++;
+                }
+            } else if (!business.getValue().equals(mBusinesses.getName(id))) {
+                mBusinesses.put(id, business.getValue());
+                changeCount++;
             }
         }
+
+        changeCount += applyReportDelta(mBarangayIDs, delta.mBarangayIDs);
+        changeCount += applyReportDelta(mBrgyClearances, delta.mBrgyClearances);
+        changeCount += applyReportDelta(mBusiClearances, delta.mBusiClearances);
+
+        if (changeCount > 0)
+            mVersion++;
+
+        mStats.setLastRefreshTime(System.currentTimeMillis());
+
+        return changeCount;
+    }
+
+    /**
+     * Fetch the version of the change log the cached data is up to date with.
+     *
+     * @return the version of the change log, or -1 if it is unknown.
+     */
+    public long getChangeVersion() {
+        return mChangeVersion;
+    }
+
+    /**
+     * Fetch the version of the cached data, which changes whenever the cached data
+     * changes.
+     *
+     * @return the version of the cached data.
+     */
+    public int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Publish an immutable copy of the current cached data, unless the copy last
+     * published is still up to date. Must be called from the thread modifying the
+     * cached data, such as right before handing the copy to a background task. Making
+     * a copy takes a linear time, but only copies arrays of ints.
+     *
+     * @return the up-to-date copy of the cached data.
+     *
+     * @see #getReadOnlyCache()
+     */
+    public ReadOnlyCache publishReadOnlyCache() {
+        ReadOnlyCache readOnlyCache = mReadOnlyCache.get();
+
+        if (readOnlyCache != null && readOnlyCache.getVersion() == mVersion)
+            return readOnlyCache;
+
+        EntityStore.Frozen residents = mResidents.freeze();
+        EntityStore.Frozen businesses = mBusinesses.freeze();
+
+        readOnlyCache = new ReadOnlyCache(mVersion, residents, businesses,
+                mBarangayIDs.freeze(residents),
+                mBrgyClearances.freeze(residents),
+                mBusiClearances.freeze(businesses));
+
+        mReadOnlyCache.set(readOnlyCache);
+        return readOnlyCache;
+    }
+
+    /**
+     * Fetch the immutable copy of the cached data last published. May be called from any
+     * thread, but the copy lags behind the changes made since it was published.
+     *
+     * @return the copy last published, or null if none was published yet.
+     *
+     * @see #publishReadOnlyCache()
+     */
+    public ReadOnlyCache getReadOnlyCache() {
+        return mReadOnlyCache.get();
+    }
+
+    /**
+     * Cap the reports kept in the cache to the reports issued within a number of years,
+     * removing the older reports from the cached data. The older reports are then loaded
+     * on demand through cacheHistory, such as when the end of a list paging is reached.
+     * Must be called before the cache is started to avoid caching the older reports.
+     *
+     * @param historyYears
+     *        The number of years of reports kept, or 0 to keep every report.
+     *
+     * @see #cacheHistory(byte, List[])
+     */
+    public void setHistoryYears(int historyYears) {
+        mHistoryYears = historyYears;
+        mStats.setHistoryYears(historyYears);
+
+        if (historyYears > 0) {
+            // Starting from the beginning of the day, so that the cutoff stays the same
+            // for the snapshot and the refreshes of the day.
+            mHistoryCutoff = Timestamp.valueOf(LocalDate.now().minusYears(historyYears).atStartOfDay());
+
+            if (removeHistory(mHistoryCutoff) > 0)
+                mVersion++;
+        } else
+            mHistoryCutoff = null;
+
+        resetHistory();
+    }
+
+    public int getHistoryYears() {
+        return mHistoryYears;
+    }
+
+    /**
+     * Fetch the date the cached reports were issued since.
+     *
+     * @return the history cutoff, or null if every report is cached.
+     */
+    public Timestamp getHistoryCutoff() {
+        return mHistoryCutoff;
+    }
+
+    /**
+     * Determine whether the reports of a kind issued before the history cutoff can
+     * still be loaded into the cache.
+     *
+     * @param kind
+     *        The kind of the reports. (e.g. CacheEvent.KIND_BARANGAY_ID)
+     *
+     * @return true if the history is capped and its reports were not loaded yet.
+     */
+    public boolean hasUnloadedHistory(byte kind) {
+        return mHistoryCutoff != null && !mIsHistoryLoaded[kind];
+    }
+
+    /**
+     * Add the reports issued before the history cutoff to the cached data.
+     *
+     * @param kind
+     *        The kind of the reports. (e.g. CacheEvent.KIND_BARANGAY_ID)
+     * @param history
+     *        The reports from the Database Model, or null if they could not be read.
+     *
+     * @see DatabaseModel#getBarangayIDHistory(Timestamp)
+     */
+    public void cacheHistory(byte kind, List[] history) {
+        if (history == null || mIsHistoryLoaded[kind])
+            return;
+
+        getReportStore(kind).putAll(history[0], history[1], history[2]);
+        mIsHistoryLoaded[kind] = true;
+        mVersion++;
+    }
+
+    /**
+     * Fetch the statistics of the cached data, last updated through updateStats.
+     *
+     * @return the statistics, which may be read from any thread.
+     */
+    public CacheStats getStats() {
+        return mStats;
+    }
+
+    /**
+     * Update the record counts and the estimated bytes of the statistics. Must be called
+     * from the thread modifying the cached data. Takes a linear time on the number of
+     * report owners, thus should not be called on every change.
+     */
+    public void updateStats() {
+        int[] counts = new int[TABLE_COUNT];
+        long[] bytes = new long[TABLE_COUNT];
+
+        counts[CacheEvent.KIND_RESIDENT - 1] = mResidents.size();
+        counts[CacheEvent.KIND_BUSINESS - 1] = mBusinesses.size();
+        counts[CacheEvent.KIND_BARANGAY_ID - 1] = mBarangayIDs.size();
+        counts[CacheEvent.KIND_BARANGAY_CLEARANCE - 1] = mBrgyClearances.size();
+        counts[CacheEvent.KIND_BUSINESS_CLEARANCE - 1] = mBusiClearances.size();
+
+        bytes[CacheEvent.KIND_RESIDENT - 1] = mResidents.estimateBytes();
+        bytes[CacheEvent.KIND_BUSINESS - 1] = mBusinesses.estimateBytes();
+        bytes[CacheEvent.KIND_BARANGAY_ID - 1] = mBarangayIDs.estimateBytes();
+        bytes[CacheEvent.KIND_BARANGAY_CLEARANCE - 1] = mBrgyClearances.estimateBytes();
+        bytes[CacheEvent.KIND_BUSINESS_CLEARANCE - 1] = mBusiClearances.estimateBytes();
+
+        mStats.update(counts, bytes);
+    }
+
+    /**
+     * Remove the reports issued before a date from every report store.
+     *
+     * @return the number of reports removed.
+     */
+    private int removeHistory(Timestamp date) {
+        return mBarangayIDs.removeIssuedBefore(date) +
+                mBrgyClearances.removeIssuedBefore(date) +
+                mBusiClearances.removeIssuedBefore(date);
+    }
+
+    private void resetHistory() {
+        Arrays.fill(mIsHistoryLoaded, false);
+    }
+
+    private ReportStore getReportStore(byte kind) {
+        switch (kind) {
+            case CacheEvent.KIND_BARANGAY_ID: return mBarangayIDs;
+            case CacheEvent.KIND_BARANGAY_CLEARANCE: return mBrgyClearances;
+            case CacheEvent.KIND_BUSINESS_CLEARANCE: return mBusiClearances;
+            default: throw new IllegalArgumentException("Not a kind of report: " + kind);
+        }
+    }
+
+    private <T> T countLookup(T result) {
+        mStats.countLookup(result != null);
+        return result;
     }
 
     /**
@@ -238,7 +599,7 @@ public class CacheModel {
      * @return the resident IDs cache.
      */
     public List<String> getResidentIDsCache() {
-        return mResidentIDsCache;
+        return mResidents.getIDs();
     }
 
     /**
@@ -247,7 +608,50 @@ public class CacheModel {
      * @return the resident names cache.
      */
     public List<String> getResidentNamesCache() {
-        return mResidentNamesCache;
+        return mResidents.getNames();
+    }
+
+    /**
+     * Fetch the name of a cached resident.
+     *
+     * @param residentID
+     *        The ID of the resident.
+     *
+     * @return the formatted name of the resident, or null if it is not cached.
+     */
+    public String getResidentName(String residentID) {
+        return countLookup(mResidents.getName(residentID));
+    }
+
+    /**
+     * Find the cached residents having a word of their names starting with any of the
+     * keywords, through the index of the words of the names.
+     *
+     * @param keywords
+     *        The keywords, in any case.
+     * @param isFuzzy
+     *        Determines whether the keywords may be misspelled.
+     *
+     * @return a new list of the IDs of the matching residents, from the residents matching
+     *         the most keywords to the least, then sorted by their names.
+     */
+    public List<String> searchResidents(String[] keywords, boolean isFuzzy) {
+        return mResidents.search(keywords, isFuzzy);
+    }
+
+    /**
+     * Match the names of the cached residents with keywords, so that their reports can be
+     * filtered from a read-only copy of the cache through ReadOnlyCache#filterReports.
+     *
+     * @param keywords
+     *        The keywords, in any case.
+     * @param isFuzzy
+     *        Determines whether the keywords may be misspelled.
+     *
+     * @return the matches of the residents by the codes of their IDs.
+     */
+    public IntObjectMap<int[]> matchResidentNames(String[] keywords, boolean isFuzzy) {
+        return mResidents.match(keywords, isFuzzy);
     }
 
     /**
@@ -255,14 +659,14 @@ public class CacheModel {
      *
      * @return the barangay ID IDs cache.
      */
-    public List<String> getBrgyIDIDsCache() { return mBarangayIDIDsCache; }
+    public List<String> getBrgyIDIDsCache() { return mBarangayIDs.getIDs(); }
 
     /**
      * Fetch the Barangay ID Resident IDs cache.
      *
      * @return the Barangay ID Resident IDs cache.
      */
-    public List<String> getBrgyIDResidentIDsCache() { return mBarangayIDResidentIDsCache; }
+    public List<String> getBrgyIDResidentIDsCache() { return mBarangayIDs.getOwnerIDs(); }
 
     /**
      * Fetch the Barangay ID Resident Names Cache.
@@ -278,7 +682,28 @@ public class CacheModel {
      *
      * @return the Barangay ID Date Issued cache.
      */
-    public List<Timestamp> getBrgyIDDateIssuedCache() { return mBarangayIDDateIssuedCache; }
+    public List<Timestamp> getBrgyIDDateIssuedCache() { return mBarangayIDs.getDatesIssued(); }
+
+    /**
+     * Fetch the Barangay ID rows cache, sorted like the Barangay ID IDs cache.
+     *
+     * @return the Barangay ID rows cache.
+     */
+    public List<ReportRow> getBrgyIDRowsCache() {
+        return mBarangayIDs.getRows();
+    }
+
+    /**
+     * Fetch the row of a cached barangay id.
+     *
+     * @param id
+     *        The ID of the barangay id.
+     *
+     * @return the row, or null if it is not cached.
+     */
+    public ReportRow getBrgyIDRow(String id) {
+        return countLookup(mBarangayIDs.getRow(id));
+    }
 
     /**
      * Fetch the Barangay Clearance IDs Cache.
@@ -286,7 +711,7 @@ public class CacheModel {
      * @return the Barangay Clearance IDs cache.
      */
     public List<String> getBrgyClearanceIDsCache() {
-        return mBrgyClearanceIDsCache;
+        return mBrgyClearances.getIDs();
     }
 
     /**
@@ -295,7 +720,7 @@ public class CacheModel {
      * @return the Barangay Clearance Resident IDs cache.
      */
     public List<String> getBrgyClearanceResidentIDsCache() {
-        return mBrgyClearanceResidentIDsCache;
+        return mBrgyClearances.getOwnerIDs();
     }
 
     /**
@@ -313,7 +738,28 @@ public class CacheModel {
      * @return the Barangay Clearance Date Issued Cache.
      */
     public List<Timestamp> getBrgyClearanceDateIssuedCache() {
-        return mBrgyClearanceDateIssuedCache;
+        return mBrgyClearances.getDatesIssued();
+    }
+
+    /**
+     * Fetch the Barangay Clearance rows cache, sorted like the Barangay Clearance IDs cache.
+     *
+     * @return the Barangay Clearance rows cache.
+     */
+    public List<ReportRow> getBrgyClearanceRowsCache() {
+        return mBrgyClearances.getRows();
+    }
+
+    /**
+     * Fetch the row of a cached barangay clearance.
+     *
+     * @param id
+     *        The ID of the barangay clearance.
+     *
+     * @return the row, or null if it is not cached.
+     */
+    public ReportRow getBrgyClearanceRow(String id) {
+        return countLookup(mBrgyClearances.getRow(id));
     }
 
     /**
@@ -322,7 +768,7 @@ public class CacheModel {
      * @return the Business IDs Cache.
      */
     public List<String> getBusiIDsCache() {
-        return mBusinessIDsCache;
+        return mBusinesses.getIDs();
     }
 
     /**
@@ -331,7 +777,50 @@ public class CacheModel {
      * @return the Business Names Cache.
      */
     public List<String> getBusiNamesCache() {
-        return mBusinessNamesCache;
+        return mBusinesses.getNames();
+    }
+
+    /**
+     * Fetch the name of a cached business.
+     *
+     * @param businessID
+     *        The ID of the business.
+     *
+     * @return the name of the business, or null if it is not cached.
+     */
+    public String getBusinessName(String businessID) {
+        return countLookup(mBusinesses.getName(businessID));
+    }
+
+    /**
+     * Find the cached businesses having a word of their names starting with any of the
+     * keywords, through the index of the words of the names.
+     *
+     * @param keywords
+     *        The keywords, in any case.
+     * @param isFuzzy
+     *        Determines whether the keywords may be misspelled.
+     *
+     * @return a new list of the IDs of the matching businesses, from the businesses
+     *         matching the most keywords to the least, then sorted by their names.
+     */
+    public List<String> searchBusinesses(String[] keywords, boolean isFuzzy) {
+        return mBusinesses.search(keywords, isFuzzy);
+    }
+
+    /**
+     * Match the names of the cached businesses with keywords, so that their reports can
+     * be filtered from a read-only copy of the cache through ReadOnlyCache#filterReports.
+     *
+     * @param keywords
+     *        The keywords, in any case.
+     * @param isFuzzy
+     *        Determines whether the keywords may be misspelled.
+     *
+     * @return the matches of the businesses by the codes of their IDs.
+     */
+    public IntObjectMap<int[]> matchBusinessNames(String[] keywords, boolean isFuzzy) {
+        return mBusinesses.match(keywords, isFuzzy);
     }
 
     /**
@@ -340,7 +829,7 @@ public class CacheModel {
      * @return the Business Clearance IDs Cache.
      */
     public List<String> getBusiClearanceIDsCache() {
-        return mBusiClearanceIDsCache;
+        return mBusiClearances.getIDs();
     }
 
     /**
@@ -358,7 +847,7 @@ public class CacheModel {
      * @return the Business Clearance Business IDs Cache.
      */
     public List<String> getBusiClearanceBusiIDsCache() {
-        return mBusiClearanceBusiIDsCache;
+        return mBusiClearances.getOwnerIDs();
     }
 
     /**
@@ -367,84 +856,85 @@ public class CacheModel {
      * @return the Business Clearance Date Issued Cache.
      */
     public List<Timestamp> getBusiClearanceDateIssuedCache() {
-        return mBusiClearanceDateIssuedCache;
+        return mBusiClearances.getDatesIssued();
+    }
+
+    /**
+     * Fetch the Business Clearance rows cache, sorted like the Business Clearance IDs cache.
+     *
+     * @return the Business Clearance rows cache.
+     */
+    public List<ReportRow> getBusiClearanceRowsCache() {
+        return mBusiClearances.getRows();
     }
 
     /**
-     * Add or update a resident from the cached data. If a resident is to be updated,
-     * then update the resident's name from the mResidentNamesCache,
-     * mBarangayIDResidentNamesCache and mBrgyClearanceResidentNamesCache. If a
-     * resident is added, then simply update the mResidentIDsCache and
-     * mResidentNamesCache.
+     * Fetch the row of a cached business clearance.
+     *
+     * @param id
+     *        The ID of the business clearance.
+     *
+     * @return the row, or null if it is not cached.
+     */
+    public ReportRow getBusiClearanceRow(String id) {
+        return countLookup(mBusiClearances.getRow(id));
+    }
+
+    /**
+     * Add or update a resident from the cached data. The names of the applicants of
+     * the barangay IDs and clearances of the resident follow the update, since they
+     * are resolved from the cached residents.
      *
      * @param resident
      *        The resident to be cached.
      *
-     * @return the index of the resident added or updated from the cached data.
+     * @return the index of the resident added or updated from the cached data. Residents
+     *         sharing a name are ordered by their IDs.
      */
     public int cacheResident(Resident resident) {
-        String id = resident.getId();
-        String name = String.format("%s, %s %s.",
-                resident.getLastName(),
-                resident.getFirstName(),
-                Character.toUpperCase(resident.getMiddleName().charAt(0))
-        );
-
-        name += resident.getAuxiliary() == null ? "" : " " + resident.getAuxiliary();
-
-        // Update the caches related to the Resident.
-        if (mResidentIDsCache.contains(id)) {
-
-            // Update the name within the mResidentNamesCache.
-            int index = mResidentIDsCache.indexOf(id);
-            mResidentNamesCache.remove(index);
-            mResidentNamesCache.add(index, name);
-
-            // Remove the resident ID from the cache first, since it needs to be sorted.
-            mResidentIDsCache.remove(index);
-
-            Collections.sort(mResidentNamesCache, String.CASE_INSENSITIVE_ORDER);
-
-            // Get the index of the resident name within the list after insertion.
-            index = mResidentNamesCache.indexOf(name);
-
-            // Use the acquired index to insert the resident ID to the resident IDs cache at
-            // the right place.
-            mResidentIDsCache.add(index, id);
-
-            // Update the name within the mBarangayIDNamesCache.
-            int barangayIDCount = mBarangayIDIDsCache.size();
-            int barangayClearanceCount = mBrgyClearanceIDsCache.size();
-
-            // A variable taking the value of the highest count between the barangay ID and
-            // clearance.
-            int count = barangayIDCount >= barangayClearanceCount ? barangayIDCount : barangayClearanceCount;
-
-            // Check if the updated resident has a barangay ID or a barangay clearance. If
-            // there is, then update the mBarangayIDNamesCache or mBrgyClearanceNamesCache.
-            for (int i = 0; i < count; i++) {
-                if (i < barangayIDCount && mBarangayIDResidentIDsCache.get(i).equals(id))
-                    mBarangayIDNamesCache.set(i, name);
-
-                if (i < barangayClearanceCount && mBrgyClearanceResidentIDsCache.get(i).equals(id)) {
-                    mBrgyClearanceResidentNamesCache.set(i, name);
-                }
-            }
-
-            return index;
-
-        } else {
-            mResidentNamesCache.add(name);
-            Collections.sort(mResidentNamesCache, String.CASE_INSENSITIVE_ORDER);
+        mVersion++;
+        publish(CacheEvent.KIND_RESIDENT, resident.getId());
+        return mResidents.put(resident.getId(), formatResidentName(resident));
+    }
 
-            // Get the index of the resident name within the list after insertion.
-            int index = mResidentNamesCache.indexOf(name);
+    /**
+     * Add newly created residents to the cached data.
+     *
+     * @param residents
+     *        The newly created residents to be cached. Their IDs must already be set.
+     *
+     * @see DatabaseModel#createResidents(List, int)
+     */
+    public void cacheResidents(List<Resident> residents) {
+        mVersion++;
+        publish(CacheEvent.KIND_RESIDENT, null);
+        List<String> ids = new ArrayList<>(residents.size());
+        List<String> names = new ArrayList<>(residents.size());
+
+        for (Resident resident : residents) {
+            ids.add(resident.getId());
+            names.add(formatResidentName(resident));
+        }
 
-            // Use the acquired index to insert the resident ID to the resident IDs list.
-            mResidentIDsCache.add(index, id);
+        mResidents.putAll(ids, names);
+    }
 
-            return index;
-        }
+    /**
+     * Replace the cached residents with freshly queried resident essentials. Used
+     * after a bulk import, where querying the residents once is cheaper than caching
+     * each imported resident. The reports cache is left as is, since newly imported
+     * residents have no reports yet.
+     *
+     * @param residentEssentials
+     *        The resident essentials from the Database Model.
+     *
+     * @see DatabaseModel#getResidentEssentials()
+     */
+    public void refreshResidents(List[] residentEssentials) {
+        mVersion++;
+        publish(CacheEvent.KIND_RESIDENT, null);
+        mResidents.clear();
+        mResidents.putAll(residentEssentials[0], residentEssentials[1]);
     }
 
     /**
@@ -455,45 +945,11 @@ public class CacheModel {
      *        The ID of the resident to be removed from the cached data.
      */
     public void uncacheResident(String id) {
-        int index = mResidentIDsCache.indexOf(id);
-
-        mResidentIDsCache.remove(index);
-        mResidentNamesCache.remove(index);
-
-        int barangayIDCount = mBarangayIDIDsCache.size();
-        int barangayClearanceCount = mBrgyClearanceIDsCache.size();
-
-        // A variable taking the value of the highest count between the barangay ID and
-        // clearance.
-        int count = barangayIDCount >= barangayClearanceCount ? barangayIDCount : barangayClearanceCount;
-
-        // Check if the resident to be deleted has a barangay ID or a barangay clearance. If
-        // there is, then delete it from the mBarangayIDNamesCache or mBrgyClearanceNamesCache.
-        for (int i = 0, j = 0, k = 0; i < count; i++, j++, k++) {
-            if (j < barangayIDCount && mBarangayIDResidentIDsCache.get(j).equals(id)) {
-                index = mBarangayIDResidentIDsCache.indexOf(id);
-
-                mBarangayIDIDsCache.remove(index);
-                mBarangayIDResidentIDsCache.remove(index);
-                mBarangayIDNamesCache.remove(index);
-                mBarangayIDDateIssuedCache.remove(index);
-
-                barangayIDCount--;
-                j--;
-            }
-
-            if (k < barangayClearanceCount && mBrgyClearanceResidentIDsCache.get(k).equals(id)) {
-                index = mBrgyClearanceResidentIDsCache.indexOf(id);
-
-                mBrgyClearanceIDsCache.remove(index);
-                mBrgyClearanceResidentIDsCache.remove(index);
-                mBrgyClearanceResidentNamesCache.remove(index);
-                mBrgyClearanceDateIssuedCache.remove(index);
-
-                barangayClearanceCount--;
-                k--;
-            }
-        }
+        mVersion++;
+        publish(CacheEvent.KIND_RESIDENT, id);
+        mResidents.remove(id);
+        mBarangayIDs.removeByOwner(id);
+        mBrgyClearances.removeByOwner(id);
     }
 
     /**
@@ -503,13 +959,9 @@ public class CacheModel {
      *        The barangay ID to be cached.
      */
     public void cacheBarangayID(BarangayID barangayID) {
-
-        mBarangayIDIDsCache.add(0, barangayID.getID());
-        mBarangayIDResidentIDsCache.add(0, barangayID.getResidentID());
-        mBarangayIDDateIssuedCache.add(0, barangayID.getDateIssued());
-
-        int index = mResidentIDsCache.indexOf(barangayID.getResidentID());
-        mBarangayIDNamesCache.add(0, mResidentNamesCache.get(index));
+        mVersion++;
+        publish(CacheEvent.KIND_BARANGAY_ID, barangayID.getID());
+        mBarangayIDs.put(barangayID.getID(), barangayID.getResidentID(), barangayID.getDateIssued());
     }
 
     /**
@@ -519,69 +971,52 @@ public class CacheModel {
      *        The barangay clearance to be cached.
      */
     public void cacheBarangayClearance(BarangayClearance barangayClearance) {
-        mBrgyClearanceIDsCache.add(0, barangayClearance.getID());
-        mBrgyClearanceResidentIDsCache.add(0, barangayClearance.getResidentID());
-        mBrgyClearanceDateIssuedCache.add(0, barangayClearance.getDateIssued());
+        mVersion++;
+        publish(CacheEvent.KIND_BARANGAY_CLEARANCE, barangayClearance.getID());
+        mBrgyClearances.put(barangayClearance.getID(), barangayClearance.getResidentID(),
+                barangayClearance.getDateIssued());
+    }
+
+    /**
+     * Add newly created barangay clearances to the cached data, keeping the latest
+     * barangay clearance first.
+     *
+     * @param barangayClearances
+     *        The newly created barangay clearances to be cached.
+     *
+     * @see DatabaseModel#createBarangayClearances(List, int)
+     */
+    public void cacheBarangayClearances(List<BarangayClearance> barangayClearances) {
+        mVersion++;
+        publish(CacheEvent.KIND_BARANGAY_CLEARANCE, null);
+        int size = barangayClearances.size();
+        List<String> ids = new ArrayList<>(size);
+        List<String> residentIDs = new ArrayList<>(size);
+        List<Timestamp> datesIssued = new ArrayList<>(size);
+
+        for (BarangayClearance barangayClearance : barangayClearances) {
+            ids.add(barangayClearance.getID());
+            residentIDs.add(barangayClearance.getResidentID());
+            datesIssued.add(barangayClearance.getDateIssued());
+        }
 
-        int index = mResidentIDsCache.indexOf(barangayClearance.getResidentID());
-        mBrgyClearanceResidentNamesCache.add(0, mResidentNamesCache.get(index));
+        mBrgyClearances.putAll(ids, residentIDs, datesIssued);
     }
 
     /**
-     * Add or update a business from the cached data. If a business is to be updated,
-     * then update the business's name from the mBusinessNamesCache and
-     * mBusiClearanceBusiNamesCache. If a business is added, then simply update the
-     * mBusinessIDsCache and mBusinessNamesCache.
+     * Add or update a business from the cached data. The names of the businesses of
+     * the business clearances follow the update, since they are resolved from the
+     * cached businesses.
      *
      * @param business
      *        The business to be cached.
      *
-     * @return the index of the resident added or updated from the cached data.
+     * @return the index of the business added or updated from the cached data.
      */
     public int cacheBusiness(Business business) {
-        String id = business.getID();
-        String name = business.getName();
-
-        // If the business is already part of the cached data, then simply update it.
-        if (mBusinessIDsCache.contains(id)) {
-
-            // Update the name within the mBusinessNamesCache.
-            int index = mBusinessIDsCache.indexOf(id);
-            mBusinessNamesCache.set(index, name);
-            mBusinessIDsCache.remove(index);
-
-            Collections.sort(mBusinessNamesCache, String.CASE_INSENSITIVE_ORDER);
-
-            // Get the index of the business name within the list after insertion.
-            index = mBusinessNamesCache.indexOf(name);
-
-            // Use the acquired index to insert the business ID to the business IDs cache.
-            mBusinessIDsCache.add(index, id);
-
-            // Update the name within the mBusiClearanceBusiNamesCache.
-            int busiClearanceIDCount = mBusiClearanceIDsCache.size();
-
-            // Check if the updated business has a business clearance. If there is, then update
-            // its cache.
-            for (int i = 0; i < busiClearanceIDCount; i++)
-                if (mBusiClearanceBusiIDsCache.get(i).equals(id))
-                    mBusiClearanceBusiNamesCache.set(i, name);
-
-            return index;
-
-        } else {
-
-            mBusinessNamesCache.add(name);
-            Collections.sort(mBusinessNamesCache, String.CASE_INSENSITIVE_ORDER);
-
-            // Get the index of the business name within the list after insertion.
-            int index = mBusinessNamesCache.indexOf(name);
-
-            // Use the acquired index to insert the business ID to the business IDs cache.
-            mBusinessIDsCache.add(index, id);
-
-            return index;
-        }
+        mVersion++;
+        publish(CacheEvent.KIND_BUSINESS, business.getID());
+        return mBusinesses.put(business.getID(), business.getName());
     }
 
     /**
@@ -592,41 +1027,149 @@ public class CacheModel {
      *        The ID of the business to be removed from the cached data.
      */
     public void uncacheBusiness(String id) {
-        int index = mBusinessIDsCache.indexOf(id);
-
-        mBusinessIDsCache.remove(index);
-        mBusinessNamesCache.remove(index);
+        mVersion++;
+        publish(CacheEvent.KIND_BUSINESS, id);
+        mBusinesses.remove(id);
+        mBusiClearances.removeByOwner(id);
+    }
 
-        int busiClearanceCount = mBusiClearanceIDsCache.size();
+    /**
+     * Cache the specified businness clearance.
+     *
+     * @param businessClearance
+     *        The business clearance to be cached.
+     */
+    public void cacheBusinessClearance(BusinessClearance businessClearance) {
+        mVersion++;
+        publish(CacheEvent.KIND_BUSINESS_CLEARANCE, businessClearance.getID());
+        mBusiClearances.put(businessClearance.getID(), businessClearance.getBusinessID(),
+                businessClearance.getDateIssued());
+    }
 
-        // Check if the business to be deleted has a business clearance. If there is,
-        // then delete it from the mBusiClearanceBusiNamesCache.
-        for (int i = 0; i < busiClearanceCount; i++)
-            if (mBusiClearanceBusiIDsCache.get(i).equals(id)) {
-                index = mBusiClearanceBusiIDsCache.indexOf(id);
+    /**
+     * Set the bus where the records changed through this cache are published, so that
+     * the other terminals refresh them right away. The changes applied from the other
+     * terminals are never published again.
+     *
+     * @param invalidationBus
+     *        The bus of the terminals, or null to stop publishing.
+     */
+    public void setInvalidationBus(InvalidationBus invalidationBus) {
+        mInvalidationBus = invalidationBus;
+    }
 
-                mBusiClearanceIDsCache.remove(index);
-                mBusiClearanceBusiIDsCache.remove(index);
-                mBusiClearanceBusiNamesCache.remove(index);
-                mBusiClearanceDateIssuedCache.remove(index);
+    /**
+     * Publish the change of a record to the other terminals, if connected to a bus.
+     *
+     * @param kind
+     *        The kind of the changed record. (e.g. CacheEvent.KIND_RESIDENT)
+     * @param id
+     *        The ID of the changed record, or null if many records changed.
+     */
+    private void publish(byte kind, String id) {
+        if (mInvalidationBus != null)
+            mInvalidationBus.publish(new CacheEvent(kind, id));
+    }
 
-                busiClearanceCount--;
-                i--;
+    /**
+     * Apply the changed reports of a delta to the store of the reports.
+     *
+     * @return the number of reports added, updated or removed.
+     */
+    private int applyReportDelta(ReportStore reports, Map<String, CacheDelta.Report> changedReports) {
+        int changeCount = 0;
+
+        for (Map.Entry<String, CacheDelta.Report> changedReport : changedReports.entrySet()) {
+            String id = changedReport.getKey();
+            CacheDelta.Report report = changedReport.getValue();
+
+            if (report == null) {
+                if (reports.remove(id))
+                    changeCount++;
+            } else if (!reports.contains(id) || !Objects.equals(report.mOwnerID, reports.getOwnerID(id)) ||
+                    !Objects.equals(report.mDateIssued, reports.getDateIssued(id))) {
+                reports.put(id, report.mOwnerID, report.mDateIssued);
+                changeCount++;
             }
+        }
+
+        return changeCount;
     }
 
     /**
-     * Cache the specified businness clearance.
+     * Format the name of a resident as it is displayed within the resident list
+     * paging. (e.g. Dela Cruz, Juan P. Jr.)
      *
-     * @param businessClearance
-     *        The business clearance to be cached.
+     * @param resident
+     *        The resident whose name is to be formatted.
+     *
+     * @return the formatted name.
      */
-    public void cacheBusinessClearance(BusinessClearance businessClearance) {
-        mBusiClearanceIDsCache.add(0, businessClearance.getID());
-        mBusiClearanceBusiIDsCache.add(0, businessClearance.getBusinessID());
-        mBusiClearanceDateIssuedCache.add(0, businessClearance.getDateIssued());
+    private String formatResidentName(Resident resident) {
+        String name = String.format("%s, %s %s.",
+                resident.getLastName(),
+                resident.getFirstName(),
+                Character.toUpperCase(resident.getMiddleName().charAt(0))
+        );
+
+        return name + (resident.getAuxiliary() == null ? "" : " " + resident.getAuxiliary());
+    }
+
+    /**
+     * Receives the rows of a table, puts them into their store and counts them to
+     * tell the progress of the table.
+     */
+    private static class TableLoader implements DatabaseModel.OnEntityRowListener,
+            DatabaseModel.OnReportRowListener {
 
-        int index = mBusinessIDsCache.indexOf(businessClearance.getBusinessID());
-        mBusiClearanceBusiNamesCache.add(0, mBusinessNamesCache.get(index));
+        /* The kind of the records of the table. */
+        private final byte mTable;
+
+        private final OnCacheProgressListener mListener;
+
+        /* The store receiving the rows, depending on the kind of the records. */
+        private final DatabaseModel.OnEntityRowListener mEntityRowListener;
+        private final DatabaseModel.OnReportRowListener mReportRowListener;
+
+        private int mRowCount;
+
+        TableLoader(byte table, OnCacheProgressListener listener, DatabaseModel.OnEntityRowListener entityRowListener) {
+            mTable = table;
+            mListener = listener;
+            mEntityRowListener = entityRowListener;
+            mReportRowListener = null;
+        }
+
+        TableLoader(byte table, OnCacheProgressListener listener, DatabaseModel.OnReportRowListener reportRowListener) {
+            mTable = table;
+            mListener = listener;
+            mEntityRowListener = null;
+            mReportRowListener = reportRowListener;
+        }
+
+        @Override
+        public void onEntityRow(String id, String name) {
+            mEntityRowListener.onEntityRow(id, name);
+            countRow();
+        }
+
+        @Override
+        public void onReportRow(String id, String ownerID, Timestamp dateIssued) {
+            mReportRowListener.onReportRow(id, ownerID, dateIssued);
+            countRow();
+        }
+
+        /**
+         * Tell that every row of the table is cached.
+         */
+        void finish() {
+            if (mListener != null)
+                mListener.onCacheProgress(mTable, mRowCount, true);
+        }
+
+        private void countRow() {
+            if (++mRowCount % PROGRESS_INTERVAL == 0 && mListener != null)
+                mListener.onCacheProgress(mTable, mRowCount, false);
+        }
     }
 }
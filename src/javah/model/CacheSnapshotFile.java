@@ -0,0 +1,319 @@
+package javah.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A class that stores the cached data in a compact binary file, so that the cache
+ * can be loaded in a few milliseconds on startup instead of querying every table.
+ *
+ * The file starts with a header (magic number, version and the time it was
+ * written), followed by the residents, the businesses, the barangay IDs, the
+ * barangay clearances and the business clearances. Each section starts with its
+ * record count, and its records are stored sorted as they are within the cache.
+ * The strings are stored as their length in bytes followed by their UTF-8 bytes,
+ * where a length of -1 stands for null.
+ *
+ * The file is read through a memory-mapped buffer, and written to a temporary file
+ * which then replaces the snapshot, so a crash while writing never leaves a
+ * partially written snapshot.
+ *
+ * @see CacheModel
+ */
+public class CacheSnapshotFile {
+
+    /* Identifies a cache snapshot file. */
+    private static final int MAGIC = 0x42313331;
+
+    /* The version of the format. Incremented whenever the format or the sort order changes. */
+    private static final int VERSION = 2;
+
+    /* The date stored for a report without a date of issuance. */
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * Encode the cached data. Fast enough to be called from the user interface thread,
+     * leaving the slower writing of the file to write.
+     *
+     * @return the encoded snapshot.
+     */
+    public static byte[] encode(EntityStore residents, EntityStore businesses, ReportStore barangayIDs,
+                                ReportStore barangayClearances, ReportStore businessClearances) {
+        try {
+            ByteArrayOutputStream byteStream = new ByteArrayOutputStream(
+                    64 * (residents.size() + businesses.size() + barangayIDs.size() +
+                            barangayClearances.size() + businessClearances.size()) + 64);
+            DataOutputStream output = new DataOutputStream(byteStream);
+
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(System.currentTimeMillis());
+
+            encodeEntities(output, residents);
+            encodeEntities(output, businesses);
+            encodeReports(output, barangayIDs);
+            encodeReports(output, barangayClearances);
+            encodeReports(output, businessClearances);
+
+            output.flush();
+            return byteStream.toByteArray();
+
+        } catch (IOException e) {
+            // Never thrown by a byte array stream.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Write an encoded snapshot to a file, replacing the previous snapshot. The writes
+     * are serialized, since every write goes through the same temporary file.
+     *
+     * @param file
+     *        The snapshot file.
+     * @param snapshot
+     *        The encoded snapshot.
+     */
+    public static synchronized void write(File file, byte[] snapshot) throws IOException {
+        File temporaryFile = new File(file.getPath() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporaryFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+
+            channel.force(false);
+        }
+
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Read a snapshot file into the stores. The stores are left untouched if the file
+     * does not exist, is damaged or was written by another version.
+     *
+     * @return the time the snapshot was written in milliseconds, or -1 if it was not read.
+     */
+    public static long read(File file, EntityStore residents, EntityStore businesses, ReportStore barangayIDs,
+                            ReportStore barangayClearances, ReportStore businessClearances) throws IOException {
+        if (!file.isFile())
+            return -1;
+
+        MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return -1;
+
+            long writtenAt = buffer.getLong();
+
+            // Decode every section before touching the stores, so that a damaged file
+            // leaves the stores as they are.
+            EntitySection residentSection = decodeEntities(buffer);
+            EntitySection businessSection = decodeEntities(buffer);
+            ReportSection barangayIDSection = decodeReports(buffer);
+            ReportSection barangayClearanceSection = decodeReports(buffer);
+            ReportSection businessClearanceSection = decodeReports(buffer);
+
+            residentSection.replaceAll(residents);
+            businessSection.replaceAll(businesses);
+            barangayIDSection.replaceAll(barangayIDs);
+            barangayClearanceSection.replaceAll(barangayClearances);
+            businessClearanceSection.replaceAll(businessClearances);
+
+            return writtenAt;
+
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return -1;
+
+        } finally {
+            // Release the mapping now, since a mapped file cannot be replaced on Windows.
+            unmap(buffer);
+        }
+    }
+
+    private static void encodeEntities(DataOutputStream output, EntityStore store) throws IOException {
+        output.writeInt(store.size());
+
+        Iterator<String> names = store.getNames().iterator();
+
+        for (String id : store.getIDs()) {
+            encodeString(output, id);
+            encodeString(output, names.next());
+        }
+    }
+
+    private static void encodeReports(DataOutputStream output, ReportStore store) throws IOException {
+        output.writeInt(store.size());
+
+        Iterator<String> ownerIDs = store.getOwnerIDs().iterator();
+        Iterator<Timestamp> datesIssued = store.getDatesIssued().iterator();
+
+        for (String id : store.getIDs()) {
+            Timestamp dateIssued = datesIssued.next();
+
+            encodeString(output, id);
+            encodeString(output, ownerIDs.next());
+            output.writeLong(dateIssued != null ? dateIssued.getTime() : NO_DATE);
+        }
+    }
+
+    private static void encodeString(DataOutputStream output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static EntitySection decodeEntities(ByteBuffer buffer) {
+        int count = decodeCount(buffer);
+        EntitySection section = new EntitySection(count);
+
+        for (int i = 0; i < count; i++) {
+            section.mIDs.add(decodeString(buffer));
+            section.mNames.add(decodeString(buffer));
+        }
+
+        return section;
+    }
+
+    private static ReportSection decodeReports(ByteBuffer buffer) {
+        int count = decodeCount(buffer);
+        ReportSection section = new ReportSection(count);
+
+        for (int i = 0; i < count; i++) {
+            section.mIDs.add(decodeString(buffer));
+            section.mOwnerIDs.add(decodeString(buffer));
+
+            long dateIssued = buffer.getLong();
+            section.mDatesIssued.add(dateIssued != NO_DATE ? new Timestamp(dateIssued) : null);
+        }
+
+        return section;
+    }
+
+    private static int decodeCount(ByteBuffer buffer) {
+        int count = buffer.getInt();
+
+        // Every record takes at least 8 bytes, so a larger count means a damaged file.
+        if (count < 0 || count > buffer.remaining() / 8)
+            throw new IllegalArgumentException("Invalid record count: " + count);
+
+        return count;
+    }
+
+    private static String decodeString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+
+        if (length == -1)
+            return null;
+
+        if (length < 0 || length > buffer.remaining())
+            throw new IllegalArgumentException("Invalid string length: " + length);
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Release a memory-mapped buffer instead of waiting for the garbage collector.
+     * The JDKs expose no public way to do so, thus the internal cleaner is invoked
+     * through reflection, ignoring any failure.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9 and later: Unsafe.invokeCleaner(buffer)
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+
+        } catch (Exception e) {
+            try {
+                // Java 8: ((DirectBuffer) buffer).cleaner().clean()
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+
+            } catch (Exception ignored) {
+                // The mapping is released once the buffer is garbage collected.
+            }
+        }
+    }
+
+    /**
+     * The decoded records of an entity section, held until every section is decoded.
+     */
+    private static class EntitySection {
+
+        private final List<String> mIDs;
+
+        private final List<String> mNames;
+
+        EntitySection(int count) {
+            mIDs = new ArrayList<>(count);
+            mNames = new ArrayList<>(count);
+        }
+
+        void replaceAll(EntityStore store) {
+            store.replaceAll(mIDs, mNames);
+        }
+    }
+
+    /**
+     * The decoded records of a report section, held until every section is decoded.
+     */
+    private static class ReportSection {
+
+        private final List<String> mIDs;
+
+        private final List<String> mOwnerIDs;
+
+        private final List<Timestamp> mDatesIssued;
+
+        ReportSection(int count) {
+            mIDs = new ArrayList<>(count);
+            mOwnerIDs = new ArrayList<>(count);
+            mDatesIssued = new ArrayList<>(count);
+        }
+
+        void replaceAll(ReportStore store) {
+            store.replaceAll(mIDs, mOwnerIDs, mDatesIssued);
+        }
+    }
+}
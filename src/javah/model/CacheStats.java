@@ -0,0 +1,282 @@
+package javah.model;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The statistics of the cache model: the number of cached records and the estimated
+ * bytes of each table, how long the cache took to load, when it was last refreshed,
+ * and how often its lookups found their records. Also holds the statistics of the
+ * entity cache of the Database Model, if set.
+ *
+ * The counts and sizes are copied from the cache by the thread modifying the cache
+ * through CacheModel#updateStats, thus the statistics can be read from any thread,
+ * such as the threads of JMX.
+ *
+ * The sizes are estimated for a 64-bit JVM with compressed references, the default
+ * for heaps below 32 GB, and leave out the strings shared with the rest of the
+ * application.
+ *
+ * @see CacheModel#getStats()
+ */
+public class CacheStats implements CacheStatsMBean {
+
+    /* The name of the MBean of the statistics. */
+    public static final String OBJECT_NAME = "javah:type=CacheStats";
+
+    /* The size of a reference and of the header of an object. */
+    static final int REFERENCE_BYTES = 4;
+    private static final int HEADER_BYTES = 12;
+
+    /* The record counts and estimated bytes of the tables, by the kinds of the tables - 1. */
+    private volatile int[] mCounts = new int[CacheModel.TABLE_COUNT];
+    private volatile long[] mBytes = new long[CacheModel.TABLE_COUNT];
+
+    /* The durations in milliseconds of the last loads of the cache, or -1 if never loaded so. */
+    private volatile long mDatabaseLoadDuration = -1, mSnapshotLoadDuration = -1;
+
+    /* The time the cache was last brought up to date with the database, or 0 if never. */
+    private volatile long mLastRefreshTime;
+
+    private volatile int mHistoryYears;
+
+    private final AtomicLong mLookupHitCount = new AtomicLong(), mLookupMissCount = new AtomicLong();
+
+    /* The cache of the whole records of the Database Model, or null. */
+    private volatile EntityCache mEntityCache;
+
+    /**
+     * Estimate the bytes of an object.
+     *
+     * @param fieldBytes
+     *        The bytes of the fields of the object.
+     *
+     * @return the bytes of the object, aligned to 8 bytes.
+     */
+    static long objectBytes(int fieldBytes) {
+        return (HEADER_BYTES + fieldBytes + 7) & ~7;
+    }
+
+    /**
+     * Estimate the bytes of an array.
+     *
+     * @param length
+     *        The length of the array.
+     * @param elementBytes
+     *        The bytes of an element.
+     *
+     * @return the bytes of the array, aligned to 8 bytes.
+     */
+    static long arrayBytes(int length, int elementBytes) {
+        return (HEADER_BYTES + 4 + (long) length * elementBytes + 7) & ~7;
+    }
+
+    /**
+     * Replace the counts and the estimated bytes of the tables.
+     *
+     * @param counts
+     *        The record counts, by the kinds of the tables - 1. Must not be modified
+     *        afterwards.
+     * @param bytes
+     *        The estimated bytes, by the kinds of the tables - 1. Must not be modified
+     *        afterwards.
+     */
+    void update(int[] counts, long[] bytes) {
+        mCounts = counts;
+        mBytes = bytes;
+    }
+
+    void setDatabaseLoadDuration(long databaseLoadDuration) {
+        mDatabaseLoadDuration = databaseLoadDuration;
+    }
+
+    void setSnapshotLoadDuration(long snapshotLoadDuration) {
+        mSnapshotLoadDuration = snapshotLoadDuration;
+    }
+
+    void setLastRefreshTime(long lastRefreshTime) {
+        mLastRefreshTime = lastRefreshTime;
+    }
+
+    void setHistoryYears(int historyYears) {
+        mHistoryYears = historyYears;
+    }
+
+    /**
+     * Count a lookup of a record of the cache.
+     *
+     * @param isHit
+     *        Determines whether the record was cached.
+     */
+    void countLookup(boolean isHit) {
+        (isHit ? mLookupHitCount : mLookupMissCount).incrementAndGet();
+    }
+
+    /**
+     * Set the cache of the whole records of the Database Model, so that its statistics
+     * are exposed along with the statistics of the cache model.
+     *
+     * @param entityCache
+     *        The entity cache of the Database Model.
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        mEntityCache = entityCache;
+    }
+
+    /**
+     * Fetch the number of cached records of a table.
+     *
+     * @param table
+     *        The kind of the records of the table. (e.g. CacheEvent.KIND_RESIDENT)
+     *
+     * @return the number of records.
+     */
+    public int getCount(byte table) {
+        return mCounts[table - 1];
+    }
+
+    /**
+     * Fetch the estimated bytes of a table.
+     *
+     * @param table
+     *        The kind of the records of the table. (e.g. CacheEvent.KIND_RESIDENT)
+     *
+     * @return the estimated bytes, including the indices of the table.
+     */
+    public long getBytes(byte table) {
+        return mBytes[table - 1];
+    }
+
+    @Override
+    public int getResidentCount() {
+        return getCount(CacheEvent.KIND_RESIDENT);
+    }
+
+    @Override
+    public int getBusinessCount() {
+        return getCount(CacheEvent.KIND_BUSINESS);
+    }
+
+    @Override
+    public int getBarangayIDCount() {
+        return getCount(CacheEvent.KIND_BARANGAY_ID);
+    }
+
+    @Override
+    public int getBrgyClearanceCount() {
+        return getCount(CacheEvent.KIND_BARANGAY_CLEARANCE);
+    }
+
+    @Override
+    public int getBusiClearanceCount() {
+        return getCount(CacheEvent.KIND_BUSINESS_CLEARANCE);
+    }
+
+    @Override
+    public long getResidentBytes() {
+        return getBytes(CacheEvent.KIND_RESIDENT);
+    }
+
+    @Override
+    public long getBusinessBytes() {
+        return getBytes(CacheEvent.KIND_BUSINESS);
+    }
+
+    @Override
+    public long getBarangayIDBytes() {
+        return getBytes(CacheEvent.KIND_BARANGAY_ID);
+    }
+
+    @Override
+    public long getBrgyClearanceBytes() {
+        return getBytes(CacheEvent.KIND_BARANGAY_CLEARANCE);
+    }
+
+    @Override
+    public long getBusiClearanceBytes() {
+        return getBytes(CacheEvent.KIND_BUSINESS_CLEARANCE);
+    }
+
+    @Override
+    public long getTotalBytes() {
+        long totalBytes = 0;
+
+        for (long bytes : mBytes)
+            totalBytes += bytes;
+
+        return totalBytes;
+    }
+
+    @Override
+    public long getDatabaseLoadDuration() {
+        return mDatabaseLoadDuration;
+    }
+
+    @Override
+    public long getSnapshotLoadDuration() {
+        return mSnapshotLoadDuration;
+    }
+
+    @Override
+    public Date getLastRefreshTime() {
+        return mLastRefreshTime != 0 ? new Date(mLastRefreshTime) : null;
+    }
+
+    @Override
+    public long getLookupHitCount() {
+        return mLookupHitCount.get();
+    }
+
+    @Override
+    public long getLookupMissCount() {
+        return mLookupMissCount.get();
+    }
+
+    @Override
+    public double getLookupHitRatio() {
+        long hitCount = mLookupHitCount.get();
+        long lookupCount = hitCount + mLookupMissCount.get();
+
+        return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+    }
+
+    @Override
+    public int getRecordCount() {
+        EntityCache entityCache = mEntityCache;
+
+        return entityCache != null ? entityCache.getCount() : 0;
+    }
+
+    @Override
+    public long getRecordBytes() {
+        EntityCache entityCache = mEntityCache;
+
+        return entityCache != null ? entityCache.getSize() : 0;
+    }
+
+    @Override
+    public long getRecordHitCount() {
+        EntityCache entityCache = mEntityCache;
+
+        return entityCache != null ? entityCache.getHitCount() : 0;
+    }
+
+    @Override
+    public long getRecordMissCount() {
+        EntityCache entityCache = mEntityCache;
+
+        return entityCache != null ? entityCache.getMissCount() : 0;
+    }
+
+    @Override
+    public double getRecordHitRatio() {
+        EntityCache entityCache = mEntityCache;
+
+        return entityCache != null ? entityCache.getHitRatio() : 0;
+    }
+
+    @Override
+    public int getHistoryYears() {
+        return mHistoryYears;
+    }
+}
@@ -0,0 +1,58 @@
+package javah.model;
+
+import java.util.Date;
+
+/**
+ * The management interface of the statistics of the cache, exposed through JMX so
+ * that the memory used by the cache can be watched from a JMX console. (e.g. jconsole)
+ *
+ * @see CacheStats
+ */
+public interface CacheStatsMBean {
+
+    int getResidentCount();
+
+    int getBusinessCount();
+
+    int getBarangayIDCount();
+
+    int getBrgyClearanceCount();
+
+    int getBusiClearanceCount();
+
+    long getResidentBytes();
+
+    long getBusinessBytes();
+
+    long getBarangayIDBytes();
+
+    long getBrgyClearanceBytes();
+
+    long getBusiClearanceBytes();
+
+    long getTotalBytes();
+
+    long getDatabaseLoadDuration();
+
+    long getSnapshotLoadDuration();
+
+    Date getLastRefreshTime();
+
+    long getLookupHitCount();
+
+    long getLookupMissCount();
+
+    double getLookupHitRatio();
+
+    int getRecordCount();
+
+    long getRecordBytes();
+
+    long getRecordHitCount();
+
+    long getRecordMissCount();
+
+    double getRecordHitRatio();
+
+    int getHistoryYears();
+}
@@ -0,0 +1,337 @@
+package javah.model;
+
+import javah.contract.DatabaseContract.ChangeLogEntry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A class that logs the records created, updated or deleted by every terminal in
+ * a table of the database, so that each terminal can refresh its cache with only
+ * the records changed since its last refresh instead of querying every table.
+ *
+ * Each entry holds the table and the ID of a changed record, and is numbered by an
+ * ever increasing version. The entries tell which records changed but not how, so
+ * the changed records are read again to learn whether they were created, updated or
+ * deleted.
+ *
+ * The versions are handed out when the entries are inserted, but the transactions of
+ * the terminals may commit in another order, so a refresh may read version 11 while
+ * version 10 is still uncommitted. Thus the versions skipped by a refresh are kept as
+ * gaps and read again by the next refreshes, until found or until GAP_TIMEOUT passes,
+ * since a rolled back transaction leaves its versions unused forever.
+ *
+ * The entries older than a week are removed once per session. A terminal that was
+ * closed meanwhile does not miss them, since its cache is reconciled with the whole
+ * database on startup.
+ *
+ * @see ChangeLogEntry
+ * @see CacheDelta
+ */
+public class ChangeLog {
+
+    /* The number of days the entries are kept. */
+    private static final int RETENTION_DAYS = 7;
+
+    /* The milliseconds a skipped version is read again for, which outlasts any transaction. */
+    private static final long GAP_TIMEOUT = 60_000;
+
+    /* The most versions kept as gaps. */
+    private static final int MAX_GAP_COUNT = 1000;
+
+    /* The number of versions below the latest version checked for gaps on startup. */
+    private static final int STARTUP_GAP_WINDOW = 100;
+
+    /* The pool where the connections to read the entries are borrowed from. */
+    private final ConnectionPool mConnectionPool;
+
+    /* Determines whether the change log table was already created. */
+    private volatile boolean mIsTableCreated;
+
+    /* The versions skipped by the refreshes, by the times they are given up. Guarded by this. */
+    private final Map<Long, Long> mGaps = new HashMap<>();
+
+    /**
+     * Create a change log.
+     *
+     * @param connectionPool
+     *        The pool where the connections to read the entries are borrowed from.
+     */
+    public ChangeLog(ConnectionPool connectionPool) {
+        mConnectionPool = connectionPool;
+    }
+
+    /**
+     * Log the change of a record.
+     *
+     * @param dbConnection
+     *        The connection which changed the record, so that the entry is part of its
+     *        transaction.
+     * @param tableName
+     *        The table of the record.
+     * @param recordID
+     *        The ID of the record.
+     */
+    public void record(Connection dbConnection, String tableName, String recordID) throws SQLException {
+        record(dbConnection, tableName, Collections.singletonList(recordID));
+    }
+
+    /**
+     * Log the changes of a number of records of a table in a single batch.
+     *
+     * @param dbConnection
+     *        The connection which changed the records, so that the entries are part of
+     *        its transaction. The records and their entries should be committed
+     *        together, so that no change is committed without its entry.
+     * @param tableName
+     *        The table of the records.
+     * @param recordIDs
+     *        The IDs of the records.
+     */
+    public void record(Connection dbConnection, String tableName, Collection<String> recordIDs) throws SQLException {
+        if (recordIDs.isEmpty())
+            return;
+
+        // Creating a table commits the transaction of its connection on MySQL, thus the
+        // table is created through another connection.
+        if (!mIsTableCreated)
+            try (Connection tableConnection = mConnectionPool.getConnection()) {
+                createTable(tableConnection);
+            }
+
+        PreparedStatement statement = dbConnection.prepareStatement(String.format("INSERT INTO %s(%s, %s) VALUES(?, ?)",
+                ChangeLogEntry.TABLE_NAME,
+                ChangeLogEntry.COLUMN_TABLE_NAME,
+                ChangeLogEntry.COLUMN_RECORD_ID));
+
+        for (String recordID : recordIDs) {
+            statement.setString(1, tableName);
+            statement.setString(2, recordID);
+            statement.addBatch();
+        }
+
+        statement.executeBatch();
+        statement.close();
+    }
+
+    /**
+     * Fetch the latest version of the log. A cache started after fetching the version
+     * holds every change up to the version. The versions below it which are not
+     * committed yet are kept as gaps, so that the next refreshes still read them.
+     *
+     * @return the latest version, or 0 if nothing was logged yet.
+     */
+    public long getLatestVersion() throws SQLException {
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+            createTable(dbConnection);
+
+            Statement statement = dbConnection.createStatement();
+            ResultSet resultSet = statement.executeQuery(String.format(
+                    "SELECT %s FROM %s WHERE %s > (SELECT COALESCE(MAX(%s), 0) - %d FROM %s) ORDER BY %s",
+                    ChangeLogEntry.COLUMN_VERSION,
+                    ChangeLogEntry.TABLE_NAME,
+                    ChangeLogEntry.COLUMN_VERSION,
+                    ChangeLogEntry.COLUMN_VERSION,
+                    STARTUP_GAP_WINDOW,
+                    ChangeLogEntry.TABLE_NAME,
+                    ChangeLogEntry.COLUMN_VERSION));
+
+            List<Long> versions = new ArrayList<>();
+
+            while (resultSet.next())
+                versions.add(resultSet.getLong(1));
+
+            resultSet.close();
+            statement.close();
+
+            if (versions.isEmpty())
+                return 0;
+
+            long latestVersion = versions.get(versions.size() - 1);
+
+            synchronized (this) {
+                long lastVersion = Math.max(0, latestVersion - STARTUP_GAP_WINDOW);
+
+                for (long version : versions) {
+                    addGaps(lastVersion, version);
+                    lastVersion = version;
+                }
+            }
+
+            return latestVersion;
+        }
+    }
+
+    /**
+     * Fetch the records changed after a version, and the records of the versions
+     * skipped by the previous refreshes.
+     *
+     * @param version
+     *        The version of the last refresh.
+     *
+     * @return the changed records.
+     */
+    public synchronized Changes getChangesSince(long version) throws SQLException {
+        // Give up the gaps of the transactions which were surely rolled back.
+        long currentTime = System.currentTimeMillis();
+        mGaps.values().removeIf(timeout -> timeout < currentTime);
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+            createTable(dbConnection);
+
+            List<Long> gaps = new ArrayList<>(mGaps.keySet());
+            StringBuilder gapParameters = new StringBuilder();
+
+            for (int i = 0; i < gaps.size(); i++)
+                gapParameters.append(i == 0 ? "?" : ", ?");
+
+            PreparedStatement statement = dbConnection.prepareStatement(
+                    String.format("SELECT %s, %s, %s FROM %s WHERE %s > ?%s ORDER BY %s",
+                            ChangeLogEntry.COLUMN_VERSION,
+                            ChangeLogEntry.COLUMN_TABLE_NAME,
+                            ChangeLogEntry.COLUMN_RECORD_ID,
+                            ChangeLogEntry.TABLE_NAME,
+                            ChangeLogEntry.COLUMN_VERSION,
+                            gaps.isEmpty() ? "" : String.format(" OR %s IN (%s)",
+                                    ChangeLogEntry.COLUMN_VERSION, gapParameters),
+                            ChangeLogEntry.COLUMN_VERSION));
+
+            statement.setLong(1, version);
+
+            for (int i = 0; i < gaps.size(); i++)
+                statement.setLong(i + 2, gaps.get(i));
+
+            ResultSet resultSet = statement.executeQuery();
+            Changes changes = new Changes(version);
+
+            while (resultSet.next()) {
+                long entryVersion = resultSet.getLong(ChangeLogEntry.COLUMN_VERSION);
+
+                // The entries are read in order, thus the versions skipped between the
+                // newer entries are not committed yet.
+                mGaps.remove(entryVersion);
+
+                if (entryVersion > changes.mVersion) {
+                    addGaps(changes.mVersion, entryVersion);
+                    changes.mVersion = entryVersion;
+                }
+
+                changes.mRecordIDs.computeIfAbsent(resultSet.getString(ChangeLogEntry.COLUMN_TABLE_NAME),
+                        tableName -> new LinkedHashSet<>()).add(resultSet.getString(ChangeLogEntry.COLUMN_RECORD_ID));
+            }
+
+            resultSet.close();
+            statement.close();
+
+            return changes;
+        }
+    }
+
+    /**
+     * Keep the versions between two versions read in order as gaps, up to MAX_GAP_COUNT
+     * versions. Must be called while holding the lock of the log.
+     *
+     * @param lastVersion
+     *        The version read before.
+     * @param version
+     *        The version read.
+     */
+    private void addGaps(long lastVersion, long version) {
+        long timeout = System.currentTimeMillis() + GAP_TIMEOUT;
+
+        for (long gap = Math.max(lastVersion + 1, version - MAX_GAP_COUNT); gap < version; gap++)
+            if (mGaps.size() < MAX_GAP_COUNT)
+                mGaps.putIfAbsent(gap, timeout);
+    }
+
+    /**
+     * Create the change log table if it does not exist yet, and remove the outdated
+     * entries.
+     *
+     * @param dbConnection
+     *        The connection to the database.
+     */
+    private void createTable(Connection dbConnection) throws SQLException {
+        if (mIsTableCreated)
+            return;
+
+        Statement statement = dbConnection.createStatement();
+
+        statement.execute(String.format("CREATE TABLE IF NOT EXISTS %s (" +
+                        "%s BIGINT NOT NULL AUTO_INCREMENT, " +
+                        "%s VARCHAR(64) NOT NULL, " +
+                        "%s VARCHAR(32) NOT NULL, " +
+                        "%s TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                        "PRIMARY KEY (%s))",
+                ChangeLogEntry.TABLE_NAME,
+                ChangeLogEntry.COLUMN_VERSION,
+                ChangeLogEntry.COLUMN_TABLE_NAME,
+                ChangeLogEntry.COLUMN_RECORD_ID,
+                ChangeLogEntry.COLUMN_CHANGED_AT,
+                ChangeLogEntry.COLUMN_VERSION));
+
+        statement.executeUpdate(String.format("DELETE FROM %s WHERE %s < NOW() - INTERVAL %d DAY",
+                ChangeLogEntry.TABLE_NAME,
+                ChangeLogEntry.COLUMN_CHANGED_AT,
+                RETENTION_DAYS));
+
+        statement.close();
+
+        mIsTableCreated = true;
+    }
+
+    /**
+     * The records changed after a version, grouped by their tables.
+     */
+    public static class Changes {
+
+        /* The latest version of the changes. */
+        private long mVersion;
+
+        /* The IDs of the changed records by their tables. */
+        private final Map<String, Set<String>> mRecordIDs = new HashMap<>();
+
+        Changes(long version) {
+            mVersion = version;
+        }
+
+        /**
+         * Fetch the latest version of the changes, to be passed to the next refresh.
+         *
+         * @return the latest version, or the version of the last refresh if nothing
+         *         changed since.
+         */
+        public long getVersion() {
+            return mVersion;
+        }
+
+        /**
+         * Fetch the IDs of the changed records of a table.
+         *
+         * @param tableName
+         *        The table of the records.
+         *
+         * @return the IDs of the changed records, in the order they were changed.
+         */
+        public Set<String> getRecordIDs(String tableName) {
+            Set<String> recordIDs = mRecordIDs.get(tableName);
+
+            return recordIDs != null ? recordIDs : Collections.emptySet();
+        }
+
+        public boolean isEmpty() {
+            return mRecordIDs.isEmpty();
+        }
+    }
+}
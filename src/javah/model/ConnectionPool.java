@@ -0,0 +1,705 @@
+package javah.model;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of database connections that sits in front of a data source.
+ * Connections are borrowed and returned by the Database Model instead of being
+ * opened and closed for every operation, so that each operation only pays for its
+ * query and not for a new handshake with the database.
+ *
+ * The pool keeps at least the minimum number of idle connections ready, never
+ * opens more than the maximum number of connections, evicts connections that were
+ * idle for too long, validates every connection before it is handed out and reports
+ * connections that were borrowed for too long together with the stack trace of
+ * the code that borrowed them.
+ *
+ * Every connection also keeps a cache of its prepared statements keyed by their
+ * SQL, so that preparing the same SQL again on the same connection reuses the
+ * statement that the database already parsed and planned. Closing a cached
+ * statement only clears its parameters and closes its result set.
+ *
+ * Any data source can be pooled, which allows the pool to be used against an
+ * embedded local database as well as the MySQL server.
+ *
+ * @see DatabaseModel
+ */
+public class ConnectionPool {
+
+    /* The default values of the pool configuration. */
+    public static final int DEFAULT_MIN_SIZE = 2;
+    public static final int DEFAULT_MAX_SIZE = 8;
+    public static final long DEFAULT_IDLE_TIMEOUT = 5 * 60 * 1000;
+    public static final long DEFAULT_BORROW_TIMEOUT = 30 * 1000;
+    public static final long DEFAULT_LEAK_THRESHOLD = 60 * 1000;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+    /* The interval in milliseconds of the eviction and leak detection task. */
+    private static final long HOUSEKEEPING_INTERVAL = 30 * 1000;
+
+    /* The time in seconds given to a connection to respond to a validation. */
+    private static final int VALIDATION_TIMEOUT = 2;
+
+    /* The data source where the physical connections are opened from. */
+    private final DataSource mDataSource;
+
+    /* The minimum number of idle connections kept within the pool. */
+    private final int mMinSize;
+
+    /* The maximum number of connections, idle or borrowed, that the pool can open. */
+    private final int mMaxSize;
+
+    /* The time in milliseconds a connection above the minimum size can stay idle. */
+    private final long mIdleTimeout;
+
+    /* The time in milliseconds to wait for a connection before giving up. */
+    private final long mBorrowTimeout;
+
+    /* The time in milliseconds a connection can be borrowed before it is reported. */
+    private final long mLeakThreshold;
+
+    /* The maximum number of prepared statements cached per connection. */
+    private final int mStatementCacheSize;
+
+    /**
+     * Holds a permit for every connection that can still be borrowed. Bounds the
+     * number of borrowed connections to mMaxSize.
+     */
+    private final Semaphore mPermits;
+
+    /**
+     * The idle connections. Recently returned connections are placed at the head,
+     * so that the connections at the tail are the ones idling the longest.
+     */
+    private final ConcurrentLinkedDeque<PooledConnection> mIdleConnections = new ConcurrentLinkedDeque<>();
+
+    /* The connections that are currently borrowed. */
+    private final Set<PooledConnection> mBorrowedConnections = ConcurrentHashMap.newKeySet();
+
+    /* The statistics of the pool. */
+    private final AtomicLong mBorrowCount = new AtomicLong();
+    private final AtomicLong mTotalWaitTime = new AtomicLong();
+    private final AtomicLong mMaxWaitTime = new AtomicLong();
+    private final AtomicLong mLeakCount = new AtomicLong();
+    private final AtomicLong mStatementCacheHits = new AtomicLong();
+    private final AtomicLong mStatementCacheMisses = new AtomicLong();
+
+    /* A timer that evicts idle connections and looks for leaked connections. */
+    private Timer mHousekeeper;
+
+    /**
+     * Create a pool with the default configuration.
+     *
+     * @param dataSource
+     *        The data source where the connections are opened from.
+     */
+    public ConnectionPool(DataSource dataSource) {
+        this(dataSource, DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE,
+                DEFAULT_IDLE_TIMEOUT, DEFAULT_BORROW_TIMEOUT, DEFAULT_LEAK_THRESHOLD,
+                DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Create a pool.
+     *
+     * @param dataSource
+     *        The data source where the connections are opened from.
+     * @param minSize
+     *        The minimum number of idle connections kept within the pool.
+     * @param maxSize
+     *        The maximum number of connections the pool can open.
+     * @param idleTimeout
+     *        The time in milliseconds a connection can stay idle before it is closed, as
+     *        long as the pool holds more than minSize connections.
+     * @param borrowTimeout
+     *        The time in milliseconds to wait for a connection when all are borrowed.
+     * @param leakThreshold
+     *        The time in milliseconds a connection can be borrowed before the pool reports
+     *        it as a possible leak.
+     * @param statementCacheSize
+     *        The maximum number of prepared statements cached per connection. The least
+     *        recently used statement is closed once the cache is full. A size of zero
+     *        disables the cache.
+     */
+    public ConnectionPool(DataSource dataSource, int minSize, int maxSize,
+                          long idleTimeout, long borrowTimeout, long leakThreshold,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+
+        mDataSource = dataSource;
+        mMinSize = minSize;
+        mMaxSize = maxSize;
+        mIdleTimeout = idleTimeout;
+        mBorrowTimeout = borrowTimeout;
+        mLeakThreshold = leakThreshold;
+        mStatementCacheSize = statementCacheSize;
+        mPermits = new Semaphore(maxSize, true);
+
+        mHousekeeper = new Timer("connection-pool-housekeeper", true);
+        mHousekeeper.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                evictIdleConnections();
+                detectLeaks();
+            }
+        }, HOUSEKEEPING_INTERVAL, HOUSEKEEPING_INTERVAL);
+    }
+
+    /**
+     * Borrow a connection from the pool. Closing the returned connection hands it
+     * back to the pool instead of closing the physical connection.
+     *
+     * @return a validated connection.
+     *
+     * @throws SQLException
+     *         if no connection became available within the borrow timeout, or if a new
+     *         connection could not be opened.
+     */
+    public Connection getConnection() throws SQLException {
+        long startTime = System.nanoTime();
+
+        try {
+            if (!mPermits.tryAcquire(mBorrowTimeout, TimeUnit.MILLISECONDS))
+                throw new SQLException(String.format(
+                        "Timed out after %d ms waiting for a connection (active: %d, idle: %d).",
+                        mBorrowTimeout, getActiveCount(), getIdleCount()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection.", e);
+        }
+
+        long waitTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        mBorrowCount.incrementAndGet();
+        mTotalWaitTime.addAndGet(waitTime);
+        mMaxWaitTime.accumulateAndGet(waitTime, Math::max);
+
+        try {
+            PooledConnection pooledConnection;
+
+            // Take the most recently used idle connection. Discard the idle connections that
+            // no longer respond, then open a new one if no idle connection is left.
+            while ((pooledConnection = mIdleConnections.pollFirst()) != null) {
+                if (pooledConnection.isValid())
+                    break;
+
+                pooledConnection.closePhysical();
+            }
+
+            if (pooledConnection == null)
+                pooledConnection = new PooledConnection(mDataSource.getConnection());
+
+            pooledConnection.borrow();
+            mBorrowedConnections.add(pooledConnection);
+
+            return pooledConnection.mProxy;
+
+        } catch (SQLException | RuntimeException e) {
+            mPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close every idle connection and stop the housekeeping of the pool. Borrowed
+     * connections are closed as soon as they are returned.
+     */
+    public void close() {
+        if (mHousekeeper != null) {
+            mHousekeeper.cancel();
+            mHousekeeper = null;
+        }
+
+        PooledConnection pooledConnection;
+        while ((pooledConnection = mIdleConnections.pollFirst()) != null)
+            pooledConnection.closePhysical();
+    }
+
+    /**
+     * Fetch the number of connections currently borrowed.
+     *
+     * @return the number of borrowed connections.
+     */
+    public int getActiveCount() {
+        return mBorrowedConnections.size();
+    }
+
+    /**
+     * Fetch the number of connections idling within the pool.
+     *
+     * @return the number of idle connections.
+     */
+    public int getIdleCount() {
+        return mIdleConnections.size();
+    }
+
+    /**
+     * Fetch the maximum number of connections the pool can open.
+     *
+     * @return the maximum size of the pool.
+     */
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Fetch the number of times a connection was borrowed.
+     *
+     * @return the borrow count.
+     */
+    public long getBorrowCount() {
+        return mBorrowCount.get();
+    }
+
+    /**
+     * Fetch the total time spent waiting for a connection.
+     *
+     * @return the total wait time in milliseconds.
+     */
+    public long getTotalWaitTime() {
+        return mTotalWaitTime.get();
+    }
+
+    /**
+     * Fetch the average time spent waiting for a connection.
+     *
+     * @return the average wait time in milliseconds.
+     */
+    public double getAverageWaitTime() {
+        long borrowCount = mBorrowCount.get();
+        return borrowCount == 0 ? 0 : (double) mTotalWaitTime.get() / borrowCount;
+    }
+
+    /**
+     * Fetch the longest time spent waiting for a connection.
+     *
+     * @return the maximum wait time in milliseconds.
+     */
+    public long getMaxWaitTime() {
+        return mMaxWaitTime.get();
+    }
+
+    /**
+     * Fetch the number of connections reported as possible leaks.
+     *
+     * @return the leak count.
+     */
+    public long getLeakCount() {
+        return mLeakCount.get();
+    }
+
+    /**
+     * Fetch the number of prepared statements that were reused from the statement
+     * cache of a connection.
+     *
+     * @return the statement cache hit count.
+     */
+    public long getStatementCacheHitCount() {
+        return mStatementCacheHits.get();
+    }
+
+    /**
+     * Fetch the number of prepared statements that had to be prepared by the
+     * database because they were not in the statement cache of the connection.
+     *
+     * @return the statement cache miss count.
+     */
+    public long getStatementCacheMissCount() {
+        return mStatementCacheMisses.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool[active=%d, idle=%d, max=%d, borrows=%d, avgWait=%.2fms, maxWait=%dms, leaks=%d, " +
+                        "statementHits=%d, statementMisses=%d]",
+                getActiveCount(), getIdleCount(), mMaxSize, getBorrowCount(),
+                getAverageWaitTime(), getMaxWaitTime(), getLeakCount(),
+                getStatementCacheHitCount(), getStatementCacheMissCount());
+    }
+
+    /**
+     * Close the connections that idled longer than the idle timeout while keeping at
+     * least mMinSize idle connections, then open connections until mMinSize idle
+     * connections are available again. Run periodically by the housekeeper, and
+     * package-private so that the tests can run it at once.
+     */
+    void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledConnection> iterator = mIdleConnections.descendingIterator();
+        while (iterator.hasNext() && mIdleConnections.size() > mMinSize) {
+            PooledConnection pooledConnection = iterator.next();
+
+            if (now - pooledConnection.mLastUsedTime > mIdleTimeout && mIdleConnections.remove(pooledConnection))
+                pooledConnection.closePhysical();
+        }
+
+        while (mIdleConnections.size() < mMinSize &&
+                mIdleConnections.size() + mBorrowedConnections.size() < mMaxSize) {
+            try {
+                mIdleConnections.addLast(new PooledConnection(mDataSource.getConnection()));
+            } catch (SQLException e) {
+                e.printStackTrace();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Report every connection borrowed for longer than the leak threshold, printing
+     * the stack trace captured when it was borrowed. A connection is reported once.
+     * Run periodically by the housekeeper, and package-private so that the tests can
+     * run it at once.
+     */
+    void detectLeaks() {
+        long now = System.currentTimeMillis();
+
+        for (PooledConnection pooledConnection : mBorrowedConnections)
+            if (!pooledConnection.mLeakReported && now - pooledConnection.mBorrowedTime > mLeakThreshold) {
+                pooledConnection.mLeakReported = true;
+                mLeakCount.incrementAndGet();
+
+                new Exception(String.format("Connection borrowed %d ms ago was not returned.",
+                        now - pooledConnection.mBorrowedTime), pooledConnection.mBorrowStackTrace).printStackTrace();
+            }
+    }
+
+    /**
+     * Hand a borrowed connection back to the pool.
+     *
+     * @param pooledConnection
+     *        The connection to be returned.
+     */
+    private void release(PooledConnection pooledConnection) {
+        mBorrowedConnections.remove(pooledConnection);
+
+        if (pooledConnection.reset() && mHousekeeper != null)
+            mIdleConnections.addFirst(pooledConnection);
+        else
+            pooledConnection.closePhysical();
+
+        mPermits.release();
+    }
+
+    /**
+     * A physical connection owned by the pool. The connection is handed out wrapped
+     * in a proxy, which returns it to the pool once it is closed.
+     */
+    private class PooledConnection implements InvocationHandler {
+
+        /* The physical connection to the database. */
+        private final Connection mConnection;
+
+        /* The connection handed out to the borrower. */
+        private Connection mProxy;
+
+        /**
+         * The statements created by the current borrower. Closed when the connection is
+         * returned, since closing the borrowed connection no longer closes them.
+         */
+        private final List<Statement> mOpenStatements = new ArrayList<>();
+
+        /**
+         * The prepared statements of the connection keyed by their SQL, ordered from the
+         * least to the most recently used. The least recently used statement is closed
+         * once the cache exceeds its size.
+         */
+        private final Map<String, PreparedStatement> mStatementCache =
+                new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() <= mStatementCacheSize)
+                            return false;
+
+                        // Never close a statement that is still being used by the borrower.
+                        if (!mStatementsInUse.contains(eldest.getValue()))
+                            closeQuietly(eldest.getValue());
+
+                        return true;
+                    }
+                };
+
+        /* The cached statements currently handed out to the borrower. */
+        private final Set<PreparedStatement> mStatementsInUse =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /* The time the connection was last returned to the pool. */
+        private volatile long mLastUsedTime = System.currentTimeMillis();
+
+        /* The time the connection was borrowed. */
+        private volatile long mBorrowedTime;
+
+        /* The stack trace of the code that borrowed the connection. */
+        private volatile Throwable mBorrowStackTrace;
+
+        /* Determines whether this borrow was already reported as a possible leak. */
+        private volatile boolean mLeakReported;
+
+        /* Determines whether the current borrower already closed the connection. */
+        private volatile boolean mIsReturned = true;
+
+        PooledConnection(Connection connection) {
+            mConnection = connection;
+        }
+
+        /**
+         * Prepare the connection to be handed out to a new borrower.
+         */
+        void borrow() {
+            mBorrowedTime = System.currentTimeMillis();
+            mBorrowStackTrace = new Exception("Connection borrowed at");
+            mLeakReported = false;
+            mIsReturned = false;
+
+            // A new proxy is created per borrow so that a stale reference held by a previous
+            // borrower cannot use the connection anymore.
+            mProxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class[]{Connection.class}, this);
+        }
+
+        /**
+         * Validate the connection before it is handed out.
+         *
+         * @return true if the connection still responds.
+         */
+        boolean isValid() {
+            try {
+                return mConnection.isValid(VALIDATION_TIMEOUT);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Close the statements left open by the borrower and undo any transaction state
+         * so that the next borrower receives a clean connection.
+         *
+         * @return true if the connection can be reused.
+         */
+        boolean reset() {
+            mLastUsedTime = System.currentTimeMillis();
+
+            try {
+                for (Statement statement : mOpenStatements)
+                    statement.close();
+
+                mOpenStatements.clear();
+
+                if (!mConnection.getAutoCommit()) {
+                    mConnection.rollback();
+                    mConnection.setAutoCommit(true);
+                }
+
+                return !mConnection.isClosed();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+
+        /**
+         * Close the cached statements and the physical connection.
+         */
+        void closePhysical() {
+            for (PreparedStatement statement : mStatementCache.values())
+                closeQuietly(statement);
+
+            mStatementCache.clear();
+
+            try {
+                mConnection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (proxy == mProxy && !mIsReturned) {
+                        mIsReturned = true;
+                        release(this);
+                    }
+                    return null;
+
+                case "isClosed":
+                    return proxy != mProxy || mIsReturned || mConnection.isClosed();
+
+                case "equals":
+                    return proxy == args[0];
+
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+
+                case "toString":
+                    return "Pooled" + mConnection;
+            }
+
+            if (proxy != mProxy || mIsReturned)
+                throw new SQLException("Connection is already closed.");
+
+            if (method.getName().equals("prepareStatement") && args.length == 1 && mStatementCacheSize > 0) {
+                Statement statement = prepareCachedStatement((String) args[0]);
+                mOpenStatements.add(statement);
+                return statement;
+            }
+
+            try {
+                Object result = method.invoke(mConnection, args);
+
+                if (result instanceof Statement)
+                    mOpenStatements.add((Statement) result);
+
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Fetch the cached statement of the SQL, or prepare and cache it if absent. The
+         * same SQL prepared twice before the first statement is closed receives a
+         * statement that is not cached, since a statement can only hold one set of
+         * parameters at a time.
+         *
+         * @param sql
+         *        The SQL of the statement.
+         *
+         * @return a statement that only clears its parameters once closed.
+         */
+        private Statement prepareCachedStatement(String sql) throws SQLException {
+            PreparedStatement statement = mStatementCache.get(sql);
+
+            if (statement != null && mStatementsInUse.contains(statement)) {
+                mStatementCacheMisses.incrementAndGet();
+                return mConnection.prepareStatement(sql);
+            }
+
+            if (statement == null || statement.isClosed()) {
+                mStatementCacheMisses.incrementAndGet();
+                statement = mConnection.prepareStatement(sql);
+                mStatementCache.put(sql, statement);
+            } else
+                mStatementCacheHits.incrementAndGet();
+
+            mStatementsInUse.add(statement);
+
+            return (Statement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class[]{PreparedStatement.class}, new CachedStatement(sql, statement));
+        }
+
+        /**
+         * Close a statement, printing the error instead of throwing it.
+         *
+         * @param statement
+         *        The statement to be closed.
+         */
+        private void closeQuietly(Statement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+
+        /**
+         * A cached statement handed out to the borrower. Closing it closes the result
+         * set it produced and clears its parameters, then keeps the statement open for
+         * the next time the same SQL is prepared.
+         */
+        private class CachedStatement implements InvocationHandler {
+
+            /* The SQL of the statement. */
+            private final String mSql;
+
+            /* The cached statement. */
+            private final PreparedStatement mStatement;
+
+            /* The last result set produced by the statement for the borrower. */
+            private ResultSet mResultSet;
+
+            /* Determines whether the borrower already closed the statement. */
+            private boolean mIsClosed;
+
+            CachedStatement(String sql, PreparedStatement statement) {
+                mSql = sql;
+                mStatement = statement;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!mIsClosed) {
+                            mIsClosed = true;
+                            mStatementsInUse.remove(mStatement);
+
+                            if (mResultSet != null)
+                                mResultSet.close();
+
+                            // The statement might have been evicted while it was in use.
+                            if (mStatementCache.get(mSql) == mStatement)
+                                mStatement.clearParameters();
+                            else
+                                mStatement.close();
+                        }
+                        return null;
+
+                    case "isClosed":
+                        return mIsClosed || mStatement.isClosed();
+
+                    case "getConnection":
+                        return mProxy;
+
+                    case "equals":
+                        return proxy == args[0];
+
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+
+                    case "toString":
+                        return "Cached" + mStatement;
+                }
+
+                if (mIsClosed)
+                    throw new SQLException("Statement is already closed.");
+
+                try {
+                    Object result = method.invoke(mStatement, args);
+
+                    if (result instanceof ResultSet)
+                        mResultSet = (ResultSet) result;
+
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
@@ -3,9 +3,11 @@ package javah.model;
 import com.mysql.jdbc.jdbc2.optional.MysqlDataSource;
 import javah.container.*;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.sql.Date;
 import java.util.*;
+import java.util.function.Function;
 
 import javah.contract.DatabaseContract.*;
 
@@ -15,8 +17,496 @@ import javah.contract.DatabaseContract.*;
  */
 public class DatabaseModel {
 
-    /* A variable that holds the a cacheable connection the the database. */
-    private MysqlDataSource mDataSource;
+    /* The default number of rows sent to the database per round trip by bulk inserts. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /* The number of rows fetched per round trip by drivers that cannot stream rows. */
+    private static final int STREAMING_FETCH_SIZE = 500;
+
+    /* The maximum number of IDs looked up per query when reading the changed records. */
+    private static final int CHANGED_ROWS_QUERY_SIZE = 500;
+
+    /**
+     * An interface that receives the rows of the resident or business essentials
+     * one at a time.
+     */
+    public interface OnEntityRowListener {
+        void onEntityRow(String id, String name);
+    }
+
+    /**
+     * An interface that receives the rows of the barangay ID, barangay clearance or
+     * business clearance essentials one at a time.
+     */
+    public interface OnReportRowListener {
+        void onReportRow(String id, String ownerID, Timestamp dateIssued);
+    }
+
+    /**
+     * A pool of connections to the database. Every operation borrows a connection
+     * from the pool and returns it once done, instead of opening a new one.
+     *
+     * @see ConnectionPool
+     */
+    private ConnectionPool mConnectionPool;
+
+    /**
+     * Allocates the IDs of the created records from blocks reserved in the database.
+     *
+     * @see IDAllocator
+     */
+    private IDAllocator mIDAllocator;
+
+    /**
+     * Logs the records changed by this terminal, and reads the records changed by
+     * every terminal to keep the cache model up to date.
+     *
+     * @see ChangeLog
+     */
+    private ChangeLog mChangeLog;
+
+    /**
+     * Caches the residents, businesses and reports fetched by their IDs, so that
+     * selecting the same record again does not query the database.
+     *
+     * @see EntityCache
+     */
+    private EntityCache mEntityCache = new EntityCache();
+
+    /*
+     * The SQL statements of each table, built once from the Database Contract.
+     *
+     * Use String.format as a workaround to the bug when using parameterized query.
+     * Since each statement is built only once, the same string is always prepared,
+     * allowing the connection pool to reuse the prepared statements.
+     */
+
+    /* The statements of the Resident table. */
+    private static class ResidentStatement {
+        static final String SELECT_ESSENTIALS = String.format("SELECT %s, %s, %s, %s, %s FROM %s ORDER BY %s, %s, %s",
+                ResidentEntry.COLUMN_ID,
+                ResidentEntry.COLUMN_FIRST_NAME,
+                ResidentEntry.COLUMN_MIDDLE_NAME,
+                ResidentEntry.COLUMN_LAST_NAME,
+                ResidentEntry.COLUMN_AUXILIARY,
+                ResidentEntry.TABLE_NAME,
+                ResidentEntry.COLUMN_LAST_NAME,
+                ResidentEntry.COLUMN_FIRST_NAME,
+                ResidentEntry.COLUMN_MIDDLE_NAME);
+
+        static final String SELECT_ESSENTIALS_BY_IDS = String.format("SELECT %s, %s, %s, %s, %s FROM %s WHERE %s IN ",
+                ResidentEntry.COLUMN_ID,
+                ResidentEntry.COLUMN_FIRST_NAME,
+                ResidentEntry.COLUMN_MIDDLE_NAME,
+                ResidentEntry.COLUMN_LAST_NAME,
+                ResidentEntry.COLUMN_AUXILIARY,
+                ResidentEntry.TABLE_NAME,
+                ResidentEntry.COLUMN_ID);
+
+        static final String SELECT = String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
+                ResidentEntry.COLUMN_FIRST_NAME,
+                ResidentEntry.COLUMN_MIDDLE_NAME,
+                ResidentEntry.COLUMN_LAST_NAME,
+                ResidentEntry.COLUMN_AUXILIARY,
+                ResidentEntry.COLUMN_BIRTH_DATE,
+                ResidentEntry.COLUMN_PHOTO,
+                ResidentEntry.COLUMN_YEAR_OF_RESIDENCY,
+                ResidentEntry.COLUMN_MONTH_OF_RESIDENCY,
+                ResidentEntry.COLUMN_ADDRESS_1,
+                ResidentEntry.COLUMN_ADDRESS_2,
+                ResidentEntry.TABLE_NAME,
+                ResidentEntry.COLUMN_ID);
+
+        static final String INSERT = String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s) " +
+                "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                ResidentEntry.TABLE_NAME,
+                ResidentEntry.COLUMN_ID,
+                ResidentEntry.COLUMN_FIRST_NAME,
+                ResidentEntry.COLUMN_MIDDLE_NAME,
+                ResidentEntry.COLUMN_LAST_NAME,
+                ResidentEntry.COLUMN_AUXILIARY,
+                ResidentEntry.COLUMN_BIRTH_DATE,
+                ResidentEntry.COLUMN_PHOTO,
+                ResidentEntry.COLUMN_YEAR_OF_RESIDENCY,
+                ResidentEntry.COLUMN_MONTH_OF_RESIDENCY,
+                ResidentEntry.COLUMN_ADDRESS_1,
+                ResidentEntry.COLUMN_ADDRESS_2);
+
+        static final String UPDATE = String.format("UPDATE %s SET " +
+                "%s = ?, %s = ?, %s = ?, %s = ?, " +
+                "%s = ?, %s = ?, %s = ?, " +
+                "%s = ?, %s = ?, %s = ? " +
+                "WHERE %s = ?",
+                ResidentEntry.TABLE_NAME,
+                ResidentEntry.COLUMN_FIRST_NAME,
+                ResidentEntry.COLUMN_MIDDLE_NAME,
+                ResidentEntry.COLUMN_LAST_NAME,
+                ResidentEntry.COLUMN_AUXILIARY,
+                ResidentEntry.COLUMN_BIRTH_DATE,
+                ResidentEntry.COLUMN_PHOTO,
+                ResidentEntry.COLUMN_YEAR_OF_RESIDENCY,
+                ResidentEntry.COLUMN_MONTH_OF_RESIDENCY,
+                ResidentEntry.COLUMN_ADDRESS_1,
+                ResidentEntry.COLUMN_ADDRESS_2,
+                ResidentEntry.COLUMN_ID);
+
+        static final String DELETE = String.format("DELETE FROM %s WHERE %s = ?",
+                ResidentEntry.TABLE_NAME,
+                ResidentEntry.COLUMN_ID);
+    }
+
+    /* The statements of the Barangay ID table. */
+    private static class BarangayIdStatement {
+        static final String SELECT_ESSENTIALS = String.format("SELECT %s, %s, %s FROM %s ORDER BY %s DESC",
+                BarangayIdEntry.COLUMN_ID,
+                BarangayIdEntry.COLUMN_RESIDENT_ID,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                BarangayIdEntry.TABLE_NAME,
+                BarangayIdEntry.COLUMN_DATE_ISSUED);
+
+        static final String SELECT_ESSENTIALS_SINCE = String.format("SELECT %s, %s, %s FROM %s WHERE %s >= ? OR %s IS NULL ORDER BY %s DESC",
+                BarangayIdEntry.COLUMN_ID,
+                BarangayIdEntry.COLUMN_RESIDENT_ID,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                BarangayIdEntry.TABLE_NAME,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                BarangayIdEntry.COLUMN_DATE_ISSUED);
+
+        static final String SELECT_ESSENTIALS_BEFORE = String.format("SELECT %s, %s, %s FROM %s WHERE %s < ? ORDER BY %s DESC",
+                BarangayIdEntry.COLUMN_ID,
+                BarangayIdEntry.COLUMN_RESIDENT_ID,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                BarangayIdEntry.TABLE_NAME,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                BarangayIdEntry.COLUMN_DATE_ISSUED);
+
+        static final String SELECT_ESSENTIALS_BY_IDS = String.format("SELECT %s, %s, %s FROM %s WHERE %s IN ",
+                BarangayIdEntry.COLUMN_ID,
+                BarangayIdEntry.COLUMN_RESIDENT_ID,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                BarangayIdEntry.TABLE_NAME,
+                BarangayIdEntry.COLUMN_ID);
+
+        static final String SELECT = String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
+                BarangayIdEntry.COLUMN_RESIDENT_ID,
+                BarangayIdEntry.COLUMN_RESIDENT_NAME,
+                BarangayIdEntry.COLUMN_ADDRESS,
+                BarangayIdEntry.COLUMN_PHOTO,
+                BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE,
+                BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE_DIMENSION,
+                BarangayIdEntry.COLUMN_CHAIRMAN_NAME,
+                BarangayIdEntry.COLUMN_CHAIRMAN_SIGNATURE,
+                BarangayIdEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                BarangayIdEntry.COLUMN_DATE_VALID,
+                BarangayIdEntry.TABLE_NAME,
+                BarangayIdEntry.COLUMN_ID);
+
+        static final String SELECT_PROPERTIES = String.format("SELECT %s, %s FROM %s WHERE %s = ? ORDER BY %s DESC LIMIT 1",
+                BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE,
+                BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE_DIMENSION,
+                BarangayIdEntry.TABLE_NAME,
+                BarangayIdEntry.COLUMN_RESIDENT_ID,
+                BarangayIdEntry.COLUMN_ID);
+
+        static final String INSERT = String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s) " +
+                "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                BarangayIdEntry.TABLE_NAME,
+                BarangayIdEntry.COLUMN_ID,
+                BarangayIdEntry.COLUMN_RESIDENT_ID,
+                BarangayIdEntry.COLUMN_RESIDENT_NAME,
+                BarangayIdEntry.COLUMN_ADDRESS,
+                BarangayIdEntry.COLUMN_PHOTO,
+                BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE,
+                BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE_DIMENSION,
+                BarangayIdEntry.COLUMN_CHAIRMAN_NAME,
+                BarangayIdEntry.COLUMN_CHAIRMAN_SIGNATURE,
+                BarangayIdEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                BarangayIdEntry.COLUMN_DATE_VALID);
+    }
+
+    /* The statements of the Barangay Clearance table. */
+    private static class BarangayClearanceStatement {
+        static final String SELECT_ESSENTIALS = String.format("SELECT %s, %s, %s FROM %s ORDER BY %s DESC",
+                BarangayClearanceEntry.COLUMN_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_ID,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                BarangayClearanceEntry.TABLE_NAME,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED);
+
+        static final String SELECT_ESSENTIALS_SINCE = String.format("SELECT %s, %s, %s FROM %s WHERE %s >= ? OR %s IS NULL ORDER BY %s DESC",
+                BarangayClearanceEntry.COLUMN_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_ID,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                BarangayClearanceEntry.TABLE_NAME,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED);
+
+        static final String SELECT_ESSENTIALS_BEFORE = String.format("SELECT %s, %s, %s FROM %s WHERE %s < ? ORDER BY %s DESC",
+                BarangayClearanceEntry.COLUMN_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_ID,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                BarangayClearanceEntry.TABLE_NAME,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED);
+
+        static final String SELECT_ESSENTIALS_BY_IDS = String.format("SELECT %s, %s, %s FROM %s WHERE %s IN ",
+                BarangayClearanceEntry.COLUMN_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_ID,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                BarangayClearanceEntry.TABLE_NAME,
+                BarangayClearanceEntry.COLUMN_ID);
+
+        static final String SELECT = String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, " +
+                "%s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
+                BarangayClearanceEntry.COLUMN_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_NAME,
+                BarangayClearanceEntry.COLUMN_ADDRESS,
+                BarangayClearanceEntry.COLUMN_YEAR_OF_RESIDENCY,
+                BarangayClearanceEntry.COLUMN_TOTAL_YEARS_RESIDENCY,
+                BarangayClearanceEntry.COLUMN_PURPOSE,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                BarangayClearanceEntry.COLUMN_DATE_VALID,
+                BarangayClearanceEntry.COLUMN_CHAIRMAN_NAME,
+                BarangayClearanceEntry.COLUMN_CHAIRMAN_PHOTO,
+                BarangayClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE,
+                BarangayClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
+                BarangayClearanceEntry.COLUMN_SECRETARY_NAME,
+                BarangayClearanceEntry.COLUMN_SECRETARY_SIGNATURE,
+                BarangayClearanceEntry.COLUMN_SECRETARY_SIGNATURE_DIMENSION,
+                BarangayClearanceEntry.COLUMN_TREASURER_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_1_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_2_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_3_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_4_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_5_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_6_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_7_NAME,
+                BarangayClearanceEntry.TABLE_NAME,
+                BarangayClearanceEntry.COLUMN_ID);
+
+        static final String SELECT_PROPERTIES = String.format("SELECT %s FROM %s WHERE %s = ? ORDER BY %s DESC LIMIT 1",
+                BarangayClearanceEntry.COLUMN_PURPOSE,
+                BarangayClearanceEntry.TABLE_NAME,
+                BarangayClearanceEntry.COLUMN_RESIDENT_ID,
+                BarangayClearanceEntry.COLUMN_ID);
+
+        static final String INSERT = String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, " +
+                "%s, %s, %s, %s, %s, %s, %s) " +
+                "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                BarangayClearanceEntry.TABLE_NAME,
+                BarangayClearanceEntry.COLUMN_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_NAME,
+                BarangayClearanceEntry.COLUMN_ADDRESS,
+                BarangayClearanceEntry.COLUMN_YEAR_OF_RESIDENCY,
+                BarangayClearanceEntry.COLUMN_TOTAL_YEARS_RESIDENCY,
+                BarangayClearanceEntry.COLUMN_PURPOSE,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                BarangayClearanceEntry.COLUMN_DATE_VALID,
+                BarangayClearanceEntry.COLUMN_CHAIRMAN_NAME,
+                BarangayClearanceEntry.COLUMN_CHAIRMAN_PHOTO,
+                BarangayClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE,
+                BarangayClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
+                BarangayClearanceEntry.COLUMN_SECRETARY_NAME,
+                BarangayClearanceEntry.COLUMN_SECRETARY_SIGNATURE,
+                BarangayClearanceEntry.COLUMN_SECRETARY_SIGNATURE_DIMENSION,
+                BarangayClearanceEntry.COLUMN_TREASURER_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_1_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_2_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_3_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_4_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_5_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_6_NAME,
+                BarangayClearanceEntry.COLUMN_KAGAWAD_7_NAME);
+    }
+
+    /* The statements of the Business table. */
+    private static class BusinessStatement {
+        static final String SELECT_ESSENTIALS = String.format("SELECT %s, %s FROM %s ORDER BY %s",
+                BusinessEntry.COLUMN_ID,
+                BusinessEntry.COLUMN_BUSINESS_NAME,
+                BusinessEntry.TABLE_NAME,
+                BusinessEntry.COLUMN_BUSINESS_NAME);
+
+        static final String SELECT_ESSENTIALS_BY_IDS = String.format("SELECT %s, %s FROM %s WHERE %s IN ",
+                BusinessEntry.COLUMN_ID,
+                BusinessEntry.COLUMN_BUSINESS_NAME,
+                BusinessEntry.TABLE_NAME,
+                BusinessEntry.COLUMN_ID);
+
+        static final String SELECT = String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, " +
+                "%s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
+                BusinessEntry.COLUMN_ID,
+                BusinessEntry.COLUMN_BUSINESS_NAME,
+                BusinessEntry.COLUMN_BUSINESS_TYPE,
+                BusinessEntry.COLUMN_BUSINESS_ADDRESS,
+                BusinessEntry.COLUMN_OWNER_1_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_1_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_1_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_1_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_2_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_2_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_2_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_2_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_3_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_3_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_3_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_3_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_4_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_4_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_4_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_4_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_5_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_5_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_5_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_5_AUXILIARY,
+                BusinessEntry.TABLE_NAME,
+                BusinessEntry.COLUMN_ID);
+
+        static final String INSERT = String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, " +
+                "%s, %s, %s, %s, %s, %s, %s) " +
+                "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                BusinessEntry.TABLE_NAME,
+                BusinessEntry.COLUMN_ID,
+                BusinessEntry.COLUMN_BUSINESS_NAME,
+                BusinessEntry.COLUMN_BUSINESS_TYPE,
+                BusinessEntry.COLUMN_BUSINESS_ADDRESS,
+                BusinessEntry.COLUMN_OWNER_1_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_1_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_1_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_1_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_2_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_2_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_2_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_2_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_3_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_3_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_3_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_3_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_4_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_4_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_4_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_4_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_5_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_5_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_5_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_5_AUXILIARY);
+
+        static final String UPDATE = String.format("UPDATE %s SET " +
+                "%s = ?, %s = ?, %s = ?, %s = ?, " +
+                "%s = ?, %s = ?, %s = ?, %s = ?, " +
+                "%s = ?, %s = ?, %s = ?, %s = ?, " +
+                "%s = ?, %s = ?, %s = ?, %s = ?, " +
+                "%s = ?, %s = ?, %s = ?, %s = ?, " +
+                "%s = ?, %s = ?, %s = ? " +
+                "WHERE %s = ?",
+                BusinessEntry.TABLE_NAME,
+                BusinessEntry.COLUMN_BUSINESS_NAME,
+                BusinessEntry.COLUMN_BUSINESS_TYPE,
+                BusinessEntry.COLUMN_BUSINESS_ADDRESS,
+                BusinessEntry.COLUMN_OWNER_1_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_1_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_1_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_1_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_2_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_2_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_2_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_2_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_3_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_3_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_3_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_3_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_4_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_4_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_4_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_4_AUXILIARY,
+                BusinessEntry.COLUMN_OWNER_5_FIRST_NAME,
+                BusinessEntry.COLUMN_OWNER_5_MIDDLE_NAME,
+                BusinessEntry.COLUMN_OWNER_5_LAST_NAME,
+                BusinessEntry.COLUMN_OWNER_5_AUXILIARY,
+                BusinessEntry.COLUMN_ID);
+
+        static final String DELETE = String.format("DELETE FROM %s WHERE %s = ?",
+                BusinessEntry.TABLE_NAME,
+                BusinessEntry.COLUMN_ID);
+    }
+
+    /* The statements of the Business Clearance table. */
+    private static class BusinessClearanceStatement {
+        static final String SELECT_ESSENTIALS = String.format("SELECT %s, %s, %s FROM %s ORDER BY %s DESC",
+                BusinessClearanceEntry.COLUMN_ID,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ID,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                BusinessClearanceEntry.TABLE_NAME,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED);
+
+        static final String SELECT_ESSENTIALS_SINCE = String.format("SELECT %s, %s, %s FROM %s WHERE %s >= ? OR %s IS NULL ORDER BY %s DESC",
+                BusinessClearanceEntry.COLUMN_ID,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ID,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                BusinessClearanceEntry.TABLE_NAME,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED);
+
+        static final String SELECT_ESSENTIALS_BEFORE = String.format("SELECT %s, %s, %s FROM %s WHERE %s < ? ORDER BY %s DESC",
+                BusinessClearanceEntry.COLUMN_ID,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ID,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                BusinessClearanceEntry.TABLE_NAME,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED);
+
+        static final String SELECT_ESSENTIALS_BY_IDS = String.format("SELECT %s, %s, %s FROM %s WHERE %s IN ",
+                BusinessClearanceEntry.COLUMN_ID,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ID,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                BusinessClearanceEntry.TABLE_NAME,
+                BusinessClearanceEntry.COLUMN_ID);
+
+        static final String SELECT = String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s " +
+                "FROM %s WHERE %s = ?",
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                BusinessClearanceEntry.COLUMN_DATE_VALID,
+                BusinessClearanceEntry.COLUMN_CHAIRMAN_NAME,
+                BusinessClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE,
+                BusinessClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
+                BusinessClearanceEntry.COLUMN_SECRETARY_NAME,
+                BusinessClearanceEntry.COLUMN_SECRETARY_SIGNATURE,
+                BusinessClearanceEntry.COLUMN_SECRETARY_SIGNATURE_DIMENSION,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ID,
+                BusinessClearanceEntry.COLUMN_BUSINESS_NAME,
+                BusinessClearanceEntry.COLUMN_BUSINESS_TYPE,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ADDRESS,
+                BusinessClearanceEntry.COLUMN_OWNERS,
+                BusinessClearanceEntry.COLUMN_CLIENT,
+                BusinessClearanceEntry.TABLE_NAME,
+                BusinessClearanceEntry.COLUMN_ID);
+
+        static final String INSERT = String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s)" +
+                "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                BusinessClearanceEntry.TABLE_NAME,
+                BusinessClearanceEntry.COLUMN_ID,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                BusinessClearanceEntry.COLUMN_DATE_VALID,
+                BusinessClearanceEntry.COLUMN_CHAIRMAN_NAME,
+                BusinessClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE,
+                BusinessClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
+                BusinessClearanceEntry.COLUMN_SECRETARY_NAME,
+                BusinessClearanceEntry.COLUMN_SECRETARY_SIGNATURE,
+                BusinessClearanceEntry.COLUMN_SECRETARY_SIGNATURE_DIMENSION,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ID,
+                BusinessClearanceEntry.COLUMN_BUSINESS_NAME,
+                BusinessClearanceEntry.COLUMN_BUSINESS_TYPE,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ADDRESS,
+                BusinessClearanceEntry.COLUMN_OWNERS,
+                BusinessClearanceEntry.COLUMN_CLIENT);
+    }
 
     /**
      * A constructor that establishes the connection.
@@ -27,10 +517,56 @@ public class DatabaseModel {
      */
     public DatabaseModel() {
         // Initialize the data source.
-        mDataSource = new MysqlDataSource();
-        mDataSource.setURL("jdbc:mysql://localhost/BarangayDB");
-        mDataSource.setUser("root");
-        mDataSource.setPassword("horizon");
+        MysqlDataSource dataSource = new MysqlDataSource();
+        dataSource.setURL("jdbc:mysql://localhost/BarangayDB");
+        dataSource.setUser("root");
+        dataSource.setPassword("horizon");
+
+        // Let the server parse and plan each statement once, so that the statements cached
+        // by the connection pool are reused by the server as well.
+        dataSource.setUseServerPrepStmts(true);
+
+        // Send the batches of bulk inserts as multi-row inserts.
+        dataSource.setRewriteBatchedStatements(true);
+
+        mConnectionPool = new ConnectionPool(dataSource);
+        mIDAllocator = new IDAllocator(mConnectionPool);
+        mChangeLog = new ChangeLog(mConnectionPool);
+    }
+
+    /**
+     * A constructor that pools the connections of the specified data source. Used
+     * to connect the model to a database other than the local MySQL server, such
+     * as an embedded database.
+     *
+     * @param dataSource
+     *        The data source to be pooled.
+     */
+    public DatabaseModel(DataSource dataSource) {
+        mConnectionPool = new ConnectionPool(dataSource);
+        mIDAllocator = new IDAllocator(mConnectionPool);
+        mChangeLog = new ChangeLog(mConnectionPool);
+    }
+
+    /**
+     * Fetch the connection pool of this model. Used to monitor the pool statistics,
+     * such as the active and idle connections and the time spent waiting for a
+     * connection.
+     *
+     * @return the connection pool.
+     */
+    public ConnectionPool getConnectionPool() {
+        return mConnectionPool;
+    }
+
+    /**
+     * Fetch the entity cache of this model. Used to monitor the cache statistics,
+     * such as the hits and misses of the lookups.
+     *
+     * @return the entity cache.
+     */
+    public EntityCache getEntityCache() {
+        return mEntityCache;
     }
 
     /**
@@ -39,59 +575,53 @@ public class DatabaseModel {
      * @return an array of lists with elements:
      *         List[0] =  The resident IDs.
      *         List[1] = Formatted resident names.
+     *
+     * @see #streamResidentEssentials(OnEntityRowListener)
      */
     public List[] getResidentEssentials() {
+        List<String> residentIDs = new ArrayList<>();
+        List<String> residentNames = new ArrayList<>();
 
-        List[] returnList = new List[2];
-        List<String> residentsIdList = new ArrayList<>();
-        List<String> residentNameList = new ArrayList<>();
+        streamResidentEssentials((id, name) -> {
+            residentIDs.add(id);
+            residentNames.add(name);
+        });
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s, %s, %s, %s FROM %s ORDER BY %s, %s, %s",
-                            ResidentEntry.COLUMN_ID,
-                            ResidentEntry.COLUMN_FIRST_NAME,
-                            ResidentEntry.COLUMN_MIDDLE_NAME,
-                            ResidentEntry.COLUMN_LAST_NAME,
-                            ResidentEntry.COLUMN_AUXILIARY,
-                            ResidentEntry.TABLE_NAME,
-                            ResidentEntry.COLUMN_LAST_NAME,
-                            ResidentEntry.COLUMN_FIRST_NAME,
-                            ResidentEntry.COLUMN_MIDDLE_NAME)
-                    );
-
-            ResultSet resultSet = preparedStatement.executeQuery();
+        return new List[]{residentIDs, residentNames};
+    }
 
-            while(resultSet.next()) {
-                residentsIdList.add(resultSet.getString(ResidentEntry.COLUMN_ID));
+    /**
+     * Stream the non-archived resident IDs and names, sorted by name, to a listener
+     * one row at a time. The rows are fetched from the database as they are read,
+     * instead of holding the whole table in memory first.
+     *
+     * @param listener
+     *        The listener receiving the resident ID and the formatted resident name of
+     *        each row.
+     *
+     * @return true if every row was streamed.
+     */
+    public boolean streamResidentEssentials(OnEntityRowListener listener) {
 
-                String name = String.format("%s, %s %s.",
-                        resultSet.getString(ResidentEntry.COLUMN_LAST_NAME),
-                        resultSet.getString(ResidentEntry.COLUMN_FIRST_NAME),
-                        Character.toUpperCase(resultSet.getString(ResidentEntry.COLUMN_MIDDLE_NAME).charAt(0))
-                );
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
 
-                String auxiliary = resultSet.getString(ResidentEntry.COLUMN_AUXILIARY);
-                name += auxiliary == null ? "" : " " + auxiliary;
+            PreparedStatement preparedStatement = prepareStreamingStatement(dbConnection, ResidentStatement.SELECT_ESSENTIALS);
 
-                residentNameList.add(name);
-            }
+            ResultSet resultSet = preparedStatement.executeQuery();
 
-            returnList[0] = residentsIdList;
-            returnList[1] = residentNameList;
+            while(resultSet.next())
+                listener.onEntityRow(resultSet.getString(ResidentEntry.COLUMN_ID), formatResidentName(resultSet));
 
-            dbConnection.close();
-            preparedStatement.close();
             resultSet.close();
+            preparedStatement.close();
+
+            return true;
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
 
-        return returnList;
+        return false;
     }
 
     /**
@@ -103,40 +633,64 @@ public class DatabaseModel {
      *                    cached data when a specific resident is modified or dropped.
      *         array[2] = Issued date of each Barangay ID, used to sort the Barangay IDs within
      *                    the list paging.
+     *
+     * @see #streamBarangayIDEssentials(OnReportRowListener)
      */
     public List[] getBarangayIDEssentials() {
-        List[] result = new List[]{new ArrayList<String>(), new ArrayList<String>(), new ArrayList<String>(), new ArrayList<Date>()};
-
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            // Only query the barangay ID data with applicants that are not archived.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s, %s FROM %s ORDER BY %s DESC",
-                            BarangayIdEntry.COLUMN_ID,
-                            BarangayIdEntry.COLUMN_RESIDENT_ID,
-                            BarangayIdEntry.COLUMN_DATE_ISSUED,
-                            BarangayIdEntry.TABLE_NAME,
-                            BarangayIdEntry.COLUMN_DATE_ISSUED));
-
-            ResultSet resultSet = preparedStatement.executeQuery();
-
-            while (resultSet.next()) {
-                result[0].add(resultSet.getString(BarangayIdEntry.COLUMN_ID));
-                result[1].add(resultSet.getString(BarangayIdEntry.COLUMN_RESIDENT_ID));
-                result[2].add(resultSet.getDate(BarangayIdEntry.COLUMN_DATE_ISSUED));
-            }
+        return collectReportRows(this::streamBarangayIDEssentials);
+    }
 
-            dbConnection.close();
-            preparedStatement.close();
-            resultSet.close();
+    /**
+     * Stream the Barangay ID IDs, resident IDs and issued dates, latest first, to a
+     * listener one row at a time.
+     *
+     * @param listener
+     *        The listener receiving each row.
+     *
+     * @return true if every row was streamed.
+     */
+    public boolean streamBarangayIDEssentials(OnReportRowListener listener) {
+        return streamBarangayIDEssentials(null, listener);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    /**
+     * Stream the Barangay IDs issued since a date, and those without a date of issuance,
+     * latest first, to a listener one row at a time.
+     *
+     * @param since
+     *        The earliest date of issuance streamed, or null to stream every row.
+     * @param listener
+     *        The listener receiving each row.
+     *
+     * @return true if every row was streamed.
+     */
+    public boolean streamBarangayIDEssentials(Timestamp since, OnReportRowListener listener) {
+        return streamReportRows(since == null ? BarangayIdStatement.SELECT_ESSENTIALS : BarangayIdStatement.SELECT_ESSENTIALS_SINCE,
+                since,
+                BarangayIdEntry.COLUMN_ID,
+                BarangayIdEntry.COLUMN_RESIDENT_ID,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                listener);
+    }
 
-        return result;
+    /**
+     * Return the Barangay IDs issued before a date, which are left out of the cache when
+     * the cached history is capped.
+     *
+     * @param before
+     *        The date of issuance the Barangay IDs were issued before.
+     *
+     * @return an array of lists with the same elements as getBarangayIDEssentials.
+     *
+     * @see CacheModel#setHistoryYears(int)
+     */
+    public List[] getBarangayIDHistory(Timestamp before) {
+        return collectReportRows(listener -> streamReportRows(BarangayIdStatement.SELECT_ESSENTIALS_BEFORE,
+                before,
+                BarangayIdEntry.COLUMN_ID,
+                BarangayIdEntry.COLUMN_RESIDENT_ID,
+                BarangayIdEntry.COLUMN_DATE_ISSUED,
+                listener));
     }
 
     /**
@@ -148,40 +702,64 @@ public class DatabaseModel {
      *                    clearance cached data when a specific resident is modified or dropped.
      *         array[2] = Issued date of each barangay clearance, used to sort the barangay
      *                    clearance within the list paging.
+     *
+     * @see #streamBarangayClearanceEssentials(OnReportRowListener)
      */
     public List[] getBarangayClearanceEssentials() {
-        List[] result = new List[]{new ArrayList<String>(), new ArrayList<String>(), new ArrayList<Date>()};
-
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            // Only query the barangay ID data with applicants that are not archived.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s, %s FROM %s ORDER BY %s DESC",
-                            BarangayClearanceEntry.COLUMN_ID,
-                            BarangayClearanceEntry.COLUMN_RESIDENT_ID,
-                            BarangayClearanceEntry.COLUMN_DATE_ISSUED,
-                            BarangayClearanceEntry.TABLE_NAME,
-                            BarangayClearanceEntry.COLUMN_DATE_ISSUED));
-
-            ResultSet resultSet = preparedStatement.executeQuery();
-
-            while (resultSet.next()) {
-                result[0].add(resultSet.getString(BarangayClearanceEntry.COLUMN_ID));
-                result[1].add(resultSet.getString(BarangayClearanceEntry.COLUMN_RESIDENT_ID));
-                result[2].add(resultSet.getDate(BarangayClearanceEntry.COLUMN_DATE_ISSUED));
-            }
+        return collectReportRows(this::streamBarangayClearanceEssentials);
+    }
 
-            dbConnection.close();
-            preparedStatement.close();
-            resultSet.close();
+    /**
+     * Stream the Barangay Clearance IDs, resident IDs and issued dates, latest first,
+     * to a listener one row at a time.
+     *
+     * @param listener
+     *        The listener receiving each row.
+     *
+     * @return true if every row was streamed.
+     */
+    public boolean streamBarangayClearanceEssentials(OnReportRowListener listener) {
+        return streamBarangayClearanceEssentials(null, listener);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    /**
+     * Stream the barangay clearances issued since a date, and those without a date of issuance,
+     * latest first, to a listener one row at a time.
+     *
+     * @param since
+     *        The earliest date of issuance streamed, or null to stream every row.
+     * @param listener
+     *        The listener receiving each row.
+     *
+     * @return true if every row was streamed.
+     */
+    public boolean streamBarangayClearanceEssentials(Timestamp since, OnReportRowListener listener) {
+        return streamReportRows(since == null ? BarangayClearanceStatement.SELECT_ESSENTIALS : BarangayClearanceStatement.SELECT_ESSENTIALS_SINCE,
+                since,
+                BarangayClearanceEntry.COLUMN_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_ID,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                listener);
+    }
 
-        return result;
+    /**
+     * Return the barangay clearances issued before a date, which are left out of the cache when
+     * the cached history is capped.
+     *
+     * @param before
+     *        The date of issuance the barangay clearances were issued before.
+     *
+     * @return an array of lists with the same elements as getBarangayClearanceEssentials.
+     *
+     * @see CacheModel#setHistoryYears(int)
+     */
+    public List[] getBarangayClearanceHistory(Timestamp before) {
+        return collectReportRows(listener -> streamReportRows(BarangayClearanceStatement.SELECT_ESSENTIALS_BEFORE,
+                before,
+                BarangayClearanceEntry.COLUMN_ID,
+                BarangayClearanceEntry.COLUMN_RESIDENT_ID,
+                BarangayClearanceEntry.COLUMN_DATE_ISSUED,
+                listener));
     }
 
     /**
@@ -190,44 +768,53 @@ public class DatabaseModel {
      * @return an array of lists with elements:
      *         List[0] =  The business IDs.
      *         List[1] = Formatted resident names.
+     *
+     * @see #streamBusinessEssentials(OnEntityRowListener)
      */
     public List[] getBusinessEssentials() {
-
-        List[] returnList = new List[2];
         List<String> businessIDs = new ArrayList<>();
         List<String> businessNames = new ArrayList<>();
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
+        streamBusinessEssentials((id, name) -> {
+            businessIDs.add(id);
+            businessNames.add(name);
+        });
 
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s FROM %s ORDER BY %s",
-                            BusinessEntry.COLUMN_ID,
-                            BusinessEntry.COLUMN_BUSINESS_NAME,
-                            BusinessEntry.TABLE_NAME,
-                            BusinessEntry.COLUMN_BUSINESS_NAME)
-            );
+        return new List[]{businessIDs, businessNames};
+    }
 
-            ResultSet resultSet = preparedStatement.executeQuery();
+    /**
+     * Stream the business IDs and names, sorted by name, to a listener one row at a
+     * time.
+     *
+     * @param listener
+     *        The listener receiving the business ID and name of each row.
+     *
+     * @return true if every row was streamed.
+     */
+    public boolean streamBusinessEssentials(OnEntityRowListener listener) {
 
-            while(resultSet.next()) {
-                businessIDs.add(resultSet.getString(BusinessEntry.COLUMN_ID));
-                businessNames.add(resultSet.getString(BusinessEntry.COLUMN_BUSINESS_NAME));
-            }
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
 
-            returnList[0] = businessIDs;
-            returnList[1] = businessNames;
+            PreparedStatement preparedStatement = prepareStreamingStatement(dbConnection, BusinessStatement.SELECT_ESSENTIALS);
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            while(resultSet.next())
+                listener.onEntityRow(
+                        resultSet.getString(BusinessEntry.COLUMN_ID),
+                        resultSet.getString(BusinessEntry.COLUMN_BUSINESS_NAME));
 
-            dbConnection.close();
-            preparedStatement.close();
             resultSet.close();
+            preparedStatement.close();
+
+            return true;
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
 
-        return returnList;
+        return false;
     }
 
     /**
@@ -239,43 +826,397 @@ public class DatabaseModel {
      *                    clearance cached data when a specific business is modified or dropped.
      *         array[2] = Issued date of each business clearance, used to sort the business
      *                    clearance within the list paging.
+     *
+     * @see #streamBusinessClearanceEssentials(OnReportRowListener)
      */
     public List[] getBusinessClearanceEssentials() {
-        List[] result = new List[]{new ArrayList<String>(), new ArrayList<String>(), new ArrayList<Date>()};
+        return collectReportRows(this::streamBusinessClearanceEssentials);
+    }
 
+    /**
+     * Stream the business clearance IDs, business IDs and issued dates, latest first,
+     * to a listener one row at a time.
+     *
+     * @param listener
+     *        The listener receiving each row, where the owner ID is the business ID.
+     *
+     * @return true if every row was streamed.
+     */
+    public boolean streamBusinessClearanceEssentials(OnReportRowListener listener) {
+        return streamBusinessClearanceEssentials(null, listener);
+    }
+
+    /**
+     * Stream the business clearances issued since a date, and those without a date of issuance,
+     * latest first, to a listener one row at a time.
+     *
+     * @param since
+     *        The earliest date of issuance streamed, or null to stream every row.
+     * @param listener
+     *        The listener receiving each row, where the owner ID is the business ID.
+     *
+     * @return true if every row was streamed.
+     */
+    public boolean streamBusinessClearanceEssentials(Timestamp since, OnReportRowListener listener) {
+        return streamReportRows(since == null ? BusinessClearanceStatement.SELECT_ESSENTIALS : BusinessClearanceStatement.SELECT_ESSENTIALS_SINCE,
+                since,
+                BusinessClearanceEntry.COLUMN_ID,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ID,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                listener);
+    }
+
+    /**
+     * Return the business clearances issued before a date, which are left out of the cache when
+     * the cached history is capped.
+     *
+     * @param before
+     *        The date of issuance the business clearances were issued before.
+     *
+     * @return an array of lists with the same elements as getBusinessClearanceEssentials.
+     *
+     * @see CacheModel#setHistoryYears(int)
+     */
+    public List[] getBusinessClearanceHistory(Timestamp before) {
+        return collectReportRows(listener -> streamReportRows(BusinessClearanceStatement.SELECT_ESSENTIALS_BEFORE,
+                before,
+                BusinessClearanceEntry.COLUMN_ID,
+                BusinessClearanceEntry.COLUMN_BUSINESS_ID,
+                BusinessClearanceEntry.COLUMN_DATE_ISSUED,
+                listener));
+    }
+
+    /**
+     * Fetch the latest version of the change log. Should be fetched right before the
+     * cache model is started, so that the changes made while caching are refreshed
+     * afterwards.
+     *
+     * @return the latest version of the change log, or -1 if it could not be fetched.
+     *
+     * @see #getCacheDelta(long)
+     */
+    public long getLatestChangeVersion() {
         try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            // Only query the barangay ID data with applicants that are not archived.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s, %s FROM %s ORDER BY %s DESC",
-                            BusinessClearanceEntry.COLUMN_ID,
-                            BusinessClearanceEntry.COLUMN_BUSINESS_ID,
-                            BusinessClearanceEntry.COLUMN_DATE_ISSUED,
-                            BusinessClearanceEntry.TABLE_NAME,
-                            BusinessClearanceEntry.COLUMN_DATE_ISSUED)
-            );
+            return mChangeLog.getLatestVersion();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
 
-            ResultSet resultSet = preparedStatement.executeQuery();
+        return -1;
+    }
+
+    /**
+     * Read the records changed by every terminal after a version of the change log.
+     * Only the essentials of the changed records are queried, so a refresh costs as
+     * much as the number of changes rather than the size of the tables.
+     *
+     * @param sinceVersion
+     *        The version of the change log of the last refresh.
+     *
+     * @return the changed records, or null if they could not be read.
+     *
+     * @see CacheModel#applyDelta(CacheDelta)
+     */
+    public CacheDelta getCacheDelta(long sinceVersion) {
+        try {
+            ChangeLog.Changes changes = mChangeLog.getChangesSince(sinceVersion);
+            CacheDelta delta = new CacheDelta(sinceVersion, changes.getVersion());
+
+            if (changes.isEmpty())
+                return delta;
+
+            // The records changed by the other terminals are outdated within the entity cache.
+            invalidateChangedRecords(Resident.class, changes.getRecordIDs(ResidentEntry.TABLE_NAME));
+            invalidateChangedRecords(Business.class, changes.getRecordIDs(BusinessEntry.TABLE_NAME));
+            invalidateChangedRecords(BarangayID.class, changes.getRecordIDs(BarangayIdEntry.TABLE_NAME));
+            invalidateChangedRecords(BarangayClearance.class, changes.getRecordIDs(BarangayClearanceEntry.TABLE_NAME));
+            invalidateChangedRecords(BusinessClearance.class, changes.getRecordIDs(BusinessClearanceEntry.TABLE_NAME));
+
+            // Every changed record is deleted, unless it is still found.
+            readChangedRows(ResidentStatement.SELECT_ESSENTIALS_BY_IDS,
+                    changes.getRecordIDs(ResidentEntry.TABLE_NAME), delta.mResidents,
+                    resultSet -> delta.mResidents.put(
+                            resultSet.getString(ResidentEntry.COLUMN_ID), formatResidentName(resultSet)));
+
+            readChangedRows(BusinessStatement.SELECT_ESSENTIALS_BY_IDS,
+                    changes.getRecordIDs(BusinessEntry.TABLE_NAME), delta.mBusinesses,
+                    resultSet -> delta.mBusinesses.put(
+                            resultSet.getString(BusinessEntry.COLUMN_ID),
+                            resultSet.getString(BusinessEntry.COLUMN_BUSINESS_NAME)));
+
+            readChangedRows(BarangayIdStatement.SELECT_ESSENTIALS_BY_IDS,
+                    changes.getRecordIDs(BarangayIdEntry.TABLE_NAME), delta.mBarangayIDs,
+                    resultSet -> delta.mBarangayIDs.put(
+                            resultSet.getString(BarangayIdEntry.COLUMN_ID),
+                            new CacheDelta.Report(
+                                    resultSet.getString(BarangayIdEntry.COLUMN_RESIDENT_ID),
+                                    resultSet.getTimestamp(BarangayIdEntry.COLUMN_DATE_ISSUED))));
+
+            readChangedRows(BarangayClearanceStatement.SELECT_ESSENTIALS_BY_IDS,
+                    changes.getRecordIDs(BarangayClearanceEntry.TABLE_NAME), delta.mBrgyClearances,
+                    resultSet -> delta.mBrgyClearances.put(
+                            resultSet.getString(BarangayClearanceEntry.COLUMN_ID),
+                            new CacheDelta.Report(
+                                    resultSet.getString(BarangayClearanceEntry.COLUMN_RESIDENT_ID),
+                                    resultSet.getTimestamp(BarangayClearanceEntry.COLUMN_DATE_ISSUED))));
+
+            readChangedRows(BusinessClearanceStatement.SELECT_ESSENTIALS_BY_IDS,
+                    changes.getRecordIDs(BusinessClearanceEntry.TABLE_NAME), delta.mBusiClearances,
+                    resultSet -> delta.mBusiClearances.put(
+                            resultSet.getString(BusinessClearanceEntry.COLUMN_ID),
+                            new CacheDelta.Report(
+                                    resultSet.getString(BusinessClearanceEntry.COLUMN_BUSINESS_ID),
+                                    resultSet.getTimestamp(BusinessClearanceEntry.COLUMN_DATE_ISSUED))));
+
+            return delta;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Drop the changed records of a kind from the entity cache, so that they are
+     * queried again on their next request.
+     */
+    private void invalidateChangedRecords(Class<?> kind, Collection<String> ids) {
+        for (String id : ids)
+            mEntityCache.invalidate(kind, id);
+    }
+
+    /**
+     * An interface that reads the current row of a result set.
+     */
+    private interface RowReader {
+        void readRow(ResultSet resultSet) throws SQLException;
+    }
+
+    /**
+     * Read the essentials of the changed records of a table. Each ID is first marked
+     * as deleted within the changed records, then the records still found are read.
+     *
+     * @param selectByIDs
+     *        The essentials query of the table, missing the list of IDs.
+     * @param ids
+     *        The IDs of the changed records.
+     * @param changedRecords
+     *        The changed records of the delta.
+     * @param rowReader
+     *        Reads a found record into the changed records.
+     */
+    private void readChangedRows(String selectByIDs, Collection<String> ids, Map<String, ?> changedRecords,
+                                 RowReader rowReader) throws SQLException {
+        if (ids.isEmpty())
+            return;
+
+        for (String id : ids)
+            changedRecords.put(id, null);
+
+        List<String> idList = new ArrayList<>(ids);
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            for (int from = 0; from < idList.size(); from += CHANGED_ROWS_QUERY_SIZE) {
+                List<String> queryIDs = idList.subList(from, Math.min(from + CHANGED_ROWS_QUERY_SIZE, idList.size()));
+
+                PreparedStatement statement = dbConnection.prepareStatement(
+                        selectByIDs + "(" + String.join(", ", Collections.nCopies(queryIDs.size(), "?")) + ")");
+
+                for (int i = 0; i < queryIDs.size(); i++)
+                    statement.setString(i + 1, queryIDs.get(i));
+
+                ResultSet resultSet = statement.executeQuery();
 
-            while (resultSet.next()) {
-                result[0].add(resultSet.getString(BusinessClearanceEntry.COLUMN_ID));
-                result[1].add(resultSet.getString(BusinessClearanceEntry.COLUMN_BUSINESS_ID));
-                result[2].add(resultSet.getDate(BusinessClearanceEntry.COLUMN_DATE_ISSUED));
+                while (resultSet.next())
+                    rowReader.readRow(resultSet);
+
+                resultSet.close();
+                statement.close();
             }
+        }
+    }
+
+    /**
+     * Stream the rows of a report essentials query to a listener.
+     *
+     * @param sql
+     *        The essentials query of the report table.
+     * @param date
+     *        The date bounding the issued dates of the query, or null if the query has
+     *        no parameter.
+     * @param idColumn
+     *        The column of the report ID.
+     * @param ownerIDColumn
+     *        The column of the resident or business ID.
+     * @param dateIssuedColumn
+     *        The column of the issued date.
+     * @param listener
+     *        The listener receiving each row.
+     *
+     * @return true if every row was streamed.
+     */
+    private boolean streamReportRows(String sql, Timestamp date, String idColumn, String ownerIDColumn,
+                                     String dateIssuedColumn, OnReportRowListener listener) {
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement preparedStatement = prepareStreamingStatement(dbConnection, sql);
+
+            if (date != null)
+                preparedStatement.setTimestamp(1, date);
+
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next())
+                listener.onReportRow(
+                        resultSet.getString(idColumn),
+                        resultSet.getString(ownerIDColumn),
+                        resultSet.getTimestamp(dateIssuedColumn));
 
-            dbConnection.close();
-            preparedStatement.close();
             resultSet.close();
+            preparedStatement.close();
 
-        } catch (Exception e) {
+            return true;
+
+        } catch (SQLException e) {
             e.printStackTrace();
         }
 
-        return result;
+        return false;
+    }
+
+    /**
+     * Collect the streamed rows of a report into lists.
+     *
+     * @param stream
+     *        The stream method of the report.
+     *
+     * @return an array of lists with elements:
+     *         array[0] = The report IDs.
+     *         array[1] = The resident or business IDs.
+     *         array[2] = The issued dates.
+     */
+    private List[] collectReportRows(Function<OnReportRowListener, Boolean> stream) {
+        List<String> ids = new ArrayList<>();
+        List<String> ownerIDs = new ArrayList<>();
+        List<Timestamp> datesIssued = new ArrayList<>();
+
+        stream.apply((id, ownerID, dateIssued) -> {
+            ids.add(id);
+            ownerIDs.add(ownerID);
+            datesIssued.add(dateIssued);
+        });
+
+        return new List[]{ids, ownerIDs, datesIssued};
     }
 
+    /**
+     * Prepare a forward-only, read-only statement whose rows are fetched as they are
+     * read. The MySQL driver only streams the rows one at a time with a fetch size of
+     * Integer.MIN_VALUE, while other drivers take the fetch size as a hint of the
+     * number of rows fetched per round trip.
+     *
+     * @param dbConnection
+     *        The connection to the database.
+     * @param sql
+     *        The query.
+     *
+     * @return the prepared statement.
+     */
+    private PreparedStatement prepareStreamingStatement(Connection dbConnection, String sql) throws SQLException {
+        PreparedStatement preparedStatement = dbConnection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+
+        try {
+            preparedStatement.setFetchSize(Integer.MIN_VALUE);
+        } catch (SQLException e) {
+            preparedStatement.setFetchSize(STREAMING_FETCH_SIZE);
+        }
+
+        return preparedStatement;
+    }
+
+    /**
+     * Create residents in bulk and store them in the database. The residents are
+     * inserted in batches within a single transaction, so that either all of the
+     * residents are created or none of them. Uses the default batch size.
+     *
+     * @param residents
+     *        The residents to be created.
+     *
+     * @return the generated resident IDs in the order of the residents. If the
+     *         residents were not created, then return null.
+     */
+    public List<String> createResidents(List<Resident> residents) {
+        return createResidents(residents, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Create residents in bulk and store them in the database. The residents are
+     * inserted in batches within a single transaction, so that either all of the
+     * residents are created or none of them. The generated ID of each resident is
+     * also set to the resident, to allow them to be cached afterwards.
+     *
+     * @param residents
+     *        The residents to be created.
+     * @param batchSize
+     *        The number of residents sent to the database per round trip. Must be at
+     *        least 1.
+     *
+     * @return the generated resident IDs in the order of the residents. If the
+     *         residents were not created, then return null.
+     *
+     * @see CacheModel#cacheResidents(List)
+     */
+    public List<String> createResidents(List<Resident> residents, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            // Reserve the IDs of all the residents in a single round trip.
+            List<String> residentIDs = mIDAllocator.nextIDs(ResidentEntry.TABLE_NAME, residents.size());
+
+            dbConnection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = dbConnection.prepareStatement(ResidentStatement.INSERT);
+
+                for (int i = 0; i < residents.size(); i++) {
+                    setResidentParameters(statement, residentIDs.get(i), residents.get(i));
+                    statement.addBatch();
+
+                    if ((i + 1) % batchSize == 0)
+                        statement.executeBatch();
+                }
+
+                statement.executeBatch();
+                statement.close();
+
+                mChangeLog.record(dbConnection, ResidentEntry.TABLE_NAME, residentIDs);
+
+                dbConnection.commit();
+
+            } catch (SQLException | RuntimeException e) {
+                dbConnection.rollback();
+                throw e;
+            } finally {
+                dbConnection.setAutoCommit(true);
+            }
+
+            for (int i = 0; i < residents.size(); i++)
+                residents.get(i).setId(residentIDs.get(i));
+
+            return residentIDs;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
 
     /**
      * Create a resident and store it in the database.
@@ -289,43 +1230,15 @@ public class DatabaseModel {
      */
     public String createResident(Resident resident) {
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
 
             String residentID = generateID(ResidentEntry.TABLE_NAME);
 
-            PreparedStatement statement = dbConnection.prepareStatement(
-                    String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s) " +
-                                    "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                            ResidentEntry.TABLE_NAME,
-                            ResidentEntry.COLUMN_ID,
-                            ResidentEntry.COLUMN_FIRST_NAME,
-                            ResidentEntry.COLUMN_MIDDLE_NAME,
-                            ResidentEntry.COLUMN_LAST_NAME,
-                            ResidentEntry.COLUMN_AUXILIARY,
-                            ResidentEntry.COLUMN_BIRTH_DATE,
-                            ResidentEntry.COLUMN_PHOTO,
-                            ResidentEntry.COLUMN_YEAR_OF_RESIDENCY,
-                            ResidentEntry.COLUMN_MONTH_OF_RESIDENCY,
-                            ResidentEntry.COLUMN_ADDRESS_1,
-                            ResidentEntry.COLUMN_ADDRESS_2)
-            );
-
-            statement.setString(1, residentID);
-            statement.setString(2, resident.getFirstName());
-            statement.setString(3, resident.getMiddleName());
-            statement.setString(4, resident.getLastName());
-            statement.setString(5, resident.getAuxiliary());
-            statement.setDate(6, resident.getBirthDate());
-            statement.setString(7, resident.getPhotoPath());
-            statement.setInt(8, resident.getYearOfResidency());
-            statement.setInt(9, resident.getMonthOfResidency());
-            statement.setString(10, resident.getAddress1());
-            statement.setString(11, resident.getAddress2());
-
-            statement.execute();
-            statement.close();
-            dbConnection.close();
+            PreparedStatement statement = dbConnection.prepareStatement(ResidentStatement.INSERT);
+
+            setResidentParameters(statement, residentID, resident);
+
+            executeLogged(dbConnection, statement, ResidentEntry.TABLE_NAME, residentID);
 
             return residentID;
 
@@ -347,25 +1260,9 @@ public class DatabaseModel {
      */
     public String createBarangayID(BarangayID barangayID) {
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            PreparedStatement statement = dbConnection.prepareStatement(
-                    String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s) " +
-                                    "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                            BarangayIdEntry.TABLE_NAME,
-                            BarangayIdEntry.COLUMN_ID,
-                            BarangayIdEntry.COLUMN_RESIDENT_ID,
-                            BarangayIdEntry.COLUMN_RESIDENT_NAME,
-                            BarangayIdEntry.COLUMN_ADDRESS,
-                            BarangayIdEntry.COLUMN_PHOTO,
-                            BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE,
-                            BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE_DIMENSION,
-                            BarangayIdEntry.COLUMN_CHAIRMAN_NAME,
-                            BarangayIdEntry.COLUMN_CHAIRMAN_SIGNATURE,
-                            BarangayIdEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
-                            BarangayIdEntry.COLUMN_DATE_ISSUED,
-                            BarangayIdEntry.COLUMN_DATE_VALID));
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement statement = dbConnection.prepareStatement(BarangayIdStatement.INSERT);
 
             statement.setString(1, barangayID.getID());
             statement.setString(2, barangayID.getResidentID());
@@ -392,10 +1289,7 @@ public class DatabaseModel {
             statement.setTimestamp(11, barangayID.getDateIssued());
             statement.setTimestamp(12, barangayID.getDateValid());
 
-            statement.execute();
-
-            statement.close();
-            dbConnection.close();
+            executeLogged(dbConnection, statement, BarangayIdEntry.TABLE_NAME, barangayID.getID());
 
             return barangayID.getID();
 
@@ -418,78 +1312,13 @@ public class DatabaseModel {
      */
     public String createBarangayClearance(BarangayClearance barangayClearance) {
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            PreparedStatement statement = dbConnection.prepareStatement(
-                    String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, " +
-                                    "%s, %s, %s, %s, %s, %s, %s) " +
-                                    "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                            BarangayClearanceEntry.TABLE_NAME,
-                            BarangayClearanceEntry.COLUMN_ID,
-                            BarangayClearanceEntry.COLUMN_RESIDENT_ID,
-                            BarangayClearanceEntry.COLUMN_RESIDENT_NAME,
-                            BarangayClearanceEntry.COLUMN_ADDRESS,
-                            BarangayClearanceEntry.COLUMN_YEAR_OF_RESIDENCY,
-                            BarangayClearanceEntry.COLUMN_TOTAL_YEARS_RESIDENCY,
-                            BarangayClearanceEntry.COLUMN_PURPOSE,
-                            BarangayClearanceEntry.COLUMN_DATE_ISSUED,
-                            BarangayClearanceEntry.COLUMN_DATE_VALID,
-                            BarangayClearanceEntry.COLUMN_CHAIRMAN_NAME,
-                            BarangayClearanceEntry.COLUMN_CHAIRMAN_PHOTO,
-                            BarangayClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE,
-                            BarangayClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
-                            BarangayClearanceEntry.COLUMN_SECRETARY_NAME,
-                            BarangayClearanceEntry.COLUMN_SECRETARY_SIGNATURE,
-                            BarangayClearanceEntry.COLUMN_SECRETARY_SIGNATURE_DIMENSION,
-                            BarangayClearanceEntry.COLUMN_TREASURER_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_1_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_2_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_3_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_4_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_5_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_6_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_7_NAME
-                    ));
-
-            statement.setString(1, barangayClearance.getID());
-            statement.setString(2, barangayClearance.getResidentID());
-            statement.setString(3, barangayClearance.getResidentName());
-            statement.setString(4, barangayClearance.getAddress());
-            statement.setInt(5, barangayClearance.getYearOfResidency());
-            statement.setInt(6, barangayClearance.getTotalYearsResidency());
-            statement.setString(7, barangayClearance.getPurpose());
-            statement.setTimestamp(8, barangayClearance.getDateIssued());
-            statement.setTimestamp(9, barangayClearance.getDateValid());
-            statement.setString(10, barangayClearance.getChmName());
-            statement.setString(11, barangayClearance.getChmPhoto());
-            statement.setString(12, barangayClearance.getChmSignature());
-            statement.setString(14, barangayClearance.getSecName());
-            statement.setString(15, barangayClearance.getSecSignature());
-            statement.setString(17, barangayClearance.getTreasurerName());
-
-            for (int i = 0; i < 7; i++)
-                statement.setString(18 + i, barangayClearance.getKagawadName(i));
-
-            double[] signatureDimension = barangayClearance.getChmSignatureDimension();
-            statement.setString(13, signatureDimension != null ?
-                    String.format("%.5f %.5f %.5f %.5f",
-                            signatureDimension[0],
-                            signatureDimension[1],
-                            signatureDimension[2],
-                            signatureDimension[3]) : null);
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
 
-            signatureDimension = barangayClearance.getSecSignatureDimension();
-            statement.setString(16, signatureDimension != null ?
-                    String.format("%.5f %.5f %.5f %.5f",
-                            signatureDimension[0],
-                            signatureDimension[1],
-                            signatureDimension[2],
-                            signatureDimension[3]) : null);
+            PreparedStatement statement = dbConnection.prepareStatement(BarangayClearanceStatement.INSERT);
 
-            statement.execute();
-            statement.close();
-            dbConnection.close();
+            setBarangayClearanceParameters(statement, barangayClearance.getID(), barangayClearance);
+
+            executeLogged(dbConnection, statement, BarangayClearanceEntry.TABLE_NAME, barangayClearance.getID());
 
             return barangayClearance.getID();
 
@@ -499,6 +1328,98 @@ public class DatabaseModel {
 
         return null;
     }
+    /**
+     * Create barangay clearances in bulk and store them in the database. The barangay
+     * clearances are inserted in batches within a single transaction, so that either
+     * all of the barangay clearances are created or none of them. Uses the default
+     * batch size.
+     *
+     * @param barangayClearances
+     *        The barangay clearances to be created.
+     *
+     * @return the IDs of the barangay clearances in the order of the barangay
+     *         clearances. If the barangay clearances were not created, then return null.
+     */
+    public List<String> createBarangayClearances(List<BarangayClearance> barangayClearances) {
+        return createBarangayClearances(barangayClearances, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Create barangay clearances in bulk and store them in the database. The barangay
+     * clearances are inserted in batches within a single transaction, so that either
+     * all of the barangay clearances are created or none of them. Barangay clearances
+     * without an ID receive a generated ID.
+     *
+     * @param barangayClearances
+     *        The barangay clearances to be created.
+     * @param batchSize
+     *        The number of barangay clearances sent to the database per round trip.
+     *        Must be at least 1.
+     *
+     * @return the IDs of the barangay clearances in the order of the barangay
+     *         clearances. If the barangay clearances were not created, then return null.
+     *
+     * @see CacheModel#cacheBarangayClearances(List)
+     */
+    public List<String> createBarangayClearances(List<BarangayClearance> barangayClearances, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            // Reserve the IDs of the barangay clearances without an ID in a single round trip.
+            int missingIDCount = 0;
+            for (BarangayClearance barangayClearance : barangayClearances)
+                if (barangayClearance.getID() == null)
+                    missingIDCount++;
+
+            Iterator<String> generatedIDs = mIDAllocator
+                    .nextIDs(BarangayClearanceEntry.TABLE_NAME, missingIDCount).iterator();
+
+            // The generated IDs are only set to the barangay clearances once committed.
+            List<String> ids = new ArrayList<>(barangayClearances.size());
+            for (BarangayClearance barangayClearance : barangayClearances)
+                ids.add(barangayClearance.getID() != null ? barangayClearance.getID() : generatedIDs.next());
+
+            dbConnection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = dbConnection.prepareStatement(BarangayClearanceStatement.INSERT);
+
+                for (int i = 0; i < barangayClearances.size(); i++) {
+                    setBarangayClearanceParameters(statement, ids.get(i), barangayClearances.get(i));
+                    statement.addBatch();
+
+                    if ((i + 1) % batchSize == 0)
+                        statement.executeBatch();
+                }
+
+                statement.executeBatch();
+                statement.close();
+
+                mChangeLog.record(dbConnection, BarangayClearanceEntry.TABLE_NAME, ids);
+
+                dbConnection.commit();
+
+            } catch (SQLException | RuntimeException e) {
+                dbConnection.rollback();
+                throw e;
+            } finally {
+                dbConnection.setAutoCommit(true);
+            }
+
+            for (int i = 0; i < barangayClearances.size(); i++)
+                barangayClearances.get(i).setID(ids.get(i));
+
+            return ids;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
     /**
      * Create a business and store it in the database.
      *
@@ -511,41 +1432,11 @@ public class DatabaseModel {
      */
     public String createBusiness(Business business) {
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
 
             String id = generateID(BusinessEntry.TABLE_NAME);
 
-            PreparedStatement statement = dbConnection.prepareStatement(
-                    String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, " +
-                                    "%s, %s, %s, %s, %s, %s, %s) " +
-                                    "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                            BusinessEntry.TABLE_NAME,
-                            BusinessEntry.COLUMN_ID,
-                            BusinessEntry.COLUMN_BUSINESS_NAME,
-                            BusinessEntry.COLUMN_BUSINESS_TYPE,
-                            BusinessEntry.COLUMN_BUSINESS_ADDRESS,
-                            BusinessEntry.COLUMN_OWNER_1_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_1_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_1_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_1_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_2_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_2_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_2_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_2_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_3_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_3_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_3_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_3_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_4_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_4_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_4_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_4_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_5_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_5_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_5_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_5_AUXILIARY)
-            );
+            PreparedStatement statement = dbConnection.prepareStatement(BusinessStatement.INSERT);
 
             statement.setString(1, id);
             statement.setString(2, business.getName());
@@ -557,9 +1448,7 @@ public class DatabaseModel {
                 for (int j = 0; j < 4; j++)
                     statement.setString(x++, business.getOwners()[i][j]);
 
-            statement.execute();
-            statement.close();
-            dbConnection.close();
+            executeLogged(dbConnection, statement, BusinessEntry.TABLE_NAME, id);
 
             return id;
 
@@ -581,29 +1470,9 @@ public class DatabaseModel {
      */
     public String createBusinessClearance(BusinessClearance businessClearance) {
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            PreparedStatement statement = dbConnection.prepareStatement(
-                    String.format("INSERT INTO %s(%s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s)" +
-                                    "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                            BusinessClearanceEntry.TABLE_NAME,
-                            BusinessClearanceEntry.COLUMN_ID,
-                            BusinessClearanceEntry.COLUMN_DATE_ISSUED,
-                            BusinessClearanceEntry.COLUMN_DATE_VALID,
-                            BusinessClearanceEntry.COLUMN_CHAIRMAN_NAME,
-                            BusinessClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE,
-                            BusinessClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
-                            BusinessClearanceEntry.COLUMN_SECRETARY_NAME,
-                            BusinessClearanceEntry.COLUMN_SECRETARY_SIGNATURE,
-                            BusinessClearanceEntry.COLUMN_SECRETARY_SIGNATURE_DIMENSION,
-                            BusinessClearanceEntry.COLUMN_BUSINESS_ID,
-                            BusinessClearanceEntry.COLUMN_BUSINESS_NAME,
-                            BusinessClearanceEntry.COLUMN_BUSINESS_TYPE,
-                            BusinessClearanceEntry.COLUMN_BUSINESS_ADDRESS,
-                            BusinessClearanceEntry.COLUMN_OWNERS,
-                            BusinessClearanceEntry.COLUMN_CLIENT)
-            );
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement statement = dbConnection.prepareStatement(BusinessClearanceStatement.INSERT);
 
             statement.setString(1, businessClearance.getID());
             statement.setTimestamp(2, businessClearance.getDateIssued());
@@ -635,9 +1504,7 @@ public class DatabaseModel {
                             signatureDimension[2],
                             signatureDimension[3]) : null);
 
-            statement.execute();
-            statement.close();
-            dbConnection.close();
+            executeLogged(dbConnection, statement, BusinessClearanceEntry.TABLE_NAME, businessClearance.getID());
 
             return businessClearance.getID();
 
@@ -649,7 +1516,8 @@ public class DatabaseModel {
     }
 
     /**
-     * Get a specific resident from the database.
+     * Get a specific resident from the database, or from the entity cache if it was
+     * fetched recently.
      *
      * @param residentId
      *        The ID of the resident to be fetched.
@@ -657,27 +1525,16 @@ public class DatabaseModel {
      * @return the resident having the specified resident Id. Return null if no match is found.
      */
     public Resident getResident(String residentId) {
+        Resident cachedResident = mEntityCache.get(Resident.class, residentId);
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
-                            ResidentEntry.COLUMN_FIRST_NAME,
-                            ResidentEntry.COLUMN_MIDDLE_NAME,
-                            ResidentEntry.COLUMN_LAST_NAME,
-                            ResidentEntry.COLUMN_AUXILIARY,
-                            ResidentEntry.COLUMN_BIRTH_DATE,
-                            ResidentEntry.COLUMN_PHOTO,
-                            ResidentEntry.COLUMN_YEAR_OF_RESIDENCY,
-                            ResidentEntry.COLUMN_MONTH_OF_RESIDENCY,
-                            ResidentEntry.COLUMN_ADDRESS_1,
-                            ResidentEntry.COLUMN_ADDRESS_2,
-                            ResidentEntry.TABLE_NAME,
-                            ResidentEntry.COLUMN_ID
-                    )
-            );
+        if (cachedResident != null)
+            return new Resident(cachedResident);
+
+        long cacheStamp = mEntityCache.getStamp();
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(ResidentStatement.SELECT);
 
             preparedStatement.setString(1, residentId);
 
@@ -698,7 +1555,8 @@ public class DatabaseModel {
                 resident.setAddress1(resultSet.getString(ResidentEntry.COLUMN_ADDRESS_1));
                 resident.setAddress2(resultSet.getString(ResidentEntry.COLUMN_ADDRESS_2));
 
-                dbConnection.close();
+                mEntityCache.put(Resident.class, residentId, new Resident(resident), estimateRecordSize(resultSet), cacheStamp);
+
                 preparedStatement.close();
                 resultSet.close();
 
@@ -712,7 +1570,8 @@ public class DatabaseModel {
     }
 
     /**
-     * Get a specific barangay ID from the database.
+     * Get a specific barangay ID from the database, or from the entity cache if it
+     * was fetched recently.
      *
      * @param id
      *        The ID of the barangay ID to be fetched.
@@ -720,27 +1579,16 @@ public class DatabaseModel {
      * @return the barangay ID having the specified ID. Return null if no match is found.
      */
     public BarangayID getBarangayID(String id) {
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
-                            BarangayIdEntry.COLUMN_RESIDENT_ID,
-                            BarangayIdEntry.COLUMN_RESIDENT_NAME,
-                            BarangayIdEntry.COLUMN_ADDRESS,
-                            BarangayIdEntry.COLUMN_PHOTO,
-                            BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE,
-                            BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE_DIMENSION,
-                            BarangayIdEntry.COLUMN_CHAIRMAN_NAME,
-                            BarangayIdEntry.COLUMN_CHAIRMAN_SIGNATURE,
-                            BarangayIdEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
-                            BarangayIdEntry.COLUMN_DATE_ISSUED,
-                            BarangayIdEntry.COLUMN_DATE_VALID,
-                            BarangayIdEntry.TABLE_NAME,
-                            BarangayIdEntry.COLUMN_ID
-                    )
-            );
+        BarangayID cachedBarangayID = mEntityCache.get(BarangayID.class, id);
+
+        if (cachedBarangayID != null)
+            return new BarangayID(cachedBarangayID);
+
+        long cacheStamp = mEntityCache.getStamp();
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(BarangayIdStatement.SELECT);
 
             preparedStatement.setString(1, id);
 
@@ -772,7 +1620,8 @@ public class DatabaseModel {
                 barangayID.setDateIssued(resultSet.getTimestamp(BarangayIdEntry.COLUMN_DATE_ISSUED));
                 barangayID.setDateValid(resultSet.getTimestamp(BarangayIdEntry.COLUMN_DATE_VALID));
 
-                dbConnection.close();
+                mEntityCache.put(BarangayID.class, id, new BarangayID(barangayID), estimateRecordSize(resultSet), cacheStamp);
+
                 preparedStatement.close();
                 resultSet.close();
 
@@ -786,7 +1635,8 @@ public class DatabaseModel {
     }
 
     /**
-     * Get a specific barangay ID from the database.
+     * Get a specific barangay ID from the database, or from the entity cache if it
+     * was fetched recently.
      *
      * @param id
      *        The ID of the barangay ID to be fetched.
@@ -794,41 +1644,16 @@ public class DatabaseModel {
      * @return the barangay ID having the specified ID. Return null if no match is found.
      */
     public BarangayClearance getBarangayClearance(String id) {
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, " +
-                                    "%s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
-                            BarangayClearanceEntry.COLUMN_ID,
-                            BarangayClearanceEntry.COLUMN_RESIDENT_ID,
-                            BarangayClearanceEntry.COLUMN_RESIDENT_NAME,
-                            BarangayClearanceEntry.COLUMN_ADDRESS,
-                            BarangayClearanceEntry.COLUMN_YEAR_OF_RESIDENCY,
-                            BarangayClearanceEntry.COLUMN_TOTAL_YEARS_RESIDENCY,
-                            BarangayClearanceEntry.COLUMN_PURPOSE,
-                            BarangayClearanceEntry.COLUMN_DATE_ISSUED,
-                            BarangayClearanceEntry.COLUMN_DATE_VALID,
-                            BarangayClearanceEntry.COLUMN_CHAIRMAN_NAME,
-                            BarangayClearanceEntry.COLUMN_CHAIRMAN_PHOTO,
-                            BarangayClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE,
-                            BarangayClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
-                            BarangayClearanceEntry.COLUMN_SECRETARY_NAME,
-                            BarangayClearanceEntry.COLUMN_SECRETARY_SIGNATURE,
-                            BarangayClearanceEntry.COLUMN_SECRETARY_SIGNATURE_DIMENSION,
-                            BarangayClearanceEntry.COLUMN_TREASURER_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_1_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_2_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_3_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_4_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_5_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_6_NAME,
-                            BarangayClearanceEntry.COLUMN_KAGAWAD_7_NAME,
-                            BarangayClearanceEntry.TABLE_NAME,
-                            BarangayClearanceEntry.COLUMN_ID
-                    )
-            );
+        BarangayClearance cachedBarangayClearance = mEntityCache.get(BarangayClearance.class, id);
+
+        if (cachedBarangayClearance != null)
+            return new BarangayClearance(cachedBarangayClearance);
+
+        long cacheStamp = mEntityCache.getStamp();
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(BarangayClearanceStatement.SELECT);
 
             preparedStatement.setString(1, id);
 
@@ -868,7 +1693,8 @@ public class DatabaseModel {
                 brgyClearance.setSecSignatureDimension(signatureDimension != null ?
                         Arrays.asList(signatureDimension.split(" ")).stream().mapToDouble(Double::parseDouble).toArray() : null);
 
-                dbConnection.close();
+                mEntityCache.put(BarangayClearance.class, id, new BarangayClearance(brgyClearance), estimateRecordSize(resultSet), cacheStamp);
+
                 preparedStatement.close();
                 resultSet.close();
 
@@ -882,7 +1708,8 @@ public class DatabaseModel {
     }
 
     /**
-     * Get the specified business from the database.
+     * Get the specified business from the database, or from the entity cache if it
+     * was fetched recently.
      *
      * @param id
      *        The ID of the business to be fetched.
@@ -890,41 +1717,16 @@ public class DatabaseModel {
      * @return the business having the specified ID. Return null if no match is found.
      */
     public Business getBusiness(String id) {
+        Business cachedBusiness = mEntityCache.get(Business.class, id);
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, " +
-                                    "%s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
-                            BusinessEntry.COLUMN_ID,
-                            BusinessEntry.COLUMN_BUSINESS_NAME,
-                            BusinessEntry.COLUMN_BUSINESS_TYPE,
-                            BusinessEntry.COLUMN_BUSINESS_ADDRESS,
-                            BusinessEntry.COLUMN_OWNER_1_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_1_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_1_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_1_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_2_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_2_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_2_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_2_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_3_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_3_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_3_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_3_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_4_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_4_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_4_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_4_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_5_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_5_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_5_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_5_AUXILIARY,
-                            BusinessEntry.TABLE_NAME,
-                            BusinessEntry.COLUMN_ID)
-            );
+        if (cachedBusiness != null)
+            return new Business(cachedBusiness);
+
+        long cacheStamp = mEntityCache.getStamp();
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(BusinessStatement.SELECT);
 
 
             preparedStatement.setString(1, id);
@@ -946,7 +1748,8 @@ public class DatabaseModel {
 
                 business.setOwners(owners);
 
-                dbConnection.close();
+                mEntityCache.put(Business.class, id, new Business(business), estimateRecordSize(resultSet), cacheStamp);
+
                 preparedStatement.close();
                 resultSet.close();
 
@@ -960,7 +1763,8 @@ public class DatabaseModel {
     }
 
     /**
-     * Get a specific business ID from the database.
+     * Get a specific business ID from the database, or from the entity cache if it
+     * was fetched recently.
      *
      * @param id
      *        The ID of the business clearance to be fetched.
@@ -968,31 +1772,16 @@ public class DatabaseModel {
      * @return the business ID having the specified ID. Return null if no match is found.
      */
     public BusinessClearance getBusinessClearance(String id) {
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                     String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s " +
-                                    "FROM %s WHERE %s = ?",
-                             BusinessClearanceEntry.COLUMN_DATE_ISSUED,
-                             BusinessClearanceEntry.COLUMN_DATE_VALID,
-                             BusinessClearanceEntry.COLUMN_CHAIRMAN_NAME,
-                             BusinessClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE,
-                             BusinessClearanceEntry.COLUMN_CHAIRMAN_SIGNATURE_DIMENSION,
-                             BusinessClearanceEntry.COLUMN_SECRETARY_NAME,
-                             BusinessClearanceEntry.COLUMN_SECRETARY_SIGNATURE,
-                             BusinessClearanceEntry.COLUMN_SECRETARY_SIGNATURE_DIMENSION,
-                             BusinessClearanceEntry.COLUMN_BUSINESS_ID,
-                             BusinessClearanceEntry.COLUMN_BUSINESS_NAME,
-                             BusinessClearanceEntry.COLUMN_BUSINESS_TYPE,
-                             BusinessClearanceEntry.COLUMN_BUSINESS_ADDRESS,
-                             BusinessClearanceEntry.COLUMN_OWNERS,
-                             BusinessClearanceEntry.COLUMN_CLIENT,
-                             BusinessClearanceEntry.TABLE_NAME,
-                             BusinessClearanceEntry.COLUMN_ID
-                    )
-            );
+        BusinessClearance cachedBusinessClearance = mEntityCache.get(BusinessClearance.class, id);
+
+        if (cachedBusinessClearance != null)
+            return new BusinessClearance(cachedBusinessClearance);
+
+        long cacheStamp = mEntityCache.getStamp();
+
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(BusinessClearanceStatement.SELECT);
 
             preparedStatement.setString(1, id);
 
@@ -1023,7 +1812,8 @@ public class DatabaseModel {
                 businessClearance.setSecSignatureDimension(signatureDimension != null ?
                         Arrays.asList(signatureDimension.split(" ")).stream().mapToDouble(Double::parseDouble).toArray() : null);
 
-                dbConnection.close();
+                mEntityCache.put(BusinessClearance.class, id, new BusinessClearance(businessClearance), estimateRecordSize(resultSet), cacheStamp);
+
                 preparedStatement.close();
                 resultSet.close();
 
@@ -1057,19 +1847,9 @@ public class DatabaseModel {
      *         Return null if the resident has not applied any barangay ID yet.
      */
     public Object[] getBarangayIDProperties(String residentId) {
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s, %s FROM %s WHERE %s = ? ORDER BY %s DESC LIMIT 1",
-                            BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE,
-                            BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE_DIMENSION,
-                            BarangayIdEntry.TABLE_NAME,
-                            BarangayIdEntry.COLUMN_RESIDENT_ID,
-                            BarangayIdEntry.COLUMN_ID
-                    )
-            );
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(BarangayIdStatement.SELECT_PROPERTIES);
 
             preparedStatement.setString(1, residentId);
 
@@ -1079,7 +1859,6 @@ public class DatabaseModel {
                 String signaturePath = resultSet.getString(BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE);
                 String signatureDimension = resultSet.getString(BarangayIdEntry.COLUMN_RESIDENT_SIGNATURE_DIMENSION);
 
-                dbConnection.close();
                 preparedStatement.close();
                 resultSet.close();
 
@@ -1113,18 +1892,9 @@ public class DatabaseModel {
      * @return the purpose from the resulting barangay clearance.
      */
     public String getBarangayClearanceProperties(String residentId) {
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("SELECT %s FROM %s WHERE %s = ? ORDER BY %s DESC LIMIT 1",
-                            BarangayClearanceEntry.COLUMN_PURPOSE,
-                            BarangayClearanceEntry.TABLE_NAME,
-                            BarangayClearanceEntry.COLUMN_RESIDENT_ID,
-                            BarangayClearanceEntry.COLUMN_ID
-                    )
-            );
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(BarangayClearanceStatement.SELECT_PROPERTIES);
 
             preparedStatement.setString(1, residentId);
 
@@ -1133,7 +1903,6 @@ public class DatabaseModel {
             if (resultSet.next()) {
                 String purpose = resultSet.getString(BarangayClearanceEntry.COLUMN_PURPOSE);
 
-                dbConnection.close();
                 preparedStatement.close();
                 resultSet.close();
 
@@ -1154,27 +1923,9 @@ public class DatabaseModel {
      */
     public void updateResident(Resident resident) {
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            PreparedStatement statement = dbConnection.prepareStatement(
-                    String.format("UPDATE %s SET " +
-                                    "%s = ?, %s = ?, %s = ?, %s = ?, " +
-                                    "%s = ?, %s = ?, %s = ?, " +
-                                    "%s = ?, %s = ?, %s = ? " +
-                                    "WHERE %s = ?",
-                            ResidentEntry.TABLE_NAME,
-                            ResidentEntry.COLUMN_FIRST_NAME,
-                            ResidentEntry.COLUMN_MIDDLE_NAME,
-                            ResidentEntry.COLUMN_LAST_NAME,
-                            ResidentEntry.COLUMN_AUXILIARY,
-                            ResidentEntry.COLUMN_BIRTH_DATE,
-                            ResidentEntry.COLUMN_PHOTO,
-                            ResidentEntry.COLUMN_YEAR_OF_RESIDENCY,
-                            ResidentEntry.COLUMN_MONTH_OF_RESIDENCY,
-                            ResidentEntry.COLUMN_ADDRESS_1,
-                            ResidentEntry.COLUMN_ADDRESS_2,
-                            ResidentEntry.COLUMN_ID));
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement statement = dbConnection.prepareStatement(ResidentStatement.UPDATE);
 
             statement.setString(1, resident.getFirstName());
             statement.setString(2, resident.getMiddleName());
@@ -1188,13 +1939,14 @@ public class DatabaseModel {
             statement.setString(10, resident.getAddress2());
             statement.setString(11, resident.getId());
 
-            statement.executeUpdate();
-            statement.close();
-            dbConnection.close();
+            executeLogged(dbConnection, statement, ResidentEntry.TABLE_NAME, resident.getId());
 
         } catch (Exception e) {
             e.printStackTrace();
         }
+
+        // Remove the outdated resident from the cache.
+        mEntityCache.invalidate(Resident.class, resident.getId());
     }
 
     /**
@@ -1205,43 +1957,9 @@ public class DatabaseModel {
      */
     public void updateBusiness(Business business) {
 
-        try {
-            Connection dbConnection = mDataSource.getConnection();
-
-            PreparedStatement statement = dbConnection.prepareStatement(
-                    String.format("UPDATE %s SET " +
-                                    "%s = ?, %s = ?, %s = ?, %s = ?, " +
-                                    "%s = ?, %s = ?, %s = ?, %s = ?, " +
-                                    "%s = ?, %s = ?, %s = ?, %s = ?, " +
-                                    "%s = ?, %s = ?, %s = ?, %s = ?, " +
-                                    "%s = ?, %s = ?, %s = ?, %s = ?, " +
-                                    "%s = ?, %s = ?, %s = ? " +
-                                    "WHERE %s = ?",
-                            BusinessEntry.TABLE_NAME,
-                            BusinessEntry.COLUMN_BUSINESS_NAME,
-                            BusinessEntry.COLUMN_BUSINESS_TYPE,
-                            BusinessEntry.COLUMN_BUSINESS_ADDRESS,
-                            BusinessEntry.COLUMN_OWNER_1_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_1_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_1_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_1_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_2_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_2_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_2_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_2_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_3_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_3_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_3_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_3_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_4_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_4_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_4_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_4_AUXILIARY,
-                            BusinessEntry.COLUMN_OWNER_5_FIRST_NAME,
-                            BusinessEntry.COLUMN_OWNER_5_MIDDLE_NAME,
-                            BusinessEntry.COLUMN_OWNER_5_LAST_NAME,
-                            BusinessEntry.COLUMN_OWNER_5_AUXILIARY,
-                            BusinessEntry.COLUMN_ID));
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            PreparedStatement statement = dbConnection.prepareStatement(BusinessStatement.UPDATE);
 
             statement.setString(1, business.getName());
             statement.setString(2, business.getType());
@@ -1254,13 +1972,14 @@ public class DatabaseModel {
 
             statement.setString(24, business.getID());
 
-            statement.executeUpdate();
-            statement.close();
-            dbConnection.close();
+            executeLogged(dbConnection, statement, BusinessEntry.TABLE_NAME, business.getID());
 
         } catch (Exception e) {
             e.printStackTrace();
         }
+
+        // Remove the outdated business from the cache.
+        mEntityCache.invalidate(Business.class, business.getID());
     }
 
     /**
@@ -1270,26 +1989,18 @@ public class DatabaseModel {
      *        The resident ID of the resident to be deleted.
      */
     public void deleteResident(String residentId) {
-        try {
-            Connection dbConnection = mDataSource.getConnection();
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
 
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("DELETE FROM %s WHERE %s = ?",
-                            ResidentEntry.TABLE_NAME,
-                            ResidentEntry.COLUMN_ID
-                    )
-            );
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(ResidentStatement.DELETE);
 
             preparedStatement.setString(1, residentId);
-            preparedStatement.executeUpdate();
-
-            dbConnection.close();
-            preparedStatement.close();
+            executeLogged(dbConnection, preparedStatement, ResidentEntry.TABLE_NAME, residentId);
 
         } catch (Exception e) {
             e.printStackTrace();
         }
+
+        mEntityCache.invalidate(Resident.class, residentId);
     }
 
     /**
@@ -1299,75 +2010,184 @@ public class DatabaseModel {
      *        The ID of the business to be deleted.
      */
     public void deleteBusiness(String businessID) {
-        try {
-            Connection dbConnection = mDataSource.getConnection();
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
 
-            // Use String.format as a workaround to the bug when using parameterized query.
-            PreparedStatement preparedStatement = dbConnection.prepareStatement(
-                    String.format("DELETE FROM %s WHERE %s = ?",
-                            BusinessEntry.TABLE_NAME,
-                            BusinessEntry.COLUMN_ID
-                    )
-            );
+            PreparedStatement preparedStatement = dbConnection.prepareStatement(BusinessStatement.DELETE);
 
             preparedStatement.setString(1, businessID);
-            preparedStatement.executeUpdate();
-
-            dbConnection.close();
-            preparedStatement.close();
+            executeLogged(dbConnection, preparedStatement, BusinessEntry.TABLE_NAME, businessID);
 
         } catch (Exception e) {
             e.printStackTrace();
         }
+
+        mEntityCache.invalidate(Business.class, businessID);
     }
 
     /**
-     * Generate a unique id for the given table.
+     * Format the name of the resident at the current row of a result set, as it is
+     * displayed within the resident list paging. (e.g. Dela Cruz, Juan P. Jr.)
      *
-     * @param tableName
-     *        The table name to generate a unique ID from.
+     * @param resultSet
+     *        The result set positioned at the resident.
      *
-     * @return the uniquely generated id.
+     * @return the formatted name.
      */
-    public String generateID(String tableName) {
-        try {
-            Connection dbConnection = mDataSource.getConnection();
+    private static String formatResidentName(ResultSet resultSet) throws SQLException {
+        String name = String.format("%s, %s %s.",
+                resultSet.getString(ResidentEntry.COLUMN_LAST_NAME),
+                resultSet.getString(ResidentEntry.COLUMN_FIRST_NAME),
+                Character.toUpperCase(resultSet.getString(ResidentEntry.COLUMN_MIDDLE_NAME).charAt(0))
+        );
 
-            // Generate a unique resident id.
-            String residentId = "";
-            PreparedStatement statement = dbConnection.prepareStatement(
-                    String.format("SELECT %s FROM %s WHERE %s LIKE '%s%%' ORDER BY %s DESC LIMIT 1",
-                            ResidentEntry.COLUMN_ID,
-                            tableName,
-                            ResidentEntry.COLUMN_ID,
-                            Calendar.getInstance().get(Calendar.YEAR) - 2000,
-                            ResidentEntry.COLUMN_ID));
+        String auxiliary = resultSet.getString(ResidentEntry.COLUMN_AUXILIARY);
 
-            ResultSet resultSet = statement.executeQuery();
+        return name + (auxiliary == null ? "" : " " + auxiliary);
+    }
 
-            if (resultSet.next()) {
-                String code = resultSet.getString(ResidentEntry.COLUMN_ID);
-                int year = Integer.parseInt(code.substring(0, 2));
-                int codeNo = Integer.parseInt(code.substring(3, 6)) + 1;
-
-                residentId = year + "-" + (codeNo < 10 ? "00" + codeNo : codeNo < 100 ? "0" + codeNo : codeNo);
-            } else {
-                int year = Calendar.getInstance().get(Calendar.YEAR) - 2000;
-                residentId = year + "-001";
-            }
+    /**
+     * Execute the write of a record and log its change within a single transaction,
+     * so that the record is never committed without its change log entry, which the
+     * other terminals refresh their caches with.
+     *
+     * @param dbConnection
+     *        The connection which the statement was prepared with.
+     * @param statement
+     *        The statement writing the record, closed afterwards.
+     * @param tableName
+     *        The table of the record.
+     * @param recordID
+     *        The ID of the record.
+     */
+    private void executeLogged(Connection dbConnection, PreparedStatement statement, String tableName,
+                               String recordID) throws SQLException {
+        dbConnection.setAutoCommit(false);
 
+        try {
+            statement.executeUpdate();
             statement.close();
-            resultSet.close();
-            dbConnection.close();
 
-            return residentId;
+            mChangeLog.record(dbConnection, tableName, recordID);
+
+            dbConnection.commit();
+
+        } catch (SQLException | RuntimeException e) {
+            dbConnection.rollback();
+            throw e;
+        } finally {
+            dbConnection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Estimate the size of the record at the current row of a result set, from the
+     * values of its columns.
+     *
+     * @param resultSet
+     *        The result set positioned at the record.
+     *
+     * @return the estimated size of the record, in bytes.
+     */
+    private static int estimateRecordSize(ResultSet resultSet) throws SQLException {
+        String[] values = new String[resultSet.getMetaData().getColumnCount()];
+
+        for (int i = 0; i < values.length; i++)
+            values[i] = resultSet.getString(i + 1);
 
+        return EntityCache.estimateSize(values);
+    }
+
+    /**
+     * Set the parameters of the resident insert statement.
+     *
+     * @param statement
+     *        The resident insert statement.
+     * @param residentID
+     *        The ID of the resident.
+     * @param resident
+     *        The resident to be inserted.
+     */
+    private void setResidentParameters(PreparedStatement statement, String residentID, Resident resident)
+            throws SQLException {
+        statement.setString(1, residentID);
+        statement.setString(2, resident.getFirstName());
+        statement.setString(3, resident.getMiddleName());
+        statement.setString(4, resident.getLastName());
+        statement.setString(5, resident.getAuxiliary());
+        statement.setDate(6, resident.getBirthDate());
+        statement.setString(7, resident.getPhotoPath());
+        statement.setInt(8, resident.getYearOfResidency());
+        statement.setInt(9, resident.getMonthOfResidency());
+        statement.setString(10, resident.getAddress1());
+        statement.setString(11, resident.getAddress2());
+    }
+
+    /**
+     * Set the parameters of the barangay clearance insert statement.
+     *
+     * @param statement
+     *        The barangay clearance insert statement.
+     * @param id
+     *        The ID of the barangay clearance.
+     * @param barangayClearance
+     *        The barangay clearance to be inserted.
+     */
+    private void setBarangayClearanceParameters(PreparedStatement statement, String id,
+                                                BarangayClearance barangayClearance) throws SQLException {
+        statement.setString(1, id);
+        statement.setString(2, barangayClearance.getResidentID());
+        statement.setString(3, barangayClearance.getResidentName());
+        statement.setString(4, barangayClearance.getAddress());
+        statement.setInt(5, barangayClearance.getYearOfResidency());
+        statement.setInt(6, barangayClearance.getTotalYearsResidency());
+        statement.setString(7, barangayClearance.getPurpose());
+        statement.setTimestamp(8, barangayClearance.getDateIssued());
+        statement.setTimestamp(9, barangayClearance.getDateValid());
+        statement.setString(10, barangayClearance.getChmName());
+        statement.setString(11, barangayClearance.getChmPhoto());
+        statement.setString(12, barangayClearance.getChmSignature());
+        statement.setString(14, barangayClearance.getSecName());
+        statement.setString(15, barangayClearance.getSecSignature());
+        statement.setString(17, barangayClearance.getTreasurerName());
+
+        for (int i = 0; i < 7; i++)
+            statement.setString(18 + i, barangayClearance.getKagawadName(i));
+
+        double[] signatureDimension = barangayClearance.getChmSignatureDimension();
+        statement.setString(13, signatureDimension != null ?
+                String.format("%.5f %.5f %.5f %.5f",
+                        signatureDimension[0],
+                        signatureDimension[1],
+                        signatureDimension[2],
+                        signatureDimension[3]) : null);
+
+        signatureDimension = barangayClearance.getSecSignatureDimension();
+        statement.setString(16, signatureDimension != null ?
+                String.format("%.5f %.5f %.5f %.5f",
+                        signatureDimension[0],
+                        signatureDimension[1],
+                        signatureDimension[2],
+                        signatureDimension[3]) : null);
+    }
+
+    /**
+     * Generate a unique id for the given table. The id is allocated from a block of
+     * IDs reserved by this terminal, so that two terminals never generate the same id.
+     *
+     * @param tableName
+     *        The table name to generate a unique ID from.
+     *
+     * @return the uniquely generated id.
+     *
+     * @see IDAllocator
+     */
+    public String generateID(String tableName) {
+        try {
+            return mIDAllocator.nextID(tableName);
         } catch (Exception e) {
             e.printStackTrace();
         }
 
         return null;
     }
-
-
 }
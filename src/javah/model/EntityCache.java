@@ -0,0 +1,244 @@
+package javah.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the records fetched from the database, such as the residents
+ * and the barangay IDs, keyed by their kind and ID. The cache is bounded by the
+ * estimated size of its records rather than by their count, and evicts the least
+ * recently used records first once the size limit is exceeded.
+ *
+ * The records are removed through invalidate once updated or deleted. A record
+ * fetched while an invalidation happened might already be outdated, thus the loads
+ * should be stamped with getStamp before querying and stored with put afterwards,
+ * which ignores the records loaded before the latest invalidation.
+ *
+ * The cached records are shared rather than copied, thus the callers should store a
+ * copy of the loaded record and hand out copies of the cached records, so that no
+ * one edits the cached record in place.
+ */
+public class EntityCache {
+
+    /* The default limit of the estimated size of the cached records, in bytes. */
+    public static final long DEFAULT_MAX_SIZE = 2 * 1024 * 1024;
+
+    /* The estimated size of an empty record, in bytes. */
+    private static final int RECORD_OVERHEAD = 64;
+
+    /* The estimated size of an empty string, in bytes. */
+    private static final int STRING_OVERHEAD = 40;
+
+    /* The cached records by their keys, from the least to the most recently used. */
+    private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>(64, 0.75f, true);
+
+    /* The limit of the estimated size of the cached records, in bytes. */
+    private final long mMaxSize;
+
+    /* The estimated size of the cached records, in bytes. */
+    private long mSize;
+
+    /* Incremented on every invalidation, to ignore the records loaded before it. */
+    private long mStamp;
+
+    /* Statistics of the cache. */
+    private long mHitCount, mMissCount, mEvictionCount, mInvalidationCount;
+
+    /**
+     * Create a cache with the default size limit.
+     */
+    public EntityCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param maxSize
+     *        The limit of the estimated size of the cached records, in bytes.
+     */
+    public EntityCache(long maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("Invalid cache size: " + maxSize);
+
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Fetch a cached record and mark it as the most recently used.
+     *
+     * @param kind
+     *        The kind of the record. (e.g. Resident.class)
+     * @param id
+     *        The ID of the record.
+     *
+     * @return the cached record, or null if it is not cached. The record is shared
+     *         with the cache and must not be modified.
+     */
+    public synchronized <T> T get(Class<T> kind, String id) {
+        Entry entry = mEntries.get(createKey(kind, id));
+
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+
+        mHitCount++;
+        return kind.cast(entry.mRecord);
+    }
+
+    /**
+     * Fetch the stamp of the cache, to be passed to put once the record is loaded.
+     *
+     * @return the stamp of the cache.
+     */
+    public synchronized long getStamp() {
+        return mStamp;
+    }
+
+    /**
+     * Cache a loaded record, unless a record was invalidated since the load began.
+     * Evicts the least recently used records if the size limit is exceeded.
+     *
+     * @param kind
+     *        The kind of the record.
+     * @param id
+     *        The ID of the record.
+     * @param record
+     *        The loaded record. Ignored if null.
+     * @param size
+     *        The estimated size of the record, in bytes.
+     * @param stamp
+     *        The stamp of the cache fetched before the load began.
+     */
+    public synchronized <T> void put(Class<T> kind, String id, T record, int size, long stamp) {
+        if (record == null || stamp != mStamp || size > mMaxSize)
+            return;
+
+        Entry previousEntry = mEntries.put(createKey(kind, id), new Entry(record, size));
+
+        if (previousEntry != null)
+            mSize -= previousEntry.mSize;
+
+        mSize += size;
+
+        // Evict the least recently used records.
+        Iterator<Entry> iterator = mEntries.values().iterator();
+
+        while (mSize > mMaxSize && iterator.hasNext()) {
+            mSize -= iterator.next().mSize;
+            iterator.remove();
+            mEvictionCount++;
+        }
+    }
+
+    /**
+     * Remove a record from the cache. Called when the record is updated or deleted.
+     *
+     * @param kind
+     *        The kind of the record.
+     * @param id
+     *        The ID of the record.
+     */
+    public synchronized void invalidate(Class<?> kind, String id) {
+        Entry entry = mEntries.remove(createKey(kind, id));
+
+        if (entry != null)
+            mSize -= entry.mSize;
+
+        mStamp++;
+        mInvalidationCount++;
+    }
+
+    /**
+     * Remove every record from the cache.
+     */
+    public synchronized void invalidateAll() {
+        mEntries.clear();
+        mSize = 0;
+        mStamp++;
+        mInvalidationCount++;
+    }
+
+    /**
+     * Estimate the size of a record from the strings it holds.
+     *
+     * @param strings
+     *        The strings held by the record. Null strings are allowed.
+     *
+     * @return the estimated size of the record, in bytes.
+     */
+    public static int estimateSize(String... strings) {
+        int size = RECORD_OVERHEAD;
+
+        for (String string : strings)
+            size += string == null ? 8 : STRING_OVERHEAD + 2 * string.length();
+
+        return size;
+    }
+
+    public synchronized int getCount() {
+        return mEntries.size();
+    }
+
+    public synchronized long getSize() {
+        return mSize;
+    }
+
+    public long getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    public synchronized long getInvalidationCount() {
+        return mInvalidationCount;
+    }
+
+    /**
+     * Compute the ratio of the lookups found in the cache.
+     *
+     * @return the hit ratio from 0 to 1, or 0 if nothing was looked up yet.
+     */
+    public synchronized double getHitRatio() {
+        long lookupCount = mHitCount + mMissCount;
+
+        return lookupCount == 0 ? 0 : (double) mHitCount / lookupCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("EntityCache[records=%d, size=%d/%d, hits=%d, misses=%d, evictions=%d, invalidations=%d]",
+                mEntries.size(), mSize, mMaxSize, mHitCount, mMissCount, mEvictionCount, mInvalidationCount);
+    }
+
+    private static String createKey(Class<?> kind, String id) {
+        return kind.getSimpleName() + ":" + id;
+    }
+
+    /**
+     * A cached record along with its estimated size.
+     */
+    private static class Entry {
+
+        private final Object mRecord;
+
+        private final int mSize;
+
+        Entry(Object record, int size) {
+            mRecord = record;
+            mSize = size;
+        }
+    }
+}
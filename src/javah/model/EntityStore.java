@@ -0,0 +1,607 @@
+package javah.model;
+
+import javah.util.IDCodec;
+import javah.util.IntObjectMap;
+import javah.util.RankedTree;
+import javah.util.StringArena;
+import javah.util.TokenIndex;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * An in-memory store of the residents or the businesses, holding only their IDs
+ * and names. The entities are indexed by their IDs and kept sorted by their names,
+ * case-insensitive, then by their IDs, so that entities sharing a name still have
+ * an exact place. Finding an entity by its ID takes a constant time, while adding,
+ * renaming, removing or finding the place of an entity within the sorted names
+ * takes a logarithmic time.
+ *
+ * The sorted IDs and names are exposed as read-only list views which always
+ * reflect the current entities of the store.
+ *
+ * The names are packed within a string arena rather than held as string objects,
+ * taking about a byte per character, and are decoded only when read through the
+ * views. The arena is compacted once the names of the renamed and removed entities
+ * take more than half of it. Likewise, the IDs are held as their int codes, and
+ * are decoded only when read through the views.
+ *
+ * The words of the names are indexed as well, so that searching the names only
+ * visits the entities holding the keywords.
+ *
+ * @see IDCodec
+ * @see TokenIndex
+ *
+ * @see CacheModel
+ */
+public class EntityStore {
+
+    /* The names of the entities. */
+    private StringArena mNameArena = new StringArena();
+
+    /* Orders the entities by their names, case-insensitive, then by their IDs. */
+    private final Comparator<Entity> mEntityOrder = (entity1, entity2) -> {
+        int comparison = mNameArena.compareIgnoreCase(entity1.mName, entity2.mName);
+
+        return comparison != 0 ? comparison : IDCodec.compare(entity1.mID, entity2.mID);
+    };
+
+    /* The entities by the codes of their IDs. */
+    private final IntObjectMap<Entity> mEntities = new IntObjectMap<>();
+
+    /* The entities sorted by mEntityOrder. */
+    private final RankedTree<Entity> mSortedEntities = new RankedTree<>(mEntityOrder);
+
+    /* The words of the names, by the codes of the IDs of the entities. */
+    private final TokenIndex mNameIndex = new TokenIndex();
+
+    /* The read-only views of the sorted IDs and names. */
+    private final List<String> mIDs = new IDView();
+    private final List<String> mNames = new View<>(mSortedEntities, entity -> mNameArena.get(entity.mName));
+
+    /**
+     * Add an entity, or rename it if it is already stored.
+     *
+     * @param id
+     *        The ID of the entity.
+     * @param name
+     *        The formatted name of the entity.
+     *
+     * @return the index of the entity within the sorted entities.
+     */
+    public int put(String id, String name) {
+        return put(IDCodec.encode(id), name);
+    }
+
+    private int put(int code, String name) {
+        Entity entity = mEntities.get(code);
+
+        if (name == null)
+            name = "";
+
+        if (entity != null) {
+            if (mNameArena.equals(entity.mName, name))
+                return mSortedEntities.rank(entity);
+
+            mSortedEntities.delete(entity);
+            mNameArena.remove(entity.mName);
+            compactNames();
+        }
+
+        entity = new Entity(code, mNameArena.add(name));
+        mEntities.put(code, entity);
+        mNameIndex.put(code, name);
+
+        return mSortedEntities.insert(entity);
+    }
+
+    /**
+     * Add or rename a number of entities.
+     *
+     * @param ids
+     *        The IDs of the entities.
+     * @param names
+     *        The formatted names of the entities, in the same order as the IDs.
+     */
+    public void putAll(List<String> ids, List<String> names) {
+        for (int i = 0; i < ids.size(); i++)
+            put(ids.get(i), names.get(i));
+    }
+
+    /**
+     * Replace every entity of the store at once. Used when loading the cache snapshot,
+     * where the entities are already sorted.
+     *
+     * @param ids
+     *        The IDs of the entities.
+     * @param names
+     *        The formatted names of the entities, in the same order as the IDs.
+     */
+    public void replaceAll(List<String> ids, List<String> names) {
+        List<Entity> entities = new ArrayList<>(ids.size());
+        mEntities.clear();
+        mNameIndex.clear();
+        mNameArena = new StringArena(16 * ids.size());
+
+        for (int i = 0; i < ids.size(); i++) {
+            String name = names.get(i);
+            Entity entity = new Entity(IDCodec.encode(ids.get(i)), mNameArena.add(name == null ? "" : name));
+
+            // Keep the last entity of a duplicated ID, like putAll.
+            Entity previousEntity = mEntities.put(entity.mID, entity);
+            mNameIndex.put(entity.mID, name);
+
+            if (previousEntity != null) {
+                entities.remove(previousEntity);
+                mNameArena.remove(previousEntity.mName);
+            }
+
+            entities.add(entity);
+        }
+
+        mSortedEntities.rebuild(entities);
+    }
+
+    /**
+     * Make this store hold the same entities as another store, adding, renaming and
+     * removing only the entities that differ.
+     *
+     * @param store
+     *        The store holding the up-to-date entities.
+     *
+     * @return the number of entities added, renamed or removed.
+     */
+    public int reconcile(EntityStore store) {
+        // Copy the sorted entities at once into an empty store, such as when the cache
+        // is first started, instead of inserting them one at a time.
+        if (mEntities.isEmpty()) {
+            replaceAll(store.getIDs(), store.getNames());
+            return size();
+        }
+
+        int changeCount = 0;
+
+        for (Entity entity : store.mEntities.values()) {
+            Entity currentEntity = mEntities.get(entity.mID);
+            String name = store.mNameArena.get(entity.mName);
+
+            if (currentEntity == null || !mNameArena.equals(currentEntity.mName, name)) {
+                put(entity.mID, name);
+                changeCount++;
+            }
+        }
+
+        List<Entity> removedEntities = new ArrayList<>();
+
+        for (Entity entity : mEntities.values())
+            if (!store.mEntities.containsKey(entity.mID))
+                removedEntities.add(entity);
+
+        for (Entity entity : removedEntities)
+            remove(entity.mID);
+
+        return changeCount + removedEntities.size();
+    }
+
+
+    /**
+     * Remove an entity.
+     *
+     * @param id
+     *        The ID of the entity.
+     *
+     * @return true if the entity was stored.
+     */
+    public boolean remove(String id) {
+        return remove(IDCodec.find(id));
+    }
+
+    private boolean remove(int code) {
+        Entity entity = mEntities.remove(code);
+
+        if (entity == null)
+            return false;
+
+        mSortedEntities.delete(entity);
+        mNameArena.remove(entity.mName);
+        mNameIndex.remove(code);
+        compactNames();
+
+        return true;
+    }
+
+    /**
+     * Remove every entity.
+     */
+    public void clear() {
+        mEntities.clear();
+        mSortedEntities.clear();
+        mNameIndex.clear();
+        mNameArena = new StringArena();
+    }
+
+    /**
+     * Determine whether an entity is stored.
+     *
+     * @param id
+     *        The ID of the entity.
+     *
+     * @return true if the entity is stored.
+     */
+    public boolean contains(String id) {
+        return mEntities.containsKey(IDCodec.find(id));
+    }
+
+    /**
+     * Fetch the name of an entity.
+     *
+     * @param id
+     *        The ID of the entity.
+     *
+     * @return the formatted name of the entity, or null if it is not stored.
+     */
+    public String getName(String id) {
+        return getName(IDCodec.find(id));
+    }
+
+    /**
+     * Fetch the name of an entity by the code of its ID.
+     *
+     * @see #getName(String)
+     */
+    String getName(int code) {
+        Entity entity = mEntities.get(code);
+
+        return entity != null ? mNameArena.get(entity.mName) : null;
+    }
+
+    /**
+     * Find the index of an entity within the sorted entities.
+     *
+     * @param id
+     *        The ID of the entity.
+     *
+     * @return the index of the entity, or -1 if it is not stored.
+     */
+    public int indexOf(String id) {
+        Entity entity = mEntities.get(IDCodec.find(id));
+
+        return entity != null ? mSortedEntities.rank(entity) : -1;
+    }
+
+    public int size() {
+        return mEntities.size();
+    }
+
+    /**
+     * Find the entities having a word of their names starting with any of the keywords.
+     * Only the entities holding the keywords are visited, rather than every name.
+     *
+     * @param keywords
+     *        The keywords, in any case.
+     * @param isFuzzy
+     *        Determines whether the keywords may be misspelled.
+     *
+     * @return a new list of the IDs of the matching entities, from the entities
+     *         matching the most keywords to the least, then sorted like getIDs.
+     *
+     * @see TokenIndex#search(String[], boolean)
+     */
+    public List<String> search(String[] keywords, boolean isFuzzy) {
+        IntObjectMap<int[]> matches = mNameIndex.search(keywords, isFuzzy);
+        List<String> ids = new ArrayList<>(matches.size());
+
+        // Finding the place of a matching entity within the sorted entities takes a
+        // logarithmic time, thus walking every entity in order is faster once the
+        // matching entities are a large part of the store.
+        if ((long) matches.size() * 32 >= size()) {
+            List<List<String>> idsByMatchCount = new ArrayList<>();
+
+            for (Entity entity : mSortedEntities) {
+                int[] match = matches.get(entity.mID);
+
+                if (match == null)
+                    continue;
+
+                while (idsByMatchCount.size() <= match[1])
+                    idsByMatchCount.add(new ArrayList<>());
+
+                idsByMatchCount.get(match[1]).add(IDCodec.decode(entity.mID));
+            }
+
+            for (int matchCount = idsByMatchCount.size() - 1; matchCount > 0; matchCount--)
+                ids.addAll(idsByMatchCount.get(matchCount));
+
+            return ids;
+        }
+
+        long[] orders = new long[matches.size()];
+        int i = 0;
+
+        // Order the entities by their number of matched keywords, descending, in the
+        // upper half of a long, then by their index within the sorted entities in the
+        // lower half.
+        for (int[] match : matches.values())
+            orders[i++] = (long) (Integer.MAX_VALUE - match[1]) << 32 |
+                    mSortedEntities.rank(mEntities.get(match[0]));
+
+        Arrays.sort(orders);
+
+        for (long order : orders)
+            ids.add(IDCodec.decode(mSortedEntities.get((int) order).mID));
+
+        return ids;
+    }
+
+    /**
+     * Match the names of the entities with keywords, like search, without ordering the
+     * matching entities.
+     *
+     * @param keywords
+     *        The keywords, in any case.
+     * @param isFuzzy
+     *        Determines whether the keywords may be misspelled.
+     *
+     * @return the matches of the entities by the codes of their IDs, each an array of
+     *         the code of the ID and the number of keywords matched, followed by an
+     *         element used while matching.
+     */
+    IntObjectMap<int[]> match(String[] keywords, boolean isFuzzy) {
+        return mNameIndex.search(keywords, isFuzzy);
+    }
+
+    /**
+     * Estimate the bytes used by the store, including its name arena and its indices.
+     *
+     * @return the estimated bytes.
+     *
+     * @see CacheStats
+     */
+    long estimateBytes() {
+        // An entity holds 2 ints, and a node of the sorted tree 3 references and 2 ints.
+        long entityBytes = CacheStats.objectBytes(8) + CacheStats.objectBytes(3 * CacheStats.REFERENCE_BYTES + 8);
+
+        // A word of the name index holds an entry of 5 references and a boolean, a string
+        // of about 8 characters, and a posting list of an int and a reference. Each name
+        // holds an array of its words, with an int and a reference per word.
+        long tokenBytes = CacheStats.objectBytes(5 * CacheStats.REFERENCE_BYTES + 1) +
+                CacheStats.objectBytes(CacheStats.REFERENCE_BYTES + 4) + CacheStats.arrayBytes(8, 2) +
+                CacheStats.objectBytes(CacheStats.REFERENCE_BYTES + 4) + CacheStats.arrayBytes(0, 4);
+
+        // A phonetic key holds an entry of 3 references and an int within a slot of the
+        // hash table, a string of about 8 characters, and a list of its words, holding a
+        // reference per word.
+        long soundBytes = CacheStats.objectBytes(3 * CacheStats.REFERENCE_BYTES + 4) + CacheStats.REFERENCE_BYTES +
+                CacheStats.objectBytes(CacheStats.REFERENCE_BYTES + 4) + CacheStats.arrayBytes(8, 2) +
+                CacheStats.objectBytes(CacheStats.REFERENCE_BYTES + 8) + CacheStats.arrayBytes(1, CacheStats.REFERENCE_BYTES);
+
+        return CacheStats.arrayBytes(mNameArena.getCapacity(), 1) +
+                2 * CacheStats.arrayBytes(mEntities.getCapacity(), 4) +
+                2 * CacheStats.arrayBytes(mEntities.getCapacity(), CacheStats.REFERENCE_BYTES) +
+                mEntities.size() * (entityBytes + CacheStats.arrayBytes(0, CacheStats.REFERENCE_BYTES)) +
+                mNameIndex.getTokenCount() * (tokenBytes + CacheStats.REFERENCE_BYTES) +
+                mNameIndex.getSoundCount() * soundBytes +
+                (long) mNameIndex.getPostingCount() * (4 + CacheStats.REFERENCE_BYTES);
+    }
+
+    /**
+     * Fetch the IDs of the entities, sorted by the names of the entities.
+     *
+     * @return a read-only view of the sorted IDs.
+     */
+    public List<String> getIDs() {
+        return mIDs;
+    }
+
+    /**
+     * Fetch the names of the entities, sorted.
+     *
+     * @return a read-only view of the sorted names.
+     */
+    public List<String> getNames() {
+        return mNames;
+    }
+
+    /**
+     * Copy the sorted entities into an immutable copy, which can be read from any thread
+     * while this store keeps changing. Only the codes of the IDs and the references of
+     * the names are copied, since the names are shared with the arena.
+     *
+     * @return the immutable copy of the entities.
+     *
+     * @see ReadOnlyCache
+     */
+    Frozen freeze() {
+        int[] ids = new int[mSortedEntities.size()];
+        int[] names = new int[ids.length];
+        int i = 0;
+
+        for (Entity entity : mSortedEntities) {
+            ids[i] = entity.mID;
+            names[i++] = entity.mName;
+        }
+
+        return new Frozen(ids, names, mNameArena.freeze());
+    }
+
+    /**
+     * Fetch the reference of the name of an entity within the current name arena.
+     *
+     * @param code
+     *        The code of the ID of the entity.
+     *
+     * @return the reference of the name, or -1 if the entity is not stored.
+     */
+    int getNameReference(int code) {
+        Entity entity = mEntities.get(code);
+
+        return entity != null ? entity.mName : -1;
+    }
+
+    /**
+     * Copy the names still in use into a new arena once the names of the renamed and
+     * removed entities take most of the arena. The order of the entities is unchanged,
+     * since their names are the same.
+     */
+    private void compactNames() {
+        if (!mNameArena.isWasteful())
+            return;
+
+        StringArena nameArena = new StringArena(mNameArena.getLiveSize());
+
+        for (Entity entity : mEntities.values())
+            entity.mName = nameArena.add(mNameArena, entity.mName);
+
+        mNameArena = nameArena;
+    }
+
+    /**
+     * An entity of the store.
+     */
+    private static class Entity {
+
+        /* The code of the ID. */
+        private final int mID;
+
+        /* The reference of the name within the name arena. */
+        private int mName;
+
+        Entity(int id, int name) {
+            mID = id;
+            mName = name;
+        }
+    }
+
+    /**
+     * The view of the sorted IDs, finding the index of an ID through the store.
+     */
+    private class IDView extends View<Entity, String> {
+
+        IDView() {
+            super(mSortedEntities, entity -> IDCodec.decode(entity.mID));
+        }
+
+        @Override
+        public int indexOf(Object id) {
+            return id instanceof String ? EntityStore.this.indexOf((String) id) : -1;
+        }
+
+        @Override
+        public int lastIndexOf(Object id) {
+            return indexOf(id);
+        }
+
+        @Override
+        public boolean contains(Object id) {
+            return id instanceof String && EntityStore.this.contains((String) id);
+        }
+    }
+
+    /**
+     * An immutable copy of the sorted entities of a store.
+     *
+     * @see #freeze()
+     */
+    static class Frozen {
+
+        /* The codes of the IDs and the references of the names, sorted. */
+        private final int[] mIDs, mNames;
+
+        /* The read-only copy of the name arena. */
+        final StringArena mNameArena;
+
+        private final List<String> mIDList, mNameList;
+
+        Frozen(int[] ids, int[] names, StringArena nameArena) {
+            mIDs = ids;
+            mNames = names;
+            mNameArena = nameArena;
+            mIDList = new IndexView<>(ids.length, index -> IDCodec.decode(mIDs[index]));
+            mNameList = new IndexView<>(ids.length, index -> mNameArena.get(mNames[index]));
+        }
+
+        List<String> getIDs() {
+            return mIDList;
+        }
+
+        List<String> getNames() {
+            return mNameList;
+        }
+    }
+
+    /**
+     * A read-only list of the elements computed from their indices.
+     */
+    static class IndexView<T> extends AbstractList<T> {
+
+        private final int mSize;
+
+        private final IntFunction<T> mElement;
+
+        IndexView(int size, IntFunction<T> element) {
+            mSize = size;
+            mElement = element;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= mSize)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+
+            return mElement.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return mSize;
+        }
+    }
+
+    /**
+     * A read-only view of a property of the records of a sorted list.
+     */
+    static class View<R, T> extends AbstractList<T> {
+
+        private final List<R> mRecords;
+
+        private final Function<R, T> mProperty;
+
+        View(List<R> records, Function<R, T> property) {
+            mRecords = records;
+            mProperty = property;
+        }
+
+        @Override
+        public T get(int index) {
+            return mProperty.apply(mRecords.get(index));
+        }
+
+        @Override
+        public int size() {
+            return mRecords.size();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Iterator<R> iterator = mRecords.iterator();
+
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return mProperty.apply(iterator.next());
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package javah.model;
+
+import javah.contract.DatabaseContract.IdSequenceEntry;
+import javah.contract.DatabaseContract.ResidentEntry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A class that allocates the IDs of the records, formatted as yy-NNN, where yy is
+ * the last two digits of the current year and NNN is the number of the record
+ * within the year. The number is padded to three digits and grows beyond three
+ * digits once a table holds more than 999 records within a year.
+ *
+ * Instead of looking for the latest ID of a table before every insert, the
+ * allocator reserves a block of numbers per table from the sequence table with a
+ * single statement, then hands the numbers of the block out from memory. Since
+ * the sequence table is incremented atomically by the database, every terminal
+ * receives its own block and two terminals never allocate the same ID.
+ *
+ * The numbers of a block that were not handed out before the system is closed are
+ * never used, leaving gaps between the IDs.
+ *
+ * @see IdSequenceEntry
+ */
+public class IDAllocator {
+
+    /* The default number of IDs reserved per round trip to the database. */
+    public static final int DEFAULT_BLOCK_SIZE = 10;
+
+    /* The pool where the connections to reserve blocks are borrowed from. */
+    private final ConnectionPool mConnectionPool;
+
+    /* The number of IDs reserved per round trip to the database. */
+    private final int mBlockSize;
+
+    /* The block currently handed out for each table. */
+    private final Map<String, Block> mBlocks = new ConcurrentHashMap<>();
+
+    /* Determines whether the sequence table was already created. */
+    private volatile boolean mIsSequenceTableCreated;
+
+    /**
+     * Create an allocator with the default block size.
+     *
+     * @param connectionPool
+     *        The pool where the connections to reserve blocks are borrowed from.
+     */
+    public IDAllocator(ConnectionPool connectionPool) {
+        this(connectionPool, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Create an allocator.
+     *
+     * @param connectionPool
+     *        The pool where the connections to reserve blocks are borrowed from.
+     * @param blockSize
+     *        The number of IDs reserved per round trip to the database. A larger block
+     *        means fewer round trips but larger gaps when the system is closed.
+     */
+    public IDAllocator(ConnectionPool connectionPool, int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Invalid block size: " + blockSize);
+
+        mConnectionPool = connectionPool;
+        mBlockSize = blockSize;
+    }
+
+    /**
+     * Allocate the next ID of a table. Only reaches the database when the block of
+     * the table is used up or when the year changed.
+     *
+     * @param tableName
+     *        The table where the ID will be used.
+     *
+     * @return the allocated ID.
+     *
+     * @throws SQLException
+     *         if a new block could not be reserved.
+     */
+    public String nextID(String tableName) throws SQLException {
+        int year = Calendar.getInstance().get(Calendar.YEAR) - 2000;
+
+        while (true) {
+            Block block = mBlocks.get(tableName);
+
+            if (block != null && block.mYear == year) {
+                long number = block.mNextNumber.getAndIncrement();
+
+                if (number <= block.mLastNumber)
+                    return formatID(year, number);
+            }
+
+            // Only one thread reserves the next block of the table, while the others
+            // wait and then take their numbers from the new block.
+            synchronized (this) {
+                if (mBlocks.get(tableName) == block)
+                    mBlocks.put(tableName, reserveBlock(tableName, year, mBlockSize));
+            }
+        }
+    }
+
+    /**
+     * Allocate a number of consecutive IDs of a table at once. The IDs are reserved
+     * as a block of their own in a single round trip, apart from the block used by
+     * nextID, which suits bulk inserts.
+     *
+     * @param tableName
+     *        The table where the IDs will be used.
+     * @param count
+     *        The number of IDs to allocate.
+     *
+     * @return the allocated IDs in ascending order.
+     *
+     * @throws SQLException
+     *         if the block could not be reserved.
+     */
+    public List<String> nextIDs(String tableName, int count) throws SQLException {
+        List<String> ids = new ArrayList<>(count);
+
+        if (count < 1)
+            return ids;
+
+        int year = Calendar.getInstance().get(Calendar.YEAR) - 2000;
+        Block block = reserveBlock(tableName, year, count);
+
+        for (long number = block.mNextNumber.get(); number <= block.mLastNumber; number++)
+            ids.add(formatID(year, number));
+
+        return ids;
+    }
+
+    /**
+     * Format an ID from its year and number.
+     *
+     * @param year
+     *        The last two digits of the year.
+     * @param number
+     *        The number of the record within the year.
+     *
+     * @return the formatted ID. (e.g. 17-005, 17-1024)
+     */
+    public static String formatID(int year, long number) {
+        return String.format("%02d-%03d", year, number);
+    }
+
+    /**
+     * Reserve a block of numbers of a table, usually in a single statement. The first
+     * time a table is used within a year, the sequence is started from the latest
+     * number already stored in the table, so that the IDs created before the sequence
+     * table existed are never allocated again.
+     *
+     * @param tableName
+     *        The table of the sequence.
+     * @param year
+     *        The year of the sequence.
+     * @param size
+     *        The number of IDs within the block.
+     *
+     * @return the reserved block.
+     */
+    private Block reserveBlock(String tableName, int year, int size) throws SQLException {
+        try (Connection dbConnection = mConnectionPool.getConnection()) {
+
+            if (!mIsSequenceTableCreated) {
+                createSequenceTable(dbConnection);
+                mIsSequenceTableCreated = true;
+            }
+
+            // LAST_INSERT_ID(expr) makes the database return the new last value of the
+            // sequence as the generated key, sparing another query to read it.
+            PreparedStatement statement = dbConnection.prepareStatement(
+                    String.format("UPDATE %s SET %s = LAST_INSERT_ID(%s + ?) WHERE %s = ? AND %s = ?",
+                            IdSequenceEntry.TABLE_NAME,
+                            IdSequenceEntry.COLUMN_LAST_VALUE,
+                            IdSequenceEntry.COLUMN_LAST_VALUE,
+                            IdSequenceEntry.COLUMN_TABLE_NAME,
+                            IdSequenceEntry.COLUMN_YEAR),
+                    Statement.RETURN_GENERATED_KEYS);
+
+            statement.setInt(1, size);
+            statement.setString(2, tableName);
+            statement.setInt(3, year);
+
+            // Start the sequence of the year if it does not exist yet. Another terminal might
+            // start it at the same time, in which case the block is reserved from its row.
+            if (statement.executeUpdate() == 0) {
+                statement.close();
+
+                statement = dbConnection.prepareStatement(
+                        String.format("INSERT INTO %s(%s, %s, %s) " +
+                                        "VALUES(?, ?, LAST_INSERT_ID(? + " +
+                                        "(SELECT COALESCE(MAX(CAST(SUBSTRING(%s, 4) AS UNSIGNED)), 0) FROM %s WHERE %s LIKE ?))) " +
+                                        "ON DUPLICATE KEY UPDATE %s = LAST_INSERT_ID(%s + ?)",
+                                IdSequenceEntry.TABLE_NAME,
+                                IdSequenceEntry.COLUMN_TABLE_NAME,
+                                IdSequenceEntry.COLUMN_YEAR,
+                                IdSequenceEntry.COLUMN_LAST_VALUE,
+                                ResidentEntry.COLUMN_ID,
+                                tableName,
+                                ResidentEntry.COLUMN_ID,
+                                IdSequenceEntry.COLUMN_LAST_VALUE,
+                                IdSequenceEntry.COLUMN_LAST_VALUE),
+                        Statement.RETURN_GENERATED_KEYS);
+
+                statement.setString(1, tableName);
+                statement.setInt(2, year);
+                statement.setInt(3, size);
+                statement.setString(4, String.format("%02d-%%", year));
+                statement.setInt(5, size);
+                statement.executeUpdate();
+            }
+
+            ResultSet resultSet = statement.getGeneratedKeys();
+
+            if (!resultSet.next())
+                throw new SQLException("No ID block was reserved for " + tableName + ".");
+
+            long lastNumber = resultSet.getLong(1);
+
+            resultSet.close();
+            statement.close();
+
+            return new Block(year, lastNumber - size + 1, lastNumber);
+        }
+    }
+
+    /**
+     * Create the sequence table if it does not exist yet.
+     *
+     * @param dbConnection
+     *        The connection to the database.
+     */
+    private void createSequenceTable(Connection dbConnection) throws SQLException {
+        Statement statement = dbConnection.createStatement();
+
+        statement.execute(String.format("CREATE TABLE IF NOT EXISTS %s (" +
+                        "%s VARCHAR(64) NOT NULL, " +
+                        "%s INT NOT NULL, " +
+                        "%s BIGINT NOT NULL, " +
+                        "PRIMARY KEY (%s, %s))",
+                IdSequenceEntry.TABLE_NAME,
+                IdSequenceEntry.COLUMN_TABLE_NAME,
+                IdSequenceEntry.COLUMN_YEAR,
+                IdSequenceEntry.COLUMN_LAST_VALUE,
+                IdSequenceEntry.COLUMN_TABLE_NAME,
+                IdSequenceEntry.COLUMN_YEAR));
+
+        statement.close();
+    }
+
+    /**
+     * A block of reserved numbers of a table within a year.
+     */
+    private static class Block {
+
+        /* The year of the block. */
+        private final int mYear;
+
+        /* The next number to be handed out. */
+        private final AtomicLong mNextNumber;
+
+        /* The last number of the block. */
+        private final long mLastNumber;
+
+        Block(int year, long firstNumber, long lastNumber) {
+            mYear = year;
+            mNextNumber = new AtomicLong(firstNumber);
+            mLastNumber = lastNumber;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package javah.model;
+
+/**
+ * A channel between the terminals sharing the database, over which each terminal
+ * publishes the records it changed, so that the other terminals refresh them within
+ * a second instead of waiting for the next periodic refresh of their cache.
+ *
+ * The delivery is best effort. A lost event only delays the refresh of the record
+ * until the next periodic refresh.
+ *
+ * @see MulticastInvalidationBus
+ * @see LocalInvalidationBus
+ */
+public interface InvalidationBus {
+
+    /**
+     * An interface that receives the events published by the other terminals. Called
+     * from the thread of the bus, never for the events published by this terminal.
+     */
+    interface OnCacheEventListener {
+        void onCacheEvent(CacheEvent event);
+    }
+
+    /**
+     * Publish the change of a record to the other terminals.
+     *
+     * @param event
+     *        The change of the record.
+     */
+    void publish(CacheEvent event);
+
+    /**
+     * Set the listener receiving the events of the other terminals.
+     *
+     * @param listener
+     *        The listener of the events.
+     */
+    void setListener(OnCacheEventListener listener);
+
+    /**
+     * Stop publishing and receiving events.
+     */
+    void close();
+}
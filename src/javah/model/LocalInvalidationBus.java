@@ -0,0 +1,59 @@
+package javah.model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An invalidation bus connecting the cache models of a single process, standing in
+ * for the multicast bus where the terminals cannot reach each other through the
+ * network, such as when simulating many terminals on one computer. The events are
+ * delivered on the thread publishing them.
+ *
+ * @see MulticastInvalidationBus
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+
+    /* Every bus of the group, including this one. */
+    private final List<LocalInvalidationBus> mGroup;
+
+    private volatile OnCacheEventListener mListener;
+
+    /**
+     * Create a bus within a new group.
+     */
+    public LocalInvalidationBus() {
+        mGroup = new CopyOnWriteArrayList<>();
+        mGroup.add(this);
+    }
+
+    /**
+     * Create a bus within the group of another bus.
+     *
+     * @param peer
+     *        A bus of the group to join.
+     */
+    public LocalInvalidationBus(LocalInvalidationBus peer) {
+        mGroup = peer.mGroup;
+        mGroup.add(this);
+    }
+
+    @Override
+    public void publish(CacheEvent event) {
+        for (LocalInvalidationBus bus : mGroup) {
+            OnCacheEventListener listener = bus.mListener;
+
+            if (bus != this && listener != null)
+                listener.onCacheEvent(event);
+        }
+    }
+
+    @Override
+    public void setListener(OnCacheEventListener listener) {
+        mListener = listener;
+    }
+
+    @Override
+    public void close() {
+        mGroup.remove(this);
+    }
+}
@@ -0,0 +1,206 @@
+package javah.model;
+
+import javah.util.IOExecutors;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An invalidation bus publishing the events to the terminals of the local network
+ * through UDP multicast. Each event is sent as a single datagram of a few bytes:
+ * a magic number, the ID of the publishing terminal, the kind of the changed record
+ * and its ID.
+ *
+ * The events are encoded by the publishing thread, but sent by a thread of the bus,
+ * so that the user interface thread never blocks on the network. An event published
+ * while too many events wait to be sent is dropped, like a lost datagram.
+ *
+ * The datagrams are never routed beyond the local network. The multicast socket also
+ * receives the datagrams of this terminal, which are recognized by the terminal ID
+ * and ignored.
+ *
+ * @see LocalInvalidationBus
+ */
+public class MulticastInvalidationBus implements InvalidationBus {
+
+    /* The default multicast group and port, within the organization-local scope. */
+    public static final String DEFAULT_GROUP = "239.255.1.131";
+    public static final int DEFAULT_PORT = 41310;
+
+    /* Identifies a datagram of the bus. */
+    private static final int MAGIC = 0x42313331;
+
+    /* The size of the buffer receiving the datagrams, fitting any record ID. */
+    private static final int BUFFER_SIZE = 512;
+
+    /* The number of events that can wait to be sent. */
+    private static final int PUBLISH_QUEUE_CAPACITY = 256;
+
+    /* Identifies the datagrams of this terminal. */
+    private final long mTerminalID = new Random().nextLong();
+
+    private final MulticastSocket mSocket;
+
+    private final InetAddress mGroup;
+
+    private final int mPort;
+
+    /* Sends the published events, one at a time. */
+    private final ExecutorService mPublishExecutor;
+
+    private volatile OnCacheEventListener mListener;
+
+    private volatile boolean mIsClosed;
+
+    /**
+     * Join the default multicast group.
+     */
+    public MulticastInvalidationBus() throws IOException {
+        this(DEFAULT_GROUP, DEFAULT_PORT);
+    }
+
+    /**
+     * Join a multicast group and start receiving its events on a daemon thread.
+     *
+     * @param group
+     *        The address of the multicast group.
+     * @param port
+     *        The port of the multicast group.
+     */
+    public MulticastInvalidationBus(String group, int port) throws IOException {
+        mGroup = InetAddress.getByName(group);
+        mPort = port;
+
+        mSocket = new MulticastSocket(port);
+        mSocket.setTimeToLive(1);
+        mSocket.joinGroup(mGroup);
+
+        mPublishExecutor = IOExecutors.newPlatformThreadExecutor("invalidation-bus-publish-", 1, PUBLISH_QUEUE_CAPACITY);
+
+        Thread thread = new Thread(this::receive, "invalidation-bus");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void publish(CacheEvent event) {
+        if (mIsClosed)
+            return;
+
+        try {
+            ByteArrayOutputStream byteStream = new ByteArrayOutputStream(32);
+            DataOutputStream output = new DataOutputStream(byteStream);
+
+            output.writeInt(MAGIC);
+            output.writeLong(mTerminalID);
+            output.writeByte(event.getKind());
+            output.writeBoolean(event.getID() != null);
+
+            if (event.getID() != null)
+                output.writeUTF(event.getID());
+
+            byte[] bytes = byteStream.toByteArray();
+            mPublishExecutor.execute(() -> send(bytes));
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (RejectedExecutionException e) {
+            // The bus is closed, or too many events wait to be sent. The event is
+            // refreshed by the next periodic refresh of the other terminals instead.
+        }
+    }
+
+    @Override
+    public void setListener(OnCacheEventListener listener) {
+        mListener = listener;
+    }
+
+    @Override
+    public void close() {
+        mIsClosed = true;
+        mPublishExecutor.shutdown();
+
+        try {
+            mSocket.leaveGroup(mGroup);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        mSocket.close();
+    }
+
+    /**
+     * Send the datagram of an event to the group.
+     *
+     * @param bytes
+     *        The encoded event.
+     */
+    private void send(byte[] bytes) {
+        try {
+            mSocket.send(new DatagramPacket(bytes, bytes.length, mGroup, mPort));
+        } catch (IOException e) {
+            if (!mIsClosed)
+                e.printStackTrace();
+        }
+    }
+
+    /**
+     * Receive the datagrams of the group until the bus is closed.
+     */
+    private void receive() {
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        while (!mIsClosed) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+
+            try {
+                mSocket.receive(packet);
+            } catch (IOException e) {
+                if (!mIsClosed)
+                    e.printStackTrace();
+
+                return;
+            }
+
+            CacheEvent event = decode(packet);
+            OnCacheEventListener listener = mListener;
+
+            if (event != null && listener != null)
+                listener.onCacheEvent(event);
+        }
+    }
+
+    /**
+     * Decode the event of a datagram.
+     *
+     * @return the event, or null if the datagram is not an event of the bus or was
+     *         published by this terminal.
+     */
+    private CacheEvent decode(DatagramPacket packet) {
+        try {
+            DataInputStream input = new DataInputStream(
+                    new ByteArrayInputStream(packet.getData(), packet.getOffset(), packet.getLength()));
+
+            if (input.readInt() != MAGIC || input.readLong() == mTerminalID)
+                return null;
+
+            byte kind = input.readByte();
+            String id = input.readBoolean() ? input.readUTF() : null;
+
+            return new CacheEvent(kind, id);
+
+        } catch (IOException | IllegalArgumentException e) {
+            // A stray or damaged datagram.
+            return null;
+        }
+    }
+}
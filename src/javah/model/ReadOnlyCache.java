@@ -0,0 +1,148 @@
+package javah.model;
+
+import javah.util.IntObjectMap;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An immutable copy of the cached data at a version of the cache model. Unlike the
+ * lists of the cache model, which change as the records are cached, the lists of a
+ * copy never change, so the copy can be handed to background work, such as a search,
+ * while the user interface keeps modifying the cache.
+ *
+ * The lists are backed by arrays of the codes of the IDs and of the references of
+ * the names, which are decoded as the elements are read.
+ *
+ * @see CacheModel#publishReadOnlyCache()
+ * @see CacheModel#getReadOnlyCache()
+ */
+public class ReadOnlyCache {
+
+    /* The version of the cached data the copy was made from. */
+    private final int mVersion;
+
+    private final EntityStore.Frozen mResidents;
+
+    private final EntityStore.Frozen mBusinesses;
+
+    private final ReportStore.Frozen mBarangayIDs;
+
+    private final ReportStore.Frozen mBrgyClearances;
+
+    private final ReportStore.Frozen mBusiClearances;
+
+    ReadOnlyCache(int version, EntityStore.Frozen residents, EntityStore.Frozen businesses,
+                  ReportStore.Frozen barangayIDs, ReportStore.Frozen brgyClearances,
+                  ReportStore.Frozen busiClearances) {
+        mVersion = version;
+        mResidents = residents;
+        mBusinesses = businesses;
+        mBarangayIDs = barangayIDs;
+        mBrgyClearances = brgyClearances;
+        mBusiClearances = busiClearances;
+    }
+
+    /**
+     * Fetch the version of the cached data the copy was made from.
+     *
+     * @return the version, comparable with CacheModel#getVersion.
+     */
+    public int getVersion() {
+        return mVersion;
+    }
+
+    public List<String> getResidentIDs() {
+        return mResidents.getIDs();
+    }
+
+    public List<String> getResidentNames() {
+        return mResidents.getNames();
+    }
+
+    public List<String> getBusinessIDs() {
+        return mBusinesses.getIDs();
+    }
+
+    public List<String> getBusinessNames() {
+        return mBusinesses.getNames();
+    }
+
+    public List<String> getBrgyIDIDs() {
+        return mBarangayIDs.getIDs();
+    }
+
+    public List<String> getBrgyIDResidentIDs() {
+        return mBarangayIDs.getOwnerIDs();
+    }
+
+    public List<String> getBrgyIDResidentNames() {
+        return mBarangayIDs.getOwnerNames();
+    }
+
+    public List<Timestamp> getBrgyIDDatesIssued() {
+        return mBarangayIDs.getDatesIssued();
+    }
+
+    public List<String> getBrgyClearanceIDs() {
+        return mBrgyClearances.getIDs();
+    }
+
+    public List<String> getBrgyClearanceResidentIDs() {
+        return mBrgyClearances.getOwnerIDs();
+    }
+
+    public List<String> getBrgyClearanceResidentNames() {
+        return mBrgyClearances.getOwnerNames();
+    }
+
+    public List<Timestamp> getBrgyClearanceDatesIssued() {
+        return mBrgyClearances.getDatesIssued();
+    }
+
+    public List<String> getBusiClearanceIDs() {
+        return mBusiClearances.getIDs();
+    }
+
+    public List<String> getBusiClearanceBusiIDs() {
+        return mBusiClearances.getOwnerIDs();
+    }
+
+    public List<String> getBusiClearanceBusiNames() {
+        return mBusiClearances.getOwnerNames();
+    }
+
+    public List<Timestamp> getBusiClearanceDatesIssued() {
+        return mBusiClearances.getDatesIssued();
+    }
+
+    /**
+     * Filter the indices of the reports of the matched residents or businesses, such
+     * as the matches of a fuzzy search, within the lists of the copy.
+     *
+     * @param kind
+     *        The kind of the reports. (e.g. CacheEvent.KIND_BARANGAY_ID)
+     * @param ownerMatches
+     *        The matches of the owners, from CacheModel#matchResidentNames or
+     *        CacheModel#matchBusinessNames at the version of the copy.
+     * @param isCancelled
+     *        Checked while filtering, to stop a search replaced by a newer one.
+     *
+     * @return the indices of the matching reports, from the reports whose owners match
+     *         the most keywords to the least, then in ascending order. Or null if the
+     *         search was cancelled.
+     */
+    public int[] filterReports(byte kind, IntObjectMap<int[]> ownerMatches, BooleanSupplier isCancelled) {
+        switch (kind) {
+            case CacheEvent.KIND_BARANGAY_ID:
+                return mBarangayIDs.filter(ownerMatches, isCancelled);
+
+            case CacheEvent.KIND_BARANGAY_CLEARANCE:
+                return mBrgyClearances.filter(ownerMatches, isCancelled);
+
+            default:
+                return mBusiClearances.filter(ownerMatches, isCancelled);
+        }
+    }
+}
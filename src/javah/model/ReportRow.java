@@ -0,0 +1,89 @@
+package javah.model;
+
+import javah.util.IDCodec;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * A report as it is displayed within the list paging of the Information Control,
+ * holding everything a label of the list paging needs: the ID of the report, its
+ * owner, its date of issuance and the month it was issued, which is computed once
+ * when the report is cached instead of on every repaint.
+ *
+ * The name of the owner is never copied into the row, but resolved from the store
+ * of the owners in a constant time, so that the row follows the renaming and the
+ * deletion of its owner.
+ *
+ * @see ReportStore
+ */
+public class ReportRow {
+
+    /* The codes of the IDs of the report and of its owner. */
+    final int mID, mOwnerID;
+
+    final Timestamp mDateIssued;
+
+    /* The month of issuance, counted from year 0, or -1 if the report has no date. */
+    final int mMonth;
+
+    /* The store of the residents or businesses owning the reports. */
+    private final EntityStore mOwners;
+
+    ReportRow(int id, int ownerID, Timestamp dateIssued, EntityStore owners) {
+        mID = id;
+        mOwnerID = ownerID;
+        mDateIssued = dateIssued;
+        mOwners = owners;
+
+        if (dateIssued != null) {
+            LocalDateTime dateTime = dateIssued.toLocalDateTime();
+            mMonth = dateTime.getYear() * 12 + dateTime.getMonthValue() - 1;
+        } else
+            mMonth = -1;
+    }
+
+    public String getID() {
+        return IDCodec.decode(mID);
+    }
+
+    /**
+     * Fetch the code of the ID of the report, to be compared without decoding the ID.
+     *
+     * @return the code of the ID.
+     *
+     * @see IDCodec
+     */
+    public int getIDCode() {
+        return mID;
+    }
+
+    public String getOwnerID() {
+        return IDCodec.decode(mOwnerID);
+    }
+
+    /**
+     * Fetch the current name of the owner of the report.
+     *
+     * @return the formatted name of the resident or business owning the report, or
+     *         null if the owner is not cached.
+     */
+    public String getOwnerName() {
+        return mOwners.getName(mOwnerID);
+    }
+
+    public Timestamp getDateIssued() {
+        return mDateIssued;
+    }
+
+    /**
+     * Fetch the month the report was issued, as a single number, so that the reports
+     * are grouped by month without any calendar computation.
+     *
+     * @return the year of issuance times 12 plus the month of issuance (0 - 11), or -1
+     *         if the report has no date of issuance.
+     */
+    public int getMonthOfIssuance() {
+        return mMonth;
+    }
+}
@@ -0,0 +1,642 @@
+package javah.model;
+
+import javah.util.IDCodec;
+import javah.util.IntObjectMap;
+import javah.util.RankedTree;
+import javah.util.StringArena;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An in-memory store of the barangay IDs, barangay clearances or business
+ * clearances, holding only their IDs, the IDs of their owners (the resident or
+ * the business) and their dates of issuance. The reports are indexed by their IDs
+ * and by the IDs of their owners, and kept sorted from the latest to the earliest
+ * issued.
+ *
+ * The names of the owners are never copied into the store. Instead, they are
+ * resolved from the store of the owners whenever they are read, so renaming an
+ * owner never touches its reports. The IDs of the reports and of their owners are
+ * held as their int codes, and are decoded only when read through the views.
+ *
+ * Each report is held as a row, which the list paging of the Information Control
+ * displays as is, so that displaying a page never searches the lists of the cache.
+ *
+ * @see CacheModel
+ * @see EntityStore
+ */
+public class ReportStore {
+
+    /*
+     * Orders the reports from the latest to the earliest issued. Reports issued at the
+     * same time are ordered from the latest to the earliest created, according to
+     * their IDs. (e.g. 17-1000 comes before 17-999)
+     */
+    private static final Comparator<ReportRow> REPORT_ORDER = (report1, report2) -> {
+        int comparison = compareDates(report2.mDateIssued, report1.mDateIssued);
+
+        return comparison != 0 ? comparison : IDCodec.compare(report2.mID, report1.mID);
+    };
+
+    /* The store of the residents or businesses owning the reports. */
+    private final EntityStore mOwners;
+
+    /* The reports by the codes of their IDs. */
+    private final IntObjectMap<ReportRow> mReports = new IntObjectMap<>();
+
+    /* The reports by the codes of the IDs of their owners, in the order they were added. */
+    private final IntObjectMap<List<ReportRow>> mReportsByOwner = new IntObjectMap<>();
+
+    /* The reports sorted by REPORT_ORDER. */
+    private final RankedTree<ReportRow> mSortedReports = new RankedTree<>(REPORT_ORDER);
+
+    /* The read-only views of the sorted reports. */
+    private final List<String> mIDs = new IDView();
+    private final List<String> mOwnerIDs = new EntityStore.View<>(mSortedReports,
+            report -> IDCodec.decode(report.mOwnerID));
+    private final List<Timestamp> mDatesIssued = new EntityStore.View<>(mSortedReports, report -> report.mDateIssued);
+    private final List<String> mOwnerNames;
+    private final List<ReportRow> mRows = new EntityStore.View<>(mSortedReports, report -> report);
+
+    /**
+     * Create an empty store of reports.
+     *
+     * @param owners
+     *        The store of the residents or businesses owning the reports, which the
+     *        names of the owners are resolved from.
+     */
+    public ReportStore(EntityStore owners) {
+        mOwners = owners;
+        mOwnerNames = new EntityStore.View<>(mSortedReports, report -> owners.getName(report.mOwnerID));
+    }
+
+    /**
+     * Add a report, replacing the report with the same ID if any.
+     *
+     * @param id
+     *        The ID of the report.
+     * @param ownerID
+     *        The ID of the resident or business owning the report.
+     * @param dateIssued
+     *        The date of issuance of the report.
+     *
+     * @return the index of the report within the sorted reports.
+     */
+    public int put(String id, String ownerID, Timestamp dateIssued) {
+        return put(IDCodec.encode(id), IDCodec.encode(ownerID), dateIssued);
+    }
+
+    private int put(int code, int ownerCode, Timestamp dateIssued) {
+        remove(code);
+
+        ReportRow report = new ReportRow(code, ownerCode, dateIssued, mOwners);
+        index(report);
+
+        return mSortedReports.insert(report);
+    }
+
+    /**
+     * Add a number of reports, replacing the reports with the same IDs if any.
+     *
+     * @param ids
+     *        The IDs of the reports.
+     * @param ownerIDs
+     *        The IDs of the owners of the reports, in the same order as the IDs.
+     * @param datesIssued
+     *        The dates of issuance of the reports, in the same order as the IDs.
+     */
+    public void putAll(List<String> ids, List<String> ownerIDs, List<Timestamp> datesIssued) {
+        for (int i = 0; i < ids.size(); i++)
+            put(ids.get(i), ownerIDs.get(i), datesIssued.get(i));
+    }
+
+    /**
+     * Replace every report of the store at once. Used when loading the cache snapshot,
+     * where the reports are already sorted.
+     *
+     * @param ids
+     *        The IDs of the reports.
+     * @param ownerIDs
+     *        The IDs of the owners of the reports, in the same order as the IDs.
+     * @param datesIssued
+     *        The dates of issuance of the reports, in the same order as the IDs.
+     */
+    public void replaceAll(List<String> ids, List<String> ownerIDs, List<Timestamp> datesIssued) {
+        List<ReportRow> reports = new ArrayList<>(ids.size());
+        mReports.clear();
+        mReportsByOwner.clear();
+
+        for (int i = 0; i < ids.size(); i++) {
+            ReportRow report = new ReportRow(IDCodec.encode(ids.get(i)), IDCodec.encode(ownerIDs.get(i)),
+                    datesIssued.get(i), mOwners);
+
+            // Keep the last report of a duplicated ID, like putAll.
+            ReportRow previousReport = mReports.get(report.mID);
+
+            if (previousReport != null) {
+                unindex(previousReport);
+                reports.remove(previousReport);
+            }
+
+            index(report);
+            reports.add(report);
+        }
+
+        mSortedReports.rebuild(reports);
+    }
+
+    /**
+     * Make this store hold the same reports as another store, adding, replacing and
+     * removing only the reports that differ.
+     *
+     * @param store
+     *        The store holding the up-to-date reports.
+     *
+     * @return the number of reports added, replaced or removed.
+     */
+    public int reconcile(ReportStore store) {
+        return reconcile(store, null);
+    }
+
+    /**
+     * Make this store hold the same reports as another store holding only the reports
+     * issued since a date, leaving the reports issued before the date as they are.
+     *
+     * @param store
+     *        The store holding the up-to-date reports.
+     * @param since
+     *        The date the reports of the other store were issued since, or null if the
+     *        other store holds every report.
+     *
+     * @return the number of reports added, replaced or removed.
+     */
+    public int reconcile(ReportStore store, Timestamp since) {
+        // Copy the sorted reports at once into an empty store, such as when the cache
+        // is first started, instead of inserting them one at a time.
+        if (mReports.isEmpty()) {
+            replaceAll(store.getIDs(), store.getOwnerIDs(), store.getDatesIssued());
+            return size();
+        }
+
+        int changeCount = 0;
+
+        for (ReportRow report : store.mReports.values()) {
+            ReportRow currentReport = mReports.get(report.mID);
+
+            if (currentReport == null || currentReport.mOwnerID != report.mOwnerID ||
+                    compareDates(currentReport.mDateIssued, report.mDateIssued) != 0) {
+                put(report.mID, report.mOwnerID, report.mDateIssued);
+                changeCount++;
+            }
+        }
+
+        List<ReportRow> removedReports = new ArrayList<>();
+
+        for (ReportRow report : mReports.values())
+            if (!store.mReports.containsKey(report.mID) && !isIssuedBefore(report, since))
+                removedReports.add(report);
+
+        for (ReportRow report : removedReports)
+            remove(report.mID);
+
+        return changeCount + removedReports.size();
+    }
+
+    /**
+     * Remove a report.
+     *
+     * @param id
+     *        The ID of the report.
+     *
+     * @return true if the report was stored.
+     */
+    public boolean remove(String id) {
+        return remove(IDCodec.find(id));
+    }
+
+    private boolean remove(int code) {
+        ReportRow report = mReports.get(code);
+
+        if (report == null)
+            return false;
+
+        unindex(report);
+        mSortedReports.delete(report);
+        return true;
+    }
+
+    /**
+     * Remove the reports issued before a date. The reports without a date of issuance
+     * are kept.
+     *
+     * @param date
+     *        The date the removed reports were issued before.
+     *
+     * @return the number of reports removed.
+     */
+    public int removeIssuedBefore(Timestamp date) {
+        List<ReportRow> removedReports = new ArrayList<>();
+
+        for (ReportRow report : mReports.values())
+            if (isIssuedBefore(report, date))
+                removedReports.add(report);
+
+        for (ReportRow report : removedReports)
+            remove(report.mID);
+
+        return removedReports.size();
+    }
+
+    /**
+     * Remove every report of an owner. Used when the owner is deleted.
+     *
+     * @param ownerID
+     *        The ID of the resident or business owning the reports.
+     *
+     * @return the number of reports removed.
+     */
+    public int removeByOwner(String ownerID) {
+        List<ReportRow> reports = mReportsByOwner.remove(IDCodec.find(ownerID));
+
+        if (reports == null)
+            return 0;
+
+        for (ReportRow report : reports) {
+            mReports.remove(report.mID);
+            mSortedReports.delete(report);
+        }
+
+        return reports.size();
+    }
+
+    /**
+     * Remove every report.
+     */
+    public void clear() {
+        mReports.clear();
+        mReportsByOwner.clear();
+        mSortedReports.clear();
+    }
+
+    public boolean contains(String id) {
+        return mReports.containsKey(IDCodec.find(id));
+    }
+
+    /**
+     * Fetch the ID of the owner of a report.
+     *
+     * @param id
+     *        The ID of the report.
+     *
+     * @return the ID of the resident or business owning the report, or null if the
+     *         report is not stored.
+     */
+    public String getOwnerID(String id) {
+        ReportRow report = mReports.get(IDCodec.find(id));
+
+        return report != null ? IDCodec.decode(report.mOwnerID) : null;
+    }
+
+    /**
+     * Fetch the date of issuance of a report.
+     *
+     * @param id
+     *        The ID of the report.
+     *
+     * @return the date of issuance, or null if the report is not stored.
+     */
+    public Timestamp getDateIssued(String id) {
+        ReportRow report = mReports.get(IDCodec.find(id));
+
+        return report != null ? report.mDateIssued : null;
+    }
+
+    /**
+     * Fetch the IDs of the reports of an owner.
+     *
+     * @param ownerID
+     *        The ID of the resident or business owning the reports.
+     *
+     * @return a read-only copy of the IDs of the reports, in the order they were added.
+     */
+    public Set<String> getReportIDsByOwner(String ownerID) {
+        List<ReportRow> reports = mReportsByOwner.get(IDCodec.find(ownerID));
+
+        if (reports == null)
+            return Collections.emptySet();
+
+        Set<String> reportIDs = new LinkedHashSet<>();
+
+        for (ReportRow report : reports)
+            reportIDs.add(IDCodec.decode(report.mID));
+
+        return Collections.unmodifiableSet(reportIDs);
+    }
+
+    /**
+     * Find the index of a report within the sorted reports.
+     *
+     * @param id
+     *        The ID of the report.
+     *
+     * @return the index of the report, or -1 if it is not stored.
+     */
+    public int indexOf(String id) {
+        ReportRow report = mReports.get(IDCodec.find(id));
+
+        return report != null ? mSortedReports.rank(report) : -1;
+    }
+
+    public int size() {
+        return mReports.size();
+    }
+
+    /**
+     * Estimate the bytes used by the store, including its indices.
+     *
+     * @return the estimated bytes.
+     *
+     * @see CacheStats
+     */
+    long estimateBytes() {
+        // A row holds 3 ints and 2 references, its date a long, an int and a reference,
+        // and a node of the sorted tree 3 references and 2 ints.
+        long rowBytes = CacheStats.objectBytes(12 + 2 * CacheStats.REFERENCE_BYTES) +
+                CacheStats.objectBytes(12 + CacheStats.REFERENCE_BYTES) +
+                CacheStats.objectBytes(3 * CacheStats.REFERENCE_BYTES + 8);
+
+        long bytes = CacheStats.arrayBytes(mReports.getCapacity(), 4) +
+                CacheStats.arrayBytes(mReports.getCapacity(), CacheStats.REFERENCE_BYTES) +
+                CacheStats.arrayBytes(mReportsByOwner.getCapacity(), 4) +
+                CacheStats.arrayBytes(mReportsByOwner.getCapacity(), CacheStats.REFERENCE_BYTES) +
+                mReports.size() * rowBytes;
+
+        // An array list of the reports of each owner, holding 2 ints and a reference.
+        for (List<ReportRow> reports : mReportsByOwner.values())
+            bytes += CacheStats.objectBytes(8 + CacheStats.REFERENCE_BYTES) +
+                    CacheStats.arrayBytes(Math.max(reports.size(), 2), CacheStats.REFERENCE_BYTES);
+
+        return bytes;
+    }
+
+    /**
+     * Fetch the IDs of the reports, from the latest to the earliest issued.
+     *
+     * @return a read-only view of the sorted IDs.
+     */
+    public List<String> getIDs() {
+        return mIDs;
+    }
+
+    /**
+     * Fetch the IDs of the owners of the reports, in the order of getIDs.
+     *
+     * @return a read-only view of the owner IDs.
+     */
+    public List<String> getOwnerIDs() {
+        return mOwnerIDs;
+    }
+
+    /**
+     * Fetch the dates of issuance of the reports, in the order of getIDs.
+     *
+     * @return a read-only view of the dates of issuance.
+     */
+    public List<Timestamp> getDatesIssued() {
+        return mDatesIssued;
+    }
+
+    /**
+     * Fetch the names of the owners of the reports, in the order of getIDs. The names
+     * are resolved from the store of the owners whenever they are read.
+     *
+     * @return a read-only view of the owner names.
+     */
+    public List<String> getOwnerNames() {
+        return mOwnerNames;
+    }
+
+    /**
+     * Fetch the rows of the reports, from the latest to the earliest issued.
+     *
+     * @return a read-only view of the sorted rows.
+     */
+    public List<ReportRow> getRows() {
+        return mRows;
+    }
+
+    /**
+     * Fetch the row of a report.
+     *
+     * @param id
+     *        The ID of the report.
+     *
+     * @return the row of the report, or null if the report is not stored.
+     */
+    public ReportRow getRow(String id) {
+        return mReports.get(IDCodec.find(id));
+    }
+
+    /**
+     * Copy the sorted reports into an immutable copy, which can be read from any thread
+     * while this store keeps changing. The names of the owners are resolved when read,
+     * from the copy of the owners frozen at the same time.
+     *
+     * @param frozenOwners
+     *        The copy of the owners, frozen right before.
+     *
+     * @return the immutable copy of the reports.
+     *
+     * @see ReadOnlyCache
+     */
+    Frozen freeze(EntityStore.Frozen frozenOwners) {
+        int size = mSortedReports.size();
+        int[] ids = new int[size];
+        int[] ownerIDs = new int[size];
+        int[] ownerNames = new int[size];
+        Timestamp[] datesIssued = new Timestamp[size];
+        int i = 0;
+
+        for (ReportRow report : mSortedReports) {
+            ids[i] = report.mID;
+            ownerIDs[i] = report.mOwnerID;
+            ownerNames[i] = mOwners.getNameReference(report.mOwnerID);
+            datesIssued[i++] = report.mDateIssued;
+        }
+
+        return new Frozen(ids, ownerIDs, ownerNames, datesIssued, frozenOwners.mNameArena);
+    }
+
+    private void index(ReportRow report) {
+        mReports.put(report.mID, report);
+
+        List<ReportRow> reports = mReportsByOwner.get(report.mOwnerID);
+
+        if (reports == null)
+            mReportsByOwner.put(report.mOwnerID, reports = new ArrayList<>(2));
+
+        reports.add(report);
+    }
+
+    private void unindex(ReportRow report) {
+        mReports.remove(report.mID);
+
+        List<ReportRow> reports = mReportsByOwner.get(report.mOwnerID);
+        reports.remove(report);
+
+        if (reports.isEmpty())
+            mReportsByOwner.remove(report.mOwnerID);
+    }
+
+    /**
+     * @return true if the report has a date of issuance before the date, which may be null.
+     */
+    private static boolean isIssuedBefore(ReportRow report, Timestamp date) {
+        return date != null && report.mDateIssued != null && report.mDateIssued.before(date);
+    }
+
+    /**
+     * Compare two dates, placing null dates before the others.
+     */
+    private static int compareDates(Timestamp date1, Timestamp date2) {
+        if (date1 == null || date2 == null)
+            return date1 == null ? (date2 == null ? 0 : -1) : 1;
+
+        return date1.compareTo(date2);
+    }
+
+    /**
+     * An immutable copy of the sorted reports of a store.
+     *
+     * @see #freeze(EntityStore.Frozen)
+     */
+    static class Frozen {
+
+        /* The codes of the IDs of the reports and of their owners, sorted. */
+        private final int[] mIDs, mOwnerIDs;
+
+        /* The references of the names of the owners, or -1 if an owner is not stored. */
+        private final int[] mOwnerNames;
+
+        private final Timestamp[] mDatesIssued;
+
+        /* The read-only copy of the name arena of the owners. */
+        private final StringArena mOwnerNameArena;
+
+        private final List<String> mIDList, mOwnerIDList, mOwnerNameList;
+
+        private final List<Timestamp> mDateIssuedList;
+
+        Frozen(int[] ids, int[] ownerIDs, int[] ownerNames, Timestamp[] datesIssued, StringArena ownerNameArena) {
+            mIDs = ids;
+            mOwnerIDs = ownerIDs;
+            mOwnerNames = ownerNames;
+            mDatesIssued = datesIssued;
+            mOwnerNameArena = ownerNameArena;
+
+            mIDList = new EntityStore.IndexView<>(ids.length, index -> IDCodec.decode(mIDs[index]));
+            mOwnerIDList = new EntityStore.IndexView<>(ids.length, index -> IDCodec.decode(mOwnerIDs[index]));
+            mOwnerNameList = new EntityStore.IndexView<>(ids.length,
+                    index -> mOwnerNames[index] != -1 ? mOwnerNameArena.get(mOwnerNames[index]) : null);
+            mDateIssuedList = new EntityStore.IndexView<>(ids.length, index -> mDatesIssued[index]);
+        }
+
+        List<String> getIDs() {
+            return mIDList;
+        }
+
+        List<String> getOwnerIDs() {
+            return mOwnerIDList;
+        }
+
+        List<String> getOwnerNames() {
+            return mOwnerNameList;
+        }
+
+        List<Timestamp> getDatesIssued() {
+            return mDateIssuedList;
+        }
+
+        /**
+         * Filter the indices of the reports whose owners were matched, such as by
+         * EntityStore#match. Only the codes of the owners are read, rather than the
+         * names of the owners.
+         *
+         * @param ownerMatches
+         *        The matches of the owners by the codes of their IDs.
+         * @param isCancelled
+         *        Checked while filtering, to stop a search replaced by a newer one.
+         *
+         * @return the indices of the reports of the matched owners, from the owners
+         *         matching the most keywords to the least, then in ascending order. Or
+         *         null if the search was cancelled.
+         */
+        int[] filter(IntObjectMap<int[]> ownerMatches, BooleanSupplier isCancelled) {
+            int maxMatchCount = 0;
+
+            for (int[] match : ownerMatches.values())
+                maxMatchCount = Math.max(maxMatchCount, match[1]);
+
+            // Place the indices by their number of matches with a Counting Sort, like
+            // BarangayUtils#getFilteredIndices.
+            int[] matchCounts = new int[mOwnerIDs.length];
+            int[] matchCountStarts = new int[maxMatchCount + 1];
+
+            for (int i = 0; i < mOwnerIDs.length; i++) {
+                if ((i & 1023) == 0 && isCancelled.getAsBoolean())
+                    return null;
+
+                int[] match = ownerMatches.get(mOwnerIDs[i]);
+
+                if (match != null) {
+                    matchCounts[i] = match[1];
+                    matchCountStarts[maxMatchCount - match[1] + 1]++;
+                }
+            }
+
+            // The reports matching the most keywords come first.
+            for (int j = 1; j < matchCountStarts.length; j++)
+                matchCountStarts[j] += matchCountStarts[j - 1];
+
+            int[] filteredIndices = new int[matchCountStarts[maxMatchCount]];
+
+            for (int i = 0; i < mOwnerIDs.length; i++)
+                if (matchCounts[i] > 0)
+                    filteredIndices[matchCountStarts[maxMatchCount - matchCounts[i]]++] = i;
+
+            return filteredIndices;
+        }
+    }
+
+    /**
+     * The view of the sorted IDs, finding the index of an ID through the store.
+     */
+    private class IDView extends EntityStore.View<ReportRow, String> {
+
+        IDView() {
+            super(mSortedReports, report -> IDCodec.decode(report.mID));
+        }
+
+        @Override
+        public int indexOf(Object id) {
+            return id instanceof String ? ReportStore.this.indexOf((String) id) : -1;
+        }
+
+        @Override
+        public int lastIndexOf(Object id) {
+            return indexOf(id);
+        }
+
+        @Override
+        public boolean contains(Object id) {
+            return id instanceof String && ReportStore.this.contains((String) id);
+        }
+    }
+}
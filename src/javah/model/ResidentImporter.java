@@ -0,0 +1,694 @@
+package javah.model;
+
+import javah.container.Resident;
+import javah.contract.DatabaseContract.ResidentEntry;
+import javah.util.BarangayUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A class that imports the residents from a CSV file into the database. The
+ * import is a streaming pipeline: each record is read from the file, validated,
+ * normalized and then queued into a batch that is written to the database once
+ * it is full. Only one batch is held in memory at a time, so that files of any
+ * size are imported in constant memory.
+ *
+ * The first record of the file is the header, which names the columns with the
+ * column names of the Resident table (e.g. first_name, middle_name, last_name,
+ * auxiliary, birth_date, year_of_residency, month_of_residency, address_1 and
+ * address_2). Only the name and birth date columns are required. Birth dates
+ * are formatted as yyyy-mm-dd, the year of residency is either a year or "Birth",
+ * and the month of residency is either the name or the number (1 - 12) of the
+ * month.
+ *
+ * The rejected records are listed with the reasons of their rejection within a
+ * rejects file next to the imported file. (e.g. residents.csv -> residents-rejects.csv)
+ *
+ * The resident cache is refreshed once the whole file is imported, instead of
+ * once per resident.
+ *
+ * @see DatabaseModel#createResidents(List, int)
+ */
+public class ResidentImporter {
+
+    /**
+     * An interface that tells the client about the progress of the import. The
+     * methods are called through the callback executor of the importer.
+     */
+    public interface OnImportListener {
+        /**
+         * Called every time a batch of residents is written to the database.
+         *
+         * @param importedCount
+         *        The number of residents imported so far.
+         * @param rejectedCount
+         *        The number of records rejected so far.
+         * @param progress
+         *        The progress of the import, from 0 to 1.
+         */
+        void onImportProgress(int importedCount, int rejectedCount, double progress);
+
+        /**
+         * Called when a record is rejected.
+         *
+         * @param recordNo
+         *        The number of the record within the file, not counting the header.
+         * @param reason
+         *        The reason why the record was rejected.
+         */
+        void onRecordRejected(int recordNo, String reason);
+
+        /**
+         * Called once the import is done and the resident cache is refreshed.
+         *
+         * @param importedCount
+         *        The number of residents imported.
+         * @param rejectedCount
+         *        The number of records rejected.
+         * @param rejectsFile
+         *        The file listing the rejected records, or null if no record was
+         *        rejected or the file could not be written.
+         */
+        void onImportFinished(int importedCount, int rejectedCount, File rejectsFile);
+    }
+
+    /* The auxiliaries accepted by the resident form. */
+    private static final List<String> AUXILIARIES = Arrays.asList(
+            "Sr.", "Jr.", "I", "II", "III", "IV", "V", "VI", "VII", "VIII", "IX", "X");
+
+    /* The model where the residents are written to. */
+    private DatabaseModel mDatabaseModel;
+
+    /* The cache refreshed once the import is done. */
+    private CacheModel mCacheModel;
+
+    /* The executor where the listener is called and the cache is refreshed. */
+    private Executor mCallbackExecutor;
+
+    /* The listener of the import. */
+    private OnImportListener mListener;
+
+    /* The number of residents written to the database per batch. */
+    private int mBatchSize = DatabaseModel.DEFAULT_BATCH_SIZE;
+
+    /* Determines whether the import was cancelled. */
+    private volatile boolean mIsCancelled;
+
+    /* The file listing the rejected records of the current import. */
+    private File mRejectsFile;
+
+    /* Writes the rejected records, opened upon the first rejection. Null until then. */
+    private BufferedWriter mRejectsWriter;
+
+    /* Determines whether the rejects file could not be written. */
+    private boolean mIsRejectsFileFailed;
+
+    /**
+     * Create an importer.
+     *
+     * @param databaseModel
+     *        The model where the residents are written to.
+     * @param cacheModel
+     *        The cache refreshed once the import is done.
+     * @param callbackExecutor
+     *        The executor where the listener is called and the cache is refreshed.
+     *        Since the cache is read by the user interface, it should be the executor
+     *        of the user interface thread. (e.g. Platform::runLater)
+     */
+    public ResidentImporter(DatabaseModel databaseModel, CacheModel cacheModel, Executor callbackExecutor) {
+        mDatabaseModel = databaseModel;
+        mCacheModel = cacheModel;
+        mCallbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Set the listener of the import.
+     *
+     * @param listener
+     *        The listener.
+     */
+    public void setListener(OnImportListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Set the number of residents written to the database per batch.
+     *
+     * @param batchSize
+     *        The batch size.
+     */
+    public void setBatchSize(int batchSize) {
+        mBatchSize = batchSize;
+    }
+
+    /**
+     * Stop the import after the current batch. The residents already written to the
+     * database are kept and cached.
+     */
+    public void cancel() {
+        mIsCancelled = true;
+    }
+
+    /**
+     * Import the residents of a CSV file. Blocks until the whole file is imported,
+     * thus, it should be called outside the user interface thread.
+     *
+     * @param file
+     *        The CSV file.
+     *
+     * @return the number of residents imported.
+     *
+     * @throws IOException
+     *         if the file could not be read or the header lacks a required column.
+     */
+    public int importFile(File file) throws IOException {
+        mIsCancelled = false;
+
+        String fileName = file.getName();
+        int extensionIndex = fileName.lastIndexOf('.');
+        mRejectsFile = new File(file.getAbsoluteFile().getParentFile(),
+                (extensionIndex > 0 ? fileName.substring(0, extensionIndex) : fileName) + "-rejects.csv");
+        mRejectsWriter = null;
+        mIsRejectsFileFailed = false;
+
+        // Remove the rejects of a previous import of the file, so that they are not
+        // mistaken for the rejects of this import.
+        if (mRejectsFile.exists() && !mRejectsFile.delete())
+            mIsRejectsFileFailed = true;
+
+        long fileSize = file.length();
+        int importedCount = 0;
+        int rejectedCount = 0;
+
+        try (CountingInputStream inputStream = new CountingInputStream(new FileInputStream(file))) {
+            CsvReader reader = new CsvReader(new BufferedReader(
+                    new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+
+            int[] columns = readHeader(reader.readRecord());
+            List<Resident> batch = new ArrayList<>(mBatchSize);
+
+            String[] record;
+            int recordNo = 0;
+
+            while (!mIsCancelled && (record = reader.readRecord()) != null) {
+                recordNo++;
+
+                // Skip the blank lines.
+                if (record.length == 1 && record[0].trim().isEmpty())
+                    continue;
+
+                String error = validate(record, columns);
+
+                if (error != null) {
+                    rejectedCount++;
+                    reject(recordNo, error);
+                    continue;
+                }
+
+                batch.add(normalize(record, columns));
+
+                if (batch.size() == mBatchSize) {
+                    int[] counts = writeBatch(batch, recordNo);
+                    importedCount += counts[0];
+                    rejectedCount += counts[1];
+
+                    notifyImportProgress(importedCount, rejectedCount,
+                            fileSize == 0 ? 1 : (double) inputStream.getCount() / fileSize);
+                }
+            }
+
+            int[] counts = writeBatch(batch, recordNo);
+            importedCount += counts[0];
+            rejectedCount += counts[1];
+
+        } finally {
+            File rejectsFile = closeRejectsFile();
+
+            // Refresh the resident cache once, whether the import completed or not.
+            List[] residentEssentials = importedCount > 0 ? mDatabaseModel.getResidentEssentials() : null;
+
+            final int finalImportedCount = importedCount;
+            final int finalRejectedCount = rejectedCount;
+
+            mCallbackExecutor.execute(() -> {
+                if (residentEssentials != null)
+                    mCacheModel.refreshResidents(residentEssentials);
+
+                if (mListener != null)
+                    mListener.onImportFinished(finalImportedCount, finalRejectedCount, rejectsFile);
+            });
+        }
+
+        return importedCount;
+    }
+
+    /**
+     * Map the column names of the header to the indices of the columns within the
+     * records.
+     *
+     * @param header
+     *        The header record.
+     *
+     * @return the indices of the columns in the order of the Resident container's
+     *         fields. An index is -1 if the column is absent.
+     */
+    private int[] readHeader(String[] header) throws IOException {
+        if (header == null)
+            throw new IOException("The file is empty.");
+
+        String[] columnNames = {
+                ResidentEntry.COLUMN_FIRST_NAME,
+                ResidentEntry.COLUMN_MIDDLE_NAME,
+                ResidentEntry.COLUMN_LAST_NAME,
+                ResidentEntry.COLUMN_AUXILIARY,
+                ResidentEntry.COLUMN_BIRTH_DATE,
+                ResidentEntry.COLUMN_YEAR_OF_RESIDENCY,
+                ResidentEntry.COLUMN_MONTH_OF_RESIDENCY,
+                ResidentEntry.COLUMN_ADDRESS_1,
+                ResidentEntry.COLUMN_ADDRESS_2};
+
+        int[] columns = new int[columnNames.length];
+        Arrays.fill(columns, -1);
+
+        for (int i = 0; i < header.length; i++) {
+            // The byte order mark of the file is read as part of the first column name.
+            String name = header[i].replace("\uFEFF", "").trim().toLowerCase().replace(' ', '_');
+
+            for (int j = 0; j < columnNames.length; j++)
+                if (columnNames[j].equals(name))
+                    columns[j] = i;
+        }
+
+        // The names and the birth date are required.
+        for (int i = 0; i < 5; i++)
+            if (i != 3 && columns[i] == -1)
+                throw new IOException("The header lacks the column " + columnNames[i] + ".");
+
+        return columns;
+    }
+
+    /**
+     * Validate a record.
+     *
+     * @param record
+     *        The record to be validated.
+     * @param columns
+     *        The indices of the columns.
+     *
+     * @return the reason why the record is invalid, or null if the record is valid.
+     */
+    private String validate(String[] record, int[] columns) {
+        if (getField(record, columns[0]) == null)
+            return "The first name is missing.";
+
+        if (getField(record, columns[1]) == null)
+            return "The middle name is missing.";
+
+        if (getField(record, columns[2]) == null)
+            return "The last name is missing.";
+
+        String auxiliary = getField(record, columns[3]);
+        if (auxiliary != null && !auxiliary.equalsIgnoreCase("N/A") && normalizeAuxiliary(auxiliary) == null)
+            return "Unknown auxiliary " + auxiliary + ".";
+
+        String birthDate = getField(record, columns[4]);
+        if (birthDate == null)
+            return "The birth date is missing.";
+
+        try {
+            Date.valueOf(birthDate);
+        } catch (IllegalArgumentException e) {
+            return "Invalid birth date " + birthDate + ".";
+        }
+
+        String yearOfResidency = getField(record, columns[5]);
+        if (yearOfResidency != null && !yearOfResidency.equalsIgnoreCase("Birth")) {
+            try {
+                int year = Integer.parseInt(yearOfResidency);
+
+                if (year < 1900 || year > Calendar.getInstance().get(Calendar.YEAR))
+                    return "Invalid year of residency " + yearOfResidency + ".";
+            } catch (NumberFormatException e) {
+                return "Invalid year of residency " + yearOfResidency + ".";
+            }
+
+            String monthOfResidency = getField(record, columns[6]);
+            if (monthOfResidency != null && parseMonth(monthOfResidency) == -1)
+                return "Invalid month of residency " + monthOfResidency + ".";
+        }
+
+        return null;
+    }
+
+    /**
+     * Normalize a valid record into a resident, formatting the names the same way
+     * as the resident form does.
+     *
+     * @param record
+     *        The valid record.
+     * @param columns
+     *        The indices of the columns.
+     *
+     * @return the resident.
+     */
+    private Resident normalize(String[] record, int[] columns) {
+        Resident resident = new Resident();
+
+        resident.setFirstName(normalizeName(getField(record, columns[0])));
+        resident.setMiddleName(normalizeName(getField(record, columns[1])));
+        resident.setLastName(normalizeName(getField(record, columns[2])));
+
+        String auxiliary = getField(record, columns[3]);
+        resident.setAuxiliary(auxiliary == null ? null : normalizeAuxiliary(auxiliary));
+
+        resident.setBirthDate(Date.valueOf(getField(record, columns[4])));
+
+        String yearOfResidency = getField(record, columns[5]);
+        if (yearOfResidency == null || yearOfResidency.equalsIgnoreCase("Birth"))
+            resident.setYearOfResidency((short) -1);
+        else {
+            resident.setYearOfResidency(Short.parseShort(yearOfResidency));
+
+            String monthOfResidency = getField(record, columns[6]);
+            resident.setMonthOfResidency((short) (monthOfResidency == null ? 0 : parseMonth(monthOfResidency)));
+        }
+
+        resident.setAddress1(getField(record, columns[7]));
+        resident.setAddress2(getField(record, columns[8]));
+
+        return resident;
+    }
+
+    /**
+     * Write a batch of residents to the database, then clear the batch.
+     *
+     * @param batch
+     *        The batch of residents.
+     * @param recordNo
+     *        The number of the last record of the batch.
+     *
+     * @return an array with elements:
+     *         array[0] = The number of residents imported.
+     *         array[1] = The number of residents rejected.
+     */
+    private int[] writeBatch(List<Resident> batch, int recordNo) {
+        int size = batch.size();
+
+        if (size == 0)
+            return new int[]{0, 0};
+
+        List<String> ids = mDatabaseModel.createResidents(batch, mBatchSize);
+        batch.clear();
+
+        if (ids != null)
+            return new int[]{size, 0};
+
+        // The batch is written within a single transaction, thus, none of its residents
+        // were created.
+        reject(recordNo, String.format(
+                "The batch of %d residents ending at this record could not be written.", size));
+
+        return new int[]{0, size};
+    }
+
+    /**
+     * Fetch a field of a record.
+     *
+     * @param record
+     *        The record.
+     * @param column
+     *        The index of the field.
+     *
+     * @return the trimmed field, or null if the field is absent or blank.
+     */
+    private String getField(String[] record, int column) {
+        if (column == -1 || column >= record.length)
+            return null;
+
+        String field = record[column].trim();
+
+        return field.isEmpty() ? null : field;
+    }
+
+    /**
+     * Collapse the spaces of a name, then capitalize each of its words.
+     *
+     * @param name
+     *        The name.
+     *
+     * @return the normalized name.
+     */
+    private String normalizeName(String name) {
+        return BarangayUtils.capitalizeString(name.replaceAll("\\s+", " "));
+    }
+
+    /**
+     * Match an auxiliary to the auxiliaries accepted by the resident form, ignoring
+     * its case and its period. (e.g. jr -> Jr., iii -> III)
+     *
+     * @param auxiliary
+     *        The auxiliary.
+     *
+     * @return the matched auxiliary, or null if there is no match.
+     */
+    private String normalizeAuxiliary(String auxiliary) {
+        String key = auxiliary.replace(".", "");
+
+        for (String accepted : AUXILIARIES)
+            if (accepted.replace(".", "").equalsIgnoreCase(key))
+                return accepted;
+
+        return null;
+    }
+
+    /**
+     * Parse the name or the number of a month.
+     *
+     * @param month
+     *        The name (e.g. January) or the number (1 - 12) of the month.
+     *
+     * @return the month value used by the database (0 - 11), or -1 if the month is
+     *         invalid.
+     */
+    private int parseMonth(String month) {
+        try {
+            int monthNo = Integer.parseInt(month);
+            return monthNo >= 1 && monthNo <= 12 ? monthNo - 1 : -1;
+        } catch (NumberFormatException e) {
+            for (int i = 0; i < 12; i++)
+                if (BarangayUtils.convertMonthIntToString(i).equalsIgnoreCase(month))
+                    return i;
+
+            return -1;
+        }
+    }
+
+    /**
+     * Reject a record. The record is listed within the rejects file, which is created
+     * upon the first rejection, and the listener is told about it.
+     *
+     * @param recordNo
+     *        The number of the record within the file, not counting the header.
+     * @param reason
+     *        The reason why the record was rejected.
+     */
+    private void reject(int recordNo, String reason) {
+        if (!mIsRejectsFileFailed)
+            try {
+                if (mRejectsWriter == null) {
+                    mRejectsWriter = new BufferedWriter(new OutputStreamWriter(
+                            new FileOutputStream(mRejectsFile), StandardCharsets.UTF_8));
+                    mRejectsWriter.write("record,reason");
+                    mRejectsWriter.newLine();
+                }
+
+                mRejectsWriter.write(recordNo + ",\"" + reason.replace("\"", "\"\"") + "\"");
+                mRejectsWriter.newLine();
+            } catch (IOException e) {
+                e.printStackTrace();
+                mIsRejectsFileFailed = true;
+            }
+
+        notifyRecordRejected(recordNo, reason);
+    }
+
+    /**
+     * Close the rejects file of the current import.
+     *
+     * @return the rejects file, or null if no record was rejected or the file could
+     *         not be written.
+     */
+    private File closeRejectsFile() {
+        if (mRejectsWriter == null)
+            return null;
+
+        try {
+            mRejectsWriter.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+            mIsRejectsFileFailed = true;
+        }
+
+        mRejectsWriter = null;
+
+        return mIsRejectsFileFailed ? null : mRejectsFile;
+    }
+
+    private void notifyImportProgress(int importedCount, int rejectedCount, double progress) {
+        if (mListener != null)
+            mCallbackExecutor.execute(() -> mListener.onImportProgress(importedCount, rejectedCount, progress));
+    }
+
+    private void notifyRecordRejected(int recordNo, String reason) {
+        if (mListener != null)
+            mCallbackExecutor.execute(() -> mListener.onRecordRejected(recordNo, reason));
+    }
+
+    /**
+     * A reader of CSV records. Fields are separated by commas and may be enclosed
+     * within double quotes, in which case they can contain commas, line breaks and
+     * double quotes escaped as two double quotes.
+     */
+    private static class CsvReader {
+
+        private final Reader mReader;
+
+        /* The character read ahead of the current record, or -2 if there is none. */
+        private int mPeekedChar = -2;
+
+        CsvReader(Reader reader) {
+            mReader = reader;
+        }
+
+        /**
+         * Read the next record.
+         *
+         * @return the fields of the record, or null if the end of the file is reached.
+         */
+        String[] readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean isQuoted = false;
+
+            int c = read();
+
+            if (c == -1)
+                return null;
+
+            while (true) {
+                if (isQuoted) {
+                    if (c == -1)
+                        break;
+
+                    if (c == '"') {
+                        int next = read();
+
+                        if (next == '"')
+                            field.append('"');
+                        else {
+                            isQuoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else
+                        field.append((char) c);
+
+                } else if (c == '"' && field.length() == 0)
+                    isQuoted = true;
+
+                else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    // Treat CRLF as a single line break.
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n')
+                            mPeekedChar = next;
+                    }
+                    break;
+
+                } else
+                    field.append((char) c);
+
+                c = read();
+            }
+
+            fields.add(field.toString());
+
+            return fields.toArray(new String[fields.size()]);
+        }
+
+        private int read() throws IOException {
+            if (mPeekedChar != -2) {
+                int c = mPeekedChar;
+                mPeekedChar = -2;
+                return c;
+            }
+
+            return mReader.read();
+        }
+    }
+
+    /**
+     * An input stream that counts the bytes read, used to compute the progress of
+     * the import.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private volatile long mCount;
+
+        CountingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+
+            if (b != -1)
+                mCount++;
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+
+            if (count > 0)
+                mCount += count;
+
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long count = super.skip(n);
+            mCount += count;
+            return count;
+        }
+
+        long getCount() {
+            return mCount;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import javafx.scene.control.TextInputControl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * A class that contains the commonly used function throughout the application.
@@ -15,6 +16,7 @@ public class BarangayUtils {
     /**
      * Filter the IDs list in descending order with the use of priority level.
      * Priority level is calculated by how many keywords exists in the given name.
+     * IDs with the same priority level keep their order within the given list.
      *
      * @param ids
      *        The IDs to be filtered.
@@ -27,64 +29,83 @@ public class BarangayUtils {
      * @return a new filtered list of IDs List.
      */
     public static List getFilteredIDs(List<String> ids, List<String> names, String[] keywords) {
+        int[] filteredIndices = getFilteredIndices(names, keywords, null, () -> false);
+        List<String> filteredIDs = new ArrayList<>(filteredIndices.length);
+
+        for (int index : filteredIndices)
+            filteredIDs.add(ids.get(index));
+
+        return filteredIDs;
+    }
+
+    /**
+     * Filter the indices of the names in descending order with the use of priority
+     * level, like getFilteredIDs. Only the names at the candidate indices are matched,
+     * so that a search can refine the result of a previous search whose keywords were
+     * extended, instead of matching every name again.
+     *
+     * @param names
+     *        The names to be matched to the keywords.
+     * @param keywords
+     *        The keywords for filtering the names.
+     * @param candidateIndices
+     *        The indices of the names to be matched in ascending order, or null to
+     *        match every name.
+     * @param isCancelled
+     *        Checked while matching, to stop a search replaced by a newer one.
+     *
+     * @return the indices of the names with at least one match, from the highest priority
+     *         level to the lowest, then in ascending order. Or null if the search was
+     *         cancelled.
+     */
+    public static int[] getFilteredIndices(List<String> names, String[] keywords, int[] candidateIndices,
+                                           BooleanSupplier isCancelled) {
         // Lower case all keywords.
         int keywordLength = keywords.length;
         for (int i = 0; i < keywordLength; i++)
             keywords[i] = keywords[i].toLowerCase();
 
-        // Take hold of all the total number of matches of each resident name that has at
-        // least one match with the keywords.
-        List<Integer> priorityList = new ArrayList<>();
-
-        // Take hold of all the resident IDs that has at least one match with the keywords.
-        //
-        // Note: The elements between the Priority and Filtered ID list have a relationship
-        // among the same index. Therefore, they are always connected.S
-        List<String> filteredIDs = new ArrayList<>();
-
-        // Match each resident names with the keywords. If at least one match is found,
-        // then store its ID to the filtered IDs list and store the number of matches to
-        // the priority list.
-        int listSize = ids.size();
-        for (int i = 0; i < listSize; i++) {
-            String residentName = names.get(i).toLowerCase();
+        // Take hold of the number of matches of each name, and of the number of names
+        // per number of matches. A name matches at most every keyword.
+        int candidateCount = candidateIndices != null ? candidateIndices.length : names.size();
+        int[] priorities = new int[candidateCount];
+        int[] priorityCounts = new int[keywordLength + 1];
+
+        // Match each resident names with the keywords.
+        for (int i = 0; i < candidateCount; i++) {
+            if ((i & 1023) == 0 && isCancelled.getAsBoolean())
+                return null;
+
+            String residentName = names.get(candidateIndices != null ? candidateIndices[i] : i).toLowerCase();
             int matchCount = 0;
 
             for (int j = 0; j < keywordLength; j++)
                 if (residentName.contains(keywords[j]))
                     matchCount++;
 
-            if (matchCount > 0) {
-                filteredIDs.add(ids.get(i));
-                priorityList.add(matchCount);
-            }
+            priorities[i] = matchCount;
+            priorityCounts[matchCount]++;
         }
 
-//        System.out.println("BarangayUtils - filtered ID first: " + filteredIDs.get(0));
-
-        // Use Selection Sorting to sort the Filtered ID List with the help of sorting
-        // the Priority List.
-        listSize = filteredIDs.size();
-        for (int i = 0; i < listSize; i++) {
-            int highestPriorityIndex = i;
-
-            for (int j = i; j < listSize; j++) {
-                if (priorityList.get(j) > priorityList.get(highestPriorityIndex))
-                    highestPriorityIndex = j;
-            }
+        // Use Counting Sort to place the indices from the highest priority to the lowest,
+        // in a linear time. The place of the first index of each priority follows the
+        // indices of the higher priorities, and the indices of a priority are placed in
+        // their order.
+        int[] priorityStarts = new int[keywordLength + 1];
+        int filteredSize = 0;
 
-            int highestVal = priorityList.get(highestPriorityIndex);
-
-            priorityList.set(highestPriorityIndex, priorityList.get(i));
-            priorityList.set(i, highestVal);
+        for (int priority = keywordLength; priority > 0; priority--) {
+            priorityStarts[priority] = filteredSize;
+            filteredSize += priorityCounts[priority];
+        }
 
-            String highestID = filteredIDs.get(highestPriorityIndex);
+        int[] filteredIndices = new int[filteredSize];
 
-            filteredIDs.set(highestPriorityIndex, filteredIDs.get(i));
-            filteredIDs.set(i, highestID);
-        }
+        for (int i = 0; i < candidateCount; i++)
+            if (priorities[i] > 0)
+                filteredIndices[priorityStarts[priorities[i]]++] = candidateIndices != null ? candidateIndices[i] : i;
 
-        return filteredIDs;
+        return filteredIndices;
     }
 
     /**
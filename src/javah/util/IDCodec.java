@@ -0,0 +1,197 @@
+package javah.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A class that encodes the IDs of the records, formatted as yy-NNN, into plain ints,
+ * so that the cache can index and compare the IDs without hashing or comparing
+ * strings. The year is stored within the highest bits and the number of the record
+ * within the lowest 24 bits, thus the codes of the IDs are ordered by their years,
+ * then by their numbers.
+ *
+ * The IDs that do not follow the format exactly, such as IDs of records imported
+ * from elsewhere, are assigned a negative code from a table of such IDs instead, and
+ * are ordered after the formatted IDs. Thus, every ID has a code, and decoding a code
+ * always gives back the exact ID.
+ *
+ * The table of the irregular IDs is shared by every store, since the codes are passed
+ * between the stores and the controllers. It only grows with the IDs of the stored
+ * records: looking a record up by an ID that was never encoded uses find(), which
+ * does not add the ID. The table is only locked to add an ID, so that decoding and
+ * comparing the codes never wait for another thread.
+ */
+public class IDCodec {
+
+    /* The code standing for no ID. Never assigned to an ID. */
+    public static final int NO_ID = -1;
+
+    /* The code standing for an irregular ID that was never encoded. Never assigned to an ID. */
+    public static final int UNKNOWN_ID = -2;
+
+    /* The bits of the number of the record. */
+    private static final int NUMBER_BITS = 24;
+    private static final int NUMBER_MASK = (1 << NUMBER_BITS) - 1;
+
+    /**
+     * The IDs that do not follow the format, by their codes - Integer.MIN_VALUE. The
+     * array is published again after every added ID, so that the readers see the ID
+     * without locking.
+     */
+    private static volatile String[] sIrregularIDs = new String[16];
+
+    /* The codes of the irregular IDs. Guards the adding of the irregular IDs. */
+    private static final Map<String, Integer> sIrregularCodes = new HashMap<>();
+
+    /**
+     * Encode an ID.
+     *
+     * @param id
+     *        The ID to be encoded.
+     *
+     * @return the code of the ID, or NO_ID if the ID is null.
+     */
+    public static int encode(String id) {
+        if (id == null)
+            return NO_ID;
+
+        int code = pack(id);
+
+        return code != NO_ID ? code : encodeIrregular(id);
+    }
+
+    /**
+     * Find the code of an ID without adding the ID to the table of the irregular IDs.
+     * Used to look a record up by an ID that might not be stored.
+     *
+     * @param id
+     *        The ID to be found.
+     *
+     * @return the code of the ID, NO_ID if the ID is null, or UNKNOWN_ID if the ID is
+     *         irregular and was never encoded.
+     */
+    public static int find(String id) {
+        if (id == null)
+            return NO_ID;
+
+        int code = pack(id);
+
+        if (code != NO_ID)
+            return code;
+
+        synchronized (sIrregularCodes) {
+            Integer irregularCode = sIrregularCodes.get(id);
+
+            return irregularCode != null ? irregularCode : UNKNOWN_ID;
+        }
+    }
+
+    /**
+     * Decode an ID.
+     *
+     * @param code
+     *        The code of the ID.
+     *
+     * @return the ID, or null if the code is NO_ID.
+     */
+    public static String decode(int code) {
+        if (code == NO_ID)
+            return null;
+
+        if (code < 0)
+            return sIrregularIDs[code - Integer.MIN_VALUE];
+
+        int number = code & NUMBER_MASK;
+        int year = code >>> NUMBER_BITS;
+        char[] chars = new char[number < 1000 ? 6 : 3 + Integer.toString(number).length()];
+
+        chars[0] = (char) ('0' + year / 10);
+        chars[1] = (char) ('0' + year % 10);
+        chars[2] = '-';
+
+        for (int i = chars.length - 1; i > 2; i--, number /= 10)
+            chars[i] = (char) ('0' + number % 10);
+
+        return new String(chars);
+    }
+
+    /**
+     * Compare the codes of two IDs, ordering the formatted IDs by their years, then by
+     * their numbers, followed by the irregular IDs in their natural order.
+     *
+     * @return a negative integer, zero, or a positive integer as the first ID is less
+     *         than, equal to, or greater than the second ID.
+     */
+    public static int compare(int code1, int code2) {
+        if (code1 >= 0 && code2 >= 0)
+            return Integer.compare(code1, code2);
+
+        if (code1 >= 0 || code2 >= 0)
+            return code1 >= 0 ? -1 : 1;
+
+        if (code1 == code2)
+            return 0;
+
+        String[] irregularIDs = sIrregularIDs;
+
+        return irregularIDs[code1 - Integer.MIN_VALUE].compareTo(irregularIDs[code2 - Integer.MIN_VALUE]);
+    }
+
+    /**
+     * Pack an ID formatted as yy-NNN, where the number is padded to three digits.
+     *
+     * @return the code of the ID, or NO_ID if the ID does not follow the format.
+     */
+    private static int pack(String id) {
+        int length = id.length();
+
+        if (length < 6 || length > 10 || id.charAt(2) != '-' || (length > 6 && id.charAt(3) == '0'))
+            return NO_ID;
+
+        if (!isDigit(id.charAt(0)) || !isDigit(id.charAt(1)))
+            return NO_ID;
+
+        int year = (id.charAt(0) - '0') * 10 + id.charAt(1) - '0';
+        int number = 0;
+
+        for (int i = 3; i < length; i++) {
+            if (!isDigit(id.charAt(i)))
+                return NO_ID;
+
+            number = number * 10 + id.charAt(i) - '0';
+        }
+
+        return year << NUMBER_BITS | number;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int encodeIrregular(String id) {
+        synchronized (sIrregularCodes) {
+            Integer code = sIrregularCodes.get(id);
+
+            if (code == null) {
+                int count = sIrregularCodes.size();
+
+                if (Integer.MIN_VALUE + count == UNKNOWN_ID)
+                    throw new IllegalStateException("Too many irregular IDs.");
+
+                String[] irregularIDs = sIrregularIDs;
+
+                if (count == irregularIDs.length)
+                    irregularIDs = Arrays.copyOf(irregularIDs, count * 2);
+
+                irregularIDs[count] = id;
+                sIrregularIDs = irregularIDs;
+
+                code = Integer.MIN_VALUE + count;
+                sIrregularCodes.put(id, code);
+            }
+
+            return code;
+        }
+    }
+}
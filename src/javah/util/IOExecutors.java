@@ -0,0 +1,195 @@
+package javah.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A class that creates the executors of the blocking work of the system, such as the
+ * database queries and the reading and writing of the images.
+ *
+ * By default, the work runs on bounded pools of platform threads. When the virtual
+ * thread mode is enabled at startup, either with the --virtual-threads argument or
+ * with -Dbarangay.virtualThreads=true, every task runs on a virtual thread of its own
+ * instead, given that the running JDK supports virtual threads. Otherwise, the
+ * platform threads are still used.
+ *
+ * The virtual threads are created through reflection, so that the system still
+ * compiles and runs on the JDKs without them.
+ */
+public class IOExecutors {
+
+    /* The system property enabling the virtual thread mode. */
+    public static final String PROPERTY_VIRTUAL_THREADS = "barangay.virtualThreads";
+
+    /* The number of platform threads of the shared file executor. */
+    public static final int FILE_THREAD_COUNT = 2;
+
+    /* The number of file operations that can wait for a platform thread. */
+    public static final int FILE_QUEUE_CAPACITY = 32;
+
+    /* The executor shared by the reading and writing of the images. */
+    private static ExecutorService FILE_EXECUTOR;
+
+    /**
+     * Determine whether the virtual thread mode is enabled and supported by the JDK.
+     *
+     * @return true if the tasks run on virtual threads.
+     */
+    public static boolean isVirtualThreadMode() {
+        return Boolean.getBoolean(PROPERTY_VIRTUAL_THREADS) && createVirtualThreadFactory("probe-") != null;
+    }
+
+    /**
+     * Create an executor of blocking work, following the mode chosen at startup.
+     *
+     * @param name
+     *        The prefix of the names of the threads. (e.g. "database-io-")
+     * @param threadCount
+     *        The number of platform threads. Not used by the virtual thread mode.
+     * @param queueCapacity
+     *        The number of tasks that can wait for a platform thread. Tasks beyond the
+     *        capacity are rejected. Not used by the virtual thread mode.
+     *
+     * @return the executor.
+     */
+    public static ExecutorService newExecutor(String name, int threadCount, int queueCapacity) {
+        if (Boolean.getBoolean(PROPERTY_VIRTUAL_THREADS)) {
+            ExecutorService executor = newVirtualThreadExecutor(name);
+
+            if (executor != null)
+                return executor;
+        }
+
+        return newPlatformThreadExecutor(name, threadCount, queueCapacity);
+    }
+
+    /**
+     * Create a bounded pool of daemon platform threads.
+     *
+     * @param name
+     *        The prefix of the names of the threads.
+     * @param threadCount
+     *        The number of threads.
+     * @param queueCapacity
+     *        The number of tasks that can wait for a thread.
+     *
+     * @return the executor.
+     */
+    public static ExecutorService newPlatformThreadExecutor(String name, int threadCount, int queueCapacity) {
+        AtomicInteger threadNo = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+    }
+
+    /**
+     * Create an executor starting a virtual thread per task.
+     *
+     * @param name
+     *        The prefix of the names of the threads.
+     *
+     * @return the executor, or null if the JDK does not support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadExecutor(String name) {
+        ThreadFactory threadFactory = createVirtualThreadFactory(name);
+
+        if (threadFactory == null)
+            return null;
+
+        try {
+            // Executors.newThreadPerTaskExecutor(threadFactory)
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fetch the executor shared by the reading and writing of the images.
+     *
+     * @return the shared file executor.
+     */
+    public static synchronized ExecutorService getFileExecutor() {
+        if (FILE_EXECUTOR == null)
+            FILE_EXECUTOR = newExecutor("file-io-", FILE_THREAD_COUNT, FILE_QUEUE_CAPACITY);
+
+        return FILE_EXECUTOR;
+    }
+
+    /**
+     * Run a file operation on the shared file executor.
+     *
+     * @param task
+     *        The file operation.
+     *
+     * @return a future completed once the operation is done, or completed exceptionally
+     *         with a RejectedExecutionException if too many file operations wait for a
+     *         thread.
+     */
+    public static CompletableFuture<Void> runFileTask(Runnable task) {
+        return supplyFileTask(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a file operation producing a result on the shared file executor.
+     *
+     * @param supplier
+     *        The file operation.
+     *
+     * @return a future completed with the result of the operation, or completed
+     *         exceptionally with a RejectedExecutionException if too many file
+     *         operations wait for a thread.
+     */
+    public static <T> CompletableFuture<T> supplyFileTask(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, getFileExecutor());
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+
+            return future;
+        }
+    }
+
+    /**
+     * Create a factory of named virtual threads.
+     *
+     * @param name
+     *        The prefix of the names of the threads.
+     *
+     * @return the factory, or null if the JDK does not support virtual threads.
+     */
+    private static ThreadFactory createVirtualThreadFactory(String name) {
+        try {
+            // Thread.ofVirtual().name(name, 1).factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name, 1L);
+
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // The JDK has no virtual threads, or they are a disabled preview feature.
+            return null;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package javah.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A hash map keyed by plain ints, such as the codes of the record IDs, which neither
+ * boxes its keys nor allocates an entry per mapping. The keys and values are held
+ * within two arrays, where a colliding key is placed in the next free slot (open
+ * addressing with linear probing). The arrays are doubled once they are half full.
+ *
+ * Null values cannot be stored, since a slot without a value is a free slot.
+ *
+ * @param <V>
+ *        The type of the values.
+ */
+public class IntObjectMap<V> {
+
+    /* The keys and the values of the slots. A slot is free if its value is null. */
+    private int[] mKeys;
+    private Object[] mValues;
+
+    /* The number of mappings. */
+    private int mSize;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    /**
+     * Create an empty map.
+     *
+     * @param expectedSize
+     *        The number of mappings expected, so that the map is not grown meanwhile.
+     */
+    public IntObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Fetch the value of a key.
+     *
+     * @param key
+     *        The key of the value.
+     *
+     * @return the value, or null if the key is not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = mKeys.length - 1;
+
+        for (int slot = hash(key) & mask; mValues[slot] != null; slot = (slot + 1) & mask)
+            if (mKeys[slot] == key)
+                return (V) mValues[slot];
+
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Map a key to a value.
+     *
+     * @param key
+     *        The key of the value.
+     * @param value
+     *        The value. Must not be null.
+     *
+     * @return the previous value of the key, or null if the key was not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null)
+            throw new NullPointerException("Null values cannot be stored.");
+
+        int mask = mKeys.length - 1;
+        int slot = hash(key) & mask;
+
+        for (; mValues[slot] != null; slot = (slot + 1) & mask) {
+            if (mKeys[slot] == key) {
+                V previousValue = (V) mValues[slot];
+                mValues[slot] = value;
+
+                return previousValue;
+            }
+        }
+
+        mKeys[slot] = key;
+        mValues[slot] = value;
+
+        if (++mSize > mKeys.length / 2)
+            resize(mKeys.length * 2);
+
+        return null;
+    }
+
+    /**
+     * Remove the mapping of a key.
+     *
+     * @param key
+     *        The key to be removed.
+     *
+     * @return the value of the key, or null if the key was not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int mask = mKeys.length - 1;
+
+        for (int slot = hash(key) & mask; mValues[slot] != null; slot = (slot + 1) & mask) {
+            if (mKeys[slot] == key) {
+                V value = (V) mValues[slot];
+                mValues[slot] = null;
+                mSize--;
+
+                closeGap(slot);
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Fetch the number of slots, which is at least twice the number of mappings.
+     *
+     * @return the length of the arrays of the keys and of the values.
+     */
+    public int getCapacity() {
+        return mKeys.length;
+    }
+
+    /**
+     * Remove every mapping.
+     */
+    public void clear() {
+        Arrays.fill(mValues, null);
+        mSize = 0;
+    }
+
+    /**
+     * Fetch the values, in no particular order. The map must not be modified while
+     * iterating.
+     *
+     * @return the values.
+     */
+    public Iterable<V> values() {
+        return () -> new Iterator<V>() {
+
+            /* The next slot holding a value. */
+            private int mSlot = nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return mSlot < mValues.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (mSlot >= mValues.length)
+                    throw new NoSuchElementException();
+
+                V value = (V) mValues[mSlot];
+                mSlot = nextSlot(mSlot + 1);
+
+                return value;
+            }
+        };
+    }
+
+    /**
+     * @return the first slot holding a value from a slot, or the capacity if none.
+     */
+    private int nextSlot(int slot) {
+        while (slot < mValues.length && mValues[slot] == null)
+            slot++;
+
+        return slot;
+    }
+
+    /**
+     * Move the following keys of a probe sequence into a freed slot, so that every key
+     * can still be reached from its home slot without any tombstone.
+     */
+    private void closeGap(int freeSlot) {
+        int mask = mKeys.length - 1;
+
+        for (int slot = (freeSlot + 1) & mask; mValues[slot] != null; slot = (slot + 1) & mask) {
+            int homeSlot = hash(mKeys[slot]) & mask;
+
+            // Move the key if its home slot does not lie cyclically within (freeSlot, slot].
+            if (((slot - homeSlot) & mask) >= ((slot - freeSlot) & mask)) {
+                mKeys[freeSlot] = mKeys[slot];
+                mValues[freeSlot] = mValues[slot];
+                mValues[slot] = null;
+                freeSlot = slot;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        int[] keys = mKeys;
+        Object[] values = mValues;
+
+        allocate(capacity);
+        int mask = capacity - 1;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] == null)
+                continue;
+
+            int slot = hash(keys[i]) & mask;
+
+            while (mValues[slot] != null)
+                slot = (slot + 1) & mask;
+
+            mKeys[slot] = keys[i];
+            mValues[slot] = values[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new int[capacity];
+        mValues = new Object[capacity];
+    }
+
+    /**
+     * @return the smallest power of two holding the number of mappings at most half full.
+     */
+    private static int capacityFor(int size) {
+        int capacity = 16;
+
+        while (capacity < size * 2)
+            capacity *= 2;
+
+        return capacity;
+    }
+
+    /**
+     * Spread the bits of a key, since the codes of consecutive IDs differ only in
+     * their lowest bits while the years are held within the highest bits.
+     */
+    private static int hash(int key) {
+        int hash = key * 0x9E3779B9;
+
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,145 @@
+package javah.util;
+
+import java.text.Normalizer;
+
+/**
+ * A class that encodes a word into a key of how the word sounds, so that the spelling
+ * variants of a name share the same key. (e.g. "Gonzales" and "Gonzalez", or
+ * "Villanueva" and "Vilanueva")
+ *
+ * The rules follow the Spanish and Tagalog spelling of the surnames of the residents,
+ * rather than the English spelling which Soundex and Metaphone are made for:
+ * "b" and "v" sound the same, and so do "s", "z" and a soft "c". "ll" is read as "l",
+ * "j" as "h", "n" with a tilde as "ni", and "f" as "p". The vowels are kept, but "e"
+ * and "i", and "o" and "u", are not told apart, since Tagalog swaps them freely.
+ * Doubled sounds are read once. A "g" is always read as hard, since a soft "g" is
+ * more often a misspelling of "gu" (e.g. "Gevara" for "Guevara") than a sound of its own.
+ *
+ * @see TokenIndex
+ */
+public class PhoneticCodec {
+
+    /* The shortest word encoded, since the keys of shorter words match too many words. */
+    public static final int MIN_LENGTH = 3;
+
+    /**
+     * Encode a word into its phonetic key.
+     *
+     * @param word
+     *        The word, in any case.
+     *
+     * @return the phonetic key of the word, or null if the word is shorter than
+     *         MIN_LENGTH or holds a character other than a letter.
+     */
+    public static String encode(String word) {
+        if (word.length() < MIN_LENGTH)
+            return null;
+
+        // Strip the accents, except the tilde of the "n", which makes a letter of its own.
+        word = Normalizer.normalize(word.toLowerCase().replace("\u00f1", "ni"), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+
+        StringBuilder key = new StringBuilder(word.length());
+
+        for (int i = 0; i < word.length(); i++) {
+            char character = word.charAt(i);
+            char next = i + 1 < word.length() ? word.charAt(i + 1) : 0;
+            boolean isNextSoft = next == 'e' || next == 'i' || next == 'y';
+
+            if (character < 'a' || character > 'z')
+                return null;
+
+            switch (character) {
+                case 'b':
+                case 'v':
+                    append(key, 'b');
+                    break;
+
+                case 'c':
+                    if (next == 'h') {
+                        append(key, 't');
+                        append(key, 's');
+                        i++;
+                    } else
+                        append(key, isNextSoft ? 's' : 'k');
+                    break;
+
+                case 'f':
+                    append(key, 'p');
+                    break;
+
+                case 'g':
+                    // The "u" of "gue" and "gui" is silent.
+                    if (next == 'u' && i + 2 < word.length() && "eiy".indexOf(word.charAt(i + 2)) != -1) {
+                        append(key, 'g');
+                        i++;
+                    } else
+                        append(key, 'g');
+                    break;
+
+                case 'j':
+                    append(key, 'h');
+                    break;
+
+                case 'k':
+                    append(key, 'k');
+                    break;
+
+                case 'p':
+                    append(key, 'p');
+
+                    if (next == 'h')
+                        i++;
+                    break;
+
+                case 'q':
+                    append(key, 'k');
+
+                    if (next == 'u')
+                        i++;
+                    break;
+
+                case 's':
+                    append(key, 's');
+
+                    if (next == 'h')
+                        i++;
+                    break;
+
+                case 'x':
+                    append(key, 'k');
+                    append(key, 's');
+                    break;
+
+                case 'z':
+                    append(key, 's');
+                    break;
+
+                case 'e':
+                case 'i':
+                case 'y':
+                    append(key, 'i');
+                    break;
+
+                case 'o':
+                case 'u':
+                case 'w':
+                    append(key, 'u');
+                    break;
+
+                default:
+                    append(key, character);
+            }
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Append a sound to a key, unless the key already ends with the sound.
+     */
+    private static void append(StringBuilder key, char sound) {
+        if (key.length() == 0 || key.charAt(key.length() - 1) != sound)
+            key.append(sound);
+    }
+}
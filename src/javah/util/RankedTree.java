@@ -0,0 +1,323 @@
+package javah.util;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * A sorted collection that also knows the position of each of its elements, such
+ * as the place of a resident within the resident list paging. The elements are
+ * kept in a treap, which is a binary search tree balanced by random priorities,
+ * where every node counts the elements below it. Thus, inserting, removing,
+ * ranking an element and getting the element at a position all take a logarithmic
+ * time, unlike a sorted array list which shifts its elements on every change.
+ *
+ * The comparator must be a total order, since two elements comparing as equal are
+ * treated as the same element by rank and delete. (e.g. order the residents by
+ * their names, then by their IDs)
+ *
+ * The tree is read as a list from the smallest to the largest element, but can
+ * only be modified through insert, delete, rebuild and clear.
+ *
+ * @param <E>
+ *        The type of the elements.
+ */
+public class RankedTree<E> extends AbstractList<E> {
+
+    /* The order of the elements. */
+    private final Comparator<? super E> mComparator;
+
+    /* Generates the priorities of the nodes. */
+    private final Random mRandom = new Random();
+
+    /* The root of the tree. */
+    private Node<E> mRoot;
+
+    /**
+     * Create an empty tree.
+     *
+     * @param comparator
+     *        The order of the elements. Must be a total order.
+     */
+    public RankedTree(Comparator<? super E> comparator) {
+        mComparator = comparator;
+    }
+
+    /**
+     * Insert an element.
+     *
+     * @param element
+     *        The element to be inserted.
+     *
+     * @return the position of the inserted element.
+     */
+    public int insert(E element) {
+        mRoot = insert(mRoot, new Node<>(element, mRandom.nextInt()));
+        modCount++;
+
+        return rank(element);
+    }
+
+    /**
+     * Remove an element.
+     *
+     * @param element
+     *        The element to be removed, or an element comparing as equal to it.
+     *
+     * @return the position the element had, or -1 if it is not in the tree.
+     */
+    public int delete(E element) {
+        int rank = rank(element);
+
+        if (rank >= 0) {
+            mRoot = delete(mRoot, element);
+            modCount++;
+        }
+
+        return rank;
+    }
+
+    /**
+     * Replace the elements of the tree at once. Sorted elements, such as the elements
+     * of another tree, are placed in a linear time instead of being inserted one at a
+     * time.
+     *
+     * @param elements
+     *        The new elements of the tree. Must not hold elements comparing as equal.
+     */
+    public void rebuild(Collection<? extends E> elements) {
+        List<E> sortedElements = new ArrayList<>(elements);
+        sortedElements.sort(mComparator);
+
+        // Build the treap from the sorted elements in a single pass. The stack holds the
+        // right spine of the tree, and a node is complete once it leaves the spine.
+        Deque<Node<E>> rightSpine = new ArrayDeque<>();
+
+        for (E element : sortedElements) {
+            Node<E> node = new Node<>(element, mRandom.nextInt());
+            Node<E> lastNode = null;
+
+            while (!rightSpine.isEmpty() && rightSpine.peek().mPriority < node.mPriority) {
+                lastNode = rightSpine.pop();
+                update(lastNode);
+            }
+
+            node.mLeft = lastNode;
+
+            if (!rightSpine.isEmpty())
+                rightSpine.peek().mRight = node;
+
+            rightSpine.push(node);
+        }
+
+        Node<E> root = null;
+
+        while (!rightSpine.isEmpty()) {
+            root = rightSpine.pop();
+            update(root);
+        }
+
+        mRoot = root;
+        modCount++;
+    }
+
+    /**
+     * Find the position of an element.
+     *
+     * @param element
+     *        The element to be found, or an element comparing as equal to it.
+     *
+     * @return the position of the element, or -1 if it is not in the tree.
+     */
+    public int rank(E element) {
+        Node<E> node = mRoot;
+        int rank = 0;
+
+        while (node != null) {
+            int comparison = mComparator.compare(element, node.mElement);
+
+            if (comparison < 0)
+                node = node.mLeft;
+            else if (comparison > 0) {
+                rank += size(node.mLeft) + 1;
+                node = node.mRight;
+            } else
+                return rank + size(node.mLeft);
+        }
+
+        return -1;
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+
+        Node<E> node = mRoot;
+
+        while (true) {
+            int leftSize = size(node.mLeft);
+
+            if (index < leftSize)
+                node = node.mLeft;
+            else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.mRight;
+            } else
+                return node.mElement;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size(mRoot);
+    }
+
+    @Override
+    public void clear() {
+        mRoot = null;
+        modCount++;
+    }
+
+    /**
+     * Iterate the elements from the smallest to the largest, in a linear time overall
+     * instead of getting each element from the root.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            /* The nodes whose elements and right subtrees are yet to be visited. */
+            private final Deque<Node<E>> mPath = new ArrayDeque<>();
+
+            {
+                pushLeftPath(mRoot);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !mPath.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (mPath.isEmpty())
+                    throw new NoSuchElementException();
+
+                Node<E> node = mPath.pop();
+                pushLeftPath(node.mRight);
+
+                return node.mElement;
+            }
+
+            private void pushLeftPath(Node<E> node) {
+                for (; node != null; node = node.mLeft)
+                    mPath.push(node);
+            }
+        };
+    }
+
+    private Node<E> insert(Node<E> node, Node<E> newNode) {
+        if (node == null)
+            return newNode;
+
+        if (mComparator.compare(newNode.mElement, node.mElement) < 0) {
+            node.mLeft = insert(node.mLeft, newNode);
+
+            if (node.mLeft.mPriority > node.mPriority)
+                node = rotateRight(node);
+        } else {
+            node.mRight = insert(node.mRight, newNode);
+
+            if (node.mRight.mPriority > node.mPriority)
+                node = rotateLeft(node);
+        }
+
+        update(node);
+        return node;
+    }
+
+    private Node<E> delete(Node<E> node, E element) {
+        if (node == null)
+            return null;
+
+        int comparison = mComparator.compare(element, node.mElement);
+
+        if (comparison < 0)
+            node.mLeft = delete(node.mLeft, element);
+        else if (comparison > 0)
+            node.mRight = delete(node.mRight, element);
+        else if (node.mLeft == null)
+            return node.mRight;
+        else if (node.mRight == null)
+            return node.mLeft;
+        else if (node.mLeft.mPriority > node.mRight.mPriority) {
+            // Rotate the node down towards the child with the higher priority until it
+            // has at most one child.
+            node = rotateRight(node);
+            node.mRight = delete(node.mRight, element);
+        } else {
+            node = rotateLeft(node);
+            node.mLeft = delete(node.mLeft, element);
+        }
+
+        update(node);
+        return node;
+    }
+
+    private Node<E> rotateRight(Node<E> node) {
+        Node<E> left = node.mLeft;
+
+        node.mLeft = left.mRight;
+        update(node);
+        left.mRight = node;
+        update(left);
+
+        return left;
+    }
+
+    private Node<E> rotateLeft(Node<E> node) {
+        Node<E> right = node.mRight;
+
+        node.mRight = right.mLeft;
+        update(node);
+        right.mLeft = node;
+        update(right);
+
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        node.mSize = size(node.mLeft) + size(node.mRight) + 1;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.mSize;
+    }
+
+    /**
+     * A node of the tree, counting the elements of its subtree.
+     */
+    private static class Node<E> {
+
+        private final E mElement;
+
+        private final int mPriority;
+
+        private int mSize = 1;
+
+        private Node<E> mLeft, mRight;
+
+        Node(E element, int priority) {
+            mElement = element;
+            mPriority = priority;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package javah.util;
+
+import javafx.application.Platform;
+import javafx.scene.control.TextInputControl;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * A class that searches as the user types within a search field. The search is run
+ * once the user stops typing for DELAY milliseconds, rather than on every keystroke,
+ * and a pending search is dropped by the next keystroke. The delay is timed on a
+ * background thread, while the search itself is run on the user interface thread.
+ */
+public class SearchDebouncer {
+
+    /* The delay in milliseconds after the last keystroke before searching. */
+    public static final long DELAY = 250;
+
+    /* The timer of every search field, running on a single background thread. */
+    private static final Timer sTimer = new Timer("search-debouncer", true);
+
+    /* Searches with the current text of the search field. */
+    private final Runnable mSearch;
+
+    /* The search waiting for the delay to pass, or null. */
+    private TimerTask mPendingSearch;
+
+    /**
+     * Start searching as the user types within a search field.
+     *
+     * @param searchField
+     *        The search field.
+     * @param search
+     *        Searches with the current text of the search field. Called from the user
+     *        interface thread.
+     */
+    public SearchDebouncer(TextInputControl searchField, Runnable search) {
+        mSearch = search;
+
+        // Only the text typed by the user is searched, not the text cleared by the
+        // controllers when their scenes are reset.
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (searchField.isFocused())
+                schedule();
+        });
+    }
+
+    /**
+     * Drop the pending search, such as when the search is run at once by the Enter key.
+     */
+    public void cancel() {
+        if (mPendingSearch != null) {
+            mPendingSearch.cancel();
+            mPendingSearch = null;
+        }
+    }
+
+    /**
+     * Replace the pending search by a search run after the delay.
+     */
+    private void schedule() {
+        cancel();
+
+        mPendingSearch = new TimerTask() {
+            @Override
+            public void run() {
+                Platform.runLater(() -> {
+                    // The search might have been replaced while waiting for the user
+                    // interface thread.
+                    if (mPendingSearch != this)
+                        return;
+
+                    mPendingSearch = null;
+                    mSearch.run();
+                });
+            }
+        };
+
+        sTimer.schedule(mPendingSearch, DELAY);
+    }
+}
@@ -0,0 +1,305 @@
+package javah.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A compact store of many short strings, such as the names of the residents, packed
+ * one after another within a single byte array instead of being held as separate
+ * string objects. Each string is referred to by the offset of its bytes within the
+ * array, which is a plain int.
+ *
+ * A string is stored as its length followed by its bytes. The strings made only of
+ * Latin-1 characters, which are most of the names, take a byte per character, while
+ * the other strings are stored as UTF-8. The length is stored in a variable number of
+ * bytes, so a short string takes a single byte more.
+ *
+ * The strings are never moved, thus a removed string leaves its bytes unused until
+ * the owner of the references copies the strings still in use into a new arena.
+ * Likewise, the bytes of a string are never overwritten, thus a frozen copy of the
+ * arena shares its bytes with the arena and can be read from any thread while the
+ * arena keeps growing.
+ *
+ * @see #isWasteful()
+ * @see #freeze()
+ */
+public class StringArena {
+
+    /* The initial capacity of an arena in bytes. */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /* The bytes of the strings. */
+    private byte[] mBytes;
+
+    /* The number of bytes used, including the bytes of the removed strings. */
+    private int mSize;
+
+    /* The number of bytes of the removed strings. */
+    private int mRemovedSize;
+
+    /* Determines whether the arena is a read-only copy of another arena. */
+    private final boolean mIsFrozen;
+
+    public StringArena() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty arena.
+     *
+     * @param capacity
+     *        The initial capacity in bytes, grown as needed.
+     */
+    public StringArena(int capacity) {
+        mBytes = new byte[Math.max(capacity, 16)];
+        mIsFrozen = false;
+    }
+
+    private StringArena(StringArena arena) {
+        mBytes = arena.mBytes;
+        mSize = arena.mSize;
+        mRemovedSize = arena.mRemovedSize;
+        mIsFrozen = true;
+    }
+
+    /**
+     * Create a read-only copy of the arena, holding the strings stored so far. The copy
+     * shares the bytes of the arena instead of copying them, since the bytes of the
+     * stored strings are never overwritten.
+     *
+     * @return the read-only copy.
+     */
+    public StringArena freeze() {
+        return mIsFrozen ? this : new StringArena(this);
+    }
+
+    /**
+     * Store a string.
+     *
+     * @param string
+     *        The string to be stored.
+     *
+     * @return the reference of the stored string.
+     */
+    public int add(String string) {
+        boolean isLatin1 = true;
+
+        for (int i = 0; i < string.length() && isLatin1; i++)
+            isLatin1 = string.charAt(i) <= 0xFF;
+
+        byte[] bytes = string.getBytes(isLatin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+
+        return append(bytes, 0, bytes.length, isLatin1);
+    }
+
+    /**
+     * Copy a string of another arena into this arena. Used to compact an arena.
+     *
+     * @param arena
+     *        The arena of the string.
+     * @param reference
+     *        The reference of the string within the other arena.
+     *
+     * @return the reference of the string within this arena.
+     */
+    public int add(StringArena arena, int reference) {
+        int header = arena.readHeader(reference);
+
+        return append(arena.mBytes, arena.skipHeader(reference), header >>> 1, (header & 1) == 0);
+    }
+
+    /**
+     * Fetch a string.
+     *
+     * @param reference
+     *        The reference of the string.
+     *
+     * @return the string.
+     */
+    public String get(int reference) {
+        int header = readHeader(reference);
+
+        return new String(mBytes, skipHeader(reference), header >>> 1,
+                (header & 1) == 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Determine whether a stored string equals a string, without decoding the stored
+     * string if it is Latin-1.
+     *
+     * @param reference
+     *        The reference of the stored string.
+     * @param string
+     *        The string to compare with.
+     *
+     * @return true if the strings are equal.
+     */
+    public boolean equals(int reference, String string) {
+        int header = readHeader(reference);
+
+        if ((header & 1) != 0)
+            return get(reference).equals(string);
+
+        int length = header >>> 1;
+
+        if (length != string.length())
+            return false;
+
+        int offset = skipHeader(reference);
+
+        for (int i = 0; i < length; i++)
+            if ((char) (mBytes[offset + i] & 0xFF) != string.charAt(i))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Compare two stored strings, ignoring their cases, in the same order as
+     * String.CASE_INSENSITIVE_ORDER. The Latin-1 strings are compared without being
+     * decoded, since the comparison runs many times on every sort.
+     *
+     * @param reference1
+     *        The reference of the first string.
+     * @param reference2
+     *        The reference of the second string.
+     *
+     * @return a negative integer, zero, or a positive integer as the first string is
+     *         less than, equal to, or greater than the second string.
+     */
+    public int compareIgnoreCase(int reference1, int reference2) {
+        int header1 = readHeader(reference1);
+        int header2 = readHeader(reference2);
+
+        if (((header1 | header2) & 1) != 0)
+            return String.CASE_INSENSITIVE_ORDER.compare(get(reference1), get(reference2));
+
+        int length1 = header1 >>> 1, length2 = header2 >>> 1;
+        int offset1 = skipHeader(reference1), offset2 = skipHeader(reference2);
+
+        for (int i = 0, length = Math.min(length1, length2); i < length; i++) {
+            char char1 = (char) (mBytes[offset1 + i] & 0xFF);
+            char char2 = (char) (mBytes[offset2 + i] & 0xFF);
+
+            if (char1 != char2) {
+                char1 = Character.toUpperCase(char1);
+                char2 = Character.toUpperCase(char2);
+
+                if (char1 != char2) {
+                    char1 = Character.toLowerCase(char1);
+                    char2 = Character.toLowerCase(char2);
+
+                    if (char1 != char2)
+                        return char1 - char2;
+                }
+            }
+        }
+
+        return length1 - length2;
+    }
+
+    /**
+     * Mark a string as no longer used. Its bytes are reclaimed when the arena is
+     * compacted.
+     *
+     * @param reference
+     *        The reference of the string.
+     */
+    public void remove(int reference) {
+        if (mIsFrozen)
+            throw new UnsupportedOperationException("A frozen arena is read-only.");
+
+        mRemovedSize += skipHeader(reference) - reference + (readHeader(reference) >>> 1);
+    }
+
+    /**
+     * Fetch the number of bytes used, including the bytes of the removed strings.
+     *
+     * @return the number of bytes used.
+     */
+    public int getSize() {
+        return mSize;
+    }
+
+    /**
+     * Fetch the number of bytes allocated, used or not.
+     *
+     * @return the length of the byte array of the arena.
+     */
+    public int getCapacity() {
+        return mBytes.length;
+    }
+
+    /**
+     * Fetch the number of bytes still used by the strings which are not removed.
+     *
+     * @return the number of bytes in use.
+     */
+    public int getLiveSize() {
+        return mSize - mRemovedSize;
+    }
+
+    /**
+     * Determine whether the removed strings take more than half of the arena, meaning
+     * that the arena should be compacted.
+     *
+     * @return true if the arena should be compacted.
+     */
+    public boolean isWasteful() {
+        return mRemovedSize > DEFAULT_CAPACITY && mRemovedSize > mSize / 2;
+    }
+
+    private int append(byte[] bytes, int offset, int length, boolean isLatin1) {
+        if (mIsFrozen)
+            throw new UnsupportedOperationException("A frozen arena is read-only.");
+
+        ensureCapacity(mSize + 5 + length);
+
+        int reference = mSize;
+        int header = length << 1 | (isLatin1 ? 0 : 1);
+
+        // Store the header 7 bits at a time, the lowest bits first.
+        while ((header & ~0x7F) != 0) {
+            mBytes[mSize++] = (byte) (header & 0x7F | 0x80);
+            header >>>= 7;
+        }
+
+        mBytes[mSize++] = (byte) header;
+
+        System.arraycopy(bytes, offset, mBytes, mSize, length);
+        mSize += length;
+
+        return reference;
+    }
+
+    /**
+     * @return the header of a string, holding its length in bytes shifted left by one,
+     *         and a set lowest bit if the string is UTF-8.
+     */
+    private int readHeader(int reference) {
+        int header = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            byte b = mBytes[reference++];
+            header |= (b & 0x7F) << shift;
+
+            if (b >= 0)
+                return header;
+        }
+    }
+
+    /**
+     * @return the offset of the bytes of a string.
+     */
+    private int skipHeader(int reference) {
+        while (mBytes[reference] < 0)
+            reference++;
+
+        return reference + 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mBytes.length)
+            mBytes = Arrays.copyOf(mBytes, Math.max(capacity, mBytes.length * 2));
+    }
+}
@@ -0,0 +1,442 @@
+package javah.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An inverted index of the words of a number of texts, such as the names of the
+ * residents, each text identified by an int code. The words are lower cased and
+ * kept sorted within a tree, each with the list of the codes of the texts holding
+ * it (its posting list). Thus, finding the texts holding a word starting with a
+ * keyword only visits the words within the range of the keyword and their posting
+ * lists, instead of every text.
+ *
+ * A word is a run of letters or digits, thus a name such as "Dela Cruz, Juan A."
+ * holds the words "dela", "cruz", "juan" and "a". Adding, replacing or removing a
+ * text takes a logarithmic time on the number of distinct words per word of the
+ * text, plus the length of the posting lists of its words.
+ *
+ * The texts can also be searched with typos. Since the words are sorted, the tree is
+ * walked as a trie of the words, one character per level, carrying a row of the
+ * Levenshtein distances between the keyword and the characters walked so far. A
+ * branch is left as soon as every distance of its row exceeds the allowed distance,
+ * so only the few branches close to the keyword are walked. A keyword typed without
+ * its space, such as "delacruz", is matched to two words of a text by walking the
+ * trie again from its root at the end of the first word.
+ *
+ * The words are also grouped by their phonetic keys within a hash table, so that the
+ * spelling variants of a word (e.g. "Gonzales" and "Gonzalez") are found by a single
+ * lookup of the key of the keyword. Only the distinct words are grouped, thus the
+ * table grows with the words rather than with the texts.
+ *
+ * @see IDCodec
+ * @see PhoneticCodec
+ */
+public class TokenIndex {
+
+    /* The posting lists of the words, sorted by the words. */
+    private final TreeMap<String, Postings> mPostings = new TreeMap<>();
+
+    /* The distinct words of each text, by the codes of the texts. */
+    private final IntObjectMap<String[]> mTokens = new IntObjectMap<>();
+
+    /* The words sounding alike, by their phonetic keys. */
+    private final HashMap<String, List<String>> mSounds = new HashMap<>();
+
+    /* The total number of codes within the posting lists. */
+    private int mPostingCount;
+
+    /* The shortest word a keyword typed without its space is split into. */
+    private static final int MIN_SPLIT_LENGTH = 2;
+
+    /**
+     * Add a text, or replace it if a text with the same code is already indexed.
+     *
+     * @param code
+     *        The code of the text.
+     * @param text
+     *        The text, which may be null.
+     */
+    public void put(int code, String text) {
+        remove(code);
+
+        List<String> tokens = tokenize(text);
+
+        if (tokens.isEmpty())
+            return;
+
+        String[] indexedTokens = new String[tokens.size()];
+
+        for (int i = 0; i < indexedTokens.length; i++) {
+            String token = tokens.get(i);
+            Map.Entry<String, Postings> entry = mPostings.floorEntry(token);
+            Postings postings;
+
+            // Share the word with the key of the tree instead of holding a copy per text.
+            if (entry != null && entry.getKey().equals(token)) {
+                token = entry.getKey();
+                postings = entry.getValue();
+            } else {
+                postings = new Postings();
+                mPostings.put(token, postings);
+                addSound(token);
+            }
+
+            postings.add(code);
+            indexedTokens[i] = token;
+        }
+
+        mTokens.put(code, indexedTokens);
+        mPostingCount += indexedTokens.length;
+    }
+
+    /**
+     * Remove a text.
+     *
+     * @param code
+     *        The code of the text.
+     *
+     * @return true if the text was indexed.
+     */
+    public boolean remove(int code) {
+        String[] tokens = mTokens.remove(code);
+
+        if (tokens == null)
+            return false;
+
+        for (String token : tokens) {
+            Postings postings = mPostings.get(token);
+            postings.remove(code);
+
+            if (postings.mSize == 0) {
+                mPostings.remove(token);
+                removeSound(token);
+            }
+        }
+
+        mPostingCount -= tokens.length;
+        return true;
+    }
+
+    /**
+     * Remove every text.
+     */
+    public void clear() {
+        mPostings.clear();
+        mTokens.clear();
+        mSounds.clear();
+        mPostingCount = 0;
+    }
+
+    /**
+     * Find the texts holding a word starting with any of the keywords. A keyword made
+     * of several words, such as "dela-cruz", counts as a keyword per word.
+     *
+     * If fuzzy, a keyword also matches a word whose start is within a few typos of the
+     * keyword (see getMaxDistance), or a word sounding like the keyword (see
+     * PhoneticCodec). The spaces between the words are ignored, so that "dela crus" and
+     * "delacruz" both match the texts holding "Dela Cruz" or "Delacruz".
+     *
+     * @param keywords
+     *        The keywords, in any case.
+     * @param isFuzzy
+     *        Determines whether typos are allowed.
+     *
+     * @return the matches of the texts holding a word starting with a keyword, by the
+     *         codes of the texts. Each match is an array of the code of the text, the
+     *         number of keywords it matches, and the last keyword it matched.
+     */
+    public IntObjectMap<int[]> search(String[] keywords, boolean isFuzzy) {
+        IntObjectMap<int[]> matches = new IntObjectMap<>();
+        List<String> tokens = new ArrayList<>();
+
+        for (String keyword : keywords)
+            for (String token : tokenize(keyword))
+                if (!tokens.contains(token))
+                    tokens.add(token);
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+
+            if (!isFuzzy) {
+                // Every word starting with the keyword sorts between the keyword and the
+                // keyword followed by the greatest character.
+                for (Postings postings : mPostings.subMap(token, true, token + Character.MAX_VALUE, false).values())
+                    addMatches(postings, null, i, matches);
+
+                continue;
+            }
+
+            searchFuzzy(token, true, i, matches);
+
+            // A keyword followed by the next keyword may be a single word of the text.
+            // (e.g. "dela cruz" for "Delacruz") The joined keywords are not split again,
+            // since each of them is already matched on its own.
+            if (i > 0)
+                searchFuzzy(tokens.get(i - 1) + token, false, i, matches);
+
+            if (i < tokens.size() - 1)
+                searchFuzzy(token + tokens.get(i + 1), false, i, matches);
+        }
+
+        return matches;
+    }
+
+    /**
+     * Add the texts holding a word sounding like a keyword or starting within the
+     * allowed distance of the keyword, or a word followed by such a word, to the matches.
+     *
+     * @param keyword
+     *        The lower cased keyword.
+     * @param canSplit
+     *        Determines whether the keyword may be matched to two words.
+     * @param keywordIndex
+     *        The index of the keyword, counted once per text.
+     * @param matches
+     *        The matches of the texts, by the codes of the texts.
+     */
+    private void searchFuzzy(String keyword, boolean canSplit, int keywordIndex, IntObjectMap<int[]> matches) {
+        String sound = PhoneticCodec.encode(keyword);
+        List<String> words = sound != null ? mSounds.get(sound) : null;
+
+        if (words != null)
+            for (String word : words)
+                addMatches(mPostings.get(word), null, keywordIndex, matches);
+
+        // The distances between the keyword and the empty start of a word.
+        int[] row = new int[keyword.length() + 1];
+
+        for (int j = 0; j < row.length; j++)
+            row[j] = j;
+
+        walk("", row, keyword, getMaxDistance(keyword.length()), !canSplit, null, keywordIndex, matches);
+    }
+
+    /**
+     * Walk the words starting with a prefix as a node of the trie of the words.
+     *
+     * @param prefix
+     *        The characters walked from the root.
+     * @param row
+     *        The Levenshtein distances between each start of the keyword and the prefix.
+     * @param keyword
+     *        The lower cased keyword.
+     * @param maxDistance
+     *        The allowed distance between the keyword and a start of a word.
+     * @param isSplit
+     *        Determines whether the keyword was already split, or may not be split.
+     * @param firstWord
+     *        The word matched to the start of the keyword when walking from the root
+     *        again, or null.
+     * @param keywordIndex
+     *        The index of the keyword, counted once per text.
+     * @param matches
+     *        The matches of the texts, by the codes of the texts.
+     */
+    private void walk(String prefix, int[] row, String keyword, int maxDistance, boolean isSplit,
+                      String firstWord, int keywordIndex, IntObjectMap<int[]> matches) {
+        int keywordLength = keyword.length();
+
+        // The keyword matches the prefix, thus every word starting with the prefix.
+        if (row[keywordLength] <= maxDistance) {
+            for (Postings postings : mPostings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values())
+                addMatches(postings, firstWord, keywordIndex, matches);
+
+            return;
+        }
+
+        int minDistance = row[0];
+
+        for (int distance : row)
+            minDistance = Math.min(minDistance, distance);
+
+        // No word starting with the prefix is within the allowed distance.
+        if (minDistance > maxDistance)
+            return;
+
+        // The rest of the keyword may be the start of another word of the text.
+        if (!isSplit && prefix.length() >= MIN_SPLIT_LENGTH && mPostings.containsKey(prefix))
+            walk("", row, keyword, maxDistance, true, prefix, keywordIndex, matches);
+
+        // Each child of the node is the next character of the words following the prefix.
+        String key = mPostings.higherKey(prefix);
+
+        while (key != null && key.startsWith(prefix)) {
+            char character = key.charAt(prefix.length());
+            int[] childRow = new int[row.length];
+            childRow[0] = row[0] + 1;
+
+            for (int j = 1; j <= keywordLength; j++)
+                childRow[j] = Math.min(Math.min(row[j], childRow[j - 1]) + 1,
+                        row[j - 1] + (keyword.charAt(j - 1) == character ? 0 : 1));
+
+            walk(prefix + character, childRow, keyword, maxDistance, isSplit, firstWord, keywordIndex, matches);
+
+            if (character == Character.MAX_VALUE)
+                break;
+
+            key = mPostings.ceilingKey(prefix + (char) (character + 1));
+        }
+    }
+
+    /**
+     * Count the texts of a posting list as matching a keyword.
+     *
+     * @param postings
+     *        The posting list of a word.
+     * @param firstWord
+     *        The word the texts must also hold, or null.
+     * @param keywordIndex
+     *        The index of the keyword, counted once per text.
+     * @param matches
+     *        The matches of the texts, by the codes of the texts.
+     */
+    private void addMatches(Postings postings, String firstWord, int keywordIndex, IntObjectMap<int[]> matches) {
+        for (int j = 0; j < postings.mSize; j++) {
+            int code = postings.mCodes[j];
+
+            if (firstWord != null && !Arrays.asList(mTokens.get(code)).contains(firstWord))
+                continue;
+
+            int[] match = matches.get(code);
+
+            // The last keyword matched is kept so that a keyword matching several
+            // words of a text is counted once.
+            if (match == null)
+                matches.put(code, new int[] {code, 1, keywordIndex});
+            else if (match[2] != keywordIndex) {
+                match[1]++;
+                match[2] = keywordIndex;
+            }
+        }
+    }
+
+    /**
+     * Fetch the number of typos allowed within a keyword, which grows with the length
+     * of the keyword so that a short keyword does not match most words.
+     *
+     * @param length
+     *        The length of the keyword.
+     *
+     * @return the allowed Levenshtein distance.
+     */
+    static int getMaxDistance(int length) {
+        return length < 4 ? 0 : length < 7 ? 1 : 2;
+    }
+
+    /**
+     * Group a new word with the words sounding alike.
+     */
+    private void addSound(String token) {
+        String sound = PhoneticCodec.encode(token);
+
+        if (sound != null)
+            mSounds.computeIfAbsent(sound, key -> new ArrayList<>(1)).add(token);
+    }
+
+    /**
+     * Remove a word no longer indexed from the words sounding alike.
+     */
+    private void removeSound(String token) {
+        String sound = PhoneticCodec.encode(token);
+        List<String> words = sound != null ? mSounds.get(sound) : null;
+
+        if (words != null && words.remove(token) && words.isEmpty())
+            mSounds.remove(sound);
+    }
+
+    /**
+     * Fetch the number of distinct words indexed.
+     *
+     * @return the number of words.
+     */
+    public int getTokenCount() {
+        return mPostings.size();
+    }
+
+    /**
+     * Fetch the number of codes within the posting lists, that is the sum of the number
+     * of distinct words of each text.
+     *
+     * @return the number of postings.
+     */
+    public int getPostingCount() {
+        return mPostingCount;
+    }
+
+    /**
+     * Fetch the number of distinct phonetic keys of the words.
+     *
+     * @return the number of keys.
+     */
+    public int getSoundCount() {
+        return mSounds.size();
+    }
+
+    /**
+     * Split a text into its distinct words, lower cased.
+     *
+     * @param text
+     *        The text, which may be null.
+     *
+     * @return the distinct words of the text, in their order within the text.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>(4);
+
+        if (text == null)
+            return tokens;
+
+        text = text.toLowerCase();
+        int start = -1;
+
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+
+            if (isWordCharacter && start == -1)
+                start = i;
+            else if (!isWordCharacter && start != -1) {
+                String token = text.substring(start, i);
+
+                if (!tokens.contains(token))
+                    tokens.add(token);
+
+                start = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * The codes of the texts holding a word, in no particular order.
+     */
+    private static class Postings {
+
+        private int[] mCodes = new int[2];
+
+        private int mSize;
+
+        void add(int code) {
+            if (mSize == mCodes.length)
+                mCodes = Arrays.copyOf(mCodes, mSize * 2);
+
+            mCodes[mSize++] = code;
+        }
+
+        /**
+         * Remove a code by moving the last code into its place.
+         */
+        void remove(int code) {
+            for (int i = 0; i < mSize; i++)
+                if (mCodes[i] == code) {
+                    mCodes[i] = mCodes[--mSize];
+                    return;
+                }
+        }
+    }
+}
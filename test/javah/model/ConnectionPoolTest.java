@@ -0,0 +1,296 @@
+package javah.model;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The tests of the connection pool, run against a stub data source whose connections
+ * only record how the pool used them. Covers the borrowing and returning of the
+ * connections, the borrow timeout, the leak detection and the eviction of the idle
+ * connections.
+ *
+ * Run with: java javah.model.ConnectionPoolTest
+ */
+public class ConnectionPoolTest {
+
+    public static void main(String[] args) throws Exception {
+        testBorrowAndReturn();
+        testTransactionRolledBackOnReturn();
+        testStatementCache();
+        testInvalidConnectionDiscarded();
+        testBorrowTimeout();
+        testLeakDetection();
+        testIdleEviction();
+
+        System.out.println("ConnectionPoolTest: all tests passed.");
+    }
+
+    private static void testBorrowAndReturn() throws SQLException {
+        StubDataSource dataSource = new StubDataSource();
+        ConnectionPool pool = new ConnectionPool(dataSource.mProxy, 0, 2, 60_000, 1000, 60_000, 4);
+
+        Connection connection = pool.getConnection();
+        check(pool.getActiveCount() == 1 && pool.getIdleCount() == 0, "The borrowed connection is active.");
+
+        connection.close();
+        check(pool.getActiveCount() == 0 && pool.getIdleCount() == 1, "The returned connection is idle.");
+        check(connection.isClosed(), "The returned connection is closed to the borrower.");
+        check(!dataSource.mConnections.get(0).mIsClosed, "The physical connection stays open.");
+
+        try {
+            connection.prepareStatement("SELECT 1");
+            fail("A returned connection cannot be used.");
+        } catch (SQLException e) {
+            // Expected.
+        }
+
+        Connection reborrowed = pool.getConnection();
+        check(dataSource.mConnections.size() == 1, "The idle connection is reused.");
+        check(reborrowed != connection, "Every borrow receives a new handle.");
+
+        reborrowed.close();
+        pool.close();
+        check(dataSource.mConnections.get(0).mIsClosed, "Closing the pool closes the idle connections.");
+    }
+
+    private static void testTransactionRolledBackOnReturn() throws SQLException {
+        StubDataSource dataSource = new StubDataSource();
+        ConnectionPool pool = new ConnectionPool(dataSource.mProxy, 0, 1, 60_000, 1000, 60_000, 4);
+
+        Connection connection = pool.getConnection();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        StubConnection stub = dataSource.mConnections.get(0);
+        check(stub.mRollbackCount == 1, "An open transaction is rolled back on return.");
+        check(stub.mAutoCommit, "The auto commit is restored on return.");
+
+        pool.close();
+    }
+
+    private static void testStatementCache() throws SQLException {
+        StubDataSource dataSource = new StubDataSource();
+        ConnectionPool pool = new ConnectionPool(dataSource.mProxy, 0, 1, 60_000, 1000, 60_000, 4);
+
+        for (int i = 0; i < 3; i++)
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT ?")) {
+                statement.setInt(1, i);
+            }
+
+        check(dataSource.mConnections.get(0).mPreparedCount == 1, "The statement is prepared once.");
+        check(pool.getStatementCacheHitCount() == 2 && pool.getStatementCacheMissCount() == 1,
+                "The statement is reused from the cache.");
+
+        pool.close();
+    }
+
+    private static void testInvalidConnectionDiscarded() throws SQLException {
+        StubDataSource dataSource = new StubDataSource();
+        ConnectionPool pool = new ConnectionPool(dataSource.mProxy, 0, 1, 60_000, 1000, 60_000, 4);
+
+        pool.getConnection().close();
+        dataSource.mConnections.get(0).mIsValid = false;
+
+        pool.getConnection().close();
+        check(dataSource.mConnections.size() == 2, "A connection that no longer responds is replaced.");
+        check(dataSource.mConnections.get(0).mIsClosed, "A connection that no longer responds is closed.");
+
+        pool.close();
+    }
+
+    private static void testBorrowTimeout() throws SQLException {
+        StubDataSource dataSource = new StubDataSource();
+        ConnectionPool pool = new ConnectionPool(dataSource.mProxy, 0, 1, 60_000, 100, 60_000, 4);
+
+        Connection connection = pool.getConnection();
+        long startTime = System.currentTimeMillis();
+
+        try {
+            pool.getConnection();
+            fail("Borrowing beyond the maximum size times out.");
+        } catch (SQLException e) {
+            check(System.currentTimeMillis() - startTime >= 100, "The borrow waits for the timeout.");
+        }
+
+        check(pool.getActiveCount() == 1, "A timed out borrow does not count as active.");
+
+        // The permit of the timed out borrow is not lost.
+        connection.close();
+        pool.getConnection().close();
+
+        pool.close();
+    }
+
+    private static void testLeakDetection() throws Exception {
+        StubDataSource dataSource = new StubDataSource();
+        ConnectionPool pool = new ConnectionPool(dataSource.mProxy, 0, 2, 60_000, 1000, 10, 4);
+
+        Connection leaked = pool.getConnection();
+        Connection returned = pool.getConnection();
+        returned.close();
+
+        Thread.sleep(20);
+        pool.detectLeaks();
+        check(pool.getLeakCount() == 1, "The connection borrowed beyond the threshold is reported.");
+
+        pool.detectLeaks();
+        check(pool.getLeakCount() == 1, "A leaked connection is reported once.");
+
+        leaked.close();
+        pool.close();
+    }
+
+    private static void testIdleEviction() throws Exception {
+        StubDataSource dataSource = new StubDataSource();
+        ConnectionPool pool = new ConnectionPool(dataSource.mProxy, 1, 3, 10, 1000, 60_000, 4);
+
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            connections.add(pool.getConnection());
+
+        for (Connection connection : connections)
+            connection.close();
+
+        check(pool.getIdleCount() == 3, "Every returned connection is idle.");
+
+        Thread.sleep(20);
+        pool.evictIdleConnections();
+
+        int closedCount = 0;
+        for (StubConnection stub : dataSource.mConnections)
+            if (stub.mIsClosed)
+                closedCount++;
+
+        check(pool.getIdleCount() == 1, "The idle connections are evicted down to the minimum size.");
+        check(closedCount == 2, "The evicted connections are closed.");
+
+        pool.getConnection().close();
+        check(dataSource.mConnections.size() == 3, "The connection kept idle is reused.");
+
+        pool.close();
+
+        // An empty pool is refilled up to the minimum size.
+        ConnectionPool emptyPool = new ConnectionPool(dataSource.mProxy, 2, 3, 10, 1000, 60_000, 4);
+        emptyPool.evictIdleConnections();
+        check(emptyPool.getIdleCount() == 2, "The pool opens connections up to the minimum size.");
+
+        emptyPool.close();
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition)
+            fail(description);
+    }
+
+    private static void fail(String description) {
+        throw new AssertionError(description);
+    }
+
+    /**
+     * A data source opening stub connections, which keeps every connection it opened.
+     */
+    private static class StubDataSource implements InvocationHandler {
+
+        private final List<StubConnection> mConnections = new ArrayList<>();
+
+        private final DataSource mProxy = (DataSource) Proxy.newProxyInstance(
+                DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class}, this);
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (!method.getName().equals("getConnection"))
+                throw new UnsupportedOperationException(method.getName());
+
+            StubConnection connection = new StubConnection();
+            mConnections.add(connection);
+
+            return connection.mProxy;
+        }
+    }
+
+    /**
+     * A connection that records how it is used. Its statements do nothing.
+     */
+    private static class StubConnection implements InvocationHandler {
+
+        private volatile boolean mIsClosed;
+
+        private volatile boolean mIsValid = true;
+
+        private boolean mAutoCommit = true;
+
+        private int mRollbackCount;
+
+        private int mPreparedCount;
+
+        private final Connection mProxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            switch (method.getName()) {
+                case "close":
+                    mIsClosed = true;
+                    return null;
+
+                case "isClosed":
+                    return mIsClosed;
+
+                case "isValid":
+                    return mIsValid && !mIsClosed;
+
+                case "getAutoCommit":
+                    return mAutoCommit;
+
+                case "setAutoCommit":
+                    mAutoCommit = (Boolean) args[0];
+                    return null;
+
+                case "rollback":
+                    mRollbackCount++;
+                    return null;
+
+                case "prepareStatement":
+                    if (mIsClosed)
+                        throw new SQLException("Connection is closed.");
+
+                    mPreparedCount++;
+                    return createStatement();
+
+                case "toString":
+                    return "StubConnection";
+            }
+
+            throw new UnsupportedOperationException(method.getName());
+        }
+
+        private PreparedStatement createStatement() {
+            boolean[] isClosed = {false};
+
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                isClosed[0] = true;
+                                return null;
+
+                            case "isClosed":
+                                return isClosed[0];
+
+                            case "toString":
+                                return "StubStatement";
+                        }
+
+                        return null;
+                    });
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package javah.util;
+
+import javah.model.AsyncDatabaseModel;
+import javah.model.ConnectionPool;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A benchmark comparing the platform thread pool against the virtual threads under a
+ * simulated burst of concurrent lookups. Each lookup blocks for the latency of a round
+ * trip to the database. The burst is run twice: once with every lookup blocking
+ * independently, like the reading of the photos, and once with the lookups bounded by
+ * the connections of the pool, like the database queries.
+ *
+ * Run with: java javah.util.ExecutorBenchmark [lookups] [latency in ms] [rounds]
+ * The virtual threads are only measured on the JDKs supporting them.
+ *
+ * A development tool, kept within the test sources so that it is not shipped with
+ * the application.
+ */
+public class ExecutorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.printf("%d concurrent lookups, %d ms each, best of %d rounds%n%n", lookups, latency, rounds);
+
+        for (boolean isConnectionBound : new boolean[]{false, true}) {
+            System.out.println(isConnectionBound ?
+                    String.format("Bounded by %d connections:", ConnectionPool.DEFAULT_MAX_SIZE) :
+                    "Unbounded:");
+
+            ExecutorService platformExecutor = IOExecutors.newPlatformThreadExecutor("benchmark-",
+                    AsyncDatabaseModel.DEFAULT_THREAD_COUNT, lookups);
+            report("platform threads (" + AsyncDatabaseModel.DEFAULT_THREAD_COUNT + ")",
+                    run(platformExecutor, lookups, latency, rounds, isConnectionBound));
+            platformExecutor.shutdownNow();
+
+            ExecutorService virtualExecutor = IOExecutors.newVirtualThreadExecutor("benchmark-");
+
+            if (virtualExecutor != null) {
+                report("virtual threads", run(virtualExecutor, lookups, latency, rounds, isConnectionBound));
+                virtualExecutor.shutdownNow();
+            } else
+                System.out.println("  virtual threads: not supported by this JDK");
+
+            System.out.println();
+        }
+    }
+
+    /**
+     * Run the burst a number of times and keep the round with the shortest total time.
+     *
+     * @return the latencies of the lookups of the best round in nanoseconds, sorted,
+     *         followed by the total time of the round.
+     */
+    private static long[] run(ExecutorService executor, int lookups, long latency, int rounds,
+                              boolean isConnectionBound) throws InterruptedException {
+        long[] best = null;
+
+        // The first round warms up the threads and is not measured.
+        for (int round = 0; round <= rounds; round++) {
+            Semaphore connections = new Semaphore(isConnectionBound ? ConnectionPool.DEFAULT_MAX_SIZE : lookups);
+            CountDownLatch finished = new CountDownLatch(lookups);
+            long[] result = new long[lookups + 1];
+            long start = System.nanoTime();
+
+            for (int i = 0; i < lookups; i++) {
+                int lookupNo = i;
+                executor.execute(() -> {
+                    try {
+                        connections.acquire();
+
+                        try {
+                            Thread.sleep(latency);
+                        } finally {
+                            connections.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    result[lookupNo] = System.nanoTime() - start;
+                    finished.countDown();
+                });
+            }
+
+            finished.await();
+            result[lookups] = System.nanoTime() - start;
+
+            if (round > 0 && (best == null || result[lookups] < best[lookups]))
+                best = result;
+        }
+
+        Arrays.sort(best, 0, lookups);
+
+        return best;
+    }
+
+    /**
+     * Print the total time, the median and the 99th percentile of a round.
+     */
+    private static void report(String name, long[] result) {
+        int lookups = result.length - 1;
+
+        System.out.printf("  %-24s total %7.1f ms, p50 %7.1f ms, p99 %7.1f ms%n", name + ":",
+                TimeUnit.NANOSECONDS.toMicros(result[lookups]) / 1000.0,
+                TimeUnit.NANOSECONDS.toMicros(result[lookups / 2]) / 1000.0,
+                TimeUnit.NANOSECONDS.toMicros(result[Math.min(lookups - 1, lookups * 99 / 100)]) / 1000.0);
+    }
+}